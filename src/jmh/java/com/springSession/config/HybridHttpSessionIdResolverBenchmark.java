@@ -0,0 +1,113 @@
+package com.springSession.config;
+
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.session.web.http.CookieHttpSessionIdResolver;
+import org.springframework.session.web.http.HttpSessionIdResolver;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     {@link SpringSessionConfig.HybridHttpSessionIdResolver} 세션 ID 조회/설정 벤치마크.
+ *
+ *     header : X-Auth-Token 헤더로 세션 ID 전달 (쿠키는 읽지 않음)
+ *     cookie : 다른 쿠키 9개와 함께 SESSION 쿠키로 세션 ID 전달 (Cookie 헤더에서 SESSION 값만 디코딩)
+ *     cookieDefault : 같은 요청을 Spring Session 기본 {@link CookieHttpSessionIdResolver}로 읽는 경우 (비교 기준)
+ *     setNewSessionId : 세션 ID 없이 요청한 클라이언트에게 새 세션 ID 전달 (헤더 + Set-Cookie)
+ *     setSessionIdOverHeader : 헤더를 사용하는 클라이언트에게 바뀐 세션 ID 전달 (헤더만)
+ *     setUnchangedSessionId : 요청한 세션 ID와 같은 세션 ID (전달하지 않음)
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HybridHttpSessionIdResolverBenchmark {
+    private static final int OTHER_COOKIE_COUNT = 9;
+
+    private HttpSessionIdResolver httpSessionIdResolver;
+    private HttpSessionIdResolver defaultCookieHttpSessionIdResolver;
+    private Cookie[] cookies;
+    private String sessionId;
+
+    @Setup
+    public void setup() {
+        this.httpSessionIdResolver = new SpringSessionConfig().httpSessionIdResolver();
+        this.defaultCookieHttpSessionIdResolver = new CookieHttpSessionIdResolver();
+        this.sessionId = UUID.randomUUID().toString();
+
+        this.cookies = new Cookie[OTHER_COOKIE_COUNT + 1];
+        for(int i = 0; i < OTHER_COOKIE_COUNT; i++) {
+            this.cookies[i] = new Cookie("cookie" + i, UUID.randomUUID().toString());
+        }
+        this.cookies[OTHER_COOKIE_COUNT] = new Cookie("SESSION", Base64.getEncoder().encodeToString(this.sessionId.getBytes()));
+    }
+
+    /*
+     * 해석 결과를 요청 속성에 보관하므로 매번 새 요청을 사용한다.
+     */
+
+    @Benchmark
+    public List<String> resolveSessionIdsFromHeader() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Auth-Token", this.sessionId);
+
+        return this.httpSessionIdResolver.resolveSessionIds(request);
+    }
+
+    @Benchmark
+    public List<String> resolveSessionIdsFromCookie() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(this.cookies);
+
+        return this.httpSessionIdResolver.resolveSessionIds(request);
+    }
+
+    @Benchmark
+    public List<String> resolveSessionIdsFromCookieDefault() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(this.cookies);
+
+        return this.defaultCookieHttpSessionIdResolver.resolveSessionIds(request);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse setNewSessionId() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        this.httpSessionIdResolver.setSessionId(request, response, this.sessionId);
+
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse setSessionIdOverHeader() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Auth-Token", "changed-" + this.sessionId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        this.httpSessionIdResolver.setSessionId(request, response, this.sessionId);
+
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse setUnchangedSessionId() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(this.cookies);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        this.httpSessionIdResolver.setSessionId(request, response, this.sessionId);
+
+        return response;
+    }
+}
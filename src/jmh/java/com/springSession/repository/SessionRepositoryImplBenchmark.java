@@ -0,0 +1,70 @@
+package com.springSession.repository;
+
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.entity.CompositionMember;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     여러 스레드에서 동시에 가입(저장)/조회하는 경우의 {@link SessionRepositoryImpl} 처리량 벤치마크.
+ *
+ *     offHeap : 회원 값을 heap에 저장(false), 인코딩 하여 off-heap에 저장(true)
+ *     memberCount : 가입하는 회원 ID 범위. maximumSize보다 크면 제거(eviction)가 함께 발생한다.
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class SessionRepositoryImplBenchmark {
+    private static final long MAXIMUM_SIZE = 100_000;
+
+    @Param({"false", "true"})
+    public boolean offHeap;
+
+    @Param({"10000", "1000000"})
+    public int memberCount;
+
+    private SessionRepositoryImpl<CompositionMember> sessionRepositoryImpl;
+    private CompositionMember[] members;
+
+    @Setup
+    public void setup() {
+        CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+                .register(1, CompositionMember.class);
+
+        this.sessionRepositoryImpl = this.offHeap
+                ? new SessionRepositoryImpl<>(CompositionMember::id
+                        , MAXIMUM_SIZE
+                        , compactAttributeCodec::encode
+                        , bytes -> (CompositionMember) compactAttributeCodec.decode(bytes))
+                : new SessionRepositoryImpl<>(CompositionMember::id, MAXIMUM_SIZE);
+
+        this.members = new CompositionMember[this.memberCount];
+        for(int i = 0; i < this.memberCount; i++) {
+            this.members[i] = new CompositionMember("member-" + i, "password!", "01012341234");
+            this.sessionRepositoryImpl.save(this.members[i]);
+        }
+    }
+
+    @Benchmark
+    public void join() {
+        this.sessionRepositoryImpl.save(this.members[ThreadLocalRandom.current().nextInt(this.memberCount)]);
+    }
+
+    @Benchmark
+    public CompositionMember findById() {
+        return this.sessionRepositoryImpl.findById(this.members[ThreadLocalRandom.current().nextInt(this.memberCount)].id());
+    }
+}
@@ -0,0 +1,45 @@
+package com.springSession.session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.session.SessionIdGenerator;
+import org.springframework.session.UuidSessionIdGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     모든 코어에서 동시에 세션 ID를 생성하는 경우의 처리량 벤치마크.
+ *
+ *     generator : compact({@link CompactSessionIdGenerator}), uuid({@link UuidSessionIdGenerator}, 공유 SecureRandom)
+ *     스레드 수는 @Threads(MAX)로 사용 가능한 전체 코어 수를 사용한다.
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class CompactSessionIdGeneratorBenchmark {
+
+    @Param({"compact", "uuid"})
+    public String generator;
+
+    private SessionIdGenerator sessionIdGenerator;
+
+    @Setup
+    public void setup() {
+        this.sessionIdGenerator = "uuid".equals(this.generator) ? UuidSessionIdGenerator.getInstance() : new CompactSessionIdGenerator();
+    }
+
+    @Benchmark
+    public String generate() {
+        return this.sessionIdGenerator.generate();
+    }
+}
@@ -0,0 +1,116 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.entity.CompositionMember;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     세션 문서 변환과 {@link MongoSession} 생성/속성 접근 벤치마크.
+ *
+ *     codec      : compact({@link CompactAttributeCodec}), jdk(JDK 직렬화)
+ *     serialize  : 세션 -> 저장 문서 (속성 직렬화 포함)
+ *     deserialize: 저장 문서 -> 세션 (속성은 지연 역직렬화 하므로 문서 변환만)
+ *     deserializeAndRead : 저장 문서 -> 세션 -> 전체 속성 조회 (역직렬화 포함)
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MongoSessionBenchmark {
+    private static final Duration MAX_INACTIVE_INTERVAL = Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+
+    @Param({"compact", "jdk"})
+    public String codec;
+
+    private PerAttributeMongoSessionConverter mongoSessionConverter;
+    private MongoSession session;
+    private Document sessionDocument;
+
+    @Setup
+    public void setup() {
+        CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+                .register(1, CompositionMember.class);
+
+        this.mongoSessionConverter = "jdk".equals(this.codec)
+                ? new PerAttributeMongoSessionConverter(MAX_INACTIVE_INTERVAL)
+                : new PerAttributeMongoSessionConverter(compactAttributeCodec::encode, compactAttributeCodec::decode, MAX_INACTIVE_INTERVAL);
+
+        this.session = newSession();
+        this.sessionDocument = toDocument(this.mongoSessionConverter.convert(this.session));
+    }
+
+    @Benchmark
+    public DBObject serialize() {
+        return this.mongoSessionConverter.convert(this.session);
+    }
+
+    @Benchmark
+    public MongoSession deserialize() {
+        return this.mongoSessionConverter.convert(this.sessionDocument);
+    }
+
+    @Benchmark
+    public void deserializeAndRead(Blackhole blackhole) {
+        MongoSession session = this.mongoSessionConverter.convert(this.sessionDocument);
+        for(String attributeName : session.getAttributeNames()) {
+            blackhole.consume(session.getAttribute(attributeName));
+        }
+    }
+
+    @Benchmark
+    public MongoSession createSession() {
+        return newSession();
+    }
+
+    @Benchmark
+    public Object attributeAccess() {
+        this.session.setAttribute("phoneNumber", "01012341234");
+
+        return this.session.getAttribute("id");
+    }
+
+    /**
+     * <pre>
+     *     CompositionSessionControllerV1Impl#join과 같은 속성 구성의 세션.
+     * </pre>
+     */
+    private static MongoSession newSession() {
+        MongoSession session = new MongoSession(MAX_INACTIVE_INTERVAL.getSeconds());
+        session.setAttribute("id", "sinnake");
+        session.setAttribute("password", "password!");
+        session.setAttribute("phoneNumber", "01012341234");
+        session.setAttribute("member", new CompositionMember("sinnake", "password!", "01012341234"));
+
+        return session;
+    }
+
+    /**
+     * <pre>
+     *     MongoDB에서 읽은 것과 같은 형식({@link Document})으로 변환한다.
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private static Document toDocument(DBObject dbObject) {
+        Document document = new Document(((BasicDBObject) dbObject).toMap());
+        document.put(PerAttributeMongoSessionConverter.ATTRIBUTES
+                , new Document((Map<String, Object>) ((BasicDBObject) dbObject.get(PerAttributeMongoSessionConverter.ATTRIBUTES)).toMap()));
+
+        return document;
+    }
+}
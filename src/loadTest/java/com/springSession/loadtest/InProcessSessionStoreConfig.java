@@ -0,0 +1,60 @@
+package com.springSession.loadtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.mockito.Answers;
+import org.mockito.Mockito;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.session.data.mongo.ForwardingMongoSessionRepository;
+import org.springframework.session.data.mongo.InProcessMongoSessionRepository;
+import org.springframework.session.data.mongo.MongoIndexedSessionRepository;
+import org.springframework.session.data.mongo.PerAttributeMongoSessionConverter;
+
+import java.time.Duration;
+
+/**
+ * <pre>
+ *     load.store가 in-process(기본값)인 경우 mongod 없이 부하 테스트를 실행하기 위한 설정.
+ *
+ *     세션 저장소 체인(sessionRepositoryChain)을 {@link InProcessMongoSessionRepository}로 교체한다.
+ *     MongoDB용 {@link MongoIndexedSessionRepository}는 초기화 시 인덱스를 생성하므로
+ *     세션 MongoTemplate(sessionMongoTemplate)은 아무 동작도 하지 않는 객체로 교체한다.
+ * </pre>
+ */
+@TestConfiguration
+@ConditionalOnProperty(prefix = "load", name = "store", havingValue = InProcessMongoSessionRepository.STORE_NAME, matchIfMissing = true)
+public class InProcessSessionStoreConfig {
+
+    @Bean
+    static BeanPostProcessor inProcessSessionStorePostProcessor(ObjectProvider<PerAttributeMongoSessionConverter> mongoSessionConverter
+            , ObjectProvider<MeterRegistry> meterRegistry) {
+
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if("sessionMongoTemplate".equals(beanName)) {
+                    return Mockito.mock(MongoOperations.class, Answers.RETURNS_DEEP_STUBS);
+                }
+
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if("sessionRepositoryChain".equals(beanName)) {
+                    return new ForwardingMongoSessionRepository(new InProcessMongoSessionRepository(mongoSessionConverter.getObject()
+                            , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL)
+                            , meterRegistry.getObject()));
+                }
+
+                return bean;
+            }
+        };
+    }
+}
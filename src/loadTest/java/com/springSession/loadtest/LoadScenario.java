@@ -0,0 +1,81 @@
+package com.springSession.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * <pre>
+ *     부하 테스트 시나리오. 요청마다 비율(weight)에 따라 실행할 세션 API를 선택한다.
+ *
+ *     형식 : {시나리오명}=init:{비율},join:{비율},find:{비율}
+ *     여러 시나리오는 ; 로 구분한다. (예: read-heavy=init:5,join:15,find:80;write-heavy=init:20,join:60,find:20)
+ * </pre>
+ */
+public record LoadScenario(String name, int initWeight, int joinWeight, int findWeight) {
+
+    public LoadScenario {
+        if(initWeight < 0 || joinWeight < 0 || findWeight < 0 || initWeight + joinWeight + findWeight == 0) {
+            throw new IllegalArgumentException("invalid mix for scenario " + name);
+        }
+    }
+
+    public static List<LoadScenario> parse(String scenarios) {
+        List<LoadScenario> parsed = new ArrayList<>();
+        for(String scenario : scenarios.split(";")) {
+            if(scenario.isBlank()) {
+                continue;
+            }
+
+            String[] nameAndMix = scenario.trim().split("=", 2);
+            if(nameAndMix.length != 2) {
+                throw new IllegalArgumentException("scenario must be {name}=init:{weight},join:{weight},find:{weight} : " + scenario);
+            }
+
+            int init = 0;
+            int join = 0;
+            int find = 0;
+            for(String weight : nameAndMix[1].split(",")) {
+                String[] operationAndWeight = weight.trim().split(":", 2);
+                int value = Integer.parseInt(operationAndWeight[1].trim());
+                switch(LoadOperation.of(operationAndWeight[0].trim())) {
+                    case INIT -> init = value;
+                    case JOIN -> join = value;
+                    case FIND -> find = value;
+                }
+            }
+
+            parsed.add(new LoadScenario(nameAndMix[0].trim(), init, join, find));
+        }
+
+        return parsed;
+    }
+
+    public LoadOperation next(RandomGenerator random) {
+        int value = random.nextInt(this.initWeight + this.joinWeight + this.findWeight);
+        if(value < this.initWeight) {
+            return LoadOperation.INIT;
+        }
+
+        return (value < this.initWeight + this.joinWeight) ? LoadOperation.JOIN : LoadOperation.FIND;
+    }
+
+    public String mix() {
+        return "init:" + this.initWeight + ",join:" + this.joinWeight + ",find:" + this.findWeight;
+    }
+
+    /**
+     * <pre>
+     *     init : GET /composition/v1/session/init
+     *     join : POST /composition/v1/session
+     *     find : GET /composition/v1/session (가입하지 않은 세션이면 join을 먼저 실행)
+     * </pre>
+     */
+    public enum LoadOperation {
+        INIT, JOIN, FIND;
+
+        static LoadOperation of(String name) {
+            return LoadOperation.valueOf(name.toUpperCase());
+        }
+    }
+}
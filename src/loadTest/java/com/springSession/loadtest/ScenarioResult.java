@@ -0,0 +1,51 @@
+package com.springSession.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * <pre>
+ *     시나리오 하나의 부하 테스트 결과. 지연 시간 단위는 ms.
+ *
+ *     operations      : 실제 실행한 세션 API별 요청 수
+ *     storeOperations : 세션 저장소 연산(session.store.operation operation 태그)별 실행 수
+ * </pre>
+ */
+public record ScenarioResult(String scenario
+        , String store
+        , String mix
+        , int concurrency
+        , double sessionReuseRatio
+        , int payloadSize
+        , long requests
+        , long errors
+        , double elapsedSeconds
+        , double throughput
+        , double p50
+        , double p99
+        , double p999
+        , double max
+        , Map<String, Long> operations
+        , Map<String, Long> storeOperations) {
+
+    /**
+     * <pre>
+     *     요청별 지연 시간(ns)으로 백분위 지연 시간을 계산한다.
+     * </pre>
+     */
+    static double percentileMillis(long[] sortedLatencies, double percentile) {
+        if(sortedLatencies.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1_000_000.0;
+    }
+
+    static long[] sorted(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+
+        return sorted;
+    }
+}
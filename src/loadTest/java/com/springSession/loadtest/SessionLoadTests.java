@@ -0,0 +1,252 @@
+package com.springSession.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.springSession.entity.CompositionMember;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <pre>
+ *     세션 API(init, join, find) 부하 테스트.
+ *
+ *     실제 HTTP 서버(임의 포트)에 가상 클라이언트(load.concurrency)가 동시에 요청하며
+ *     클라이언트는 X-Auth-Token 헤더로 세션을 유지한다.
+ *     요청마다 load.session-reuse-ratio 확률로 기존 세션을 사용하고, 그 외에는 세션 없이 요청하여 새 세션을 생성한다.
+ *
+ *     load.store=in-process(기본값)면 mongod 없이 {@link InProcessSessionStoreConfig}의 프로세스 내 저장소를 사용하고,
+ *     mongo면 application.yml의 MongoDB를 사용한다.
+ *
+ *     시나리오별 처리량, p50/p99/p999 지연 시간, 세션 저장소 연산 수를 로그로 출력하고
+ *     build/results/loadTest/results.json에 기록한다.
+ *     ./gradlew loadTest -Pload.concurrency=128 -Pload.store=mongo
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT
+        , properties = {"logging.level.com.springSession.controller=warn", "logging.level.com.springSession.config=warn"})
+@Import(InProcessSessionStoreConfig.class)
+public class SessionLoadTests {
+    private final static Logger logger = LoggerFactory.getLogger(SessionLoadTests.class);
+
+    private static final String SESSION_PATH = "/composition/v1/session";
+    private static final String SESSION_HEADER_NAME = "X-Auth-Token";
+
+    @LocalServerPort int port;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired ObjectMapper objectMapper;
+
+    @Value("${load.store:in-process}") String store;
+    @Value("${load.scenarios:read-heavy=init:5,join:15,find:80;write-heavy=init:20,join:60,find:20}") String scenarios;
+    @Value("${load.concurrency:64}") int concurrency;
+    @Value("${load.requests:20000}") int requests;
+    @Value("${load.warmup-requests:2000}") int warmupRequests;
+    @Value("${load.session-reuse-ratio:0.9}") double sessionReuseRatio;
+    @Value("${load.payload-size:64}") int payloadSize;
+    @Value("${load.seed:42}") long seed;
+    @Value("${load.results-file:build/results/loadTest/results.json}") String resultsFile;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    @DisplayName("시나리오별 세션 API 처리량, 지연 시간 백분위, 세션 저장소 연산 수 측정")
+    void loadTest_1() throws Exception {
+        // given
+        List<LoadScenario> loadScenarios = LoadScenario.parse(this.scenarios);
+        String payload = "p".repeat(Math.max(1, this.payloadSize));
+
+        // 서버 스레드, 커넥션, JIT 준비
+        run(new LoadScenario("warmup", 1, 1, 1), this.warmupRequests, payload);
+
+        // when
+        List<ScenarioResult> results = new ArrayList<>();
+        for(LoadScenario loadScenario : loadScenarios) {
+            results.add(run(loadScenario, this.requests, payload));
+        }
+
+        // then
+        Path resultsPath = Path.of(this.resultsFile);
+        Files.createDirectories(resultsPath.toAbsolutePath().getParent());
+        this.objectMapper.copy()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(resultsPath.toFile(), results);
+
+        for(ScenarioResult result : results) {
+            logger.info("[{}] store={} mix={} concurrency={} reuse={} payload={}B | {} req, {} errors, {} req/s | p50 {} ms, p99 {} ms, p999 {} ms, max {} ms | operations {} | store operations {}"
+                    , result.scenario(), result.store(), result.mix(), result.concurrency(), result.sessionReuseRatio(), result.payloadSize()
+                    , result.requests(), result.errors(), String.format("%.0f", result.throughput())
+                    , String.format("%.2f", result.p50()), String.format("%.2f", result.p99()), String.format("%.2f", result.p999()), String.format("%.2f", result.max())
+                    , result.operations(), result.storeOperations());
+
+            Assertions.assertEquals(0, result.errors());
+        }
+        logger.info("results : {}", resultsPath.toAbsolutePath());
+    }
+
+    private ScenarioResult run(LoadScenario loadScenario, int totalRequests, String payload) throws Exception {
+        Map<String, Long> storeOperationsBefore = storeOperationCounts();
+
+        int requestsPerClient = Math.max(1, totalRequests / this.concurrency);
+        List<Future<VirtualClient>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try(ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(int i = 0; i < this.concurrency; i++) {
+                VirtualClient virtualClient = new VirtualClient(i, new SplittableRandom(this.seed + i), requestsPerClient);
+                futures.add(executorService.submit(() -> virtualClient.run(loadScenario, payload)));
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long[] latencies = new long[requestsPerClient * this.concurrency];
+        long errors = 0;
+        Map<String, Long> operations = new TreeMap<>();
+        int offset = 0;
+        for(Future<VirtualClient> future : futures) {
+            VirtualClient virtualClient = future.get();
+            System.arraycopy(virtualClient.latencies, 0, latencies, offset, virtualClient.latencies.length);
+            offset += virtualClient.latencies.length;
+            errors += virtualClient.errors;
+            virtualClient.operations.forEach((operation, count) -> operations.merge(operation, count, Long::sum));
+        }
+
+        Map<String, Long> storeOperations = new TreeMap<>(storeOperationCounts());
+        storeOperations.replaceAll((operation, count) -> count - storeOperationsBefore.getOrDefault(operation, 0L));
+        storeOperations.values().removeIf(count -> count == 0);
+
+        long[] sortedLatencies = ScenarioResult.sorted(latencies);
+        return new ScenarioResult(loadScenario.name()
+                , this.store
+                , loadScenario.mix()
+                , this.concurrency
+                , this.sessionReuseRatio
+                , this.payloadSize
+                , latencies.length
+                , errors
+                , elapsedSeconds
+                , latencies.length / elapsedSeconds
+                , ScenarioResult.percentileMillis(sortedLatencies, 0.5)
+                , ScenarioResult.percentileMillis(sortedLatencies, 0.99)
+                , ScenarioResult.percentileMillis(sortedLatencies, 0.999)
+                , ScenarioResult.percentileMillis(sortedLatencies, 1.0)
+                , operations
+                , storeOperations);
+    }
+
+    /**
+     * <pre>
+     *     session.store.operation 메트릭의 operation 태그별 누적 실행 수.
+     *     in-process 저장소와 MongoDB 드라이버 Listener 모두 같은 메트릭을 기록한다.
+     * </pre>
+     */
+    private Map<String, Long> storeOperationCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for(Timer timer : this.meterRegistry.find("session.store.operation").timers()) {
+            counts.merge(timer.getId().getTag("operation"), timer.count(), Long::sum);
+        }
+
+        return counts;
+    }
+
+    /**
+     * <pre>
+     *     세션 하나를 유지하며 순서대로 요청하는 가상 클라이언트.
+     * </pre>
+     */
+    private class VirtualClient {
+        private final int clientId;
+        private final SplittableRandom random;
+        private final long[] latencies;
+        private final Map<String, Long> operations = new TreeMap<>();
+        private long errors;
+
+        private String sessionToken;
+        private boolean joined;
+
+        VirtualClient(int clientId, SplittableRandom random, int requests) {
+            this.clientId = clientId;
+            this.random = random;
+            this.latencies = new long[requests];
+        }
+
+        VirtualClient run(LoadScenario loadScenario, String payload) throws Exception {
+            for(int i = 0; i < this.latencies.length; i++) {
+                if(this.sessionToken != null && this.random.nextDouble() >= sessionReuseRatio) {
+                    this.sessionToken = null;
+                    this.joined = false;
+                }
+
+                LoadScenario.LoadOperation operation = loadScenario.next(this.random);
+                if(operation == LoadScenario.LoadOperation.FIND && !this.joined) {
+                    operation = LoadScenario.LoadOperation.JOIN;
+                }
+
+                HttpRequest request = request(operation, payload, i);
+
+                long start = System.nanoTime();
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                this.latencies[i] = System.nanoTime() - start;
+
+                this.operations.merge(operation.name().toLowerCase(), 1L, Long::sum);
+                if(response.statusCode() != 200) {
+                    this.errors++;
+                    continue;
+                }
+
+                response.headers().firstValue(SESSION_HEADER_NAME).ifPresent(token -> this.sessionToken = token);
+                if(operation == LoadScenario.LoadOperation.JOIN) {
+                    this.joined = true;
+                }
+            }
+
+            return this;
+        }
+
+        private HttpRequest request(LoadScenario.LoadOperation operation, String payload, int sequence) throws Exception {
+            HttpRequest.Builder builder = switch(operation) {
+                case INIT -> HttpRequest.newBuilder(uri(SESSION_PATH + "/init")).GET();
+                case FIND -> HttpRequest.newBuilder(uri(SESSION_PATH)).GET();
+                case JOIN -> HttpRequest.newBuilder(uri(SESSION_PATH))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                                new CompositionMember("member-" + this.clientId + "-" + sequence, payload, payload))));
+            };
+
+            if(this.sessionToken != null) {
+                builder.header(SESSION_HEADER_NAME, this.sessionToken);
+            }
+
+            return builder.build();
+        }
+
+        private URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+    }
+}
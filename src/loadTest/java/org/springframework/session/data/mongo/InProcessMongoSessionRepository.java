@@ -0,0 +1,146 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.UuidSessionIdGenerator;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ *     부하 테스트에서 mongod 대신 사용하는 프로세스 내 세션 저장소.
+ *
+ *     세션을 {@link PerAttributeMongoSessionConverter}로 MongoDB와 같은 문서 형식으로 변환하여 메모리에 저장하므로
+ *     속성 직렬화/역직렬화 비용은 실제 저장소와 같고 네트워크, 디스크 비용만 제외된다.
+ *     연산마다 MongoDB 드라이버 Listener와 같은 session.store.operation 메트릭(store 태그 in-process)을 기록한다.
+ * </pre>
+ */
+public class InProcessMongoSessionRepository implements FindByIndexNameSessionRepository<MongoSession> {
+    public static final String STORE_NAME = "in-process";
+
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+    private final PerAttributeMongoSessionConverter mongoSessionConverter;
+    private final Duration maxInactiveInterval;
+    private final MeterRegistry meterRegistry;
+
+    public InProcessMongoSessionRepository(PerAttributeMongoSessionConverter mongoSessionConverter
+            , Duration maxInactiveInterval
+            , MeterRegistry meterRegistry) {
+
+        this.mongoSessionConverter = mongoSessionConverter;
+        this.maxInactiveInterval = maxInactiveInterval;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public MongoSession createSession() {
+        return new MongoSession(UuidSessionIdGenerator.getInstance().generate(), this.maxInactiveInterval.getSeconds());
+    }
+
+    @Override
+    public void save(MongoSession session) {
+        long start = System.nanoTime();
+
+        if(session instanceof DirtyTrackingMongoSession dirtyTrackingSession && dirtyTrackingSession.hasChangedId()) {
+            this.documents.remove(dirtyTrackingSession.getPersistedId());
+        }
+        this.documents.put(session.getId(), toDocument(this.mongoSessionConverter.convert(session)));
+
+        record(SessionStoreOperation.SAVE, "success", start);
+    }
+
+    @Override
+    public MongoSession findById(String id) {
+        long start = System.nanoTime();
+
+        Document document = this.documents.get(id);
+        if(document == null) {
+            record(SessionStoreOperation.FIND_BY_ID, "not_found", start);
+            return null;
+        }
+
+        MongoSession session = this.mongoSessionConverter.convert(document);
+        if(session.isExpired()) {
+            this.documents.remove(id);
+            record(SessionStoreOperation.FIND_BY_ID, "not_found", start);
+            return null;
+        }
+
+        record(SessionStoreOperation.FIND_BY_ID, "success", start);
+        return session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        long start = System.nanoTime();
+
+        Document removed = this.documents.remove(id);
+
+        record(SessionStoreOperation.DELETE, removed == null ? "not_found" : "success", start);
+    }
+
+    @Override
+    public Map<String, MongoSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        long start = System.nanoTime();
+
+        Map<String, MongoSession> sessions = new HashMap<>();
+        if(PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            for(Document document : this.documents.values()) {
+                if(indexValue.equals(document.get(PerAttributeMongoSessionConverter.PRINCIPAL))) {
+                    MongoSession session = this.mongoSessionConverter.convert(document);
+                    sessions.put(session.getId(), session);
+                }
+            }
+        }
+
+        record(SessionStoreOperation.FIND_BY_INDEX, sessions.isEmpty() ? "not_found" : "success", start);
+        return sessions;
+    }
+
+    public int size() {
+        return this.documents.size();
+    }
+
+    private void record(SessionStoreOperation operation, String outcome, long start) {
+        Timer.builder("session.store.operation")
+                .tag("store", STORE_NAME)
+                .tag("operation", operation.tagValue)
+                .tag("outcome", outcome)
+                .register(this.meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * <pre>
+     *     MongoDB에서 읽은 것과 같은 형식({@link Document})으로 변환한다.
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private static Document toDocument(DBObject dbObject) {
+        Document document = new Document(((BasicDBObject) dbObject).toMap());
+        document.put(PerAttributeMongoSessionConverter.ATTRIBUTES
+                , new Document((Map<String, Object>) ((BasicDBObject) dbObject.get(PerAttributeMongoSessionConverter.ATTRIBUTES)).toMap()));
+
+        return document;
+    }
+
+    enum SessionStoreOperation {
+        FIND_BY_ID("findById"),
+        FIND_BY_INDEX("findByIndexNameAndIndexValue"),
+        SAVE("save"),
+        DELETE("delete");
+
+        private final String tagValue;
+
+        SessionStoreOperation(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package com.springSession.codec;
+
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ *     세션 속성 값을 위한 간결한 바이너리 Codec.
+ *
+ *     JDK 직렬화는 클래스 메타데이터(클래스명, serialVersionUID, 필드 정보)를 값마다 함께 기록하므로
+ *     문자열, 숫자 같은 단순한 값도 수십~수백 byte가 된다.
+ *     해당 Codec은 타입 태그(1 byte) + 값만 기록하며 다음 타입은 전용 형식을 사용한다.
+ *       - null, String, Integer, Long, Double, Float, Boolean, byte[]
+ *       - ArrayList, HashSet, LinkedHashSet, HashMap, LinkedHashMap (원소도 재귀적으로 인코딩)
+ *       - {@link #register(int, Class)}로 등록된 record (등록 번호 + 컴포넌트 순서대로 인코딩)
+ *     그 외 타입은 JDK 직렬화로 인코딩하여 태그와 함께 기록한다.
+ *
+ *     인코딩된 값은 {@link #MAGIC} 1 byte로 시작한다.
+ *     JDK 직렬화 스트림 헤더(0xACED)로 시작하는 값은 이전에 JDK 직렬화로 저장된 값으로 판단하여 JDK 역직렬화 한다.
+ *
+ *     record는 컴포넌트 개수를 함께 기록하므로, 저장 이후 record 끝에 컴포넌트가 추가 되어도 기존 값을 읽을 수 있다.
+ *     (추가된 컴포넌트는 null 혹은 기본값으로 채워진다.)
+ * </pre>
+ */
+public class CompactAttributeCodec {
+    static final byte MAGIC = (byte) 0xC5;
+
+    private static final byte JDK_STREAM_MAGIC_0 = (byte) 0xAC;
+    private static final byte JDK_STREAM_MAGIC_1 = (byte) 0xED;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte TRUE = 6;
+    private static final byte FALSE = 7;
+    private static final byte BYTES = 8;
+    private static final byte ARRAY_LIST = 9;
+    private static final byte HASH_SET = 10;
+    private static final byte LINKED_HASH_SET = 11;
+    private static final byte HASH_MAP = 12;
+    private static final byte LINKED_HASH_MAP = 13;
+    private static final byte RECORD = 14;
+    private static final byte JAVA = 15;
+
+    private final Map<Class<?>, RecordType> recordTypesByClass = new ConcurrentHashMap<>();
+    private final Map<Integer, RecordType> recordTypesById = new ConcurrentHashMap<>();
+
+    private final SerializingConverter javaSerializer = new SerializingConverter();
+    private final DeserializingConverter javaDeserializer = new DeserializingConverter();
+
+    /**
+     * <pre>
+     *     record 타입을 전용 형식으로 인코딩 하기 위해 등록한다.
+     *     등록 번호는 저장된 값에 기록되므로 한번 사용한 번호는 다른 타입에 재사용하면 안된다.
+     * </pre>
+     */
+    public CompactAttributeCodec register(int typeId, Class<? extends Record> recordClass) {
+        if(typeId < 0) {
+            throw new IllegalArgumentException("typeId must not be negative");
+        }
+
+        RecordType recordType = RecordType.of(typeId, recordClass);
+        RecordType previous = this.recordTypesById.putIfAbsent(typeId, recordType);
+        if(previous != null && previous.recordClass() != recordClass) {
+            throw new IllegalArgumentException("typeId " + typeId + " is already registered for " + previous.recordClass().getName());
+        }
+
+        this.recordTypesByClass.put(recordClass, recordType);
+
+        return this;
+    }
+
+    public byte[] encode(Object value) {
+        Output output = new Output(64);
+        output.writeByte(MAGIC);
+        writeValue(output, value);
+
+        return output.toByteArray();
+    }
+
+    public Object decode(byte[] bytes) {
+        if(bytes.length >= 2 && bytes[0] == JDK_STREAM_MAGIC_0 && bytes[1] == JDK_STREAM_MAGIC_1) {
+            return this.javaDeserializer.convert(bytes);
+        }
+
+        if(bytes.length == 0 || bytes[0] != MAGIC) {
+            throw new IllegalArgumentException("Unknown attribute encoding");
+        }
+
+        Input input = new Input(bytes, 1);
+        return readValue(input);
+    }
+
+    private void writeValue(Output output, Object value) {
+        if(value == null) {
+            output.writeByte(NULL);
+            return;
+        }
+
+        Class<?> valueClass = value.getClass();
+        if(valueClass == String.class) {
+            output.writeByte(STRING);
+            output.writeString((String) value);
+        } else if(valueClass == Integer.class) {
+            output.writeByte(INT);
+            output.writeVarLong(zigZag((Integer) value));
+        } else if(valueClass == Long.class) {
+            output.writeByte(LONG);
+            output.writeVarLong(zigZag((Long) value));
+        } else if(valueClass == Double.class) {
+            output.writeByte(DOUBLE);
+            output.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if(valueClass == Float.class) {
+            output.writeByte(FLOAT);
+            output.writeInt(Float.floatToRawIntBits((Float) value));
+        } else if(valueClass == Boolean.class) {
+            output.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if(valueClass == byte[].class) {
+            byte[] bytes = (byte[]) value;
+            output.writeByte(BYTES);
+            output.writeVarInt(bytes.length);
+            output.writeBytes(bytes);
+        } else if(valueClass == ArrayList.class) {
+            writeCollection(output, ARRAY_LIST, (Collection<?>) value);
+        } else if(valueClass == HashSet.class) {
+            writeCollection(output, HASH_SET, (Collection<?>) value);
+        } else if(valueClass == LinkedHashSet.class) {
+            writeCollection(output, LINKED_HASH_SET, (Collection<?>) value);
+        } else if(valueClass == HashMap.class) {
+            writeMap(output, HASH_MAP, (Map<?, ?>) value);
+        } else if(valueClass == LinkedHashMap.class) {
+            writeMap(output, LINKED_HASH_MAP, (Map<?, ?>) value);
+        } else if(this.recordTypesByClass.containsKey(valueClass)) {
+            writeRecord(output, this.recordTypesByClass.get(valueClass), value);
+        } else {
+            byte[] bytes = this.javaSerializer.convert(value);
+            output.writeByte(JAVA);
+            output.writeVarInt(bytes.length);
+            output.writeBytes(bytes);
+        }
+    }
+
+    private void writeCollection(Output output, byte tag, Collection<?> collection) {
+        output.writeByte(tag);
+        output.writeVarInt(collection.size());
+        for(Object element : collection) {
+            writeValue(output, element);
+        }
+    }
+
+    private void writeMap(Output output, byte tag, Map<?, ?> map) {
+        output.writeByte(tag);
+        output.writeVarInt(map.size());
+        for(Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(output, entry.getKey());
+            writeValue(output, entry.getValue());
+        }
+    }
+
+    private void writeRecord(Output output, RecordType recordType, Object value) {
+        output.writeByte(RECORD);
+        output.writeVarInt(recordType.typeId());
+        output.writeVarInt(recordType.accessors().length);
+        for(MethodHandle accessor : recordType.accessors()) {
+            writeValue(output, recordType.get(accessor, value));
+        }
+    }
+
+    private Object readValue(Input input) {
+        byte tag = input.readByte();
+        switch(tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return input.readString();
+            case INT:
+                return (int) unZigZag(input.readVarLong());
+            case LONG:
+                return unZigZag(input.readVarLong());
+            case DOUBLE:
+                return Double.longBitsToDouble(input.readLong());
+            case FLOAT:
+                return Float.intBitsToFloat(input.readInt());
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BYTES:
+                return input.readBytes(input.readVarInt());
+            case ARRAY_LIST: {
+                int size = input.readVarInt();
+                return readElements(input, size, new ArrayList<>(size));
+            }
+            case HASH_SET: {
+                int size = input.readVarInt();
+                return readElements(input, size, HashSet.newHashSet(size));
+            }
+            case LINKED_HASH_SET: {
+                int size = input.readVarInt();
+                return readElements(input, size, LinkedHashSet.newLinkedHashSet(size));
+            }
+            case HASH_MAP: {
+                int size = input.readVarInt();
+                return readEntries(input, size, HashMap.newHashMap(size));
+            }
+            case LINKED_HASH_MAP: {
+                int size = input.readVarInt();
+                return readEntries(input, size, LinkedHashMap.newLinkedHashMap(size));
+            }
+            case RECORD:
+                return readRecord(input);
+            case JAVA:
+                return this.javaDeserializer.convert(input.readBytes(input.readVarInt()));
+            default:
+                throw new IllegalArgumentException("Unknown attribute type tag : " + tag);
+        }
+    }
+
+    private <C extends Collection<Object>> C readElements(Input input, int size, C collection) {
+        for(int i = 0; i < size; i++) {
+            collection.add(readValue(input));
+        }
+
+        return collection;
+    }
+
+    private <M extends Map<Object, Object>> M readEntries(Input input, int size, M map) {
+        for(int i = 0; i < size; i++) {
+            map.put(readValue(input), readValue(input));
+        }
+
+        return map;
+    }
+
+    private Object readRecord(Input input) {
+        int typeId = input.readVarInt();
+        RecordType recordType = this.recordTypesById.get(typeId);
+        if(recordType == null) {
+            throw new IllegalStateException("Record type " + typeId + " is not registered");
+        }
+
+        int storedComponentCount = input.readVarInt();
+        Object[] components = recordType.defaultComponents();
+        for(int i = 0; i < storedComponentCount; i++) {
+            Object component = readValue(input);
+            // 저장 이후 제거된 컴포넌트는 읽고 버린다.
+            if(i < components.length) {
+                components[i] = component;
+            }
+        }
+
+        return recordType.newInstance(components);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * <pre>
+     *     등록된 record의 컴포넌트 접근자와 정식(canonical) 생성자.
+     * </pre>
+     */
+    private record RecordType(int typeId, Class<?> recordClass, MethodHandle[] accessors, Class<?>[] componentTypes, MethodHandle constructor) {
+
+        static RecordType of(int typeId, Class<? extends Record> recordClass) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                RecordComponent[] recordComponents = recordClass.getRecordComponents();
+
+                MethodHandle[] accessors = new MethodHandle[recordComponents.length];
+                Class<?>[] componentTypes = new Class<?>[recordComponents.length];
+                for(int i = 0; i < recordComponents.length; i++) {
+                    accessors[i] = lookup.unreflect(recordComponents[i].getAccessor());
+                    componentTypes[i] = recordComponents[i].getType();
+                }
+
+                Constructor<? extends Record> canonicalConstructor = recordClass.getDeclaredConstructor(componentTypes);
+                return new RecordType(typeId, recordClass, accessors, componentTypes, lookup.unreflectConstructor(canonicalConstructor));
+            } catch(ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot register record type " + recordClass.getName(), e);
+            }
+        }
+
+        Object get(MethodHandle accessor, Object value) {
+            try {
+                return accessor.invoke(value);
+            } catch(Throwable e) {
+                throw new IllegalStateException("Cannot read record component of " + this.recordClass.getName(), e);
+            }
+        }
+
+        Object[] defaultComponents() {
+            Object[] components = new Object[this.componentTypes.length];
+            for(int i = 0; i < this.componentTypes.length; i++) {
+                components[i] = defaultValue(this.componentTypes[i]);
+            }
+
+            return components;
+        }
+
+        Object newInstance(Object[] components) {
+            try {
+                return this.constructor.invokeWithArguments(components);
+            } catch(Throwable e) {
+                throw new IllegalStateException("Cannot create record " + this.recordClass.getName() + " from " + Arrays.toString(components), e);
+            }
+        }
+
+        private static Object defaultValue(Class<?> type) {
+            if(!type.isPrimitive()) {
+                return null;
+            }
+            if(type == boolean.class) {
+                return false;
+            }
+            if(type == char.class) {
+                return '\0';
+            }
+            if(type == long.class) {
+                return 0L;
+            }
+            if(type == double.class) {
+                return 0.0d;
+            }
+            if(type == float.class) {
+                return 0.0f;
+            }
+            if(type == byte.class) {
+                return (byte) 0;
+            }
+            if(type == short.class) {
+                return (short) 0;
+            }
+
+            return 0;
+        }
+    }
+
+    /**
+     * <pre>
+     *     크기가 늘어나는 byte 배열 출력 버퍼. 동기화 하지 않는다.
+     * </pre>
+     */
+    static final class Output {
+        private byte[] buffer;
+        private int position;
+
+        Output(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void writeByte(byte value) {
+            ensureCapacity(1);
+            this.buffer[this.position++] = value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+            this.position += bytes.length;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            for(int shift = 24; shift >= 0; shift -= 8) {
+                this.buffer[this.position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for(int shift = 56; shift >= 0; shift -= 8) {
+                this.buffer[this.position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while((value & ~0x7FL) != 0) {
+                this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            this.buffer[this.position++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            writeBytes(bytes);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(this.buffer, this.position);
+        }
+
+        private void ensureCapacity(int length) {
+            if(this.position + length > this.buffer.length) {
+                this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.position + length));
+            }
+        }
+    }
+
+    /**
+     * <pre>
+     *     byte 배열 입력 버퍼. 동기화 하지 않는다.
+     * </pre>
+     */
+    static final class Input {
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            return this.buffer[this.position++];
+        }
+
+        byte[] readBytes(int length) {
+            byte[] bytes = Arrays.copyOfRange(this.buffer, this.position, this.position + length);
+            this.position += length;
+            return bytes;
+        }
+
+        int readInt() {
+            int value = 0;
+            for(int i = 0; i < 4; i++) {
+                value = (value << 8) | (this.buffer[this.position++] & 0xFF);
+            }
+            return value;
+        }
+
+        long readLong() {
+            long value = 0;
+            for(int i = 0; i < 8; i++) {
+                value = (value << 8) | (this.buffer[this.position++] & 0xFF);
+            }
+            return value;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = this.buffer[this.position++];
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while((current & 0x80) != 0);
+
+            return value;
+        }
+
+        String readString() {
+            int length = readVarInt();
+            String value = new String(this.buffer, this.position, length, StandardCharsets.UTF_8);
+            this.position += length;
+            return value;
+        }
+    }
+}
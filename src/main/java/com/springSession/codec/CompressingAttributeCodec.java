@@ -0,0 +1,361 @@
+package com.springSession.codec;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <pre>
+ *     일정 크기 이상의 세션 속성 값을 압축하는 Codec.
+ *     속성 값 Codec({@link CompactAttributeCodec}, JDK 직렬화)으로 인코딩한 byte를 압축하고 해제한다.
+ *
+ *     압축한 값은 {@link #COMPRESSED} 1 byte + 원본 길이(varint) + zlib(deflate) 스트림 형식으로 저장된다.
+ *     {@link CompactAttributeCodec}({@link CompactAttributeCodec#MAGIC}), JDK 직렬화(0xAC)와 첫 byte가 다르므로
+ *     압축하지 않은 값, 이전에 저장된 값은 그대로 반환하여 기존 Codec으로 디코딩 한다.
+ *
+ *     세션 속성은 값 하나가 작아 압축률이 낮으므로 자주 나타나는 byte 열(클래스명, 필드 값 등)로 만든
+ *     사전(preset dictionary)을 사용한다. ({@link #trainDictionary(List, int)})
+ *     zlib 스트림은 사용한 사전의 Adler-32 값을 함께 기록하므로 사전을 교체해도 이전 사전을 등록해두면 기존 값을 읽을 수 있다.
+ *
+ *     압축 후 크기가 줄지 않는 값은 압축하지 않고 저장한다.
+ *     {@link Deflater}, {@link Inflater}는 생성 비용(네이티브 메모리)이 크므로 재사용한다.
+ * </pre>
+ */
+public class CompressingAttributeCodec implements MeterBinder {
+    static final byte COMPRESSED = (byte) 0xD1;
+
+    /** 헤더(최대 6 byte)를 기록할 수 있는 최소 크기. */
+    private static final int MIN_THRESHOLD = 16;
+    private static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+    private static final int POOL_SIZE = 64;
+
+    private final int threshold;
+    private final byte[] dictionary;
+    private final Map<Integer, byte[]> dictionariesById = new HashMap<>();
+
+    private int level = Deflater.BEST_SPEED;
+
+    private final ConcurrentLinkedQueue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder compressedCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decompressedCount = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+
+    /**
+     * @param threshold 압축할 최소 크기(byte). 속성 값 Codec으로 인코딩한 크기 기준.
+     * @param dictionary 압축에 사용할 사전. null이면 사전 없이 압축한다.
+     * @param previousDictionaries 이전에 사용한 사전. 이전 사전으로 압축된 값을 읽을 때 사용한다.
+     */
+    public CompressingAttributeCodec(int threshold
+            , byte[] dictionary
+            , List<byte[]> previousDictionaries) {
+
+        if(threshold < MIN_THRESHOLD) {
+            throw new IllegalArgumentException("threshold must be at least " + MIN_THRESHOLD + " bytes");
+        }
+
+        if(dictionary != null && dictionary.length > MAX_DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("dictionary must not be larger than " + MAX_DICTIONARY_SIZE + " bytes");
+        }
+
+        this.threshold = threshold;
+        this.dictionary = (dictionary != null && dictionary.length > 0) ? dictionary : null;
+
+        for(byte[] previousDictionary : previousDictionaries) {
+            this.dictionariesById.put(adler32(previousDictionary), previousDictionary);
+        }
+
+        if(this.dictionary != null) {
+            this.dictionariesById.put(adler32(this.dictionary), this.dictionary);
+        }
+    }
+
+    /**
+     * <pre>
+     *     압축 레벨(1~9). 기본값은 {@link Deflater#BEST_SPEED}. 사용 전에 설정해야 한다.
+     * </pre>
+     */
+    public void setLevel(int level) {
+        if(level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("level must be between 1 and 9");
+        }
+
+        this.level = level;
+        this.deflaters.clear();
+    }
+
+    /**
+     * @return 압축한 값. threshold보다 작거나 압축해도 크기가 줄지 않으면 입력 값 그대로.
+     */
+    public byte[] encode(byte[] bytes) {
+        if(bytes == null || bytes.length < this.threshold) {
+            return bytes;
+        }
+
+        long startNanos = System.nanoTime();
+        byte[] compressed = compress(bytes);
+        this.compressNanos.add(System.nanoTime() - startNanos);
+
+        if(compressed == null) {
+            this.skippedCount.increment();
+            return bytes;
+        }
+
+        this.compressedCount.increment();
+        this.rawBytes.add(bytes.length);
+        this.compressedBytes.add(compressed.length);
+
+        return compressed;
+    }
+
+    /**
+     * @return 압축을 해제한 값. 압축하지 않은 값은 입력 값 그대로.
+     */
+    public byte[] decode(byte[] bytes) {
+        if(bytes.length == 0 || bytes[0] != COMPRESSED) {
+            return bytes;
+        }
+
+        long startNanos = System.nanoTime();
+        byte[] decompressed = decompress(bytes);
+        this.decompressNanos.add(System.nanoTime() - startNanos);
+        this.decompressedCount.increment();
+
+        return decompressed;
+    }
+
+    /**
+     * <pre>
+     *     session.codec.compression.count     : 압축하여 저장한 값 수 (skipped: 압축해도 크기가 줄지 않아 그대로 저장한 값 수)
+     *     session.codec.compression.bytes     : 압축한 값의 원본(raw)/압축(compressed) 크기 합
+     *     session.codec.compression.ratio     : 압축 크기 합 / 원본 크기 합
+     *     session.codec.compression.time      : 압축(compress)/해제(decompress) 시간. 요청 스레드에서 실행되므로 CPU 사용 시간에 해당한다.
+     * </pre>
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("session.codec.compression.count", this.compressedCount, LongAdder::sum)
+                .tag("outcome", "compressed")
+                .register(registry);
+        FunctionCounter.builder("session.codec.compression.count", this.skippedCount, LongAdder::sum)
+                .tag("outcome", "skipped")
+                .register(registry);
+        FunctionCounter.builder("session.codec.compression.bytes", this.rawBytes, LongAdder::sum)
+                .tag("type", "raw")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("session.codec.compression.bytes", this.compressedBytes, LongAdder::sum)
+                .tag("type", "compressed")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("session.codec.compression.ratio", this, CompressingAttributeCodec::compressionRatio)
+                .register(registry);
+        FunctionTimer.builder("session.codec.compression.time", this
+                        , codec -> codec.compressedCount.sum() + codec.skippedCount.sum()
+                        , codec -> codec.compressNanos.sum()
+                        , TimeUnit.NANOSECONDS)
+                .tag("operation", "compress")
+                .register(registry);
+        FunctionTimer.builder("session.codec.compression.time", this
+                        , codec -> codec.decompressedCount.sum()
+                        , codec -> codec.decompressNanos.sum()
+                        , TimeUnit.NANOSECONDS)
+                .tag("operation", "decompress")
+                .register(registry);
+    }
+
+    double compressionRatio() {
+        long raw = this.rawBytes.sum();
+        return (raw == 0) ? 1.0 : (double) this.compressedBytes.sum() / raw;
+    }
+
+    /**
+     * <pre>
+     *     샘플 값(속성 값 Codec으로 인코딩한 속성 값)에 자주 나타나는 byte 열로 사전을 만든다.
+     *
+     *     샘플을 segmentLength 단위로 나누어 여러 샘플에 나타나는 segment를 많이 나타난 순서로 maxSize까지 고르고,
+     *     deflate는 가까운 위치를 더 짧게 참조하므로 많이 나타난 segment가 사전 끝에 오도록 배치한다.
+     * </pre>
+     */
+    public static byte[] trainDictionary(List<byte[]> samples, int maxSize) {
+        final int segmentLength = 12;
+        int dictionarySize = Math.min(maxSize, MAX_DICTIONARY_SIZE);
+
+        // segment별 나타난 샘플 수. 같은 샘플 안의 반복은 deflate가 압축하므로 한 번만 센다.
+        Map<ByteBuffer, Integer> frequencies = new HashMap<>();
+        for(byte[] sample : samples) {
+            Map<ByteBuffer, Boolean> seen = new HashMap<>();
+            for(int offset = 0; offset + segmentLength <= sample.length; offset++) {
+                ByteBuffer segment = ByteBuffer.wrap(Arrays.copyOfRange(sample, offset, offset + segmentLength));
+                if(seen.putIfAbsent(segment, Boolean.TRUE) == null) {
+                    frequencies.merge(segment, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Map.Entry<ByteBuffer, Integer>> segments = new ArrayList<>();
+        for(Map.Entry<ByteBuffer, Integer> frequency : frequencies.entrySet()) {
+            if(frequency.getValue() > 1) {
+                segments.add(frequency);
+            }
+        }
+
+        segments.sort(Map.Entry.<ByteBuffer, Integer>comparingByValue().reversed());
+
+        int segmentCount = Math.min(segments.size(), dictionarySize / segmentLength);
+        byte[] dictionary = new byte[segmentCount * segmentLength];
+        for(int i = 0; i < segmentCount; i++) {
+            // 가장 많이 나타난 segment가 마지막에 온다.
+            segments.get(i).getKey().get(0, dictionary, (segmentCount - 1 - i) * segmentLength, segmentLength);
+        }
+
+        return dictionary;
+    }
+
+    /**
+     * @return 압축한 값. 크기가 줄지 않으면 null.
+     */
+    private byte[] compress(byte[] bytes) {
+        Deflater deflater = this.deflaters.poll();
+        if(deflater == null) {
+            deflater = new Deflater(this.level);
+        }
+
+        try {
+            if(this.dictionary != null) {
+                deflater.setDictionary(this.dictionary);
+            }
+
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            // 헤더(최대 6 byte) 이후 원본보다 작은 경우만 사용하므로 원본 크기만큼만 압축한다.
+            byte[] output = new byte[bytes.length];
+            output[0] = COMPRESSED;
+            int headerLength = 1 + writeVarInt(output, 1, bytes.length);
+
+            int length = headerLength;
+            while(!deflater.finished() && length < output.length) {
+                length += deflater.deflate(output, length, output.length - length);
+            }
+
+            return deflater.finished() ? Arrays.copyOf(output, length) : null;
+        } finally {
+            release(deflater);
+        }
+    }
+
+    private byte[] decompress(byte[] bytes) {
+        int[] position = {1};
+        int length = readVarInt(bytes, position);
+
+        Inflater inflater = this.inflaters.poll();
+        if(inflater == null) {
+            inflater = new Inflater();
+        }
+
+        try {
+            inflater.setInput(bytes, position[0], bytes.length - position[0]);
+
+            byte[] output = new byte[length];
+            int offset = 0;
+            while(!inflater.finished()) {
+                int inflated = inflater.inflate(output, offset, output.length - offset);
+                offset += inflated;
+
+                if(inflated == 0) {
+                    if(inflater.needsDictionary()) {
+                        byte[] dictionary = this.dictionariesById.get(inflater.getAdler());
+                        if(dictionary == null) {
+                            throw new IllegalArgumentException("Unknown compression dictionary: " + Integer.toHexString(inflater.getAdler()));
+                        }
+
+                        inflater.setDictionary(dictionary);
+                    } else if(inflater.needsInput() || offset == output.length) {
+                        throw new IllegalArgumentException("Corrupted compressed attribute");
+                    }
+                }
+            }
+
+            if(offset != output.length) {
+                throw new IllegalArgumentException("Corrupted compressed attribute");
+            }
+
+            return output;
+        } catch(DataFormatException e) {
+            throw new IllegalArgumentException("Corrupted compressed attribute", e);
+        } finally {
+            inflater.reset();
+            if(this.inflaters.size() < POOL_SIZE) {
+                this.inflaters.offer(inflater);
+            } else {
+                inflater.end();
+            }
+        }
+    }
+
+    private void release(Deflater deflater) {
+        deflater.reset();
+        if(this.deflaters.size() < POOL_SIZE) {
+            this.deflaters.offer(deflater);
+        } else {
+            deflater.end();
+        }
+    }
+
+    private static int adler32(byte[] bytes) {
+        Adler32 adler32 = new Adler32();
+        adler32.update(bytes);
+
+        return (int) adler32.getValue();
+    }
+
+    /**
+     * @return 기록한 byte 수.
+     */
+    private static int writeVarInt(byte[] bytes, int offset, int value) {
+        int position = offset;
+        while((value & ~0x7F) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        bytes[position++] = (byte) value;
+
+        return position - offset;
+    }
+
+    private static int readVarInt(byte[] bytes, int[] position) {
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -0,0 +1,93 @@
+package com.springSession.codec;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * <pre>
+ *     세션 토큰 암호화/인증 Cipher. (AES-GCM)
+ *
+ *     암호화된 값은 버전(1 byte) + IV(12 byte) + 암호문 + 인증 태그(16 byte) 형식이며
+ *     버전은 추가 인증 데이터(AAD)로 함께 인증한다.
+ *     변조되었거나 다른 키로 암호화된 값은 {@link #open(byte[])}에서 null을 반환한다.
+ *
+ *     {@link Cipher}는 스레드 안전하지 않으므로 호출마다 생성한다.
+ * </pre>
+ */
+public class SessionTokenCipher {
+    static final byte VERSION = 1;
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public SessionTokenCipher(byte[] key) {
+        if(key == null || (key.length != 16 && key.length != 24 && key.length != 32)) {
+            throw new IllegalArgumentException("session token key must be 16, 24 or 32 bytes");
+        }
+
+        this.key = new SecretKeySpec(key, "AES");
+    }
+
+    /**
+     * <pre>
+     *     Base64로 인코딩된 키로 생성한다. 모든 노드가 같은 키를 사용해야 한다.
+     * </pre>
+     */
+    public static SessionTokenCipher of(String base64Key) {
+        if(base64Key == null || base64Key.isBlank()) {
+            throw new IllegalArgumentException("session token key must be set");
+        }
+
+        return new SessionTokenCipher(Base64.getDecoder().decode(base64Key.trim()));
+    }
+
+    public byte[] seal(byte[] plaintext) {
+        byte[] sealed = new byte[1 + IV_LENGTH + plaintext.length + TAG_LENGTH_BITS / 8];
+        sealed[0] = VERSION;
+
+        byte[] iv = new byte[IV_LENGTH];
+        this.secureRandom.nextBytes(iv);
+        System.arraycopy(iv, 0, sealed, 1, IV_LENGTH);
+
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, this.key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            cipher.updateAAD(sealed, 0, 1);
+            cipher.doFinal(plaintext, 0, plaintext.length, sealed, 1 + IV_LENGTH);
+        } catch(GeneralSecurityException e) {
+            throw new IllegalStateException("failed to seal session token", e);
+        }
+
+        return sealed;
+    }
+
+    /**
+     * @return 복호화된 값. 형식이 맞지 않거나 인증에 실패하면 null.
+     */
+    public byte[] open(byte[] sealed) {
+        if(sealed.length < 1 + IV_LENGTH + TAG_LENGTH_BITS / 8 || sealed[0] != VERSION) {
+            return null;
+        }
+
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, this.key, new GCMParameterSpec(TAG_LENGTH_BITS, sealed, 1, IV_LENGTH));
+            cipher.updateAAD(sealed, 0, 1);
+
+            return cipher.doFinal(sealed, 1 + IV_LENGTH, sealed.length - 1 - IV_LENGTH);
+        } catch(AEADBadTagException e) {
+            return null;
+        } catch(GeneralSecurityException e) {
+            throw new IllegalStateException("failed to open session token", e);
+        }
+    }
+}
@@ -2,32 +2,78 @@ package com.springSession.config;
 
 import com.mongodb.MongoClientSettings;
 import com.mongodb.MongoCredential;
+import com.mongodb.ReadPreference;
 import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.codec.CompressingAttributeCodec;
+import com.springSession.codec.SessionTokenCipher;
+import com.springSession.entity.CompositionMember;
+import com.springSession.event.AsyncSessionEventMulticaster;
+import com.springSession.event.SessionEventBatch;
+import com.springSession.event.SessionEventRequestSnapshot;
+import com.springSession.metrics.SessionMongoCommandListener;
+import com.springSession.metrics.SessionMongoConnectionPoolListener;
+import com.springSession.metrics.SessionProfileEndpoint;
+import com.springSession.metrics.SessionProfiler;
+import com.springSession.metrics.VirtualThreadPinningMonitor;
+import com.springSession.session.CompactSessionIdGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.web.server.Cookie;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.context.event.EventListener;
 import org.springframework.context.event.SimpleApplicationEventMulticaster;
 import org.springframework.context.support.AbstractApplicationContext;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
 import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.SessionIdGenerator;
+import org.springframework.session.UuidSessionIdGenerator;
 import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
 import org.springframework.session.config.annotation.web.http.SpringHttpSessionConfiguration;
+import org.springframework.session.data.mongo.AbstractMongoSessionConverter;
+import org.springframework.session.data.mongo.ExpiredSessionSweeper;
+import org.springframework.session.data.mongo.ForwardingMongoSessionRepository;
+import org.springframework.session.data.mongo.JdkMongoSessionConverter;
 import org.springframework.session.data.mongo.MongoIndexedSessionRepository;
+import org.springframework.session.data.mongo.MongoSessionRepositoryChainFactory;
+import org.springframework.session.data.mongo.MongoSessionShards;
+import org.springframework.session.data.mongo.OffHeapMongoSessionRepository;
+import org.springframework.session.data.mongo.PerAttributeMongoSessionConverter;
+import org.springframework.session.data.mongo.PrincipalSessionOperations;
+import org.springframework.session.data.mongo.ShardedMongoSessionRepository;
+import org.springframework.session.data.mongo.StatelessTokenMongoSessionRepository;
 import org.springframework.session.data.mongo.config.annotation.web.http.MongoHttpSessionConfiguration;
 import org.springframework.session.events.SessionCreatedEvent;
 import org.springframework.session.events.SessionDeletedEvent;
@@ -35,13 +81,22 @@ import org.springframework.session.events.SessionDestroyedEvent;
 import org.springframework.session.events.SessionExpiredEvent;
 import org.springframework.session.web.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.context.support.GenericWebApplicationContext;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * <pre>
@@ -69,6 +124,8 @@ import java.util.UUID;
  */
 @Configuration
 public class SpringSessionConfig {
+    /** 샤딩을 사용하지 않을 때 세션 저장소 메트릭의 store 태그 값 */
+    static final String DEFAULT_STORE_NAME = MongoSessionRepositoryChainFactory.DEFAULT_STORE_NAME;
 
     /**
      * <pre>
@@ -91,86 +148,269 @@ public class SpringSessionConfig {
      * </pre>
      */
     @Bean
-    SessionRepositoryCustomizer<MongoIndexedSessionRepository> mongoSessionRepositoryCustomizer() {
+    SessionRepositoryCustomizer<MongoIndexedSessionRepository> mongoSessionRepositoryCustomizer(SessionIdGenerator sessionIdGenerator) {
         return (sessionRepository) -> {
             sessionRepository.setMaxInactiveIntervalInSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+            sessionRepository.setSessionIdGenerator(sessionIdGenerator);
         };
     }
 
+    /**
+     * <pre>
+     *     세션 ID 생성기.
+     *     session.id-generator.type이 uuid(기본값)면 UUID(36자), compact면 {@link CompactSessionIdGenerator}(Base64 URL 22자)로 세션 ID를 생성한다.
+     *     compact 사용 시 session.id-generator.prefix를 지정하면 "{prefix}.{ID}" 형식으로 생성하며, 샤딩 사용 시 샤드명을 지정하면 해당 샤드에 저장된다.
+     * </pre>
+     */
+    @Bean
+    public SessionIdGenerator sessionIdGenerator(@Value("${session.id-generator.type:uuid}") String type
+            , @Value("${session.id-generator.prefix:}") String prefix) {
+
+        if("compact".equalsIgnoreCase(type)) {
+            return new CompactSessionIdGenerator(prefix.isBlank() ? null : prefix.trim());
+        }
+
+        return UuidSessionIdGenerator.getInstance();
+    }
+
     /**
      * <pre>
      *     {@link HttpSessionIdResolver} 구현체로 세션 ID를 쿠키/헤더 두 군데에 관리하기 위한 구현체.
+     *
+     *     요청에서 세션 ID를 읽은 방식(헤더, 쿠키)을 요청 속성에 기록하고, 응답에는 해당 방식으로만 세션 ID를 전달한다.
+     *     세션 ID 없이 요청한 클라이언트는 어떤 방식을 사용하는지 알 수 없으므로 헤더/쿠키 모두 전달한다.
+     *     요청한 세션 ID와 같은 세션 ID는 다시 전달하지 않는다.
+     *
+     *     헤더에 세션 ID가 있으면 쿠키는 읽지 않으며, 쿠키는 전체 쿠키 목록(Cookie[])을 만들지 않고
+     *     Cookie 헤더에서 SESSION 쿠키 값만 찾아 Base64 디코딩 한다.
+     *     {@link CookieHttpSessionIdResolver}와 같이 SESSION 쿠키가 여러 개(다른 path, domain)면 모든 값을 순서대로 반환한다.
+     *     세션 ID 설정 로그는 {@link #LOG_SAMPLE_RATE}번에 한번만 INFO로 남긴다.
      * </pre>
      */
-    class HybridHttpSessionIdResolver implements HttpSessionIdResolver {
-        private final Logger logger = LoggerFactory.getLogger(HybridHttpSessionIdResolver.class);
+    static class HybridHttpSessionIdResolver implements HttpSessionIdResolver {
+        private final static Logger logger = LoggerFactory.getLogger(HybridHttpSessionIdResolver.class);
+
+        static final String HEADER_NAME = "X-Auth-Token";
+        static final String COOKIE_NAME = "SESSION";
+        static final int LOG_SAMPLE_RATE = 1024;
+
+        /** 요청에서 세션 ID를 읽은 방식({@link SessionIdTransport}) 요청 속성 */
+        static final String TRANSPORT_ATTR = HybridHttpSessionIdResolver.class.getName() + ".TRANSPORT";
+        private static final String RESOLVED_SESSION_IDS_ATTR = HybridHttpSessionIdResolver.class.getName() + ".RESOLVED_SESSION_IDS";
 
         private final HttpSessionIdResolver headerHttpSessionIdResolver = HeaderHttpSessionIdResolver.xAuthToken();
         private final HttpSessionIdResolver cookieHttpSessionIdResolver = new CookieHttpSessionIdResolver();
+        private final AtomicLong setSessionIdCount = new AtomicLong();
 
         @Override
+        @SuppressWarnings("unchecked")
         public List<String> resolveSessionIds(HttpServletRequest request) {
-            List<String> headerSessionId = this.headerHttpSessionIdResolver.resolveSessionIds(request);
-            if(!headerSessionId.isEmpty()) {
-                return headerSessionId;
+            // SessionRepositoryFilter는 요청 처리 중 여러 번 호출하므로 처음 읽은 결과를 재사용한다.
+            Object resolvedSessionIds = request.getAttribute(RESOLVED_SESSION_IDS_ATTR);
+            if(resolvedSessionIds != null) {
+                return (List<String>) resolvedSessionIds;
             }
 
-            return this.cookieHttpSessionIdResolver.resolveSessionIds(request);
+            List<String> sessionIds = List.of();
+            SessionIdTransport transport = SessionIdTransport.NONE;
+
+            String headerSessionId = request.getHeader(HEADER_NAME);
+            if(headerSessionId != null && !headerSessionId.isEmpty()) {
+                sessionIds = List.of(headerSessionId);
+                transport = SessionIdTransport.HEADER;
+            } else {
+                // HTTP/2는 쿠키를 여러 Cookie 헤더로 나누어 보낼 수 있다.
+                List<String> cookieSessionIds = new ArrayList<>();
+                Enumeration<String> cookieHeaders = request.getHeaders(HttpHeaders.COOKIE);
+                while(cookieHeaders != null && cookieHeaders.hasMoreElements()) {
+                    cookieSessionIds.addAll(sessionCookieValues(cookieHeaders.nextElement()));
+                }
+
+                if(!cookieSessionIds.isEmpty()) {
+                    sessionIds = List.copyOf(cookieSessionIds);
+                    transport = SessionIdTransport.COOKIE;
+                }
+            }
+
+            request.setAttribute(TRANSPORT_ATTR, transport);
+            request.setAttribute(RESOLVED_SESSION_IDS_ATTR, sessionIds);
+
+            return sessionIds;
         }
 
         @Override
         public void setSessionId(HttpServletRequest request, HttpServletResponse response, String sessionId) {
-            logger.info("session Id : {}", sessionId);
-            this.headerHttpSessionIdResolver.setSessionId(request, response, sessionId);
-            this.cookieHttpSessionIdResolver.setSessionId(request, response, sessionId);
+            List<String> resolvedSessionIds = resolveSessionIds(request);
+            if(resolvedSessionIds.contains(sessionId)) {
+                return;
+            }
+
+            if(this.setSessionIdCount.getAndIncrement() % LOG_SAMPLE_RATE == 0) {
+                logger.info("session Id : {} (sampled 1/{})", sessionId, LOG_SAMPLE_RATE);
+            }
+
+            SessionIdTransport transport = transportOf(request);
+            if(transport != SessionIdTransport.COOKIE) {
+                this.headerHttpSessionIdResolver.setSessionId(request, response, sessionId);
+            }
+            if(transport != SessionIdTransport.HEADER) {
+                this.cookieHttpSessionIdResolver.setSessionId(request, response, sessionId);
+            }
         }
 
         @Override
         public void expireSession(HttpServletRequest request, HttpServletResponse response) {
-            this.headerHttpSessionIdResolver.expireSession(request, response);
-            this.cookieHttpSessionIdResolver.expireSession(request, response);
+            SessionIdTransport transport = transportOf(request);
+            if(transport != SessionIdTransport.COOKIE) {
+                this.headerHttpSessionIdResolver.expireSession(request, response);
+            }
+            if(transport != SessionIdTransport.HEADER) {
+                this.cookieHttpSessionIdResolver.expireSession(request, response);
+            }
+        }
+
+        private SessionIdTransport transportOf(HttpServletRequest request) {
+            if(request.getAttribute(TRANSPORT_ATTR) == null) {
+                resolveSessionIds(request);
+            }
+
+            return (SessionIdTransport) request.getAttribute(TRANSPORT_ATTR);
+        }
+
+        /**
+         * <pre>
+         *     Cookie 헤더(name=value; name=value)에서 SESSION 쿠키 값을 모두 찾아 Base64 디코딩 한다.
+         *     {@link org.springframework.session.web.http.DefaultCookieSerializer}와 같이 Base64로 인코딩된 값을 읽으며
+         *     디코딩 할 수 없는 값은 무시한다.
+         * </pre>
+         *
+         * @return SESSION 쿠키가 없거나 디코딩 할 수 없으면 빈 목록.
+         */
+        static List<String> sessionCookieValues(String cookieHeader) {
+            if(cookieHeader == null) {
+                return List.of();
+            }
+
+            List<String> values = new ArrayList<>(1);
+
+            int length = cookieHeader.length();
+            int index = 0;
+            while(index < length) {
+                while(index < length && (cookieHeader.charAt(index) == ' ' || cookieHeader.charAt(index) == ';')) {
+                    index++;
+                }
+
+                int end = cookieHeader.indexOf(';', index);
+                if(end < 0) {
+                    end = length;
+                }
+
+                if(cookieHeader.startsWith(COOKIE_NAME, index)
+                        && index + COOKIE_NAME.length() < end
+                        && cookieHeader.charAt(index + COOKIE_NAME.length()) == '=') {
+
+                    int valueStart = index + COOKIE_NAME.length() + 1;
+                    int valueEnd = end;
+                    while(valueEnd > valueStart && cookieHeader.charAt(valueEnd - 1) == ' ') {
+                        valueEnd--;
+                    }
+                    if(valueEnd - valueStart >= 2 && cookieHeader.charAt(valueStart) == '"' && cookieHeader.charAt(valueEnd - 1) == '"') {
+                        valueStart++;
+                        valueEnd--;
+                    }
+
+                    if(valueEnd > valueStart) {
+                        try {
+                            values.add(new String(Base64.getDecoder().decode(cookieHeader.substring(valueStart, valueEnd)), StandardCharsets.UTF_8));
+                        } catch(IllegalArgumentException e) {
+                            // 디코딩 할 수 없는 값은 무시한다.
+                        }
+                    }
+                }
+
+                index = end + 1;
+            }
+
+            return values;
+        }
+
+        enum SessionIdTransport {
+            NONE, HEADER, COOKIE
         }
     }
 
     /**
      * <pre>
      *     Spring Session의 세션 정보를 MongoDB에 저장하기 위한 접속 정보 클래스
+     *     spring.mongodb.replica-set을 설정하면 spring.mongodb.hosts("{host}:{port}" 목록, 포트 생략 시 27017)의 replica set에 접속한다.
      * </pre>
      */
     @Configuration
+    @ConditionalOnProperty(prefix = "session", name = "store", havingValue = "mongo", matchIfMissing = true)
     static class SessionMongoDBConfig {
         private final String host;
         private final int port;
         private final String userName;
         private final String password;
         private final String authDatabase;
+        private final String replicaSet;
+        private final String[] hosts;
 
         public SessionMongoDBConfig(@Value("${spring.mongodb.host}")String host
                 , @Value("${spring.mongodb.port}")int port
                 , @Value("${spring.mongodb.username}")String userName
                 , @Value("${spring.mongodb.password}")String password
-                , @Value("${spring.mongodb.auth-database}")String authDatabase) {
+                , @Value("${spring.mongodb.auth-database}")String authDatabase
+                , @Value("${spring.mongodb.replica-set:}")String replicaSet
+                , @Value("${spring.mongodb.hosts:}")String[] hosts) {
 
             this.host = host;
             this.port = port;
             this.userName = userName;
             this.password = password;
             this.authDatabase = authDatabase;
+            this.replicaSet = replicaSet;
+            this.hosts = hosts;
         }
 
         @Bean
-        public MongoClient sessionMongoClient() {
+        public MongoClient sessionMongoClient(ObjectProvider<MeterRegistry> meterRegistry) {
 
             MongoCredential credential = MongoCredential.createCredential(this.userName
                     , this.authDatabase
                     , this.password.toCharArray());
 
-            MongoClientSettings settings = MongoClientSettings.builder().credential(credential)
-                    .applyToClusterSettings(builder -> builder
-                            .hosts(Arrays.asList(new ServerAddress(this.host, this.port))))
-                    .build();
+            MongoClientSettings.Builder settings = MongoClientSettings.builder().credential(credential);
+            if(this.replicaSet.isBlank()) {
+                settings.applyToClusterSettings(builder -> builder
+                        .hosts(Arrays.asList(new ServerAddress(this.host, this.port))));
+            } else {
+                List<ServerAddress> serverAddresses = Arrays.stream(this.hosts)
+                        .map(String::trim)
+                        .filter(hostAndPort -> !hostAndPort.isEmpty())
+                        // 포트가 없으면 27017, 잘못된 형식이면 IllegalArgumentException
+                        .map(ServerAddress::new)
+                        .toList();
+                settings.applyToClusterSettings(builder -> builder
+                        .hosts(serverAddresses.isEmpty() ? List.of(new ServerAddress(this.host, this.port)) : serverAddresses)
+                        .requiredReplicaSetName(this.replicaSet.trim()));
+            }
+            instrument(settings, meterRegistry, DEFAULT_STORE_NAME);
 
-            return MongoClients.create(settings);
+            return MongoClients.create(settings.build());
+        }
+
+        /**
+         * <pre>
+         *     세션 연산별 MongoDB 명령 지연 시간, 요청/응답 크기와 커넥션 풀 대기 시간을 Micrometer에 기록하는 Listener를 등록한다.
+         *     store 태그로 MongoDB 인스턴스(샤드)를 구분한다.
+         * </pre>
+         */
+        static void instrument(MongoClientSettings.Builder settings, ObjectProvider<MeterRegistry> meterRegistry, String storeName) {
+            meterRegistry.ifAvailable(registry -> settings
+                    .addCommandListener(new SessionMongoCommandListener(registry, storeName))
+                    .applyToConnectionPoolSettings(builder -> builder
+                            .addConnectionPoolListener(new SessionMongoConnectionPoolListener(registry, storeName))));
         }
 
         @Bean
@@ -189,6 +429,7 @@ public class SpringSessionConfig {
      * </pre>
      */
     @Configuration
+    @ConditionalOnProperty(prefix = "session", name = "store", havingValue = "mongo", matchIfMissing = true)
     static class CustomMongoHttpSessionConfig extends MongoHttpSessionConfiguration {
 
         @Override
@@ -197,6 +438,546 @@ public class SpringSessionConfig {
         }
     }
 
+    /**
+     * <pre>
+     *     session.store가 offheap이면 MongoDB 대신 노드 메모리(off-heap)에 세션을 저장한다. 단일 노드 실행과 테스트(CI)에서 사용한다.
+     *     MongoDB 접속 설정과 저장소 체인은 등록되지 않으며, 샤딩/만료 세션 정리기/관리 API는 MongoDB 저장소에서만 사용할 수 있다.
+     * </pre>
+     */
+    @Configuration
+    @EnableSpringHttpSession
+    @ConditionalOnProperty(prefix = "session", name = "store", havingValue = OffHeapMongoSessionRepository.STORE_NAME)
+    static class OffHeapSessionStoreConfig {
+
+        @Bean(destroyMethod = "close")
+        @Primary
+        public OffHeapMongoSessionRepository offHeapSessionRepository(@Value("${session.offheap.max-memory:1GB}") DataSize maxMemory
+                , @Value("${session.offheap.segment-size:64MB}") DataSize segmentSize
+                , @Value("${session.offheap.page-size:1MB}") DataSize pageSize
+                , @Value("${session.offheap.tick:1s}") Duration tick
+                , PerAttributeMongoSessionConverter mongoSessionConverter
+                , SessionIdGenerator sessionIdGenerator
+                , ApplicationEventPublisher applicationEventPublisher
+                , ObjectProvider<MeterRegistry> meterRegistry) {
+
+            OffHeapMongoSessionRepository sessionRepository = new OffHeapMongoSessionRepository(mongoSessionConverter
+                    , sessionIdGenerator
+                    , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL)
+                    , Math.toIntExact(segmentSize.toBytes())
+                    , Math.toIntExact(pageSize.toBytes())
+                    , maxMemory.toBytes()
+                    , tick);
+            sessionRepository.setApplicationEventPublisher(applicationEventPublisher);
+            meterRegistry.ifAvailable(sessionRepository::bindTo);
+
+            return sessionRepository;
+        }
+    }
+
+    /**
+     * <pre>
+     *     {@link MongoIndexedSessionRepository} 앞단에 부가 기능을 감싼 세션 저장소 체인 설정.
+     *
+     *     체인은 {@link Primary} Bean으로 등록되어 {@link org.springframework.session.web.http.SessionRepositoryFilter}와
+     *     {@link FindByIndexNameSessionRepository}를 주입 받는 곳에서 사용된다.
+     *     각 기능은 session.* 설정으로 활성화 한다.
+     *
+     *     write-behind 저장소는 체인 생성기({@link MongoSessionRepositoryChainFactory})의 lifecycle로 시작하고,
+     *     종료 시 웹 서버가 종료된 뒤 MongoClient가 닫히기 전에 대기 중인 세션을 모두 저장한다.
+     * </pre>
+     */
+    @Configuration
+    static class SessionRepositoryChainConfig {
+        private final String attributeCodec;
+        private final boolean deltaSaveEnabled;
+        private final boolean lazyLoadEnabled;
+        private final double touchThrottleRatio;
+        private final boolean nearCacheEnabled;
+        private final long nearCacheMaximumWeight;
+        private final boolean nearCacheValidateOnRead;
+        private final boolean sweeperEnabled;
+        private final Duration sweeperTtlGracePeriod;
+        private final boolean statelessEnabled;
+        private final String statelessSecret;
+        private final int statelessMaxTokenLength;
+        private final double statelessRefreshRatio;
+        private final boolean writeBehindEnabled;
+        private final Duration writeBehindFlushInterval;
+        private final int writeBehindMaxBatchSize;
+        private final int writeBehindMaxPendingSessions;
+        private final ReadPreference readPreference;
+
+        public SessionRepositoryChainConfig(@Value("${session.attribute-codec:compact}") String attributeCodec
+                , @Value("${session.delta-save.enabled:false}") boolean deltaSaveEnabled
+                , @Value("${session.delta-save.touch-throttle-ratio:0.0}") double touchThrottleRatio
+                , @Value("${session.lazy-load.enabled:false}") boolean lazyLoadEnabled
+                , @Value("${session.near-cache.enabled:false}") boolean nearCacheEnabled
+                , @Value("${session.near-cache.maximum-weight:67108864}") long nearCacheMaximumWeight
+                , @Value("${session.near-cache.validate-on-read:true}") boolean nearCacheValidateOnRead
+                , @Value("${session.sweeper.enabled:false}") boolean sweeperEnabled
+                , @Value("${session.sweeper.ttl-grace-period:1h}") Duration sweeperTtlGracePeriod
+                , @Value("${session.stateless.enabled:false}") boolean statelessEnabled
+                , @Value("${session.stateless.secret:}") String statelessSecret
+                , @Value("${session.stateless.max-token-length:1024}") int statelessMaxTokenLength
+                , @Value("${session.stateless.refresh-ratio:0.25}") double statelessRefreshRatio
+                , @Value("${session.write-behind.enabled:false}") boolean writeBehindEnabled
+                , @Value("${session.write-behind.flush-interval:100ms}") Duration writeBehindFlushInterval
+                , @Value("${session.write-behind.max-batch-size:500}") int writeBehindMaxBatchSize
+                , @Value("${session.write-behind.max-pending-sessions:10000}") int writeBehindMaxPendingSessions
+                , @Value("${session.read-preference.enabled:false}") boolean readPreferenceEnabled
+                , @Value("${session.read-preference.mode:secondaryPreferred}") String readPreferenceMode
+                , @Value("${session.read-preference.max-staleness:90s}") Duration readPreferenceMaxStaleness) {
+
+            this.attributeCodec = attributeCodec;
+            this.deltaSaveEnabled = deltaSaveEnabled;
+            this.touchThrottleRatio = touchThrottleRatio;
+            this.lazyLoadEnabled = lazyLoadEnabled;
+            this.nearCacheEnabled = nearCacheEnabled;
+            this.nearCacheMaximumWeight = nearCacheMaximumWeight;
+            this.nearCacheValidateOnRead = nearCacheValidateOnRead;
+            this.sweeperEnabled = sweeperEnabled;
+            this.sweeperTtlGracePeriod = sweeperTtlGracePeriod;
+            this.statelessEnabled = statelessEnabled;
+            this.statelessSecret = statelessSecret;
+            this.statelessMaxTokenLength = statelessMaxTokenLength;
+            this.statelessRefreshRatio = statelessRefreshRatio;
+            this.writeBehindEnabled = writeBehindEnabled;
+            this.writeBehindFlushInterval = writeBehindFlushInterval;
+            this.writeBehindMaxBatchSize = writeBehindMaxBatchSize;
+            this.writeBehindMaxPendingSessions = writeBehindMaxPendingSessions;
+            // primary는 maxStaleness를 지정할 수 없고 primary에서 다시 조회할 필요도 없으므로 사용하지 않는다.
+            this.readPreference = (readPreferenceEnabled && !"primary".equalsIgnoreCase(readPreferenceMode))
+                    ? ReadPreference.valueOf(readPreferenceMode, List.of(), readPreferenceMaxStaleness.toSeconds(), TimeUnit.SECONDS)
+                    : null;
+        }
+
+        /**
+         * <pre>
+         *     세션 속성 값 Codec.
+         *     세션에 record를 저장하는 경우 등록 번호와 함께 등록해야 전용 형식으로 저장되며, 등록 번호는 변경하면 안된다.
+         * </pre>
+         */
+        @Bean
+        public CompactAttributeCodec compactAttributeCodec() {
+            return new CompactAttributeCodec()
+                    .register(1, CompositionMember.class);
+        }
+
+        /**
+         * <pre>
+         *     session.compression.threshold(byte) 이상인 세션 속성 값을 압축하는 Codec.
+         *
+         *     session.compression.dictionary에 사전 파일 위치(classpath:, file:)를 설정하면 사전을 사용하여 압축한다.
+         *     사전을 교체하는 경우 이전 사전은 session.compression.previous-dictionaries에 남겨두어야
+         *     이전 사전으로 압축된 세션을 읽을 수 있다.
+         * </pre>
+         */
+        @Bean
+        public CompressingAttributeCodec compressingAttributeCodec(@Value("${session.compression.threshold:1024}") int threshold
+                , @Value("${session.compression.level:1}") int level
+                , @Value("${session.compression.dictionary:}") String dictionary
+                , @Value("${session.compression.previous-dictionaries:}") String[] previousDictionaries
+                , ResourceLoader resourceLoader
+                , ObjectProvider<MeterRegistry> meterRegistry) throws IOException {
+
+            List<byte[]> previousDictionaryBytes = new ArrayList<>();
+            for(String previousDictionary : previousDictionaries) {
+                if(!previousDictionary.isBlank()) {
+                    previousDictionaryBytes.add(resourceLoader.getResource(previousDictionary.trim()).getContentAsByteArray());
+                }
+            }
+
+            CompressingAttributeCodec compressingAttributeCodec = new CompressingAttributeCodec(threshold
+                    , dictionary.isBlank() ? null : resourceLoader.getResource(dictionary.trim()).getContentAsByteArray()
+                    , previousDictionaryBytes);
+            compressingAttributeCodec.setLevel(level);
+            meterRegistry.ifAvailable(compressingAttributeCodec::bindTo);
+
+            return compressingAttributeCodec;
+        }
+
+        /**
+         * <pre>
+         *     세션 속성을 속성별 필드로 저장하는 Converter.
+         *     {@link AbstractMongoSessionConverter} 타입의 Bean은 {@link MongoHttpSessionConfiguration#setMongoSessionConverter(AbstractMongoSessionConverter)}를 통해
+         *     {@link MongoIndexedSessionRepository}에 설정된다.
+         *
+         *     session.document-format이 per-attribute인 경우에만 등록한다. 설정하지 않으면 Bean이 없으므로 {@link MongoIndexedSessionRepository}는
+         *     기존과 같이 {@link JdkMongoSessionConverter} 형식으로 저장하여 이전 버전 노드와 함께 실행(rolling 배포, rollback)할 수 있다.
+         *     속성별 형식으로 저장된 문서는 이전 버전 노드가 읽을 수 없으므로 모든 노드를 배포한 뒤 설정한다.
+         *     off-heap 저장소는 MongoDB 문서를 저장하지 않으므로 속성 직렬화에 항상 사용한다.
+         *
+         *     session.attribute-codec이 compact면 {@link CompactAttributeCodec}, jdk면 JDK 직렬화로 속성 값을 저장한다.
+         *     {@link CompactAttributeCodec}은 JDK 직렬화로 저장된 값도 읽을 수 있으므로 jdk에서 compact로 바로 전환할 수 있다.
+         *     session.compression.enabled가 true면 인코딩한 값을 {@link CompressingAttributeCodec}으로 압축한다.
+         *     session.profiler.enabled가 true면 문서/속성 크기와 직렬화 시간을 {@link SessionProfiler}로 기록한다.
+         * </pre>
+         */
+        @Bean
+        @Conditional(PerAttributeDocumentFormatCondition.class)
+        public PerAttributeMongoSessionConverter mongoSessionConverter(CompactAttributeCodec compactAttributeCodec
+                , CompressingAttributeCodec compressingAttributeCodec
+                , @Value("${session.compression.enabled:false}") boolean compressionEnabled
+                , ObjectProvider<SessionProfiler> sessionProfiler) {
+
+            Duration maxInactiveInterval = Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+
+            Converter<Object, byte[]> serializer;
+            Converter<byte[], Object> deserializer;
+            if("jdk".equalsIgnoreCase(this.attributeCodec)) {
+                serializer = new SerializingConverter();
+                deserializer = new DeserializingConverter();
+            } else {
+                serializer = compactAttributeCodec::encode;
+                deserializer = compactAttributeCodec::decode;
+            }
+
+            // 압축을 끄고 되돌리거나 일부 노드만 압축을 사용해도 압축된 값을 읽을 수 있도록 압축 해제는 항상 적용한다.
+            Converter<byte[], Object> uncompressedDeserializer = deserializer;
+            deserializer = bytes -> uncompressedDeserializer.convert(compressingAttributeCodec.decode(bytes));
+
+            if(compressionEnabled) {
+                Converter<Object, byte[]> uncompressedSerializer = serializer;
+                serializer = value -> compressingAttributeCodec.encode(uncompressedSerializer.convert(value));
+            }
+
+            PerAttributeMongoSessionConverter mongoSessionConverter = new PerAttributeMongoSessionConverter(serializer, deserializer, maxInactiveInterval);
+
+            // 만료 세션 정리기를 사용하면 TTL Monitor가 먼저 삭제하지 않도록 TTL 인덱스에 유예 시간을 둔다.
+            if(this.sweeperEnabled) {
+                mongoSessionConverter.setExpireAtIndexGracePeriod(this.sweeperTtlGracePeriod);
+            }
+
+            sessionProfiler.ifAvailable(mongoSessionConverter::setSessionProfiler);
+
+            return mongoSessionConverter;
+        }
+
+        /**
+         * <pre>
+         *     세션 문서 크기와 속성별 크기, 직렬화 시간 프로파일러. /actuator/sessionprofile로 조회한다.
+         *     session.profiler.sample-rate 비율의 문서 조회/저장과 속성 직렬화만 기록한다.
+         * </pre>
+         */
+        @Bean
+        @ConditionalOnProperty(prefix = "session.profiler", name = "enabled", havingValue = "true")
+        public SessionProfiler sessionProfiler(@Value("${session.profiler.sample-rate:0.1}") double sampleRate
+                , @Value("${session.profiler.top-k:20}") int topK
+                , @Value("${session.profiler.max-attribute-names:100}") int maxAttributeNames) {
+
+            return new SessionProfiler(sampleRate, topK, maxAttributeNames);
+        }
+
+        @Bean
+        @ConditionalOnProperty(prefix = "session.profiler", name = "enabled", havingValue = "true")
+        public SessionProfileEndpoint sessionProfileEndpoint(SessionProfiler sessionProfiler) {
+            return new SessionProfileEndpoint(sessionProfiler);
+        }
+
+        /**
+         * <pre>
+         *     세션 저장소 체인 생성기. session.* 설정으로 활성화한 기능을 저장소(샤드)마다 적용한다.
+         *     near-cache를 제외한 기능은 속성별 문서 형식을 사용하므로 session.document-format이 per-attribute가 아니면 시작하지 않는다.
+         * </pre>
+         */
+        @Bean
+        @ConditionalOnProperty(prefix = "session", name = "store", havingValue = "mongo", matchIfMissing = true)
+        public MongoSessionRepositoryChainFactory mongoSessionRepositoryChainFactory(ObjectProvider<PerAttributeMongoSessionConverter> mongoSessionConverter
+                , SessionIdGenerator sessionIdGenerator
+                , ObjectProvider<MeterRegistry> meterRegistry) {
+
+            PerAttributeMongoSessionConverter perAttributeMongoSessionConverter = mongoSessionConverter.getIfAvailable();
+            requirePerAttributeDocumentFormat(perAttributeMongoSessionConverter, "session.lazy-load.enabled", this.lazyLoadEnabled);
+            requirePerAttributeDocumentFormat(perAttributeMongoSessionConverter, "session.delta-save.enabled", this.deltaSaveEnabled);
+            requirePerAttributeDocumentFormat(perAttributeMongoSessionConverter, "session.stateless.enabled", this.statelessEnabled);
+            requirePerAttributeDocumentFormat(perAttributeMongoSessionConverter, "session.write-behind.enabled", this.writeBehindEnabled);
+            requirePerAttributeDocumentFormat(perAttributeMongoSessionConverter, "session.read-preference.enabled", this.readPreference != null);
+
+            MongoSessionRepositoryChainFactory chainFactory = new MongoSessionRepositoryChainFactory(perAttributeMongoSessionConverter, sessionIdGenerator, meterRegistry);
+            if(this.lazyLoadEnabled) {
+                chainFactory.enableLazyLoad();
+            }
+            if(this.deltaSaveEnabled) {
+                chainFactory.enableDeltaSave(this.touchThrottleRatio);
+            }
+            if(this.nearCacheEnabled) {
+                chainFactory.enableNearCache(this.nearCacheMaximumWeight, this.nearCacheValidateOnRead);
+            }
+            if(this.statelessEnabled) {
+                chainFactory.enableStateless(SessionTokenCipher.of(this.statelessSecret), this.statelessMaxTokenLength, this.statelessRefreshRatio);
+            }
+            if(this.writeBehindEnabled) {
+                chainFactory.enableWriteBehind(this.writeBehindFlushInterval, this.writeBehindMaxBatchSize, this.writeBehindMaxPendingSessions);
+            }
+            if(this.readPreference != null) {
+                chainFactory.enableReadPreference(this.readPreference);
+            }
+
+            return chainFactory;
+        }
+
+        /**
+         * <pre>
+         *     session.sharding.enabled가 true면 {@link ShardedMongoSessionRepository}를 기반 저장소로 사용하고
+         *     샤드마다 변경 속성 저장(delta save)을 적용한다. L1 캐시는 샤드 저장소 앞단에 하나만 둔다.
+         *     session.stateless.enabled가 true면 작은 세션은 {@link StatelessTokenMongoSessionRepository}가 암호화된 토큰으로 전달한다.
+         *
+         *     MongoSession은 package-private이므로 체인은 {@link ForwardingMongoSessionRepository} 타입으로 등록한다.
+         * </pre>
+         */
+        @Bean
+        @Primary
+        @ConditionalOnProperty(prefix = "session", name = "store", havingValue = "mongo", matchIfMissing = true)
+        public ForwardingMongoSessionRepository sessionRepositoryChain(MongoSessionRepositoryChainFactory chainFactory
+                , MongoIndexedSessionRepository mongoSessionRepository
+                , MongoOperations sessionMongoTemplate
+                , ObjectProvider<MongoSessionShards> mongoSessionShards) {
+
+            return chainFactory.sessionRepositoryChain(mongoSessionRepository, sessionMongoTemplate, mongoSessionShards.getIfAvailable());
+        }
+
+        /**
+         * <pre>
+         *     session.sharding.nodes에 설정한 MongoDB 인스턴스마다 세션 저장소를 생성한다.
+         *     노드는 "{샤드명}={host}:{port}" 형식이며 샤드명은 링 위치를 결정하므로 host가 바뀌어도 유지해야 한다.
+         *
+         *     노드 추가 시 session.sharding.previous-nodes에 추가 전 샤드명 목록을 설정하면
+         *     소유 샤드가 바뀐 세션을 이전 샤드에서 조회하고 저장 시 새 샤드로 옮긴다.
+         *     최대 비활성 시간이 지나면 이전 샤드에 남은 세션은 모두 만료 되므로 previous-nodes 설정을 제거한다.
+         * </pre>
+         */
+        @Bean
+        @ConditionalOnProperty(prefix = "session.sharding", name = "enabled", havingValue = "true")
+        public MongoSessionShards mongoSessionShards(@Value("${session.sharding.nodes}") String[] nodes
+                , @Value("${session.sharding.previous-nodes:}") String[] previousNodes
+                , @Value("${session.sharding.virtual-nodes:160}") int virtualNodes
+                , @Value("${spring.mongodb.username}") String userName
+                , @Value("${spring.mongodb.password}") String password
+                , @Value("${spring.mongodb.auth-database}") String authDatabase
+                , MongoSessionRepositoryChainFactory chainFactory
+                , ObjectProvider<PerAttributeMongoSessionConverter> mongoSessionConverter
+                , ApplicationEventPublisher applicationEventPublisher
+                , SessionIdGenerator sessionIdGenerator
+                , ObjectProvider<MeterRegistry> meterRegistry) {
+
+            MongoCredential credential = MongoCredential.createCredential(userName, authDatabase, password.toCharArray());
+
+            List<MongoSessionShards.Shard> shards = new ArrayList<>();
+            // 잘못된 노드 설정이 있으면 MongoClient를 생성하기 전에 시작하지 않도록 모든 노드를 먼저 확인한다.
+            for(Map.Entry<String, ServerAddress> shardAddress : shardAddressesOf(nodes).entrySet()) {
+                String shardName = shardAddress.getKey();
+                ServerAddress serverAddress = shardAddress.getValue();
+
+                MongoClientSettings.Builder settings = MongoClientSettings.builder().credential(credential)
+                        .applyToClusterSettings(builder -> builder
+                                .hosts(List.of(serverAddress)));
+                SessionMongoDBConfig.instrument(settings, meterRegistry, shardName);
+
+                MongoClient mongoClient = MongoClients.create(settings.build());
+
+                MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, "Session");
+                ((MappingMongoConverter) mongoTemplate.getConverter()).setTypeMapper(new DefaultMongoTypeMapper(null));
+
+                MongoIndexedSessionRepository shardSessionRepository = new MongoIndexedSessionRepository(mongoTemplate);
+                shardSessionRepository.setDefaultMaxInactiveInterval(Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL));
+                // 속성별 형식을 사용하지 않으면 기본 저장소와 같이 JdkMongoSessionConverter 형식으로 저장한다.
+                mongoSessionConverter.ifAvailable(shardSessionRepository::setMongoSessionConverter);
+                shardSessionRepository.setApplicationEventPublisher(applicationEventPublisher);
+                shardSessionRepository.setSessionIdGenerator(sessionIdGenerator);
+                shardSessionRepository.afterPropertiesSet();
+
+                shards.add(chainFactory.shard(shardName, mongoTemplate, shardSessionRepository, mongoClient));
+            }
+
+            List<String> previousShardNames = Arrays.stream(previousNodes)
+                    .map(String::trim)
+                    .filter(previousNode -> !previousNode.isEmpty())
+                    .map(previousNode -> previousNode.split("=", 2)[0].trim())
+                    .toList();
+
+            return new MongoSessionShards(shards, previousShardNames, virtualNodes);
+        }
+
+        /**
+         * <pre>
+         *     세션 쓰기 시각(X-Auth-Token-Ts)을 주고 받는 필터. {@link SessionRepositoryFilter} 앞에 등록한다.
+         * </pre>
+         */
+        @Bean
+        @ConditionalOnProperty(prefix = "session.read-preference", name = "enabled", havingValue = "true")
+        public FilterRegistrationBean<SessionWriteTimestampFilter> sessionWriteTimestampFilter() {
+            FilterRegistrationBean<SessionWriteTimestampFilter> registration = new FilterRegistrationBean<>(new SessionWriteTimestampFilter());
+            registration.setOrder(SessionWriteTimestampFilter.DEFAULT_ORDER);
+
+            return registration;
+        }
+
+        /**
+         * <pre>
+         *     "{샤드명}={host}:{port}" 형식의 노드 목록을 샤드명별 주소로 변환한다. (포트 생략 시 27017)
+         *     형식이 잘못된 노드가 있으면 해당 노드 설정을 포함한 메시지로 시작하지 않는다.
+         * </pre>
+         */
+        static Map<String, ServerAddress> shardAddressesOf(String[] nodes) {
+            Map<String, ServerAddress> shardAddresses = new LinkedHashMap<>();
+            for(String node : nodes) {
+                String message = "invalid session.sharding.nodes entry (expected {shard}={host}:{port}) : " + node;
+
+                String[] nameAndAddress = node.trim().split("=", 2);
+                // ServerAddress는 빈 host와 범위를 벗어난 port를 확인하지 않는다.
+                if(nameAndAddress.length != 2 || nameAndAddress[0].isBlank() || nameAndAddress[1].isBlank() || nameAndAddress[1].trim().startsWith(":")) {
+                    throw new IllegalArgumentException(message);
+                }
+
+                ServerAddress serverAddress;
+                try {
+                    serverAddress = new ServerAddress(nameAndAddress[1].trim());
+                } catch(RuntimeException e) {
+                    throw new IllegalArgumentException(message, e);
+                }
+
+                if(serverAddress.getPort() < 1 || serverAddress.getPort() > 65535) {
+                    throw new IllegalArgumentException(message);
+                }
+                if(shardAddresses.put(nameAndAddress[0].trim(), serverAddress) != null) {
+                    throw new IllegalArgumentException("duplicate shard name in session.sharding.nodes : " + node);
+                }
+            }
+
+            return shardAddresses;
+        }
+
+        /**
+         * <pre>
+         *     속성별 문서 형식이 필요한 기능을 형식 설정 없이 사용하면 이전 형식 문서와 섞이지 않도록 시작하지 않는다.
+         * </pre>
+         */
+        private static void requirePerAttributeDocumentFormat(PerAttributeMongoSessionConverter mongoSessionConverter, String property, boolean enabled) {
+            if(enabled && mongoSessionConverter == null) {
+                throw new IllegalStateException(property + " requires session.document-format=" + PerAttributeMongoSessionConverter.DOCUMENT_FORMAT);
+            }
+        }
+    }
+
+    /**
+     * <pre>
+     *     {@link PerAttributeMongoSessionConverter} 등록 조건.
+     *     session.document-format이 per-attribute이거나, 문서를 저장하지 않는 off-heap 저장소를 사용하는 경우 등록한다.
+     * </pre>
+     */
+    static class PerAttributeDocumentFormatCondition extends AnyNestedCondition {
+
+        PerAttributeDocumentFormatCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "session", name = "document-format", havingValue = PerAttributeMongoSessionConverter.DOCUMENT_FORMAT)
+        static class PerAttributeDocumentFormat {
+        }
+
+        @ConditionalOnProperty(prefix = "session", name = "store", havingValue = OffHeapMongoSessionRepository.STORE_NAME)
+        static class OffHeapStore {
+        }
+    }
+
+    /**
+     * <pre>
+     *     만료 세션 정리기 설정. session.sweeper.enabled가 true인 경우에만 등록된다. (MongoDB 저장소 전용)
+     *
+     *     MongoDB 인스턴스(샤드)마다 {@link ExpiredSessionSweeper}를 생성하여 session.sweeper.interval 간격으로 실행한다.
+     *     여러 노드에서 실행 되어도 MongoDB 인스턴스마다 lease를 획득한 노드 하나만 정리한다.
+     * </pre>
+     */
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(prefix = "session.sweeper", name = "enabled", havingValue = "true")
+    static class ExpiredSessionSweeperConfig implements SchedulingConfigurer {
+        private final List<ExpiredSessionSweeper> sweepers = new ArrayList<>();
+        private final Duration interval;
+
+        public ExpiredSessionSweeperConfig(@Value("${session.sweeper.interval:1m}") Duration interval
+                , @Value("${session.sweeper.page-size:500}") int pageSize
+                , @Value("${session.sweeper.max-pages-per-sweep:100}") int maxPagesPerSweep
+                , @Value("${session.sweeper.max-deletes-per-second:2000}") int maxDeletesPerSecond
+                , @Value("${session.sweeper.lease-duration:2m}") Duration leaseDuration
+                , MongoOperations sessionMongoTemplate
+                , ObjectProvider<MongoSessionShards> mongoSessionShards
+                , ObjectProvider<PerAttributeMongoSessionConverter> mongoSessionConverter
+                , ApplicationEventPublisher applicationEventPublisher
+                , ObjectProvider<MeterRegistry> meterRegistry) {
+
+            // TTL 인덱스 유예 시간은 속성별 형식의 Converter가 설정하므로 이전 형식에서는 TTL Monitor와 정리기가 함께 삭제하게 된다.
+            PerAttributeMongoSessionConverter perAttributeMongoSessionConverter = mongoSessionConverter.getIfAvailable(() -> {
+                throw new IllegalStateException("session.sweeper.enabled requires session.document-format=" + PerAttributeMongoSessionConverter.DOCUMENT_FORMAT);
+            });
+
+            this.interval = interval;
+
+            Map<String, MongoOperations> stores = new LinkedHashMap<>();
+            MongoSessionShards shards = mongoSessionShards.getIfAvailable();
+            if(shards != null) {
+                shards.all().forEach(shard -> stores.put(shard.name(), shard.mongoOperations()));
+            } else {
+                stores.put(DEFAULT_STORE_NAME, sessionMongoTemplate);
+            }
+
+            stores.forEach((storeName, mongoOperations) -> {
+                ExpiredSessionSweeper sweeper = new ExpiredSessionSweeper(storeName
+                        , mongoOperations
+                        , MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME
+                        , perAttributeMongoSessionConverter
+                        , applicationEventPublisher);
+                sweeper.setPageSize(pageSize);
+                sweeper.setMaxPagesPerSweep(maxPagesPerSweep);
+                sweeper.setMaxDeletesPerSecond(maxDeletesPerSecond);
+                sweeper.setLeaseDuration(leaseDuration);
+                meterRegistry.ifAvailable(sweeper::bindTo);
+
+                this.sweepers.add(sweeper);
+            });
+        }
+
+        @Override
+        public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+            for(ExpiredSessionSweeper sweeper : this.sweepers) {
+                taskRegistrar.addFixedDelayTask(sweeper::sweep, this.interval);
+            }
+        }
+    }
+
+    /**
+     * <pre>
+     *     principal(회원 ID)별 세션 조회/일괄 삭제 관리 API 설정. session.admin.enabled가 true인 경우에만 등록된다. (MongoDB 저장소 전용)
+     *     샤딩 사용 시 모든 샤드를 대상으로 한다.
+     * </pre>
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "session.admin", name = "enabled", havingValue = "true")
+    static class PrincipalSessionAdminConfig {
+
+        @Bean
+        public PrincipalSessionOperations principalSessionOperations(@Value("${session.admin.page-size:500}") int pageSize
+                , MongoOperations sessionMongoTemplate
+                , ObjectProvider<MongoSessionShards> mongoSessionShards
+                , ApplicationEventPublisher applicationEventPublisher) {
+
+            Map<String, MongoOperations> stores = new LinkedHashMap<>();
+            MongoSessionShards shards = mongoSessionShards.getIfAvailable();
+            if(shards != null) {
+                shards.all().forEach(shard -> stores.put(shard.name(), shard.mongoOperations()));
+            } else {
+                stores.put(DEFAULT_STORE_NAME, sessionMongoTemplate);
+            }
+
+            PrincipalSessionOperations principalSessionOperations = new PrincipalSessionOperations(stores
+                    , MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME
+                    , applicationEventPublisher);
+            principalSessionOperations.setPageSize(pageSize);
+
+            return principalSessionOperations;
+        }
+    }
+
     /**
      * <pre>
      *     {@link MongoIndexedSessionRepository#setApplicationEventPublisher(ApplicationEventPublisher)} 메서드를 통해 이벤트 개시 Bean이 설정된다.
@@ -211,6 +992,10 @@ public class SpringSessionConfig {
      *     이벤트 개시 인터페이스인 {@link AbstractApplicationContext#applicationEventMulticaster}의 구현체는 {@link AbstractApplicationContext#initApplicationEventMulticaster()}
      *     메서드에서 초기화 하는데 {@link AbstractApplicationContext#APPLICATION_EVENT_MULTICASTER_BEAN_NAME} 이름으로 {@link ApplicationEventMulticaster} 구현된 Bean이 있으면 해당 Bean으로 초기화 하고
      *     없으면 {@link SimpleApplicationEventMulticaster} 구현체로 초기화를 한다.
+     *
+     *     session.events.async.enabled가 true면 {@link SessionEventConfig}에서 등록한 {@link AsyncSessionEventMulticaster}가 별도 스레드에서 전달 하므로
+     *     Listener에서는 {@link org.springframework.web.context.request.RequestContextHolder} 대신
+     *     {@link SessionEventRequestSnapshot#current()}로 이벤트 발생 시점의 요청 정보를 조회한다. (동기 전달 시에는 현재 요청 정보)
      * </pre>
      */
     @Component
@@ -219,10 +1004,9 @@ public class SpringSessionConfig {
 
         @EventListener
         void createEvent(SessionCreatedEvent sessionCreatedEvent) {
-            HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
-            HttpServletResponse response = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getResponse();
+            SessionEventRequestSnapshot request = SessionEventRequestSnapshot.current();
 
-            logger.info("create session id : {}", sessionCreatedEvent.getSessionId());
+            logger.info("create session id : {}, remote address : {}", sessionCreatedEvent.getSessionId(), request.remoteAddress());
         }
 
         @EventListener
@@ -232,15 +1016,66 @@ public class SpringSessionConfig {
 
         @EventListener
         void destroyedEvent(SessionDestroyedEvent sessionDestroyedEvent) {
-            HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
-            HttpServletResponse response = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getResponse();
+            SessionEventRequestSnapshot request = SessionEventRequestSnapshot.current();
 
-            logger.info("destroy session id : {}", sessionDestroyedEvent.getSessionId());
+            logger.info("destroy session id : {}, request uri : {}", sessionDestroyedEvent.getSessionId(), request.requestUri());
         }
 
         @EventListener
         void expiredEvent(SessionExpiredEvent sessionExpiredEvent) {
             logger.info("expire session id : {}", sessionExpiredEvent.getSessionId());
         }
+
+        @EventListener
+        void batchEvent(SessionEventBatch sessionEventBatch) {
+            logger.debug("session event batch size : {}", sessionEventBatch.getEntries().size());
+        }
+    }
+
+    /**
+     * <pre>
+     *     세션 이벤트를 요청 스레드가 아닌 별도 스레드에서 묶어서 전달하기 위한 설정.
+     *
+     *     {@link AbstractApplicationContext#APPLICATION_EVENT_MULTICASTER_BEAN_NAME} 이름으로 {@link AsyncSessionEventMulticaster}를 등록하면
+     *     {@link AbstractApplicationContext#initApplicationEventMulticaster()}에서 {@link SimpleApplicationEventMulticaster} 대신 사용된다.
+     *     session.events.async.enabled가 true인 경우에만 등록하며, 설정하지 않으면 기존과 동일하게 요청 스레드에서 동기로 전달한다.
+     *
+     *     해당 Bean은 다른 Bean 보다 먼저 생성 되므로 MeterRegistry를 주입 받지 않고
+     *     {@link io.micrometer.core.instrument.binder.MeterBinder} Bean으로 Spring Boot Actuator가 등록하도록 한다.
+     * </pre>
+     */
+    @Configuration
+    static class SessionEventConfig {
+
+        @Bean(name = AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+        @ConditionalOnProperty(prefix = "session.events.async", name = "enabled", havingValue = "true")
+        public static AsyncSessionEventMulticaster applicationEventMulticaster(@Value("${session.events.async.queue-capacity:10000}") int queueCapacity
+                , @Value("${session.events.async.max-batch-size:256}") int maxBatchSize
+                , @Value("${session.events.async.offer-timeout:10ms}") Duration offerTimeout) {
+
+            return new AsyncSessionEventMulticaster(queueCapacity, maxBatchSize, offerTimeout);
+        }
+    }
+
+    /**
+     * <pre>
+     *     가상 스레드 실행 모드 설정.
+     *
+     *     spring.threads.virtual.enabled가 true면 Spring Boot가 Tomcat 요청 처리 스레드를 가상 스레드로 실행하므로
+     *     {@link SessionRepositoryFilter}의 세션 조회/저장(MongoDB I/O) 동안 carrier 스레드를 점유하지 않는다.
+     *
+     *     가상 스레드가 synchronized 블록 안에서 블로킹 되면 carrier 스레드에 고정(pinning)되어 효과가 사라지므로
+     *     {@link VirtualThreadPinningMonitor}로 세션 처리 경로에서 발생한 고정을 메트릭과 로그로 남긴다.
+     * </pre>
+     */
+    @Configuration
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    static class VirtualThreadConfig {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnProperty(prefix = "session.virtual-threads.pinning-monitor", name = "enabled", havingValue = "true", matchIfMissing = true)
+        public VirtualThreadPinningMonitor virtualThreadPinningMonitor(@Value("${session.virtual-threads.pinning-monitor.threshold:20ms}") Duration threshold) {
+            return new VirtualThreadPinningMonitor(threshold);
+        }
     }
 }
@@ -1,8 +1,14 @@
 package com.springSession.config;
 
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.entity.CompositionMember;
+import com.springSession.repository.SessionRepositoryImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
+import org.springframework.session.data.mongo.OffHeapSessionMemory;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -15,9 +21,38 @@ public class WebConfig {
 
             @Override
             public void addCorsMappings(CorsRegistry registry) {
+                // 먼저 등록한 경로가 우선 적용된다. 인증이 없는 관리 API는 다른 origin에서 호출할 수 없도록 허용 origin을 비운다.
+                registry.addMapping("/admin/**")
+                        .allowedOrigins();
                 registry.addMapping("/**")
                         .allowedOriginPatterns("*");
             }
         };
     }
+
+    /**
+     * <pre>
+     *     회원 ID로 색인하는 회원 저장소.
+     *     session.member-store.off-heap이 true면 회원을 세션 속성 값과 같은 {@link CompactAttributeCodec}으로 인코딩 하여
+     *     {@link OffHeapSessionMemory}의 off-heap slot에 저장한다.
+     * </pre>
+     */
+    @Bean
+    public SessionRepositoryImpl<CompositionMember> sessionRepositoryImpl(CompactAttributeCodec compactAttributeCodec
+            , @Value("${session.member-store.maximum-size:100000}") long maximumSize
+            , @Value("${session.member-store.off-heap:false}") boolean offHeap
+            , @Value("${session.member-store.max-memory:64MB}") DataSize maxMemory
+            , @Value("${session.member-store.segment-size:4MB}") DataSize segmentSize
+            , @Value("${session.member-store.page-size:64KB}") DataSize pageSize) {
+
+        if(!offHeap) {
+            return new SessionRepositoryImpl<>(CompositionMember::id, maximumSize);
+        }
+
+        return new SessionRepositoryImpl<>(CompositionMember::id
+                , maximumSize
+                , compactAttributeCodec::encode
+                , bytes -> (CompositionMember) compactAttributeCodec.decode(bytes)
+                , new OffHeapSessionMemory(Math.toIntExact(segmentSize.toBytes()), Math.toIntExact(pageSize.toBytes()), maxMemory.toBytes()));
+    }
 }
@@ -0,0 +1,45 @@
+package com.springSession.controller.admin.impl.session.v1;
+
+import com.springSession.controller.admin.interfaces.session.command.v1.AdminSessionCommandControllerV1;
+import com.springSession.controller.admin.interfaces.session.read.v1.AdminSessionReadControllerV1;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.session.data.mongo.PrincipalSessionOperations;
+import org.springframework.session.data.mongo.PrincipalSessionOperations.PrincipalSessionPage;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * <pre>
+ *     principal(회원 ID)별 세션 관리 API. session.admin.enabled가 true인 경우에만 등록된다.
+ *     인증을 제공하지 않으므로 외부에 노출하지 않는 경로(내부망, Gateway)에서만 접근하도록 한다.
+ *     다른 origin에서는 호출할 수 없고(CORS), 조회 결과의 세션 ID는 가린 값({@link com.springSession.session.CompactSessionIdGenerator#mask(String)})만 반환한다.
+ * </pre>
+ */
+@RestController
+@RequestMapping("/admin/v1/session")
+@ConditionalOnProperty(prefix = "session.admin", name = "enabled", havingValue = "true")
+public class AdminSessionControllerV1Impl implements AdminSessionReadControllerV1
+        , AdminSessionCommandControllerV1 {
+
+    private final static Logger logger = LoggerFactory.getLogger(AdminSessionControllerV1Impl.class);
+
+    private final PrincipalSessionOperations principalSessionOperations;
+
+    public AdminSessionControllerV1Impl(PrincipalSessionOperations principalSessionOperations) {
+        this.principalSessionOperations = principalSessionOperations;
+    }
+
+    @Override
+    public PrincipalSessionPage findPrincipalSessions(String principalName, String cursor, int size) {
+        return this.principalSessionOperations.findSessions(principalName, cursor, size);
+    }
+
+    @Override
+    public int invalidatePrincipalSessions(String principalName) {
+        logger.info("invalidate principal sessions : {}", principalName);
+
+        return this.principalSessionOperations.invalidateSessions(principalName);
+    }
+}
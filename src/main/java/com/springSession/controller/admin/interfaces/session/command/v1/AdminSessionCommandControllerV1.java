@@ -0,0 +1,10 @@
+package com.springSession.controller.admin.interfaces.session.command.v1;
+
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+public interface AdminSessionCommandControllerV1 {
+
+    @DeleteMapping("/principal/{principalName}")
+    int invalidatePrincipalSessions(@PathVariable("principalName") String principalName);
+}
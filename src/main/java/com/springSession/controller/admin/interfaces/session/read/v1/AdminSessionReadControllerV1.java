@@ -0,0 +1,14 @@
+package com.springSession.controller.admin.interfaces.session.read.v1;
+
+import org.springframework.session.data.mongo.PrincipalSessionOperations.PrincipalSessionPage;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+public interface AdminSessionReadControllerV1 {
+
+    @GetMapping("/principal/{principalName}")
+    PrincipalSessionPage findPrincipalSessions(@PathVariable("principalName") String principalName
+            , @RequestParam(name = "cursor", required = false) String cursor
+            , @RequestParam(name = "size", defaultValue = "100") int size);
+}
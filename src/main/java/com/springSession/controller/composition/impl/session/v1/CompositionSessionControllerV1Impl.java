@@ -8,6 +8,7 @@ import com.springSession.repository.SessionRepositoryImpl;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -47,7 +48,7 @@ public class CompositionSessionControllerV1Impl implements CompositionSessionRea
 
     @Override
     public boolean join(CompositionMember compositionMember) {
-        this.sessionRepositoryImpl.getMemberRepository().add(compositionMember);
+        this.sessionRepositoryImpl.save(compositionMember);
 
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
 
@@ -56,6 +57,8 @@ public class CompositionSessionControllerV1Impl implements CompositionSessionRea
         request.getSession().setAttribute("id", compositionMember.id());
         request.getSession().setAttribute("password", compositionMember.password());
         request.getSession().setAttribute("phoneNumber", compositionMember.phoneNumber());
+        // 회원 ID로 세션을 조회/일괄 삭제할 수 있도록 principal 인덱스에 저장한다.
+        request.getSession().setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, compositionMember.id());
 
         return true;
     }
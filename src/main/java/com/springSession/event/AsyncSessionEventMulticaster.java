@@ -0,0 +1,232 @@
+package com.springSession.event;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.core.ResolvableType;
+import org.springframework.session.events.AbstractSessionEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ *     세션 이벤트({@link AbstractSessionEvent})만 별도 스레드에서 묶어서 전달하는 {@link SimpleApplicationEventMulticaster}.
+ *
+ *     {@link org.springframework.context.support.AbstractApplicationContext#APPLICATION_EVENT_MULTICASTER_BEAN_NAME} 이름의 Bean으로 등록하면
+ *     ApplicationContext의 이벤트 개시에 사용된다. 세션 이벤트가 아닌 이벤트는 기존과 동일하게 이벤트를 발생시킨 스레드에서 전달한다.
+ *
+ *     세션 이벤트는 발생 시점의 요청 정보({@link SessionEventRequestSnapshot})와 함께 크기 제한이 있는 큐에 넣고
+ *     하나의 가상 스레드(virtual thread)가 큐에서 최대 maxBatchSize 개씩 꺼내
+ *     1. 이벤트마다 세션 이벤트 Listener를 호출하고 ({@link SessionEventRequestSnapshot#current()}로 요청 정보 조회)
+ *     2. 꺼낸 이벤트 묶음을 {@link SessionEventBatch}로 한 번 더 전달한다.
+ *     세션 생성/삭제 요청의 응답 시간에 Listener 처리 시간이 포함되지 않는다.
+ *
+ *     큐가 가득 차 offerTimeout 동안 넣지 못하면 이벤트를 발생시킨 스레드에서 직접 전달한다(caller runs).
+ *     이벤트를 버리지 않는 대신 Listener가 느리면 요청 스레드가 느려지는 방식으로 부하를 되돌린다.
+ *     이 경우 해당 이벤트는 큐에 남아있는 이전 이벤트보다 먼저 전달될 수 있다.
+ *
+ *     큐에서 꺼내거나 caller runs로 전달하는 세션 이벤트는 이벤트를 발생시킨 쪽에 예외를 돌려줄 수 없으므로
+ *     Listener 예외는 로그만 남기고 다음 Listener에 계속 전달한다. 그 외 이벤트의 Listener 예외는 기존과 동일하게 발생시킨 쪽으로 전파된다.
+ *
+ *     전달 스레드는 {@link #start()}에서 시작하고 {@link #stop()}에서 큐에 남은 이벤트를 모두 전달한 뒤 종료한다.
+ *     시작 전, 중지 후에 발생한 세션 이벤트는 이벤트를 발생시킨 스레드에서 직접 전달한다.
+ *     다른 Lifecycle Bean(웹 서버 등)이 중지되는 동안 발생한 이벤트도 비동기로 전달하도록 가장 마지막에 중지한다.
+ * </pre>
+ */
+public class AsyncSessionEventMulticaster extends SimpleApplicationEventMulticaster implements MeterBinder, SmartLifecycle {
+    private final static Logger logger = LoggerFactory.getLogger(AsyncSessionEventMulticaster.class);
+
+    private final BlockingQueue<SessionEventBatch.Entry> queue;
+    private final int maxBatchSize;
+    private final Duration offerTimeout;
+    private final Object lifecycleMonitor = new Object();
+
+    private final LongAdder dispatchedCount = new LongAdder();
+    private final LongAdder callerRunsCount = new LongAdder();
+
+    private volatile boolean running;
+    private Thread dispatcher;
+    private volatile Timer lagTimer;
+    private volatile DistributionSummary batchSizeSummary;
+
+    public AsyncSessionEventMulticaster(int queueCapacity, int maxBatchSize, Duration offerTimeout) {
+        if(maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        }
+
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.offerTimeout = offerTimeout;
+    }
+
+    @Override
+    public void start() {
+        synchronized(this.lifecycleMonitor) {
+            if(this.running) {
+                return;
+            }
+
+            this.running = true;
+            this.dispatcher = Thread.ofVirtual()
+                    .name("session-event-dispatcher")
+                    .start(this::dispatchLoop);
+        }
+    }
+
+    /**
+     * <pre>
+     *     큐에 남은 이벤트를 모두 전달한 뒤 전달 스레드를 종료한다.
+     * </pre>
+     */
+    @Override
+    public void stop() {
+        synchronized(this.lifecycleMonitor) {
+            if(!this.running) {
+                return;
+            }
+
+            this.running = false;
+            try {
+                this.dispatcher.join(Duration.ofSeconds(10));
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            List<SessionEventBatch.Entry> remaining = new ArrayList<>();
+            this.queue.drainTo(remaining);
+            if(!remaining.isEmpty()) {
+                dispatch(remaining);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public void multicastEvent(ApplicationEvent event, ResolvableType eventType) {
+        if(!(event instanceof AbstractSessionEvent sessionEvent) || !this.running) {
+            super.multicastEvent(event, eventType);
+            return;
+        }
+
+        SessionEventBatch.Entry entry = new SessionEventBatch.Entry(sessionEvent, SessionEventRequestSnapshot.capture(), System.nanoTime());
+
+        try {
+            if(this.queue.offer(entry, this.offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.callerRunsCount.increment();
+        dispatch(List.of(entry));
+    }
+
+    /**
+     * <pre>
+     *     큐 크기, 전달 수, caller runs 수, 이벤트 발생 후 전달까지 걸린 시간(lag), 묶음 크기를 등록한다.
+     * </pre>
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("session.events.queue.size", this.queue, BlockingQueue::size)
+                .register(registry);
+        FunctionCounter.builder("session.events.dispatched", this.dispatchedCount, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("session.events.callerruns", this.callerRunsCount, LongAdder::sum)
+                .register(registry);
+
+        this.lagTimer = Timer.builder("session.events.lag")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.batchSizeSummary = DistributionSummary.builder("session.events.batch.size")
+                .register(registry);
+    }
+
+    private void dispatchLoop() {
+        List<SessionEventBatch.Entry> batch = new ArrayList<>(this.maxBatchSize);
+
+        while(this.running || !this.queue.isEmpty()) {
+            try {
+                SessionEventBatch.Entry first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if(first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                this.queue.drainTo(batch, this.maxBatchSize - 1);
+
+                dispatch(batch);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<SessionEventBatch.Entry> batch) {
+        Timer lagTimer = this.lagTimer;
+        DistributionSummary batchSizeSummary = this.batchSizeSummary;
+
+        for(SessionEventBatch.Entry entry : batch) {
+            if(lagTimer != null) {
+                lagTimer.record(System.nanoTime() - entry.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            }
+
+            SessionEventRequestSnapshot.setCurrent(entry.request());
+            try {
+                multicastSessionEvent(entry.event());
+            } finally {
+                SessionEventRequestSnapshot.clearCurrent();
+            }
+        }
+
+        multicastSessionEvent(new SessionEventBatch(this, batch));
+
+        this.dispatchedCount.add(batch.size());
+        if(batchSizeSummary != null) {
+            batchSizeSummary.record(batch.size());
+        }
+    }
+
+    /**
+     * <pre>
+     *     Listener 예외로 전달 스레드가 종료되거나 같은 이벤트의 다른 Listener가 호출되지 않는 일이 없도록 Listener마다 예외를 로그로 남긴다.
+     * </pre>
+     */
+    private void multicastSessionEvent(ApplicationEvent event) {
+        for(ApplicationListener<?> listener : getApplicationListeners(event, ResolvableType.forInstance(event))) {
+            try {
+                invokeListener(listener, event);
+            } catch(Throwable e) {
+                logger.error("session event listener failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.springSession.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.session.events.AbstractSessionEvent;
+
+import java.util.List;
+
+/**
+ * <pre>
+ *     {@link AsyncSessionEventMulticaster}가 한 번에 전달한 세션 이벤트 묶음.
+ *
+ *     세션 이벤트를 외부 시스템(감사 로그, 메시지 큐 등)으로 보내는 Listener는
+ *     이벤트 하나씩 처리하는 대신 해당 이벤트를 받아 한 번에 처리한다.
+ *
+ *     {@link ApplicationEvent}는 Serializable이지만 source와 같이 이벤트 묶음도 같은 JVM 안에서만 전달하므로 직렬화하지 않는다.
+ * </pre>
+ */
+public class SessionEventBatch extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<Entry> entries;
+
+    public SessionEventBatch(Object source, List<Entry> entries) {
+        super(source);
+        this.entries = List.copyOf(entries);
+    }
+
+    public List<Entry> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * <pre>
+     *     세션 이벤트와 이벤트 발생 시점의 요청 정보.
+     * </pre>
+     */
+    public record Entry(AbstractSessionEvent event, SessionEventRequestSnapshot request, long enqueuedNanos) {
+    }
+}
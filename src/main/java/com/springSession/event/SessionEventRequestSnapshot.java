@@ -0,0 +1,67 @@
+package com.springSession.event;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * <pre>
+ *     세션 이벤트 발생 시점의 요청 정보 스냅샷.
+ *
+ *     {@link AsyncSessionEventMulticaster}를 사용하면 세션 이벤트 Listener는 별도 스레드에서 실행 되므로
+ *     {@link RequestContextHolder}로 요청에 접근할 수 없다. 이벤트를 발생시킨 스레드에서 필요한 값만 복사해 둔다.
+ *     요청 밖(스케줄러, 테스트 등)에서 발생한 이벤트는 {@link #NONE}.
+ * </pre>
+ */
+public record SessionEventRequestSnapshot(String method
+        , String requestUri
+        , String remoteAddress
+        , String userAgent) {
+
+    public static final SessionEventRequestSnapshot NONE = new SessionEventRequestSnapshot(null, null, null, null);
+
+    private static final ThreadLocal<SessionEventRequestSnapshot> CURRENT = new ThreadLocal<>();
+
+    /**
+     * <pre>
+     *     현재 스레드의 요청 정보를 복사한다.
+     * </pre>
+     */
+    public static SessionEventRequestSnapshot capture() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if(!(requestAttributes instanceof ServletRequestAttributes servletRequestAttributes)) {
+            return NONE;
+        }
+
+        HttpServletRequest request = servletRequestAttributes.getRequest();
+        return new SessionEventRequestSnapshot(request.getMethod()
+                , request.getRequestURI()
+                , request.getRemoteAddr()
+                , request.getHeader(HttpHeaders.USER_AGENT));
+    }
+
+    /**
+     * <pre>
+     *     세션 이벤트 Listener에서 처리 중인 이벤트의 요청 정보.
+     *     {@link AsyncSessionEventMulticaster}를 사용하지 않아 이벤트를 발생시킨 스레드에서 전달 받은 경우 현재 요청 정보를 복사한다.
+     * </pre>
+     */
+    public static SessionEventRequestSnapshot current() {
+        SessionEventRequestSnapshot snapshot = CURRENT.get();
+        return (snapshot != null) ? snapshot : capture();
+    }
+
+    public boolean isPresent() {
+        return this != NONE;
+    }
+
+    static void setCurrent(SessionEventRequestSnapshot snapshot) {
+        CURRENT.set(snapshot);
+    }
+
+    static void clearCurrent() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,225 @@
+package com.springSession.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonReader;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     세션 저장소 MongoDB 명령의 지연 시간, 요청/응답 크기를 세션 연산 단위로 기록하는 {@link CommandListener}.
+ *
+ *     세션 저장소 MongoClient는 세션 컬렉션만 사용하므로 드라이버 명령을 다음과 같이 세션 연산으로 분류한다.
+ *     find(_id 조건)          : findById
+ *     find(_id 조건 + projection) : validate ({@link org.springframework.session.data.mongo.NearCacheMongoSessionRepository} 검증 조회)
+ *     find(_id 조건 + attrs 제외) : findById ({@link org.springframework.session.data.mongo.LazyMongoSessionRepository} 메타데이터 조회)
+ *     find(_id 조건 + attrs 포함) : loadAttributes ({@link org.springframework.session.data.mongo.LazyMongoSessionRepository} 속성 조회)
+ *     find(그 외 조건)        : findByIndexNameAndIndexValue
+ *     insert, update        : save
+ *     delete                : delete
+ *     그 외(createIndexes 등)  : other
+ *
+ *     결과(outcome)는 success, not_found(조회 결과 없음, 갱신/삭제 대상 없음), error로 구분한다.
+ *
+ *     session.store.operation : 연산 지연 시간 (p50, p99, p999 및 histogram)
+ *     session.store.payload   : 요청(request)/응답(response) BSON 크기
+ *
+ *     명령마다 호출되므로 Meter는 (연산, 결과/방향)별로 한 번만 생성하여 재사용한다. (리스너는 저장소마다 생성된다.)
+ *     드라이버가 전송/수신한 버퍼를 그대로 감싼 문서는 BSON 길이(앞 4 byte)만 읽고,
+ *     insert/update 명령처럼 드라이버가 문서를 조합한 경우에만 {@value #PAYLOAD_SAMPLE_RATE} 비율로 다시 인코딩하여 크기를 기록한다.
+ * </pre>
+ */
+public class SessionMongoCommandListener implements CommandListener {
+    static final String OPERATION_FIND_BY_ID = "findById";
+    static final String OPERATION_VALIDATE = "validate";
+    static final String OPERATION_LOAD_ATTRIBUTES = "loadAttributes";
+    static final String OPERATION_FIND_BY_INDEX = "findByIndexNameAndIndexValue";
+    static final String OPERATION_SAVE = "save";
+    static final String OPERATION_DELETE = "delete";
+    static final String OPERATION_OTHER = "other";
+
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_NOT_FOUND = "not_found";
+    static final String OUTCOME_ERROR = "error";
+
+    /** 버퍼가 없는 명령 문서의 크기를 인코딩하여 기록하는 비율 */
+    static final double PAYLOAD_SAMPLE_RATE = 0.01;
+
+    private final MeterRegistry meterRegistry;
+    private final String storeName;
+    /** 명령 시작 이벤트에서 분류한 연산. 완료 이벤트에는 명령 문서가 없으므로 requestId로 연결한다. */
+    private final Map<Integer, String> operations = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> payloads = new ConcurrentHashMap<>();
+
+    public SessionMongoCommandListener(MeterRegistry meterRegistry, String storeName) {
+        this.meterRegistry = meterRegistry;
+        this.storeName = storeName;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String operation = operationOf(event.getCommandName(), event.getCommand());
+        this.operations.put(event.getRequestId(), operation);
+
+        recordPayload(operation, "request", event.getCommand());
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String operation = this.operations.remove(event.getRequestId());
+        if(operation == null) {
+            return;
+        }
+
+        timer(operation, outcomeOf(event.getCommandName(), event.getResponse()))
+                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        recordPayload(operation, "response", event.getResponse());
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        String operation = this.operations.remove(event.getRequestId());
+        if(operation == null) {
+            return;
+        }
+
+        timer(operation, OUTCOME_ERROR).record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    static String operationOf(String commandName, BsonDocument command) {
+        switch(commandName) {
+            case "find": {
+                BsonValue filter = command.get("filter");
+                if(filter != null && filter.isDocument() && filter.asDocument().containsKey("_id")) {
+                    return operationOfProjection(command.get("projection"));
+                }
+
+                return OPERATION_FIND_BY_INDEX;
+            }
+            case "insert":
+            case "update":
+                return OPERATION_SAVE;
+            case "delete":
+                return OPERATION_DELETE;
+            default:
+                return OPERATION_OTHER;
+        }
+    }
+
+    /**
+     * <pre>
+     *     _id 조회의 projection에 attrs 필드가 있으면 지연 로딩 조회, 없으면 검증 조회로 분류한다.
+     * </pre>
+     */
+    private static String operationOfProjection(BsonValue projection) {
+        if(projection == null || !projection.isDocument()) {
+            return OPERATION_FIND_BY_ID;
+        }
+
+        BsonValue attributes = projection.asDocument().get("attrs");
+        if(attributes == null) {
+            return OPERATION_VALIDATE;
+        }
+
+        return (attributes.isNumber() && attributes.asNumber().intValue() == 0) ? OPERATION_FIND_BY_ID : OPERATION_LOAD_ATTRIBUTES;
+    }
+
+    static String outcomeOf(String commandName, BsonDocument response) {
+        switch(commandName) {
+            case "find": {
+                BsonValue cursor = response.get("cursor");
+                if(cursor != null && cursor.isDocument()) {
+                    BsonValue firstBatch = cursor.asDocument().get("firstBatch");
+                    if(firstBatch instanceof BsonArray batch && batch.isEmpty()) {
+                        return OUTCOME_NOT_FOUND;
+                    }
+                }
+
+                return OUTCOME_SUCCESS;
+            }
+            case "update":
+            case "delete": {
+                BsonValue n = response.get("n");
+                return (n != null && n.isNumber() && n.asNumber().intValue() == 0) ? OUTCOME_NOT_FOUND : OUTCOME_SUCCESS;
+            }
+            default:
+                return OUTCOME_SUCCESS;
+        }
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return this.timers.computeIfAbsent(operation + ":" + outcome, key -> Timer.builder("session.store.operation")
+                .description("Session store MongoDB command latency")
+                .tag("store", this.storeName)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(this.meterRegistry));
+    }
+
+    private void recordPayload(String operation, String direction, BsonDocument document) {
+        int size = sizeOf(document);
+        if(size < 0) {
+            return;
+        }
+
+        this.payloads.computeIfAbsent(operation + ":" + direction, key -> DistributionSummary.builder("session.store.payload")
+                        .description("Session store MongoDB command size")
+                        .baseUnit("bytes")
+                        .tag("store", this.storeName)
+                        .tag("operation", operation)
+                        .tag("direction", direction)
+                        .publishPercentiles(0.5, 0.99)
+                        .register(this.meterRegistry))
+                .record(size);
+    }
+
+    /**
+     * <pre>
+     *     BSON 크기. 버퍼를 감싼 문서는 길이 접두사를 읽고, 그 외 문서는 샘플링된 경우에만 인코딩한다.
+     * </pre>
+     *
+     * @return 기록하지 않으면 -1
+     */
+    static int sizeOf(BsonDocument document) {
+        if(document instanceof RawBsonDocument rawBsonDocument) {
+            return rawBsonDocument.getByteBuffer().remaining();
+        }
+
+        // 드라이버의 ByteBufBsonDocument는 버퍼를 읽는 BsonBinaryReader를 반환한다.
+        try(BsonReader reader = document.asBsonReader()) {
+            if(reader instanceof BsonBinaryReader binaryReader) {
+                return binaryReader.getBsonInput().readInt32();
+            }
+        }
+
+        if(ThreadLocalRandom.current().nextDouble() >= PAYLOAD_SAMPLE_RATE) {
+            return -1;
+        }
+
+        try(BasicOutputBuffer buffer = new BasicOutputBuffer()) {
+            new BsonDocumentCodec().encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+            return buffer.getPosition();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.springSession.metrics;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ *     세션 저장소 MongoClient 커넥션 풀 상태를 기록하는 {@link ConnectionPoolListener}.
+ *
+ *     session.store.pool.wait       : 커넥션 획득 대기 시간 (outcome : success, timeout, error)
+ *     session.store.pool.checkedout : 사용 중인 커넥션 수
+ *     session.store.pool.size       : 풀의 커넥션 수
+ *
+ *     요청 지연이 커넥션 획득 대기 때문인지 MongoDB 명령 처리 때문인지 {@link SessionMongoCommandListener}와 비교하여 확인한다.
+ * </pre>
+ */
+public class SessionMongoConnectionPoolListener implements ConnectionPoolListener {
+    private final AtomicInteger checkedOutCount = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Timer checkOutSucceeded;
+    private final Timer checkOutTimedOut;
+    private final Timer checkOutFailed;
+
+    public SessionMongoConnectionPoolListener(MeterRegistry meterRegistry, String storeName) {
+        this.checkOutSucceeded = waitTimer(meterRegistry, storeName, "success");
+        this.checkOutTimedOut = waitTimer(meterRegistry, storeName, "timeout");
+        this.checkOutFailed = waitTimer(meterRegistry, storeName, "error");
+
+        Gauge.builder("session.store.pool.checkedout", this.checkedOutCount, AtomicInteger::get)
+                .tag("store", storeName)
+                .register(meterRegistry);
+        Gauge.builder("session.store.pool.size", this.size, AtomicInteger::get)
+                .tag("store", storeName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        this.checkedOutCount.incrementAndGet();
+        this.checkOutSucceeded.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        Timer timer = (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) ? this.checkOutTimedOut : this.checkOutFailed;
+        timer.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        this.checkedOutCount.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        this.size.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        this.size.decrementAndGet();
+    }
+
+    private static Timer waitTimer(MeterRegistry meterRegistry, String storeName, String outcome) {
+        return Timer.builder("session.store.pool.wait")
+                .description("Session store MongoDB connection check out wait time")
+                .tag("store", storeName)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,35 @@
+package com.springSession.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * <pre>
+ *     {@link SessionProfiler}가 기록한 세션 크기와 속성 프로파일을 조회하는 Actuator 엔드포인트.
+ *
+ *     GET    /actuator/sessionprofile?limit=10 : 문서/속성 크기 히스토그램, 속성별 직렬화 시간, 크기가 큰 속성명과 세션 상위 limit개
+ *     DELETE /actuator/sessionprofile          : 기록 초기화 (속성 정리 후 다시 측정할 때 사용)
+ * </pre>
+ */
+@Endpoint(id = "sessionprofile")
+public class SessionProfileEndpoint {
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final SessionProfiler sessionProfiler;
+
+    public SessionProfileEndpoint(SessionProfiler sessionProfiler) {
+        this.sessionProfiler = sessionProfiler;
+    }
+
+    @ReadOperation
+    public SessionProfiler.Profile profile(@Nullable Integer limit) {
+        return this.sessionProfiler.profile((limit != null && limit > 0) ? limit : DEFAULT_LIMIT);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        this.sessionProfiler.reset();
+    }
+}
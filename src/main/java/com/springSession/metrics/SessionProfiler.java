@@ -0,0 +1,253 @@
+package com.springSession.metrics;
+
+import com.springSession.session.CompactSessionIdGenerator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ *     세션 문서 크기와 속성별 직렬화 크기, 직렬화/역직렬화 시간을 기록하는 프로파일러.
+ *
+ *     {@link org.springframework.session.data.mongo.PerAttributeMongoSessionConverter}가 문서를 읽거나 전체 문서를 저장할 때(문서 관찰),
+ *     속성 값을 직렬화/역직렬화 할 때 sampleRate 비율만 기록한다. 세션 컬렉션을 조회(full scan)하지 않는다.
+ *
+ *     문서 크기   : 속성(attrs) 필드의 BSON 크기. 메타데이터 필드(생성/접근 시각 등 약 150 bytes)는 제외한다.
+ *     속성 수     : 문서의 속성 개수
+ *     속성 크기   : 속성명별 직렬화된 값 크기
+ *     직렬화 시간 : 속성명별 직렬화(encode)/역직렬화(decode) 시간 (ns)
+ *
+ *     히스토그램은 2의 거듭제곱 구간(bucket)으로 기록하므로 백분위 값은 구간의 상한이다.
+ *     속성명은 maxAttributeNames개까지 구분하고 그 이후 속성명은 other로 합친다.
+ *
+ *     크기가 큰 속성명과 세션은 {@link SpaceSavingSketch}로 상위 topK개만 보관한다.
+ *     속성명은 관찰된 크기의 누적 값(조회/저장 전송량 기준), 세션은 관찰된 문서 크기의 최대 값 기준이다.
+ *     세션 ID는 노출되지 않도록 {@link CompactSessionIdGenerator#mask(String)}로 가려서 보관한다.
+ * </pre>
+ */
+public class SessionProfiler {
+    static final String OTHER_ATTRIBUTE_NAME = "other";
+
+    private final double sampleRate;
+    private final int maxAttributeNames;
+
+    private final Histogram documentSize = new Histogram();
+    private final Histogram attributeCount = new Histogram();
+    private final Map<String, AttributeProfile> attributeProfiles = new ConcurrentHashMap<>();
+    private final SpaceSavingSketch heaviestAttributes;
+    private final SpaceSavingSketch heaviestSessions;
+
+    public SessionProfiler(double sampleRate, int topK, int maxAttributeNames) {
+        if(sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be in (0, 1]: " + sampleRate);
+        }
+
+        this.sampleRate = sampleRate;
+        this.maxAttributeNames = maxAttributeNames;
+        // Space-Saving은 보관 개수가 클수록 상위 항목의 오차가 줄어들므로 반환 개수보다 넉넉하게 보관한다.
+        this.heaviestAttributes = new SpaceSavingSketch(topK * 4);
+        this.heaviestSessions = new SpaceSavingSketch(topK);
+    }
+
+    /**
+     * <pre>
+     *     이번 관찰을 기록할지 여부. 기록하지 않는 호출은 시간 측정도 생략한다.
+     * </pre>
+     */
+    public boolean isSampled() {
+        return this.sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < this.sampleRate;
+    }
+
+    /**
+     * <pre>
+     *     문서에서 관찰한 속성 하나의 직렬화된 크기를 기록한다. 문서의 모든 속성을 기록한 뒤 {@link #recordDocument(String, int, long)}를 호출한다.
+     * </pre>
+     */
+    public void recordAttributeSize(String attributeName, int size) {
+        attributeProfileOf(attributeName).size.record(size);
+        this.heaviestAttributes.add(attributeName, size);
+    }
+
+    public void recordDocument(String sessionId, int attributeCount, long size) {
+        this.documentSize.record(size);
+        this.attributeCount.record(attributeCount);
+        this.heaviestSessions.max(CompactSessionIdGenerator.mask(sessionId), size);
+    }
+
+    public void recordEncode(String attributeName, long nanos) {
+        attributeProfileOf(attributeName).encode.record(nanos);
+    }
+
+    public void recordDecode(String attributeName, long nanos) {
+        attributeProfileOf(attributeName).decode.record(nanos);
+    }
+
+    /**
+     * <pre>
+     *     기록된 값을 반환한다. 속성은 누적 크기가 큰 순서로 정렬한다.
+     * </pre>
+     */
+    public Profile profile(int limit) {
+        List<AttributeSnapshot> attributes = new ArrayList<>(this.attributeProfiles.size());
+        for(Map.Entry<String, AttributeProfile> attributeProfile : this.attributeProfiles.entrySet()) {
+            attributes.add(new AttributeSnapshot(attributeProfile.getKey()
+                    , attributeProfile.getValue().size.snapshot()
+                    , attributeProfile.getValue().encode.snapshot()
+                    , attributeProfile.getValue().decode.snapshot()));
+        }
+        attributes.sort(Comparator.comparingLong((AttributeSnapshot attribute) -> attribute.size().total()).reversed());
+
+        return new Profile(this.sampleRate
+                , this.documentSize.snapshot()
+                , this.attributeCount.snapshot()
+                , attributes
+                , this.heaviestAttributes.top(limit)
+                , this.heaviestSessions.top(limit));
+    }
+
+    public void reset() {
+        this.documentSize.reset();
+        this.attributeCount.reset();
+        this.attributeProfiles.clear();
+        this.heaviestAttributes.clear();
+        this.heaviestSessions.clear();
+    }
+
+    private AttributeProfile attributeProfileOf(String attributeName) {
+        AttributeProfile attributeProfile = this.attributeProfiles.get(attributeName);
+        if(attributeProfile != null) {
+            return attributeProfile;
+        }
+
+        String profiledName = (this.attributeProfiles.size() < this.maxAttributeNames) ? attributeName : OTHER_ATTRIBUTE_NAME;
+        return this.attributeProfiles.computeIfAbsent(profiledName, name -> new AttributeProfile());
+    }
+
+    /**
+     * <pre>
+     *     sampleRate          : 기록 비율
+     *     documentSize        : 문서(속성) 크기 (bytes)
+     *     attributeCount      : 문서의 속성 수
+     *     attributes          : 속성명별 크기 (bytes), 직렬화/역직렬화 시간 (ns)
+     *     heaviestAttributes  : 누적 크기가 큰 속성명 (bytes)
+     *     heaviestSessions    : 문서 크기가 큰 세션 (세션 ID 접두어, bytes)
+     * </pre>
+     */
+    public record Profile(double sampleRate
+            , HistogramSnapshot documentSize
+            , HistogramSnapshot attributeCount
+            , List<AttributeSnapshot> attributes
+            , List<SpaceSavingSketch.Entry> heaviestAttributes
+            , List<SpaceSavingSketch.Entry> heaviestSessions) {
+    }
+
+    public record AttributeSnapshot(String name, HistogramSnapshot size, HistogramSnapshot encode, HistogramSnapshot decode) {
+    }
+
+    /**
+     * <pre>
+     *     buckets : 구간 상한(이하) 별 기록 수. 기록이 없는 구간은 제외한다.
+     * </pre>
+     */
+    public record HistogramSnapshot(long count, long total, double mean, long max, long p50, long p99, Map<Long, Long> buckets) {
+    }
+
+    private static class AttributeProfile {
+        private final Histogram size = new Histogram();
+        private final Histogram encode = new Histogram();
+        private final Histogram decode = new Histogram();
+    }
+
+    /**
+     * <pre>
+     *     0 이상의 값을 2의 거듭제곱 구간으로 기록하는 히스토그램. 구간 i는 [2^(i-1), 2^i - 1] 이다.
+     * </pre>
+     */
+    static class Histogram {
+        private static final int BUCKET_COUNT = Long.SIZE;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+        Histogram() {
+            for(int i = 0; i < BUCKET_COUNT; i++) {
+                this.buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long value) {
+            long recordedValue = Math.max(value, 0L);
+            this.buckets[bucketOf(recordedValue)].increment();
+            this.total.add(recordedValue);
+            this.max.accumulate(recordedValue);
+        }
+
+        void reset() {
+            for(LongAdder bucket : this.buckets) {
+                bucket.reset();
+            }
+            this.total.reset();
+            this.max.reset();
+        }
+
+        HistogramSnapshot snapshot() {
+            long[] counts = new long[BUCKET_COUNT];
+            long count = 0;
+            for(int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = this.buckets[i].sum();
+                count += counts[i];
+            }
+
+            long total = this.total.sum();
+            long max = this.max.get();
+
+            Map<Long, Long> buckets = new LinkedHashMap<>();
+            for(int i = 0; i < BUCKET_COUNT; i++) {
+                if(counts[i] > 0) {
+                    buckets.put(upperBoundOf(i), counts[i]);
+                }
+            }
+
+            return new HistogramSnapshot(count
+                    , total
+                    , (count > 0) ? (double) total / count : 0
+                    , max
+                    , percentile(counts, count, 0.5, max)
+                    , percentile(counts, count, 0.99, max)
+                    , buckets);
+        }
+
+        static int bucketOf(long value) {
+            return Math.min(Long.SIZE - Long.numberOfLeadingZeros(value), BUCKET_COUNT - 1);
+        }
+
+        static long upperBoundOf(int bucket) {
+            return (bucket >= BUCKET_COUNT - 1) ? Long.MAX_VALUE : (1L << bucket) - 1;
+        }
+
+        private static long percentile(long[] counts, long count, double percentile, long max) {
+            if(count == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(count * percentile);
+            long cumulative = 0;
+            for(int i = 0; i < BUCKET_COUNT; i++) {
+                cumulative += counts[i];
+                if(cumulative >= rank) {
+                    return Math.min(upperBoundOf(i), max);
+                }
+            }
+
+            return max;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.springSession.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <pre>
+ *     고정된 개수(capacity)의 항목만 보관하면서 값이 큰 상위 항목을 추정하는 Space-Saving 스케치.
+ *
+ *     {@link #add(String, long)}   : 항목별 누적 값 기준 (Space-Saving). 보관 중이 아닌 항목은 가장 작은 항목을 대체하고
+ *                                     대체된 항목의 값을 이어 받으므로 추정 값은 실제 값 이상이며 차이는 error 이하다.
+ *                                     실제 누적 값이 전체 합계의 1/capacity를 넘는 항목은 반드시 보관된다.
+ *     {@link #max(String, long)}   : 항목별 최대 값 기준. 가장 작은 항목보다 큰 값만 보관하므로 관찰한 값 중 상위 항목은 정확하다.
+ *
+ *     하나의 스케치에는 한 가지 방식만 사용한다.
+ *     가상 스레드에서 호출되므로 synchronized 대신 {@link ReentrantLock}을 사용한다.
+ * </pre>
+ */
+public class SpaceSavingSketch {
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 가득 찬 상태에서 보관 중인 가장 작은 값의 하한. 값은 줄어들지 않으므로 이 값 이하는 잠금 없이 버린다. ({@link #max(String, long)})
+     */
+    private volatile long minimumLowerBound = Long.MIN_VALUE;
+
+    public SpaceSavingSketch(int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void add(String key, long weight) {
+        this.lock.lock();
+        try {
+            Counter counter = this.counters.get(key);
+            if(counter != null) {
+                counter.count += weight;
+                return;
+            }
+
+            if(this.counters.size() < this.capacity) {
+                this.counters.put(key, new Counter(weight, 0L));
+                return;
+            }
+
+            Map.Entry<String, Counter> minimum = minimumEntry();
+            this.counters.remove(minimum.getKey());
+            long minimumCount = minimum.getValue().count;
+            this.counters.put(key, new Counter(minimumCount + weight, minimumCount));
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void max(String key, long value) {
+        if(value <= this.minimumLowerBound) {
+            return;
+        }
+
+        this.lock.lock();
+        try {
+            Counter counter = this.counters.get(key);
+            if(counter != null) {
+                counter.count = Math.max(counter.count, value);
+                return;
+            }
+
+            if(this.counters.size() < this.capacity) {
+                this.counters.put(key, new Counter(value, 0L));
+                return;
+            }
+
+            Map.Entry<String, Counter> minimum = minimumEntry();
+            this.minimumLowerBound = minimum.getValue().count;
+            if(value > minimum.getValue().count) {
+                this.counters.remove(minimum.getKey());
+                this.counters.put(key, new Counter(value, 0L));
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * <pre>
+     *     값이 큰 순서로 최대 limit개 항목을 반환한다.
+     * </pre>
+     */
+    public List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(this.capacity);
+
+        this.lock.lock();
+        try {
+            for(Map.Entry<String, Counter> counter : this.counters.entrySet()) {
+                entries.add(new Entry(counter.getKey(), counter.getValue().count, counter.getValue().error));
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        entries.sort(Comparator.comparingLong(Entry::estimate).reversed());
+
+        return (entries.size() > limit) ? List.copyOf(entries.subList(0, limit)) : entries;
+    }
+
+    public void clear() {
+        this.lock.lock();
+        try {
+            this.counters.clear();
+            this.minimumLowerBound = Long.MIN_VALUE;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private Map.Entry<String, Counter> minimumEntry() {
+        Map.Entry<String, Counter> minimum = null;
+        for(Map.Entry<String, Counter> counter : this.counters.entrySet()) {
+            if(minimum == null || counter.getValue().count < minimum.getValue().count) {
+                minimum = counter;
+            }
+        }
+
+        return minimum;
+    }
+
+    /**
+     * <pre>
+     *     estimate : 추정 값
+     *     error    : 추정 값이 실제 값보다 클 수 있는 최대 차이
+     * </pre>
+     */
+    public record Entry(String key, long estimate, long error) {
+    }
+
+    private static class Counter {
+        private long count;
+        private final long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.springSession.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ *     세션 처리 경로에서 발생한 가상 스레드 고정(pinning)을 감지하는 모니터.
+ *
+ *     가상 스레드가 synchronized 블록이나 native 호출 안에서 블로킹 되면 carrier 스레드에서 분리되지 못하고(pinned)
+ *     carrier 스레드를 점유하므로 가상 스레드를 사용해도 처리량이 늘지 않는다.
+ *
+ *     JFR jdk.VirtualThreadPinned 이벤트를 구독하여 threshold 이상 고정된 경우
+ *     스택에서 세션 처리 경로(Spring Session, MongoDB 드라이버, 애플리케이션 코드)의 첫 번째 프레임을 찾아
+ *     session.virtualthread.pinned 메트릭(frame 태그)으로 기록하고, 처음 발생한 위치는 스택과 함께 로그로 남긴다.
+ *     세션 처리 경로 밖에서 발생한 고정은 frame 태그를 other로 기록한다.
+ *
+ *     JFR 구독은 {@link #start()}에서 시작하고 {@link #stop()}(혹은 {@link #close()})에서 종료한다.
+ * </pre>
+ */
+public class VirtualThreadPinningMonitor implements MeterBinder, SmartLifecycle, AutoCloseable {
+    private final static Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT_NAME = "jdk.VirtualThreadPinned";
+    private static final String OTHER_FRAME = "other";
+    private static final int LOGGED_FRAME_COUNT = 20;
+
+    /** 세션 처리 경로로 판단하는 패키지 */
+    private static final List<String> SESSION_PATH_PACKAGES = List.of("org.springframework.session."
+            , "com.mongodb."
+            , "org.bson."
+            , "com.springSession.");
+
+    private final Duration threshold;
+    private final Set<String> loggedFrames = ConcurrentHashMap.newKeySet();
+    private final LongAdder pinnedCount = new LongAdder();
+    private final Object lifecycleMonitor = new Object();
+
+    private volatile MeterRegistry meterRegistry;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * <pre>
+     *     JFR 이벤트 구독을 시작한다. 종료된 {@link RecordingStream}은 다시 시작할 수 없으므로 시작할 때마다 새로 만든다.
+     * </pre>
+     */
+    @Override
+    public void start() {
+        synchronized(this.lifecycleMonitor) {
+            if(this.recordingStream != null) {
+                return;
+            }
+
+            RecordingStream recordingStream = new RecordingStream();
+            recordingStream.enable(PINNED_EVENT_NAME)
+                    .withThreshold(this.threshold)
+                    .withStackTrace();
+            recordingStream.onEvent(PINNED_EVENT_NAME, this::onPinned);
+            recordingStream.startAsync();
+
+            this.recordingStream = recordingStream;
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized(this.lifecycleMonitor) {
+            if(this.recordingStream == null) {
+                return;
+            }
+
+            this.recordingStream.close();
+            this.recordingStream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        synchronized(this.lifecycleMonitor) {
+            return this.recordingStream != null;
+        }
+    }
+
+    public long getPinnedCount() {
+        return this.pinnedCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    void onPinned(RecordedEvent event) {
+        this.pinnedCount.increment();
+
+        String frame = sessionPathFrameOf(event.getStackTrace());
+
+        MeterRegistry meterRegistry = this.meterRegistry;
+        if(meterRegistry != null) {
+            Timer.builder("session.virtualthread.pinned")
+                    .description("Virtual thread pinned duration")
+                    .tag("frame", frame)
+                    .register(meterRegistry)
+                    .record(event.getDuration());
+        }
+
+        if(!OTHER_FRAME.equals(frame) && this.loggedFrames.add(frame)) {
+            logger.warn("virtual thread pinned for {} ms at {}\n{}", event.getDuration().toMillis(), frame, format(event.getStackTrace()));
+        }
+    }
+
+    /**
+     * <pre>
+     *     스택 최상단부터 세션 처리 경로 패키지에 속한 첫 번째 프레임(클래스#메서드).
+     * </pre>
+     */
+    static String sessionPathFrameOf(RecordedStackTrace stackTrace) {
+        if(stackTrace == null) {
+            return OTHER_FRAME;
+        }
+
+        for(RecordedFrame frame : stackTrace.getFrames()) {
+            if(frame.getMethod() == null) {
+                continue;
+            }
+
+            String className = frame.getMethod().getType().getName();
+            if(isSessionPath(className)) {
+                return className + "#" + frame.getMethod().getName();
+            }
+        }
+
+        return OTHER_FRAME;
+    }
+
+    static boolean isSessionPath(String className) {
+        for(String sessionPathPackage : SESSION_PATH_PACKAGES) {
+            if(className.startsWith(sessionPathPackage)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String format(RecordedStackTrace stackTrace) {
+        if(stackTrace == null) {
+            return "";
+        }
+
+        StringBuilder builder = new StringBuilder();
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for(int i = 0; i < Math.min(frames.size(), LOGGED_FRAME_COUNT); i++) {
+            RecordedFrame frame = frames.get(i);
+            // 메서드 정보가 없는 프레임(JFR이 해석하지 못한 프레임)은 건너뛴다.
+            if(frame.getMethod() == null) {
+                continue;
+            }
+
+            builder.append("\tat ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber())
+                    .append('\n');
+        }
+
+        return builder.toString();
+    }
+}
@@ -1,15 +1,187 @@
 package com.springSession.repository;
 
-import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.session.data.mongo.OffHeapSessionMemory;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
 
-@Component
+/**
+ * <pre>
+ *     회원 ID로 색인하는 동시성 회원 저장소.
+ *
+ *     내부 저장소는 {@link Caffeine} 캐시(ConcurrentHashMap 기반)로, 조회/저장(upsert)이 O(1)이며
+ *     같은 ID로 다시 가입하면 기존 회원을 덮어쓰므로 중복 저장되지 않는다.
+ *     최대 개수(maximumSize)를 넘으면 W-TinyLFU 정책으로 사용 빈도가 낮은 회원부터 제거한다.
+ *     읽기는 잠금이 없고, 쓰기는 ConcurrentHashMap의 bin 단위 잠금과 Caffeine의 striped buffer를 사용하므로
+ *     여러 요청 스레드에서 동시에 가입해도 경합이 적다.
+ *
+ *     encoder/decoder와 {@link OffHeapSessionMemory}를 지정하면 회원 값을 인코딩 하여 off-heap slot에 저장한다.
+ *     회원마다 direct ByteBuffer를 할당하지 않고 크기 등급별 slot을 재사용하므로 heap에는 키와 slot 주소만 남고,
+ *     조회할 때마다 디코딩 하여 새 객체를 반환한다.
+ *
+ *     slot은 덮어쓰거나 삭제, 제거(eviction)된 뒤 해제되어 다른 회원이 재사용할 수 있으므로
+ *     slot 기록/해제는 {@link StampedLock} 쓰기 잠금 안에서 처리하고, 읽기는 낙관적 읽기(optimistic read) 후 검증한다.
+ *     검증에 실패하면 읽기 잠금으로 다시 읽는다. 잠금 안에서는 캐시에 접근하지 않는다. (제거 Listener가 잠금을 획득하므로)
+ * </pre>
+ */
 public class SessionRepositoryImpl<T> {
-    private final List<T> memberRepository = new ArrayList<>();
+    private final Function<T, String> keyExtractor;
+    private final Function<T, byte[]> encoder;
+    private final Function<byte[], T> decoder;
+    private final OffHeapSessionMemory memory;
+    private final StampedLock memoryLock = new StampedLock();
+    private final Cache<String, Object> members;
 
-    public List<T> getMemberRepository() {
-        return memberRepository;
+    /**
+     * <pre>
+     *     회원 값을 heap에 저장하는 저장소.
+     * </pre>
+     */
+    public SessionRepositoryImpl(Function<T, String> keyExtractor, long maximumSize) {
+        this(keyExtractor, maximumSize, null, null, null);
+    }
+
+    /**
+     * <pre>
+     *     회원 값을 인코딩 하여 memory에 저장하는 저장소. encoder/decoder/memory가 null이면 heap에 저장한다.
+     * </pre>
+     */
+    public SessionRepositoryImpl(Function<T, String> keyExtractor
+            , long maximumSize
+            , Function<T, byte[]> encoder
+            , Function<byte[], T> decoder
+            , OffHeapSessionMemory memory) {
+
+        if((encoder == null) != (decoder == null) || (encoder == null) != (memory == null)) {
+            throw new IllegalArgumentException("encoder, decoder and memory must be specified together");
+        }
+
+        this.keyExtractor = keyExtractor;
+        this.encoder = encoder;
+        this.decoder = decoder;
+        this.memory = memory;
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize);
+        if(memory == null) {
+            this.members = builder.build();
+        } else {
+            // 교체/삭제는 save(), deleteById()에서 이전 주소를 해제하고, 최대 개수를 넘어 제거된 회원만 Listener에서 해제한다.
+            StampedLock memoryLock = this.memoryLock;
+            this.members = builder.<String, Object>evictionListener((id, address, cause) -> free(memoryLock, memory, (Long) address))
+                    .build();
+        }
+    }
+
+    /**
+     * <pre>
+     *     회원을 저장한다. 같은 ID의 회원이 있으면 덮어쓴다.
+     * </pre>
+     */
+    public void save(T member) {
+        String id = this.keyExtractor.apply(member);
+        if(!isOffHeap()) {
+            this.members.put(id, member);
+            return;
+        }
+
+        byte[] bytes = this.encoder.apply(member);
+
+        long stamp = this.memoryLock.writeLock();
+        long address;
+        try {
+            address = this.memory.store(bytes);
+        } finally {
+            this.memoryLock.unlockWrite(stamp);
+        }
+
+        Object previous = this.members.asMap().put(id, address);
+        if(previous != null) {
+            free(this.memoryLock, this.memory, (Long) previous);
+        }
+    }
+
+    /**
+     * @return ID에 해당하는 회원. 없거나 제거(eviction) 되었으면 null.
+     */
+    @SuppressWarnings("unchecked")
+    public T findById(String id) {
+        while(true) {
+            Object stored = this.members.getIfPresent(id);
+            if(stored == null) {
+                return null;
+            }
+            if(!isOffHeap()) {
+                return (T) stored;
+            }
+
+            T member = this.decoder.apply(load((Long) stored));
+            // 주소를 조회한 뒤 slot이 해제되어 다른 회원이 재사용한 경우 다시 조회한다.
+            if(id.equals(this.keyExtractor.apply(member))) {
+                return member;
+            }
+        }
+    }
+
+    public void deleteById(String id) {
+        Object previous = this.members.asMap().remove(id);
+        if(previous != null && isOffHeap()) {
+            free(this.memoryLock, this.memory, (Long) previous);
+        }
+    }
+
+    /**
+     * <pre>
+     *     저장된 회원 수. 제거(eviction)가 비동기로 처리되므로 잠시 maximumSize를 넘을 수 있다.
+     * </pre>
+     */
+    public long size() {
+        return this.members.estimatedSize();
+    }
+
+    public boolean isOffHeap() {
+        return this.memory != null;
+    }
+
+    /**
+     * <pre>
+     *     대기 중인 제거(eviction) 작업을 처리한다.
+     * </pre>
+     */
+    void cleanUp() {
+        this.members.cleanUp();
+    }
+
+    /**
+     * <pre>
+     *     slot 값을 heap으로 복사한다. 읽는 동안 slot이 기록/해제되지 않은 경우에만 낙관적 읽기 결과를 사용한다.
+     * </pre>
+     */
+    private byte[] load(long address) {
+        long stamp = this.memoryLock.tryOptimisticRead();
+        if(stamp != 0L) {
+            byte[] bytes = this.memory.load(address);
+            if(this.memoryLock.validate(stamp) && bytes != null) {
+                return bytes;
+            }
+        }
+
+        stamp = this.memoryLock.readLock();
+        try {
+            return this.memory.load(address);
+        } finally {
+            this.memoryLock.unlockRead(stamp);
+        }
+    }
+
+    private static void free(StampedLock memoryLock, OffHeapSessionMemory memory, long address) {
+        long stamp = memoryLock.writeLock();
+        try {
+            memory.free(address);
+        } finally {
+            memoryLock.unlockWrite(stamp);
+        }
     }
 }
@@ -0,0 +1,101 @@
+package com.springSession.session;
+
+import org.springframework.session.SessionIdGenerator;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * <pre>
+ *     128bit 난수를 Base64 URL(패딩 없음) 22자로 표현하는 세션 ID 생성기.
+ *
+ *     UUID 세션 ID(36자, 난수 122bit)보다 짧아 MongoDB _id 인덱스, 쿠키, 헤더 크기가 줄어든다.
+ *
+ *     {@link java.util.UUID#randomUUID()}는 모든 스레드가 하나의 {@link SecureRandom}을 공유하므로 세션 생성이 몰리면 경합이 생긴다.
+ *     요청이 가상 스레드에서 처리되면 요청마다 스레드가 새로 생성되어 ThreadLocal로는 생성기를 재사용할 수 없으므로
+ *     CPU 수 * 2 (2의 거듭제곱) 개의 {@link SecureRandom}을 두고 스레드 ID로 나누어 사용한다.
+ *
+ *     prefix를 지정하면 "{prefix}.{ID}" 형식으로 생성한다.
+ *     샤딩 사용 시 샤드명을 prefix로 지정하면 해당 노드에서 생성한 세션은 지정한 샤드에 저장된다.
+ *     ({@link org.springframework.session.data.mongo.MongoSessionShards#SHARD_HINT_SEPARATOR})
+ * </pre>
+ */
+public class CompactSessionIdGenerator implements SessionIdGenerator {
+    static final int ID_BYTES = 16;
+    static final char PREFIX_SEPARATOR = '.';
+    static final int MASKED_ID_LENGTH = 8;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecureRandom[] secureRandoms;
+    private final int stripeMask;
+    private final String prefix;
+
+    public CompactSessionIdGenerator() {
+        this(null);
+    }
+
+    public CompactSessionIdGenerator(String prefix) {
+        this(prefix, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    CompactSessionIdGenerator(String prefix, int stripes) {
+        if(prefix != null && (prefix.isEmpty() || prefix.indexOf(PREFIX_SEPARATOR) >= 0)) {
+            throw new IllegalArgumentException("prefix must not be empty or contain '" + PREFIX_SEPARATOR + "'");
+        }
+
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.secureRandoms = new SecureRandom[stripeCount];
+        for(int i = 0; i < stripeCount; i++) {
+            this.secureRandoms[i] = newSecureRandom();
+        }
+
+        this.stripeMask = stripeCount - 1;
+        this.prefix = (prefix == null) ? null : prefix + PREFIX_SEPARATOR;
+    }
+
+    @Override
+    public String generate() {
+        byte[] bytes = new byte[ID_BYTES];
+        this.secureRandoms[(int) mix(Thread.currentThread().threadId()) & this.stripeMask].nextBytes(bytes);
+
+        String id = ENCODER.encodeToString(bytes);
+        return (this.prefix == null) ? id : this.prefix + id;
+    }
+
+    /**
+     * <pre>
+     *     외부(프로파일, 관리 API)에 노출할 세션 ID.
+     *     prefix(샤드 힌트)는 그대로 두고 이후 ID의 앞 {@value #MASKED_ID_LENGTH}자만 남긴다. (_id 접두어 조회로 문서를 찾을 수 있다.)
+     *     세션 ID 전체의 앞부분을 자르면 같은 prefix의 세션이 모두 같은 값이 되므로 prefix 이후를 기준으로 자른다.
+     * </pre>
+     */
+    public static String mask(String sessionId) {
+        int maskedLength = sessionId.indexOf(PREFIX_SEPARATOR) + 1 + MASKED_ID_LENGTH;
+        return (sessionId.length() > maskedLength) ? sessionId.substring(0, maskedLength) : sessionId;
+    }
+
+    /**
+     * <pre>
+     *     스레드 ID는 순차적으로 증가하므로 섞어서 stripe에 고르게 나눈다.
+     * </pre>
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * <pre>
+     *     스레드 안전한 DRBG를 우선 사용하고, 없으면 플랫폼 기본 구현을 사용한다.
+     * </pre>
+     */
+    private static SecureRandom newSecureRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch(NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
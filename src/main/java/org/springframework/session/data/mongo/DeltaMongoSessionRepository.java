@@ -0,0 +1,396 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.session.FindByIndexNameSessionRepository;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ *     변경된 세션 속성만 저장하는 세션 저장소.
+ *
+ *     {@link MongoIndexedSessionRepository#save(MongoSession)}는 요청마다 전체 속성을 직렬화 하여 문서 전체를 upsert 하지만
+ *     해당 저장소는 {@link DirtyTrackingMongoSession}이 추적한 변경 속성만 $set/$unset 하고,
+ *     속성 변경 없이 마지막 접근 시각만 바뀐 경우 accessed/expireAt 필드만 갱신한다.
+ *
+ *     새로 생성된 세션, 세션 ID가 변경된 세션, 이전 형식으로 저장된 세션은 위임 저장소를 통해 전체 문서를 저장한다.
+ *     {@link PerAttributeMongoSessionConverter}를 사용하는 경우에만 사용할 수 있다.
+ *
+ *     {@link #setTouchThrottleRatio(double)}를 설정하면 마지막 접근 시각만 바뀐 저장은
+ *     마지막으로 저장된 접근 시각 이후 최대 비활성 시간 * ratio 만큼 지나기 전까지 MongoDB에 쓰지 않는다.
+ *     조회만 하는 요청이 대부분인 경우 세션 저장소 쓰기가 거의 사라지는 대신
+ *     세션은 최대 (최대 비활성 시간 * ratio) 만큼 일찍 만료될 수 있다.
+ *
+ *     같은 세션을 동시에 처리한 요청(SPA의 병렬 요청 등)은 잠금이나 재시도 없이 속성 단위로 합쳐진다. (optimistic concurrency)
+ *     문서는 저장할 때마다 증가하는 버전(ver)과 속성별 마지막 저장 시각(attrTs)을 가진다.
+ *     한 번의 저장에서 변경된 속성은 모두 같은 저장 시각을 가지므로 여러 속성을 함께 변경한 요청은 한 단위로 반영되거나 밀린다.
+ *       1. 조회한 이후 버전이 그대로면 다른 요청의 변경이 없으므로 변경 필드만 $set/$unset 한다.
+ *       2. 버전이 바뀌었으면 변경 속성마다 저장된 시각보다 늦은 저장만 반영하는 update pipeline 한 번으로 서버에서 합친다.
+ *          마지막 접근 시각, 만료 시각은 늦은 값을 유지하고 principal은 principal 속성이 반영된 경우에만 변경한다.
+ *     서로 다른 속성을 변경한 요청은 모두 반영되고, 같은 속성을 변경한 경우 늦게 저장한 요청의 값이 남는다. (노드 간 시각 차이만큼 오차가 있다.)
+ * </pre>
+ */
+public class DeltaMongoSessionRepository extends ForwardingMongoSessionRepository implements MeterBinder {
+    private final MongoOperations mongoOperations;
+    private final String collectionName;
+    private final PerAttributeMongoSessionConverter mongoSessionConverter;
+    private final LongAdder skippedTouchCount = new LongAdder();
+    private final LongAdder mergedCount = new LongAdder();
+
+    private double touchThrottleRatio = 0.0;
+    private String storeName = "default";
+
+    public DeltaMongoSessionRepository(FindByIndexNameSessionRepository<MongoSession> delegate
+            , MongoOperations mongoOperations
+            , String collectionName
+            , PerAttributeMongoSessionConverter mongoSessionConverter) {
+
+        super(delegate);
+
+        this.mongoOperations = mongoOperations;
+        this.collectionName = collectionName;
+        this.mongoSessionConverter = mongoSessionConverter;
+    }
+
+    /**
+     * <pre>
+     *     마지막 접근 시각만 바뀐 저장을 생략할 최대 비활성 시간 대비 비율. 0이면 생략하지 않는다.
+     * </pre>
+     */
+    public void setTouchThrottleRatio(double touchThrottleRatio) {
+        if(touchThrottleRatio < 0.0 || touchThrottleRatio >= 1.0) {
+            throw new IllegalArgumentException("touchThrottleRatio must be between 0.0 and 1.0 (exclusive)");
+        }
+
+        this.touchThrottleRatio = touchThrottleRatio;
+    }
+
+    /**
+     * <pre>
+     *     메트릭의 store 태그 값. 샤드마다 저장소를 두는 경우 샤드명을 설정한다.
+     * </pre>
+     */
+    public void setStoreName(String storeName) {
+        this.storeName = storeName;
+    }
+
+    @Override
+    public void save(MongoSession session) {
+        if(!(session instanceof DirtyTrackingMongoSession trackedSession)) {
+            super.save(session);
+            return;
+        }
+
+        if(!trackedSession.isPersisted() || trackedSession.hasChangedId()) {
+            String previousId = trackedSession.hasChangedId() ? trackedSession.getPersistedId() : null;
+
+            saveDocument(trackedSession);
+            if(previousId != null) {
+                this.mongoOperations.remove(idQuery(previousId), this.collectionName);
+            }
+
+            return;
+        }
+
+        if(isThrottledTouch(trackedSession)) {
+            // 저장된 상태로 표시하지 않아야 다음 저장에서 마지막으로 저장된 접근 시각 기준으로 경과 시간을 계산한다.
+            this.skippedTouchCount.increment();
+            trackedSession.markTouchSkipped();
+            return;
+        }
+
+        if(!hasChanges(trackedSession)) {
+            return;
+        }
+
+        Date savedTime = new Date();
+        long persistedVersion = trackedSession.getPersistedVersion();
+        if(persistedVersion != DirtyTrackingMongoSession.UNKNOWN_VERSION) {
+            Query versionQuery = idQuery(trackedSession.getId())
+                    .addCriteria(versionCriteria(persistedVersion));
+
+            UpdateResult updateResult = this.mongoOperations.updateFirst(versionQuery, createUpdate(trackedSession, savedTime), this.collectionName);
+            if(updateResult.getMatchedCount() > 0) {
+                trackedSession.markPersisted();
+                trackedSession.setPersistedVersion(persistedVersion + 1);
+                return;
+            }
+        }
+
+        // 조회 이후 다른 요청이 저장했거나(버전 불일치) 버전을 알 수 없는 경우 서버에서 속성 단위로 합친다.
+        UpdateResult updateResult = this.mongoOperations.updateFirst(idQuery(trackedSession.getId()), createMergeUpdate(trackedSession, savedTime), this.collectionName);
+        if(updateResult.getMatchedCount() == 0) {
+            // 다른 요청에서 삭제 되었거나 만료되어 문서가 없는 경우 기존 저장소와 동일하게 전체 문서를 다시 저장한다.
+            saveDocument(trackedSession);
+            return;
+        }
+
+        this.mergedCount.increment();
+        trackedSession.markPersisted();
+        // 합쳐진 문서의 버전은 알 수 없으므로 다음 저장도 합쳐서 저장한다.
+        trackedSession.setPersistedVersion(DirtyTrackingMongoSession.UNKNOWN_VERSION);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("session.store.touch.skipped", this.skippedTouchCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .register(registry);
+        FunctionCounter.builder("session.store.merged", this.mergedCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .register(registry);
+    }
+
+    /**
+     * <pre>
+     *     속성, 최대 비활성 시간 변경 없이 마지막 접근 시각만 바뀌었고
+     *     마지막으로 저장된 접근 시각 이후 허용 구간이 지나지 않았는지 여부.
+     * </pre>
+     */
+    boolean isThrottledTouch(DirtyTrackingMongoSession session) {
+        return isThrottledTouch(session, this.touchThrottleRatio);
+    }
+
+    /**
+     * <pre>
+     *     {@link #isThrottledTouch(DirtyTrackingMongoSession)}를 허용 구간 비율로 판단한다. ({@link WriteBehindMongoSessionRepository}도 사용한다.)
+     * </pre>
+     */
+    static boolean isThrottledTouch(DirtyTrackingMongoSession session, double touchThrottleRatio) {
+        if(touchThrottleRatio <= 0.0
+                || !session.getDirtyAttributeNames().isEmpty()
+                || session.isMaxInactiveIntervalChanged()
+                || session.getMaxInactiveInterval().isNegative()) {
+
+            return false;
+        }
+
+        Duration throttleWindow = Duration.ofMillis((long) (session.getMaxInactiveInterval().toMillis() * touchThrottleRatio));
+        Duration sinceLastPersistedTouch = Duration.between(session.getPersistedLastAccessedTime(), session.getLastAccessedTime());
+
+        return sinceLastPersistedTouch.compareTo(throttleWindow) < 0;
+    }
+
+    /**
+     * <pre>
+     *     저장된 상태 이후 변경된 필드만 담은 {@link Update}를 생성한다.
+     *     변경 속성은 모두 저장 시각(savedTime)을 기록하고,
+     *     삭제된 속성도 저장 시각을 남겨 늦게 도착한 이전 변경이 속성을 되살리지 않도록 한다.
+     * </pre>
+     */
+    Update createUpdate(DirtyTrackingMongoSession session, Date savedTime) {
+        Update update = new Update();
+
+        for(String attributeName : session.getDirtyAttributeNames()) {
+            byte[] attributeBytes = attributeBytesOf(session, attributeName);
+            String attributeFieldName = this.mongoSessionConverter.attributeFieldName(attributeName);
+
+            if(attributeBytes == null) {
+                update.unset(attributeFieldName);
+            } else {
+                update.set(attributeFieldName, attributeBytes);
+            }
+
+            update.set(this.mongoSessionConverter.attributeTimeFieldName(attributeName), savedTime);
+
+            if(this.mongoSessionConverter.isPrincipalAttribute(attributeName)) {
+                update.set(PerAttributeMongoSessionConverter.PRINCIPAL, this.mongoSessionConverter.principalOf(session));
+            }
+        }
+
+        if(session.isMaxInactiveIntervalChanged()) {
+            update.set(PerAttributeMongoSessionConverter.MAX_INTERVAL, session.getMaxInactiveInterval().toString());
+        }
+
+        if(session.isLastAccessedTimeChanged() || session.isMaxInactiveIntervalChanged()) {
+            update.set(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, Date.from(session.getLastAccessedTime()));
+            update.set(PerAttributeMongoSessionConverter.EXPIRE_AT, session.getExpireAt());
+        }
+
+        update.inc(PerAttributeMongoSessionConverter.VERSION, 1);
+
+        return update;
+    }
+
+    /**
+     * <pre>
+     *     저장된 문서와 변경을 속성 단위로 합치는 update pipeline을 생성한다.
+     *     하나의 $set 단계는 모든 식을 변경 전 문서 기준으로 계산하므로 속성 값과 저장 시각이 함께 반영된다.
+     * </pre>
+     */
+    AggregationUpdate createMergeUpdate(DirtyTrackingMongoSession session, Date savedTime) {
+        MergeUpdate mergeUpdate = new MergeUpdate(this.mongoSessionConverter);
+
+        String principal = null;
+        for(String attributeName : session.getDirtyAttributeNames()) {
+            if(principal == null && this.mongoSessionConverter.isPrincipalAttribute(attributeName)) {
+                principal = this.mongoSessionConverter.principalOf(session);
+            }
+
+            mergeUpdate.attribute(attributeName, attributeBytesOf(session, attributeName), savedTime, principal);
+        }
+
+        if(session.isMaxInactiveIntervalChanged()) {
+            mergeUpdate.maxInactiveInterval(session.getMaxInactiveInterval().toString(), Date.from(session.getLastAccessedTime()), session.getExpireAt());
+        } else if(session.isLastAccessedTimeChanged()) {
+            mergeUpdate.lastAccessedTime(Date.from(session.getLastAccessedTime()), session.getExpireAt());
+        }
+
+        return mergeUpdate.toUpdate();
+    }
+
+    /**
+     * <pre>
+     *     위임 저장소로 전체 문서를 저장한다.
+     *     저장된 문서의 버전({@link PerAttributeMongoSessionConverter#nextVersionOf(MongoSession)})은 문서로 변환할 때 세션에 기록된다.
+     * </pre>
+     */
+    private void saveDocument(DirtyTrackingMongoSession session) {
+        super.save(session);
+        session.markPersisted();
+    }
+
+    /**
+     * <pre>
+     *     변경된 속성의 저장 형식 값. 삭제된 속성은 null. 저장 후 변경되지 않은 속성과 같이 저장된 형식으로 기록한다.
+     *     버전 불일치로 합쳐서 저장하는 경우 이미 직렬화 한 값을 사용한다.
+     * </pre>
+     */
+    private byte[] attributeBytesOf(DirtyTrackingMongoSession session, String attributeName) {
+        byte[] persistedAttributeBytes = session.getPersistedAttributeBytes(attributeName);
+        if(persistedAttributeBytes != null) {
+            return persistedAttributeBytes;
+        }
+
+        Object attributeValue = session.getAttribute(attributeName);
+        byte[] attributeBytes = (attributeValue != null) ? this.mongoSessionConverter.serializeAttribute(attributeName, attributeValue) : null;
+        session.updatePersistedAttributeBytes(attributeName, attributeBytes);
+
+        return attributeBytes;
+    }
+
+    private static boolean hasChanges(DirtyTrackingMongoSession session) {
+        return !session.getDirtyAttributeNames().isEmpty()
+                || session.isMaxInactiveIntervalChanged()
+                || session.isLastAccessedTimeChanged();
+    }
+
+    /**
+     * <pre>
+     *     버전이 없는 문서(버전 추가 이전에 저장된 문서)는 버전 0으로 취급한다.
+     * </pre>
+     */
+    private static Criteria versionCriteria(long version) {
+        return (version == 0L) ? Criteria.where(PerAttributeMongoSessionConverter.VERSION).in(0L, null)
+                : Criteria.where(PerAttributeMongoSessionConverter.VERSION).is(version);
+    }
+
+    private static Query idQuery(String id) {
+        return Query.query(Criteria.where(PerAttributeMongoSessionConverter.ID).is(id));
+    }
+
+    /**
+     * <pre>
+     *     저장된 문서와 변경을 속성 단위로 합치는 update pipeline. ({@link WriteBehindMongoSessionRepository}도 같은 방식으로 합친다.)
+     *     하나의 $set 단계는 모든 식을 변경 전 문서 기준으로 계산하므로 속성 값과 저장 시각이 함께 반영된다.
+     * </pre>
+     */
+    static class MergeUpdate {
+        private final PerAttributeMongoSessionConverter mongoSessionConverter;
+        private final Document fields = new Document();
+
+        MergeUpdate(PerAttributeMongoSessionConverter mongoSessionConverter) {
+            this.mongoSessionConverter = mongoSessionConverter;
+        }
+
+        /**
+         * <pre>
+         *     저장 시각이 속성에 저장된 시각보다 늦은 경우에만 속성 값과 저장 시각을 반영한다.
+         *     principal 속성이면 principal 필드도 같은 조건으로 반영한다. (principal 속성 중 처음 반영한 속성 기준)
+         * </pre>
+         *
+         * @param attributeBytes 저장 형식 값. null이면 속성 삭제.
+         * @param principal principal 속성이 아니면 무시한다.
+         */
+        MergeUpdate attribute(String attributeName, byte[] attributeBytes, Date savedTime, String principal) {
+            String attributeFieldName = this.mongoSessionConverter.attributeFieldName(attributeName);
+            String attributeTimeFieldName = this.mongoSessionConverter.attributeTimeFieldName(attributeName);
+            Document newer = isNewer(savedTime, attributeTimeFieldName);
+
+            // $literal : 값이 '$'로 시작하는 문자열이어도 필드 경로로 해석하지 않는다.
+            this.fields.append(attributeFieldName, condition(newer
+                    , (attributeBytes != null) ? new Document("$literal", attributeBytes) : "$$REMOVE"
+                    , "$" + attributeFieldName));
+            this.fields.append(attributeTimeFieldName, condition(newer, savedTime, "$" + attributeTimeFieldName));
+
+            if(this.mongoSessionConverter.isPrincipalAttribute(attributeName) && !this.fields.containsKey(PerAttributeMongoSessionConverter.PRINCIPAL)) {
+                this.fields.append(PerAttributeMongoSessionConverter.PRINCIPAL, condition(newer
+                        , new Document("$literal", principal)
+                        , "$" + PerAttributeMongoSessionConverter.PRINCIPAL));
+            }
+
+            return this;
+        }
+
+        /**
+         * <pre>
+         *     최대 비활성 시간을 변경한 요청의 접근 시각, 만료 시각을 그대로 사용한다.
+         * </pre>
+         */
+        MergeUpdate maxInactiveInterval(String maxInactiveInterval, Date lastAccessedTime, Date expireAt) {
+            this.fields.append(PerAttributeMongoSessionConverter.MAX_INTERVAL, maxInactiveInterval);
+            this.fields.append(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, lastAccessedTime);
+            this.fields.append(PerAttributeMongoSessionConverter.EXPIRE_AT, expireAt);
+
+            return this;
+        }
+
+        /**
+         * <pre>
+         *     늦게 도착한 요청이 접근 시각, 만료 시각을 앞당기지 않도록 늦은 값을 유지한다.
+         * </pre>
+         */
+        MergeUpdate lastAccessedTime(Date lastAccessedTime, Date expireAt) {
+            this.fields.append(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME
+                    , new Document("$max", Arrays.asList(lastAccessedTime, "$" + PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME)));
+            this.fields.append(PerAttributeMongoSessionConverter.EXPIRE_AT
+                    , new Document("$max", Arrays.asList(expireAt, "$" + PerAttributeMongoSessionConverter.EXPIRE_AT)));
+
+            return this;
+        }
+
+        AggregationUpdate toUpdate() {
+            this.fields.append(PerAttributeMongoSessionConverter.VERSION
+                    , new Document("$add", Arrays.asList(new Document("$ifNull", Arrays.asList("$" + PerAttributeMongoSessionConverter.VERSION, 0L)), 1L)));
+
+            return AggregationUpdate.from(List.of(context -> new Document("$set", this.fields)));
+        }
+
+        /**
+         * <pre>
+         *     저장 시각이 속성에 저장된 시각보다 늦은지 여부. 저장 시각이 없는 속성(전체 문서로 저장된 속성)보다는 항상 늦다.
+         * </pre>
+         */
+        private static Document isNewer(Date savedTime, String attributeTimeFieldName) {
+            return new Document("$gt", Arrays.asList(savedTime
+                    , new Document("$ifNull", Arrays.asList("$" + attributeTimeFieldName, new Date(0L)))));
+        }
+
+        private static Document condition(Document condition, Object then, Object otherwise) {
+            return new Document("$cond", Arrays.asList(condition, then, otherwise));
+        }
+    }
+}
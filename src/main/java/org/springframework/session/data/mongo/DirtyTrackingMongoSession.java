@@ -0,0 +1,304 @@
+package org.springframework.session.data.mongo;
+
+import org.springframework.session.SessionIdGenerator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * <pre>
+ *     MongoDB에 저장된 상태 이후로 변경된 속성을 추적하는 {@link MongoSession}.
+ *
+ *     {@link PerAttributeMongoSessionConverter}가 문서를 세션으로 변환할 때 생성하며
+ *     {@link DeltaMongoSessionRepository}는 변경된 속성만 $set/$unset으로 저장한다.
+ *
+ *     변경 여부는 {@link #setAttribute(String, Object)}, {@link #removeAttribute(String)} 호출로 판단하므로
+ *     속성 값 객체를 직접 수정한 경우 다시 setAttribute를 호출 해야 저장된다.
+ *
+ *     속성 값은 저장된 형식(byte[]) 그대로 보관하다가 {@link #getAttribute(String)}로 처음 조회할 때 역직렬화 한다.
+ *     변경되지 않은 속성은 전체 문서를 저장할 때도 다시 직렬화 하지 않고 저장된 형식 그대로 기록한다.
+ *
+ *     동시에 같은 세션을 처리한 요청의 변경을 속성 단위로 합칠 수 있도록 저장된 문서의 버전을 함께 추적한다.
+ *     ({@link DeltaMongoSessionRepository})
+ *
+ *     {@link LazyMongoSessionRepository}가 조회한 세션은 속성 없이 생성되고, 속성에 처음 접근할 때 속성을 조회한다. ({@link #setAttributeLoader(Runnable)})
+ * </pre>
+ */
+public class DirtyTrackingMongoSession extends MongoSession {
+    /** 저장된 문서의 버전을 알 수 없는 경우. (저장된 적 없는 세션, 다른 요청의 변경과 합쳐서 저장한 세션) */
+    static final long UNKNOWN_VERSION = -1L;
+
+    private final Set<String> dirtyAttributeNames = new HashSet<>();
+    /** 아직 역직렬화 하지 않은 속성 */
+    private final Map<String, byte[]> encodedAttributes = new HashMap<>();
+    /** MongoDB에 저장된 형식과 동일한 속성 값. 변경된 속성은 제거된다. */
+    private final Map<String, byte[]> persistedAttributeBytes = new HashMap<>();
+
+    private BiFunction<String, byte[], Object> attributeDecoder;
+    /** 아직 조회하지 않은 속성을 조회하여 {@link #putEncodedAttribute(String, byte[])}로 넣는 작업. 한 번만 실행한다. */
+    private Runnable attributeLoader;
+    /** {@link MongoSession}은 세션 ID 생성기를 조회할 수 없으므로 복사본에 전달하기 위해 보관한다. */
+    private SessionIdGenerator sessionIdGenerator;
+
+    private String persistedId;
+    private Instant persistedLastAccessedTime;
+    private Duration persistedMaxInactiveInterval;
+    private long persistedVersion = UNKNOWN_VERSION;
+    /** 마지막 접근 시각만 바뀐 저장을 생략했는지 여부 ({@link DeltaMongoSessionRepository#setTouchThrottleRatio(double)}) */
+    private boolean touchSkipped;
+
+    DirtyTrackingMongoSession(String id, long maxInactiveIntervalInSeconds) {
+        super(id, maxInactiveIntervalInSeconds);
+    }
+
+    /**
+     * <pre>
+     *     저장된 상태와 동일한 복사본을 생성한다.
+     *     속성 값 객체는 복사하지 않고 공유하며, 역직렬화 하지 않은 속성은 저장된 형식 그대로 복사한다.
+     *     복사본의 세션 ID 변경(changeSessionId)은 원본과 같은 세션 ID 생성기를 사용한다.
+     * </pre>
+     *
+     * @param sessionIdGenerator 원본의 세션 ID 생성기를 알 수 없을 때(변경 추적 세션이 아닌 경우) 사용할 생성기. null이면 UUID.
+     */
+    static DirtyTrackingMongoSession persistedCopyOf(MongoSession source, SessionIdGenerator sessionIdGenerator) {
+        DirtyTrackingMongoSession copy = new DirtyTrackingMongoSession(source.getId(), source.getMaxInactiveInterval().getSeconds());
+        copy.setCreationTime(source.getCreationTime().toEpochMilli());
+        copy.setLastAccessedTime(source.getLastAccessedTime());
+        copy.setExpireAt(source.getExpireAt());
+
+        if(source instanceof DirtyTrackingMongoSession trackedSource) {
+            if(trackedSource.sessionIdGenerator != null) {
+                copy.setSessionIdGenerator(trackedSource.sessionIdGenerator);
+            } else if(sessionIdGenerator != null) {
+                copy.setSessionIdGenerator(sessionIdGenerator);
+            }
+
+            trackedSource.loadAttributesIfNecessary();
+            copy.attributeDecoder = trackedSource.attributeDecoder;
+            copy.encodedAttributes.putAll(trackedSource.encodedAttributes);
+
+            for(String attributeName : trackedSource.getDecodedAttributeNames()) {
+                copy.setDecodedAttribute(attributeName, trackedSource.getDecodedAttribute(attributeName));
+            }
+
+            copy.markPersisted();
+            copy.persistedAttributeBytes.putAll(trackedSource.persistedAttributeBytes);
+
+            // 접근 시각 저장이 생략된 세션은 MongoDB에 저장된 접근 시각을 그대로 이어 받는다.
+            if(trackedSource.isPersisted()) {
+                copy.persistedLastAccessedTime = trackedSource.persistedLastAccessedTime;
+            }
+
+            copy.persistedVersion = trackedSource.persistedVersion;
+
+            return copy;
+        }
+
+        if(sessionIdGenerator != null) {
+            copy.setSessionIdGenerator(sessionIdGenerator);
+        }
+
+        for(String attributeName : source.getAttributeNames()) {
+            copy.setDecodedAttribute(attributeName, source.getAttribute(attributeName));
+        }
+
+        copy.markPersisted();
+
+        return copy;
+    }
+
+    @Override
+    void setSessionIdGenerator(SessionIdGenerator sessionIdGenerator) {
+        super.setSessionIdGenerator(sessionIdGenerator);
+        this.sessionIdGenerator = sessionIdGenerator;
+    }
+
+    @Override
+    public <T> T getAttribute(String attributeName) {
+        loadAttributesIfNecessary();
+        decodeIfNecessary(attributeName);
+        return super.getAttribute(attributeName);
+    }
+
+    @Override
+    public Set<String> getAttributeNames() {
+        loadAttributesIfNecessary();
+        if(this.encodedAttributes.isEmpty()) {
+            return super.getAttributeNames();
+        }
+
+        Set<String> attributeNames = new HashSet<>(super.getAttributeNames());
+        attributeNames.addAll(this.encodedAttributes.keySet());
+
+        return attributeNames;
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object attributeValue) {
+        // 조회한 속성이 변경한 값을 덮어쓰지 않도록 먼저 조회한다.
+        loadAttributesIfNecessary();
+        this.encodedAttributes.remove(attributeName);
+        this.persistedAttributeBytes.remove(attributeName);
+        super.setAttribute(attributeName, attributeValue);
+        this.dirtyAttributeNames.add(attributeName);
+    }
+
+    @Override
+    public void removeAttribute(String attributeName) {
+        loadAttributesIfNecessary();
+        this.encodedAttributes.remove(attributeName);
+        this.persistedAttributeBytes.remove(attributeName);
+        super.removeAttribute(attributeName);
+        this.dirtyAttributeNames.add(attributeName);
+    }
+
+    /**
+     * <pre>
+     *     저장된 형식의 속성을 역직렬화 하지 않고 보관한다. 변경으로 취급하지 않는다.
+     * </pre>
+     */
+    void putEncodedAttribute(String attributeName, byte[] attributeBytes) {
+        this.encodedAttributes.put(attributeName, attributeBytes);
+        this.persistedAttributeBytes.put(attributeName, attributeBytes);
+    }
+
+    void setAttributeDecoder(BiFunction<String, byte[], Object> attributeDecoder) {
+        this.attributeDecoder = attributeDecoder;
+    }
+
+    void setAttributeLoader(Runnable attributeLoader) {
+        this.attributeLoader = attributeLoader;
+    }
+
+    boolean isAttributesLoaded() {
+        return this.attributeLoader == null;
+    }
+
+    /**
+     * <pre>
+     *     변경되지 않은 속성의 저장된 형식 값. 변경 되었거나 저장된 적 없는 속성은 null.
+     * </pre>
+     */
+    byte[] getPersistedAttributeBytes(String attributeName) {
+        loadAttributesIfNecessary();
+        return this.persistedAttributeBytes.get(attributeName);
+    }
+
+    /**
+     * <pre>
+     *     부분 갱신으로 저장한 속성의 저장된 형식 값을 기록한다.
+     * </pre>
+     */
+    void updatePersistedAttributeBytes(String attributeName, byte[] attributeBytes) {
+        if(attributeBytes == null) {
+            this.persistedAttributeBytes.remove(attributeName);
+        } else {
+            this.persistedAttributeBytes.put(attributeName, attributeBytes);
+        }
+    }
+
+    /**
+     * <pre>
+     *     현재 상태를 MongoDB에 저장된 상태로 기록하고 변경 내역을 초기화 한다.
+     * </pre>
+     */
+    void markPersisted() {
+        this.persistedId = getId();
+        this.persistedLastAccessedTime = getLastAccessedTime();
+        this.persistedMaxInactiveInterval = getMaxInactiveInterval();
+        this.dirtyAttributeNames.clear();
+        this.touchSkipped = false;
+    }
+
+    /**
+     * <pre>
+     *     마지막 접근 시각 저장을 생략한 것으로 기록한다. 저장된 상태는 바뀌지 않으며 다음 {@link #markPersisted()}까지 유지된다.
+     * </pre>
+     */
+    void markTouchSkipped() {
+        this.touchSkipped = true;
+    }
+
+    boolean isTouchSkipped() {
+        return this.touchSkipped;
+    }
+
+    boolean isPersisted() {
+        return this.persistedId != null;
+    }
+
+    boolean hasChangedId() {
+        return isPersisted() && !this.persistedId.equals(getId());
+    }
+
+    String getPersistedId() {
+        return this.persistedId;
+    }
+
+    Instant getPersistedLastAccessedTime() {
+        return this.persistedLastAccessedTime;
+    }
+
+    /**
+     * <pre>
+     *     저장된 문서의 버전. 알 수 없으면 {@link #UNKNOWN_VERSION}.
+     * </pre>
+     */
+    long getPersistedVersion() {
+        return this.persistedVersion;
+    }
+
+    void setPersistedVersion(long persistedVersion) {
+        this.persistedVersion = persistedVersion;
+    }
+
+    Set<String> getDirtyAttributeNames() {
+        return Collections.unmodifiableSet(this.dirtyAttributeNames);
+    }
+
+    boolean isLastAccessedTimeChanged() {
+        return !getLastAccessedTime().equals(this.persistedLastAccessedTime);
+    }
+
+    boolean isMaxInactiveIntervalChanged() {
+        return !getMaxInactiveInterval().equals(this.persistedMaxInactiveInterval);
+    }
+
+    private void loadAttributesIfNecessary() {
+        Runnable attributeLoader = this.attributeLoader;
+        if(attributeLoader != null) {
+            this.attributeLoader = null;
+            attributeLoader.run();
+        }
+    }
+
+    private void decodeIfNecessary(String attributeName) {
+        byte[] attributeBytes = this.encodedAttributes.remove(attributeName);
+        if(attributeBytes != null) {
+            setDecodedAttribute(attributeName, this.attributeDecoder.apply(attributeName, attributeBytes));
+        }
+    }
+
+    private Set<String> getDecodedAttributeNames() {
+        return super.getAttributeNames();
+    }
+
+    private Object getDecodedAttribute(String attributeName) {
+        return super.getAttribute(attributeName);
+    }
+
+    /**
+     * <pre>
+     *     변경 추적 없이 역직렬화된 값을 보관한다.
+     * </pre>
+     */
+    private void setDecodedAttribute(String attributeName, Object attributeValue) {
+        super.setAttribute(attributeName, attributeValue);
+    }
+}
@@ -0,0 +1,282 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.session.events.SessionExpiredEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ *     만료된 세션을 주기적으로 묶어서 삭제하고 {@link SessionExpiredEvent}를 발생시키는 세션 정리기.
+ *
+ *     MongoDB TTL Monitor가 삭제한 세션은 애플리케이션에 알려지지 않아 {@link SessionExpiredEvent}가 발생하지 않고,
+ *     TTL Monitor는 60초마다 문서를 하나씩 삭제하므로 만료 세션이 몰리면 부하를 예측하기 어렵다.
+ *
+ *     정리기는 expireAt 인덱스 순서로 만료된 세션을 pageSize 개씩 조회하여 한 번의 deleteMany로 삭제하고,
+ *     삭제된 세션의 {@link SessionExpiredEvent}를 페이지 단위로 발생시킨다.
+ *     초당 삭제 수(maxDeletesPerSecond)와 한 번의 정리에서 처리할 최대 페이지 수(maxPagesPerSweep)로 부하를 제한한다.
+ *
+ *     여러 노드에서 실행 되어도 lease 문서를 먼저 획득한 노드만 정리한다.
+ *     lease는 leaseDuration 동안 유효하며 페이지마다 갱신한다. 정리 중 노드가 종료되면 lease 만료 후 다른 노드가 이어서 정리한다.
+ *
+ *     TTL Monitor가 먼저 삭제하지 않도록 {@link PerAttributeMongoSessionConverter#setExpireAtIndexGracePeriod(Duration)}로
+ *     TTL 인덱스에 유예 시간을 두고, TTL 인덱스는 정리기가 동작하지 않을 때의 안전장치로 사용한다.
+ * </pre>
+ */
+public class ExpiredSessionSweeper implements MeterBinder {
+    private final static Logger logger = LoggerFactory.getLogger(ExpiredSessionSweeper.class);
+
+    static final String LEASE_COLLECTION_NAME = "sessionLeases";
+    static final String LEASE_ID = "expiredSessionSweeper";
+    private static final String LEASE_OWNER = "owner";
+    private static final String LEASE_EXPIRE_AT = "expireAt";
+
+    private final String storeName;
+    private final MongoOperations mongoOperations;
+    private final String collectionName;
+    private final PerAttributeMongoSessionConverter mongoSessionConverter;
+    private final ApplicationEventPublisher eventPublisher;
+    /** lease 소유자 식별 값. 노드(인스턴스)마다 다르다. */
+    private final String owner = UUID.randomUUID().toString();
+
+    private int pageSize = 500;
+    private int maxPagesPerSweep = 100;
+    private int maxDeletesPerSecond = 2_000;
+    private Duration leaseDuration = Duration.ofMinutes(2);
+
+    private final AtomicLong backlog = new AtomicLong();
+    private Counter expiredCounter;
+    private Timer completedTimer;
+    private Timer skippedTimer;
+
+    public ExpiredSessionSweeper(String storeName
+            , MongoOperations mongoOperations
+            , String collectionName
+            , PerAttributeMongoSessionConverter mongoSessionConverter
+            , ApplicationEventPublisher eventPublisher) {
+
+        this.storeName = storeName;
+        this.mongoOperations = mongoOperations;
+        this.collectionName = collectionName;
+        this.mongoSessionConverter = mongoSessionConverter;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public void setMaxPagesPerSweep(int maxPagesPerSweep) {
+        this.maxPagesPerSweep = maxPagesPerSweep;
+    }
+
+    /**
+     * <pre>
+     *     초당 최대 삭제 수. 0 이하면 제한하지 않는다.
+     * </pre>
+     */
+    public void setMaxDeletesPerSecond(int maxDeletesPerSecond) {
+        this.maxDeletesPerSecond = maxDeletesPerSecond;
+    }
+
+    public void setLeaseDuration(Duration leaseDuration) {
+        this.leaseDuration = leaseDuration;
+    }
+
+    /**
+     * <pre>
+     *     lease를 획득한 경우 만료된 세션을 정리한다.
+     * </pre>
+     *
+     * @return 삭제한 세션 수. lease를 획득하지 못했으면 -1.
+     */
+    public int sweep() {
+        long start = System.nanoTime();
+
+        if(!acquireLease()) {
+            record(this.skippedTimer, start);
+            return -1;
+        }
+
+        int expired = 0;
+        try {
+            for(int page = 0; page < this.maxPagesPerSweep; page++) {
+                int deleted = sweepPage(new Date());
+                expired += deleted;
+
+                if(deleted < this.pageSize || !acquireLease()) {
+                    break;
+                }
+
+                throttle(start, expired);
+            }
+
+            this.backlog.set(this.mongoOperations.count(expiredQuery(new Date()), this.collectionName));
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            record(this.completedTimer, start);
+        }
+
+        if(expired > 0) {
+            logger.info("swept {} expired sessions from {} (backlog : {})", expired, this.storeName, this.backlog.get());
+        }
+
+        return expired;
+    }
+
+    /**
+     * <pre>
+     *     정리 시간(outcome : completed, skipped), 정리한 세션 수, 정리 후 남은 만료 세션 수(backlog)를 등록한다.
+     * </pre>
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.completedTimer = Timer.builder("session.sweeper.duration")
+                .tag("store", this.storeName)
+                .tag("outcome", "completed")
+                .register(registry);
+        this.skippedTimer = Timer.builder("session.sweeper.duration")
+                .tag("store", this.storeName)
+                .tag("outcome", "skipped")
+                .register(registry);
+        this.expiredCounter = Counter.builder("session.sweeper.expired")
+                .tag("store", this.storeName)
+                .register(registry);
+        Gauge.builder("session.sweeper.backlog", this.backlog, AtomicLong::get)
+                .tag("store", this.storeName)
+                .register(registry);
+    }
+
+    /**
+     * <pre>
+     *     만료 세션 한 페이지를 삭제하고 삭제된 세션의 {@link SessionExpiredEvent}를 발생시킨다.
+     * </pre>
+     */
+    int sweepPage(Date now) {
+        Query query = expiredQuery(now)
+                .with(Sort.by(PerAttributeMongoSessionConverter.EXPIRE_AT))
+                .limit(this.pageSize);
+
+        List<Document> documents = this.mongoOperations.find(query, Document.class, this.collectionName);
+        if(documents.isEmpty()) {
+            return 0;
+        }
+
+        List<Object> ids = new ArrayList<>(documents.size());
+        for(Document document : documents) {
+            ids.add(document.get(PerAttributeMongoSessionConverter.ID));
+        }
+
+        // 조회 후 다른 요청에서 접근하여 만료 시각이 연장된 세션은 삭제하지 않는다.
+        DeleteResult deleteResult = this.mongoOperations.remove(expiredQuery(now)
+                .addCriteria(Criteria.where(PerAttributeMongoSessionConverter.ID).in(ids)), this.collectionName);
+
+        Set<Object> remainingIds = (deleteResult.getDeletedCount() < ids.size()) ? findExistingIds(ids) : Set.of();
+
+        int deleted = 0;
+        for(Document document : documents) {
+            if(remainingIds.contains(document.get(PerAttributeMongoSessionConverter.ID))) {
+                continue;
+            }
+
+            this.eventPublisher.publishEvent(new SessionExpiredEvent(this, this.mongoSessionConverter.convert(document)));
+            deleted++;
+        }
+
+        if(this.expiredCounter != null) {
+            this.expiredCounter.increment(deleted);
+        }
+
+        return deleted;
+    }
+
+    /**
+     * <pre>
+     *     lease 문서를 획득하거나 이미 소유한 lease를 갱신한다.
+     *     다른 노드의 lease가 유효하면 조건에 맞는 문서가 없어 upsert를 시도하고, _id 중복으로 실패한다.
+     * </pre>
+     */
+    boolean acquireLease() {
+        Date now = new Date();
+        Query query = Query.query(Criteria.where(PerAttributeMongoSessionConverter.ID).is(LEASE_ID)
+                .orOperator(Criteria.where(LEASE_EXPIRE_AT).lt(now), Criteria.where(LEASE_OWNER).is(this.owner)));
+        Update update = new Update()
+                .set(LEASE_OWNER, this.owner)
+                .set(LEASE_EXPIRE_AT, new Date(now.getTime() + this.leaseDuration.toMillis()));
+
+        try {
+            Document lease = this.mongoOperations.findAndModify(query
+                    , update
+                    , FindAndModifyOptions.options().upsert(true).returnNew(true)
+                    , Document.class
+                    , LEASE_COLLECTION_NAME);
+
+            return lease != null && this.owner.equals(lease.getString(LEASE_OWNER));
+        } catch(DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private Set<Object> findExistingIds(List<Object> ids) {
+        Query query = Query.query(Criteria.where(PerAttributeMongoSessionConverter.ID).in(ids));
+        query.fields().include(PerAttributeMongoSessionConverter.ID);
+
+        Set<Object> existingIds = new HashSet<>();
+        for(Document document : this.mongoOperations.find(query, Document.class, this.collectionName)) {
+            existingIds.add(document.get(PerAttributeMongoSessionConverter.ID));
+        }
+
+        return existingIds;
+    }
+
+    /**
+     * <pre>
+     *     정리 시작 이후 삭제 수가 초당 최대 삭제 수를 넘지 않도록 대기한다.
+     * </pre>
+     */
+    private void throttle(long start, int expired) throws InterruptedException {
+        if(this.maxDeletesPerSecond <= 0) {
+            return;
+        }
+
+        long minimumElapsedMillis = expired * 1_000L / this.maxDeletesPerSecond;
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+        if(minimumElapsedMillis > elapsedMillis) {
+            Thread.sleep(minimumElapsedMillis - elapsedMillis);
+        }
+    }
+
+    private static Query expiredQuery(Date now) {
+        return Query.query(Criteria.where(PerAttributeMongoSessionConverter.EXPIRE_AT).lte(now));
+    }
+
+    private static void record(Timer timer, long start) {
+        if(timer != null) {
+            timer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.springframework.session.data.mongo;
+
+import org.springframework.session.FindByIndexNameSessionRepository;
+
+import java.util.Map;
+
+/**
+ * <pre>
+ *     {@link MongoIndexedSessionRepository} 앞단에 부가 기능을 감싸기 위한 위임(Decorator) 기본 클래스.
+ *     모든 메서드를 그대로 위임하며, 하위 클래스는 필요한 메서드만 재정의 한다.
+ * </pre>
+ */
+public class ForwardingMongoSessionRepository implements FindByIndexNameSessionRepository<MongoSession> {
+    private final FindByIndexNameSessionRepository<MongoSession> delegate;
+
+    public ForwardingMongoSessionRepository(FindByIndexNameSessionRepository<MongoSession> delegate) {
+        this.delegate = delegate;
+    }
+
+    protected FindByIndexNameSessionRepository<MongoSession> getDelegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public MongoSession createSession() {
+        return this.delegate.createSession();
+    }
+
+    @Override
+    public void save(MongoSession session) {
+        this.delegate.save(session);
+    }
+
+    @Override
+    public MongoSession findById(String id) {
+        return this.delegate.findById(id);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        this.delegate.deleteById(id);
+    }
+
+    @Override
+    public Map<String, MongoSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        return this.delegate.findByIndexNameAndIndexValue(indexName, indexValue);
+    }
+}
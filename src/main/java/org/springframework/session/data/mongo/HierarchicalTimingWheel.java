@@ -0,0 +1,156 @@
+package org.springframework.session.data.mongo;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <pre>
+ *     세션 만료 시각을 tick 단위 구간(bucket)으로 관리하는 계층형 타이밍 휠. ({@link OffHeapMongoSessionRepository})
+ *
+ *     단계(level)마다 {@value #WHEEL_SIZE}개 bucket을 두며 level 0의 bucket 하나는 1 tick, level 1은 64 tick, level 2는 4,096 tick을 담당한다.
+ *     {@value #LEVEL_COUNT}단계이므로 tick이 1초면 약 194일까지 구분하고, 그 이후 만료는 마지막 단계에 두었다가 다시 배치한다.
+ *
+ *     등록은 O(1)이며 tick마다 만료 시각이 된 bucket 하나만 확인하므로 전체 세션을 주기적으로 확인(full scan)하지 않는다.
+ *     상위 단계 bucket은 해당 구간이 시작될 때 하위 단계로 다시 배치(cascade)한다.
+ *
+ *     항목은 취소하지 않고, 만료 시각이 바뀐 항목은 {@link #advance(long)}가 반환한 뒤 호출하는 쪽에서 무시하거나 다시 등록한다.
+ * </pre>
+ */
+class HierarchicalTimingWheel {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVEL_COUNT = 4;
+
+    private final long startMillis;
+    private final long tickMillis;
+    /** level * {@value #WHEEL_SIZE} + slot 위치의 bucket */
+    private final List<List<Item>> buckets;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** 마지막으로 처리한 tick */
+    private long currentTick;
+
+    HierarchicalTimingWheel(Duration tick, long startMillis) {
+        if(tick.toMillis() < 1) {
+            throw new IllegalArgumentException("tick must be at least 1ms: " + tick);
+        }
+
+        this.startMillis = startMillis;
+        this.tickMillis = tick.toMillis();
+        this.buckets = new ArrayList<>(LEVEL_COUNT * WHEEL_SIZE);
+        for(int i = 0; i < LEVEL_COUNT * WHEEL_SIZE; i++) {
+            this.buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * <pre>
+     *     deadlineMillis가 지난 뒤 처음 처리되는 tick에 key를 등록한다. 이미 지난 시각은 다음 tick에 등록한다.
+     * </pre>
+     *
+     * @return 등록된 tick. 만료 시각이 바뀌었는지 비교할 때 사용한다.
+     */
+    long schedule(String key, long deadlineMillis) {
+        this.lock.lock();
+        try {
+            Item item = new Item(key, Math.max(tickOf(deadlineMillis), this.currentTick + 1));
+            place(item);
+
+            return item.deadlineTick();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * <pre>
+     *     nowMillis까지의 tick을 처리하고 만료 시각이 된 항목을 반환한다.
+     *     잠금 밖에서 항목을 처리할 수 있도록 목록으로 반환한다.
+     * </pre>
+     */
+    List<Item> advance(long nowMillis) {
+        List<Item> dueItems = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMillis - this.startMillis, this.tickMillis);
+
+        this.lock.lock();
+        try {
+            while(this.currentTick < targetTick) {
+                this.currentTick++;
+                cascade(this.currentTick);
+
+                List<Item> bucket = bucketOf(0, this.currentTick);
+                dueItems.addAll(bucket);
+                bucket.clear();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        return dueItems;
+    }
+
+    /**
+     * <pre>
+     *     deadlineMillis 이후 처음 시작하는 tick.
+     * </pre>
+     */
+    long tickOf(long deadlineMillis) {
+        return Math.floorDiv(deadlineMillis - this.startMillis + this.tickMillis - 1, this.tickMillis);
+    }
+
+    /**
+     * <pre>
+     *     tick에서 시작하는 상위 단계 bucket을 하위 단계로 다시 배치한다.
+     * </pre>
+     */
+    private void cascade(long tick) {
+        for(int level = 1; level < LEVEL_COUNT; level++) {
+            if((tick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                return;
+            }
+
+            List<Item> bucket = bucketOf(level, tick);
+            if(bucket.isEmpty()) {
+                continue;
+            }
+
+            List<Item> items = new ArrayList<>(bucket);
+            bucket.clear();
+            for(Item item : items) {
+                place(item);
+            }
+        }
+    }
+
+    /**
+     * <pre>
+     *     남은 tick 수로 단계를 정한다. 남은 tick이 64^(level + 1)보다 작은 가장 낮은 단계에 둔다.
+     * </pre>
+     */
+    private void place(Item item) {
+        long remainingTicks = Math.max(item.deadlineTick() - this.currentTick, 0L);
+
+        int level = 0;
+        while(level < LEVEL_COUNT - 1 && remainingTicks >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+
+        long tick = Math.max(item.deadlineTick(), this.currentTick);
+        bucketOf(level, tick).add(item);
+    }
+
+    /**
+     * <pre>
+     *     level 단계에서 tick을 담당하는 bucket.
+     * </pre>
+     */
+    private List<Item> bucketOf(int level, long tick) {
+        return this.buckets.get(level * WHEEL_SIZE + (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK));
+    }
+
+    record Item(String key, long deadlineTick) {
+    }
+}
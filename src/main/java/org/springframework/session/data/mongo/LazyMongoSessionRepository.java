@@ -0,0 +1,139 @@
+package org.springframework.session.data.mongo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.SessionIdGenerator;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ *     세션 조회 시 속성을 제외한 필드만 조회하고, 속성은 처음 사용할 때 조회하는 세션 저장소.
+ *
+ *     SessionRepositoryFilter는 세션 ID가 있는 요청마다 세션을 조회하지만 initSession 같이 세션 ID만 사용하는 요청은 속성을 읽지 않는다.
+ *     해당 저장소는 attrs 필드를 제외(projection)하고 조회하여 세션 ID, 생성/접근 시각, 최대 비활성 시간, 만료 시각만 가진 세션을 반환하고
+ *     {@link DirtyTrackingMongoSession#getAttribute(String)} 등 속성에 처음 접근할 때 attrs 필드만 한 번 더 조회한다. (요청당 최대 한 번)
+ *
+ *     속성을 사용하지 않는 요청은 속성 전송량과 역직렬화가 없어지고,
+ *     속성을 사용하는 요청은 조회가 두 번(메타데이터, 속성)으로 늘어난다.
+ *     만료 시각은 _id 인덱스에 없으므로 문서 조회 자체는 필요하며 네트워크로 전송되는 필드만 줄어든다.
+ *
+ *     이전 형식(attr)으로 저장된 문서는 속성을 함께 조회하므로 기존과 동일하게 처리된다.
+ *     L1 캐시({@link NearCacheMongoSessionRepository})는 캐시에 보관할 때 속성을 조회한다.
+ * </pre>
+ */
+public class LazyMongoSessionRepository extends ForwardingMongoSessionRepository implements MeterBinder {
+    private final MongoOperations mongoOperations;
+    private final String collectionName;
+    private final PerAttributeMongoSessionConverter mongoSessionConverter;
+    private final SessionIdGenerator sessionIdGenerator;
+
+    private final LongAdder deferredCount = new LongAdder();
+    private final LongAdder loadedCount = new LongAdder();
+
+    private String storeName = "default";
+
+    public LazyMongoSessionRepository(FindByIndexNameSessionRepository<MongoSession> delegate
+            , MongoOperations mongoOperations
+            , String collectionName
+            , PerAttributeMongoSessionConverter mongoSessionConverter
+            , SessionIdGenerator sessionIdGenerator) {
+
+        super(delegate);
+
+        this.mongoOperations = mongoOperations;
+        this.collectionName = collectionName;
+        this.mongoSessionConverter = mongoSessionConverter;
+        this.sessionIdGenerator = sessionIdGenerator;
+    }
+
+    /**
+     * <pre>
+     *     메트릭의 store 태그 값. 샤드마다 저장소를 두는 경우 샤드명을 설정한다.
+     * </pre>
+     */
+    public void setStoreName(String storeName) {
+        this.storeName = storeName;
+    }
+
+    /**
+     * <pre>
+     *     {@link MongoIndexedSessionRepository#findById(String)}와 같이 만료된 세션은 삭제하고 null을 반환한다.
+     * </pre>
+     */
+    @Override
+    public MongoSession findById(String id) {
+        Query query = idQuery(id);
+        query.fields()
+                .exclude(PerAttributeMongoSessionConverter.ATTRIBUTES)
+                .exclude(PerAttributeMongoSessionConverter.ATTRIBUTE_TIMES);
+
+        Document document = this.mongoOperations.findOne(query, Document.class, this.collectionName);
+        if(document == null) {
+            return null;
+        }
+
+        MongoSession session = this.mongoSessionConverter.convert(document);
+        if(session == null) {
+            return null;
+        }
+
+        if(session.isExpired()) {
+            getDelegate().deleteById(id);
+            return null;
+        }
+
+        session.setSessionIdGenerator(this.sessionIdGenerator);
+
+        // 이전 형식 문서는 속성을 이미 조회했다.
+        if(session instanceof DirtyTrackingMongoSession trackedSession && !document.containsKey(PerAttributeMongoSessionConverter.LEGACY_ATTRIBUTES)) {
+            trackedSession.setAttributeLoader(() -> loadAttributes(id, trackedSession));
+            this.deferredCount.increment();
+        }
+
+        return session;
+    }
+
+    /**
+     * <pre>
+     *     속성 조회를 미룬 세션 수, 이후 속성을 조회한 세션 수를 등록한다.
+     *     두 값의 차이가 속성 조회를 생략한 요청 수다.
+     * </pre>
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("session.store.lazy.deferred", this.deferredCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .register(registry);
+        FunctionCounter.builder("session.store.lazy.loaded", this.loadedCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .register(registry);
+    }
+
+    /**
+     * <pre>
+     *     attrs 필드만 조회하여 세션에 넣는다. 조회 사이에 문서가 삭제되었으면 속성이 없는 세션으로 남는다.
+     * </pre>
+     */
+    private void loadAttributes(String id, DirtyTrackingMongoSession session) {
+        this.loadedCount.increment();
+
+        Query query = idQuery(id);
+        query.fields().include(PerAttributeMongoSessionConverter.ATTRIBUTES);
+
+        Document document = this.mongoOperations.findOne(query, Document.class, this.collectionName);
+        if(document != null && document.get(PerAttributeMongoSessionConverter.ATTRIBUTES) instanceof Document attributes) {
+            this.mongoSessionConverter.putEncodedAttributes(attributes, session);
+        }
+    }
+
+    private static Query idQuery(String id) {
+        return Query.query(Criteria.where(PerAttributeMongoSessionConverter.ID).is(id));
+    }
+}
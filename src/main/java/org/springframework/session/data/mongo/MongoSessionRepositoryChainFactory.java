@@ -0,0 +1,336 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.ReadPreference;
+import com.springSession.codec.SessionTokenCipher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.SessionIdGenerator;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ *     {@link MongoIndexedSessionRepository} 앞단에 부가 기능 저장소를 감싼 세션 저장소 체인을 생성한다.
+ *
+ *     {@link MongoSession}은 package-private이므로 {@code FindByIndexNameSessionRepository<MongoSession>} 타입은 해당 패키지에서만 다룰 수 있다.
+ *     설정 클래스는 enable*()로 사용할 기능을 지정하고, 체인({@link ForwardingMongoSessionRepository})과 샤드({@link MongoSessionShards.Shard})만 받는다.
+ *
+ *     MongoDB 인스턴스 하나에 대한 저장소(store)는 안쪽부터 lazy-load → delta-save → write-behind → read-preference 순서로 감싸고,
+ *     체인은 저장소(혹은 샤드 저장소) 앞단에 near-cache → stateless 순서로 감싼다.
+ *
+ *     write-behind 저장소의 저장 스레드는 {@link #start()}에서 시작하고 {@link #stop()}에서 대기 중인 세션을 모두 저장한다.
+ *     웹 서버보다 먼저 시작하고 나중에 종료되도록(graceful shutdown 중 요청의 세션까지 저장) 낮은 phase를 사용한다.
+ * </pre>
+ */
+public class MongoSessionRepositoryChainFactory implements SmartLifecycle {
+    /** 샤딩을 사용하지 않을 때 세션 저장소 메트릭의 store 태그 값 */
+    public static final String DEFAULT_STORE_NAME = "default";
+    /** 웹 서버(WebServerStartStopLifecycle, WebServerGracefulShutdownLifecycle)보다 낮은 phase */
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final PerAttributeMongoSessionConverter mongoSessionConverter;
+    private final SessionIdGenerator sessionIdGenerator;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final String collectionName;
+
+    private boolean lazyLoadEnabled;
+    private boolean deltaSaveEnabled;
+    private double touchThrottleRatio;
+    private boolean nearCacheEnabled;
+    private long nearCacheMaximumWeight;
+    private boolean nearCacheValidateOnRead;
+    private SessionTokenCipher statelessTokenCipher;
+    private int statelessMaxTokenLength;
+    private double statelessRefreshRatio;
+    private Duration writeBehindFlushInterval;
+    private int writeBehindMaxBatchSize;
+    private int writeBehindMaxPendingSessions;
+    private ReadPreference readPreference;
+
+    private final List<WriteBehindMongoSessionRepository> writeBehindSessionRepositories = new ArrayList<>();
+    private volatile boolean running;
+
+    /**
+     * @param mongoSessionConverter 속성별 문서 형식을 사용하지 않으면 null. 이 경우 near-cache만 사용할 수 있다.
+     */
+    public MongoSessionRepositoryChainFactory(PerAttributeMongoSessionConverter mongoSessionConverter
+            , SessionIdGenerator sessionIdGenerator
+            , ObjectProvider<MeterRegistry> meterRegistry) {
+
+        this.mongoSessionConverter = mongoSessionConverter;
+        this.sessionIdGenerator = sessionIdGenerator;
+        this.meterRegistry = meterRegistry;
+        this.collectionName = MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME;
+    }
+
+    /**
+     * <pre>
+     *     세션 조회 시 속성을 제외하고 조회한다. ({@link LazyMongoSessionRepository})
+     * </pre>
+     */
+    public void enableLazyLoad() {
+        this.lazyLoadEnabled = true;
+    }
+
+    /**
+     * <pre>
+     *     변경된 속성만 저장한다. ({@link DeltaMongoSessionRepository})
+     * </pre>
+     */
+    public void enableDeltaSave(double touchThrottleRatio) {
+        this.deltaSaveEnabled = true;
+        this.touchThrottleRatio = touchThrottleRatio;
+    }
+
+    /**
+     * <pre>
+     *     노드별 L1 세션 캐시를 둔다. ({@link NearCacheMongoSessionRepository})
+     * </pre>
+     */
+    public void enableNearCache(long maximumWeight, boolean validateOnRead) {
+        this.nearCacheEnabled = true;
+        this.nearCacheMaximumWeight = maximumWeight;
+        this.nearCacheValidateOnRead = validateOnRead;
+    }
+
+    /**
+     * <pre>
+     *     작은 세션을 암호화된 토큰으로 전달한다. ({@link StatelessTokenMongoSessionRepository})
+     * </pre>
+     */
+    public void enableStateless(SessionTokenCipher sessionTokenCipher, int maxTokenLength, double refreshRatio) {
+        this.statelessTokenCipher = sessionTokenCipher;
+        this.statelessMaxTokenLength = maxTokenLength;
+        this.statelessRefreshRatio = refreshRatio;
+    }
+
+    /**
+     * <pre>
+     *     세션 저장을 모아서 bulk write로 저장한다. ({@link WriteBehindMongoSessionRepository})
+     * </pre>
+     */
+    public void enableWriteBehind(Duration flushInterval, int maxBatchSize, int maxPendingSessions) {
+        this.writeBehindFlushInterval = flushInterval;
+        this.writeBehindMaxBatchSize = maxBatchSize;
+        this.writeBehindMaxPendingSessions = maxPendingSessions;
+    }
+
+    /**
+     * <pre>
+     *     세션 조회를 read preference로 보낸다. ({@link ReadPreferenceMongoSessionRepository})
+     * </pre>
+     */
+    public void enableReadPreference(ReadPreference readPreference) {
+        this.readPreference = readPreference;
+    }
+
+    /**
+     * <pre>
+     *     shards가 있으면 {@link ShardedMongoSessionRepository}를, 없으면 mongoSessionRepository의 저장소를 기반 저장소로 사용한다.
+     *     L1 캐시는 샤드 저장소 앞단에 하나만 두고, 토큰 세션은 세션 저장소를 거치지 않도록 가장 앞단에 둔다.
+     * </pre>
+     *
+     * @param shards 샤딩을 사용하지 않으면 null
+     */
+    public ForwardingMongoSessionRepository sessionRepositoryChain(MongoIndexedSessionRepository mongoSessionRepository
+            , MongoOperations mongoOperations
+            , MongoSessionShards shards) {
+
+        FindByIndexNameSessionRepository<MongoSession> sessionRepository;
+        Function<String, MongoOperations> mongoOperationsResolver;
+        if(shards != null) {
+            sessionRepository = new ShardedMongoSessionRepository(shards, this.collectionName);
+            mongoOperationsResolver = id -> shards.ownerOf(id).mongoOperations();
+        } else {
+            sessionRepository = storeRepository(DEFAULT_STORE_NAME, mongoSessionRepository, mongoOperations);
+            mongoOperationsResolver = id -> mongoOperations;
+        }
+
+        if(this.nearCacheEnabled) {
+            NearCacheMongoSessionRepository nearCacheSessionRepository = new NearCacheMongoSessionRepository(sessionRepository
+                    , mongoOperationsResolver
+                    , this.collectionName
+                    , this.nearCacheMaximumWeight);
+            nearCacheSessionRepository.setValidateOnRead(this.nearCacheValidateOnRead);
+            nearCacheSessionRepository.setSessionIdGenerator(this.sessionIdGenerator);
+            this.meterRegistry.ifAvailable(nearCacheSessionRepository::bindTo);
+
+            sessionRepository = nearCacheSessionRepository;
+        }
+
+        if(this.statelessTokenCipher != null) {
+            StatelessTokenMongoSessionRepository statelessSessionRepository = new StatelessTokenMongoSessionRepository(sessionRepository
+                    , this.statelessTokenCipher
+                    , this.mongoSessionConverter
+                    , this.sessionIdGenerator
+                    , this.statelessMaxTokenLength);
+            statelessSessionRepository.setRefreshRatio(this.statelessRefreshRatio);
+
+            sessionRepository = statelessSessionRepository;
+        }
+
+        // 활성화된 기능이 없어도 기반 저장소 Bean이 Primary Bean으로 중복 초기화 되지 않도록 위임 객체로 감싼다.
+        return (sessionRepository instanceof ForwardingMongoSessionRepository forwardingSessionRepository) ? forwardingSessionRepository
+                : new ForwardingMongoSessionRepository(sessionRepository);
+    }
+
+    /**
+     * <pre>
+     *     샤드 하나. 샤드 저장소는 샤드명을 store 태그로 사용한다.
+     * </pre>
+     */
+    public MongoSessionShards.Shard shard(String name
+            , MongoOperations mongoOperations
+            , MongoIndexedSessionRepository mongoSessionRepository
+            , Closeable connection) {
+
+        return new MongoSessionShards.Shard(name, mongoOperations, storeRepository(name, mongoSessionRepository, mongoOperations), connection);
+    }
+
+    /**
+     * <pre>
+     *     write-behind 저장소의 저장 스레드를 시작한다.
+     * </pre>
+     */
+    @Override
+    public synchronized void start() {
+        for(WriteBehindMongoSessionRepository writeBehindSessionRepository : this.writeBehindSessionRepositories) {
+            writeBehindSessionRepository.start();
+        }
+
+        this.running = true;
+    }
+
+    /**
+     * <pre>
+     *     write-behind 저장소에 대기 중인 세션을 모두 저장하고, 이후 저장은 바로 저장한다.
+     *     MongoClient는 Bean 소멸 시 닫히므로 그 전에 호출된다.
+     * </pre>
+     */
+    @Override
+    public synchronized void stop() {
+        this.running = false;
+
+        for(WriteBehindMongoSessionRepository writeBehindSessionRepository : this.writeBehindSessionRepositories) {
+            writeBehindSessionRepository.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * <pre>
+     *     MongoDB 인스턴스 하나에 대한 저장소.
+     *     write-behind는 조회, 삭제에 기존 저장소를 사용하고, read-preference는 지연 저장 중인 세션의 쓰기 시각도 기록되도록 가장 바깥에 둔다.
+     * </pre>
+     */
+    private FindByIndexNameSessionRepository<MongoSession> storeRepository(String storeName
+            , MongoIndexedSessionRepository mongoSessionRepository
+            , MongoOperations mongoOperations) {
+
+        FindByIndexNameSessionRepository<MongoSession> sessionRepository = mongoSessionRepository;
+        if(this.lazyLoadEnabled) {
+            LazyMongoSessionRepository lazySessionRepository = new LazyMongoSessionRepository(sessionRepository
+                    , mongoOperations
+                    , this.collectionName
+                    , this.mongoSessionConverter
+                    , this.sessionIdGenerator);
+            lazySessionRepository.setStoreName(storeName);
+            this.meterRegistry.ifAvailable(lazySessionRepository::bindTo);
+
+            sessionRepository = lazySessionRepository;
+        }
+
+        if(this.deltaSaveEnabled) {
+            DeltaMongoSessionRepository deltaSessionRepository = new DeltaMongoSessionRepository(sessionRepository
+                    , mongoOperations
+                    , this.collectionName
+                    , this.mongoSessionConverter);
+            // 최대 비활성 시간은 mongoSessionRepositoryCustomizer에서 설정한 값을 세션마다 따른다.
+            deltaSessionRepository.setTouchThrottleRatio(this.touchThrottleRatio);
+            deltaSessionRepository.setStoreName(storeName);
+            this.meterRegistry.ifAvailable(deltaSessionRepository::bindTo);
+
+            sessionRepository = deltaSessionRepository;
+        }
+
+        WriteBehindMongoSessionRepository writeBehindSessionRepository = null;
+        if(this.writeBehindFlushInterval != null) {
+            writeBehindSessionRepository = new WriteBehindMongoSessionRepository(sessionRepository
+                    , mongoOperations
+                    , this.collectionName
+                    , this.mongoSessionConverter
+                    , this.writeBehindFlushInterval
+                    , this.writeBehindMaxBatchSize);
+            writeBehindSessionRepository.setMaxPendingSessions(this.writeBehindMaxPendingSessions);
+            // 저장 스레드가 실행 중인 동안 delta-save 저장소를 거치지 않으므로 접근 시각 저장 생략도 같은 비율로 적용한다.
+            writeBehindSessionRepository.setTouchThrottleRatio(this.touchThrottleRatio);
+            writeBehindSessionRepository.setStoreName(storeName);
+            this.meterRegistry.ifAvailable(writeBehindSessionRepository::bindTo);
+            registerWriteBehind(writeBehindSessionRepository);
+
+            sessionRepository = writeBehindSessionRepository;
+        }
+
+        if(this.readPreference != null) {
+            ReadPreferenceMongoSessionRepository readPreferenceSessionRepository = new ReadPreferenceMongoSessionRepository(sessionRepository
+                    , readMongoOperationsOf(mongoOperations)
+                    , this.collectionName
+                    , this.mongoSessionConverter
+                    , this.sessionIdGenerator);
+            readPreferenceSessionRepository.setStoreName(storeName);
+            if(writeBehindSessionRepository != null) {
+                // 저장하지 않은 변경이 있는 세션은 secondary에 반영되지 않았으므로 primary에서 조회한다.
+                readPreferenceSessionRepository.setUnwrittenChanges(writeBehindSessionRepository::hasUnwrittenChanges);
+            }
+            this.meterRegistry.ifAvailable(readPreferenceSessionRepository::bindTo);
+
+            sessionRepository = readPreferenceSessionRepository;
+        }
+
+        return sessionRepository;
+    }
+
+    /**
+     * <pre>
+     *     시작된 이후 생성된 저장소는 바로 시작한다.
+     * </pre>
+     */
+    private synchronized void registerWriteBehind(WriteBehindMongoSessionRepository writeBehindSessionRepository) {
+        this.writeBehindSessionRepositories.add(writeBehindSessionRepository);
+        if(this.running) {
+            writeBehindSessionRepository.start();
+        }
+    }
+
+    /**
+     * <pre>
+     *     같은 MongoClient를 사용하고 조회에만 read preference를 적용하는 {@link MongoTemplate}.
+     * </pre>
+     */
+    private MongoOperations readMongoOperationsOf(MongoOperations mongoOperations) {
+        MongoTemplate readMongoTemplate = new MongoTemplate(((MongoTemplate) mongoOperations).getMongoDatabaseFactory());
+        ((MappingMongoConverter) readMongoTemplate.getConverter()).setTypeMapper(new DefaultMongoTypeMapper(null));
+        readMongoTemplate.setReadPreference(this.readPreference);
+
+        return readMongoTemplate;
+    }
+}
@@ -0,0 +1,185 @@
+package org.springframework.session.data.mongo;
+
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.session.FindByIndexNameSessionRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * <pre>
+ *     여러 MongoDB 인스턴스(샤드)에 세션을 나누어 저장하기 위한 Consistent Hash 링.
+ *
+ *     샤드마다 가상 노드(virtual node)를 링에 배치하고, 세션 ID의 해시 값 이후 처음 만나는 가상 노드의 샤드를 소유 샤드로 한다.
+ *     샤드를 추가해도 새 샤드가 가져가는 구간(약 1/N)의 세션만 소유 샤드가 바뀐다.
+ *
+ *     세션 ID가 "{샤드명}.{ID}" 형식이고 샤드명이 등록된 샤드라면 해시 대신 해당 샤드를 소유 샤드로 한다.
+ *
+ *     샤드 추가 직후에는 이전 샤드 구성(previousShardNames)으로 만든 링을 함께 보관하여
+ *     소유 샤드가 바뀐 세션을 이전 샤드에서 찾을 수 있도록 한다. 재분배가 끝나면 이전 샤드 구성 없이 다시 생성한다.
+ * </pre>
+ */
+public class MongoSessionShards implements Closeable {
+    /** 세션 ID에 샤드명을 지정할 때 사용하는 구분자 */
+    public static final char SHARD_HINT_SEPARATOR = '.';
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final Map<String, Shard> shards = new LinkedHashMap<>();
+    private final NavigableMap<Long, String> ring;
+    private final NavigableMap<Long, String> previousRing;
+
+    public MongoSessionShards(List<Shard> shards) {
+        this(shards, Collections.emptyList(), DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * @param shards 현재 샤드 구성
+     * @param previousShardNames 재분배 중인 경우 샤드 추가 전 샤드명 목록. 모두 shards에 포함 되어야 한다. 재분배 중이 아니면 빈 목록.
+     * @param virtualNodes 샤드 하나당 링에 배치할 가상 노드 수
+     */
+    public MongoSessionShards(List<Shard> shards, List<String> previousShardNames, int virtualNodes) {
+        if(shards.isEmpty()) {
+            throw new IllegalArgumentException("shards must not be empty");
+        }
+        if(virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be greater than 0");
+        }
+
+        for(Shard shard : shards) {
+            if(this.shards.put(shard.name(), shard) != null) {
+                throw new IllegalArgumentException("duplicate shard name : " + shard.name());
+            }
+        }
+
+        for(String previousShardName : previousShardNames) {
+            if(!this.shards.containsKey(previousShardName)) {
+                throw new IllegalArgumentException("previous shard must remain in shards : " + previousShardName);
+            }
+        }
+
+        this.ring = createRing(this.shards.keySet(), virtualNodes);
+        this.previousRing = previousShardNames.isEmpty() ? null : createRing(previousShardNames, virtualNodes);
+    }
+
+    /**
+     * <pre>
+     *     세션을 저장할 샤드.
+     * </pre>
+     */
+    public Shard ownerOf(String sessionId) {
+        Shard hintedShard = hintedShardOf(sessionId);
+        if(hintedShard != null) {
+            return hintedShard;
+        }
+
+        return this.shards.get(lookup(this.ring, sessionId));
+    }
+
+    /**
+     * <pre>
+     *     재분배 중 소유 샤드가 바뀐 세션의 이전 샤드. 재분배 중이 아니거나 소유 샤드가 바뀌지 않았다면 null.
+     * </pre>
+     */
+    public Shard previousOwnerOf(String sessionId) {
+        if(this.previousRing == null || hintedShardOf(sessionId) != null) {
+            return null;
+        }
+
+        String previousShardName = lookup(this.previousRing, sessionId);
+        return previousShardName.equals(lookup(this.ring, sessionId)) ? null : this.shards.get(previousShardName);
+    }
+
+    public boolean isRebalancing() {
+        return this.previousRing != null;
+    }
+
+    public Collection<Shard> all() {
+        return Collections.unmodifiableCollection(this.shards.values());
+    }
+
+    /**
+     * <pre>
+     *     샤드명을 지정한 세션 ID. 등록되지 않은 샤드명은 {@link IllegalArgumentException}.
+     * </pre>
+     */
+    public String hintedSessionId(String shardName, String sessionId) {
+        if(!this.shards.containsKey(shardName)) {
+            throw new IllegalArgumentException("unknown shard : " + shardName);
+        }
+
+        return shardName + SHARD_HINT_SEPARATOR + sessionId;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for(Shard shard : this.shards.values()) {
+            if(shard.connection() != null) {
+                shard.connection().close();
+            }
+        }
+    }
+
+    private Shard hintedShardOf(String sessionId) {
+        int separatorIndex = sessionId.indexOf(SHARD_HINT_SEPARATOR);
+        return (separatorIndex > 0) ? this.shards.get(sessionId.substring(0, separatorIndex)) : null;
+    }
+
+    private static NavigableMap<Long, String> createRing(Collection<String> shardNames, int virtualNodes) {
+        NavigableMap<Long, String> ring = new TreeMap<>();
+        for(String shardName : shardNames) {
+            for(int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(shardName + "#" + i), shardName);
+            }
+        }
+
+        return ring;
+    }
+
+    private static String lookup(NavigableMap<Long, String> ring, String sessionId) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(sessionId));
+        return (entry != null) ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * <pre>
+     *     FNV-1a 64bit 해시에 SplitMix64 finalizer를 적용하여 비슷한 문자열도 링 전체에 고르게 분산 시킨다.
+     *     노드마다 같은 값이 나와야 하므로 {@link String#hashCode()}와 같은 JVM 구현 의존 해시는 사용하지 않는다.
+     * </pre>
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for(byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * <pre>
+     *     샤드 하나. 샤드마다 별도의 MongoDB 접속 정보와 세션 저장소를 가진다.
+     * </pre>
+     *
+     * @param connection 샤드 종료 시 함께 닫을 자원(MongoClient 등). 없으면 null.
+     */
+    public record Shard(String name
+            , MongoOperations mongoOperations
+            , FindByIndexNameSessionRepository<MongoSession> sessionRepository
+            , Closeable connection) {
+
+        public static Shard of(String name, MongoOperations mongoOperations, FindByIndexNameSessionRepository<MongoSession> sessionRepository) {
+            return new Shard(name, mongoOperations, sessionRepository, null);
+        }
+    }
+}
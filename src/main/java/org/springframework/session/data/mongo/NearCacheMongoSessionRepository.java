@@ -0,0 +1,266 @@
+package org.springframework.session.data.mongo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.SessionIdGenerator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ *     {@link MongoIndexedSessionRepository} 앞단에 두는 노드별 L1(Near) 캐시 저장소.
+ *
+ *     조회한 세션을 Caffeine(W-TinyLFU) 캐시에 보관하고, 캐시 항목의 만료 시간은 세션의 만료 시각(마지막 접근 시각 + 최대 비활성 시간)에 맞춘다.
+ *     캐시 용량은 세션 개수가 아닌 세션 크기 추정치(byte)로 제한한다.
+ *
+ *     다른 노드에서 세션이 변경 되었을 수 있으므로 캐시 적중 시 MongoDB에서 버전(ver) 필드만 조회(projection)하여
+ *     캐시에 보관된 값과 비교하고, 값이 같을 때만 캐시된 세션을 사용한다.
+ *     합쳐서 저장({@link DeltaMongoSessionRepository})하는 경우 마지막 접근 시각은 늦은 값을 유지하므로 속성이 바뀌어도 같을 수 있어 버전을 비교한다.
+ *     버전이 없는 문서({@link JdkMongoSessionConverter})는 마지막 접근 시각을 비교한다.
+ *     전체 문서 조회와 BSON 역직렬화를 건너뛰는 것이 목적이다.
+ *
+ *     캐시에 보관된 세션은 요청마다 변경 되므로 항상 복사본을 반환한다.
+ * </pre>
+ */
+public class NearCacheMongoSessionRepository extends ForwardingMongoSessionRepository implements MeterBinder {
+    private static final String ID_FIELD_NAME = "_id";
+    /** {@link PerAttributeMongoSessionConverter}가 문서 버전을 저장하는 필드명 */
+    private static final String VERSION_FIELD_NAME = "ver";
+    /** {@link JdkMongoSessionConverter}, {@link PerAttributeMongoSessionConverter}가 마지막 접근 시각을 저장하는 필드명 */
+    private static final String LAST_ACCESSED_TIME_FIELD_NAME = "accessed";
+
+    private static final int BASE_SESSION_WEIGHT = 256;
+    private static final int DEFAULT_ATTRIBUTE_WEIGHT = 128;
+
+    private final Function<String, MongoOperations> mongoOperationsResolver;
+    private final String collectionName;
+    private final Cache<String, CachedSession> cache;
+    private final LongAdder staleCount = new LongAdder();
+
+    private boolean validateOnRead = true;
+    private SessionIdGenerator sessionIdGenerator;
+
+    public NearCacheMongoSessionRepository(FindByIndexNameSessionRepository<MongoSession> delegate
+            , MongoOperations mongoOperations
+            , String collectionName
+            , long maximumWeightInBytes) {
+
+        this(delegate, id -> mongoOperations, collectionName, maximumWeightInBytes);
+    }
+
+    /**
+     * @param mongoOperationsResolver 세션 ID로 세션이 저장된 MongoDB를 찾는 함수. {@link ShardedMongoSessionRepository} 앞단에 두는 경우 사용한다.
+     */
+    public NearCacheMongoSessionRepository(FindByIndexNameSessionRepository<MongoSession> delegate
+            , Function<String, MongoOperations> mongoOperationsResolver
+            , String collectionName
+            , long maximumWeightInBytes) {
+
+        super(delegate);
+
+        this.mongoOperationsResolver = mongoOperationsResolver;
+        this.collectionName = collectionName;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeightInBytes)
+                .weigher((String id, CachedSession cachedSession) -> cachedSession.weight())
+                .expireAfter(new SessionExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * <pre>
+     *     캐시 적중 시 MongoDB의 버전(혹은 마지막 접근 시각)과 비교하여 검증할지 여부.
+     *     단일 노드 환경처럼 다른 노드가 세션을 변경할 수 없는 경우에만 false로 설정한다.
+     * </pre>
+     */
+    public void setValidateOnRead(boolean validateOnRead) {
+        this.validateOnRead = validateOnRead;
+    }
+
+    /**
+     * <pre>
+     *     캐시된 세션의 복사본이 세션 ID를 변경할 때 사용할 생성기. 기반 저장소와 같은 생성기를 지정한다.
+     * </pre>
+     */
+    public void setSessionIdGenerator(SessionIdGenerator sessionIdGenerator) {
+        this.sessionIdGenerator = sessionIdGenerator;
+    }
+
+    @Override
+    public void save(MongoSession session) {
+        // 세션 ID가 변경된 경우(세션 고정 방지) 검증 없이 조회해도 이전 ID로 세션을 찾지 못하도록 이전 ID의 캐시를 무효화한다.
+        if(session instanceof DirtyTrackingMongoSession trackedSession && trackedSession.hasChangedId()) {
+            this.cache.invalidate(trackedSession.getPersistedId());
+        }
+
+        super.save(session);
+        this.cache.put(session.getId(), CachedSession.of(session, this.sessionIdGenerator));
+    }
+
+    @Override
+    public MongoSession findById(String id) {
+        CachedSession cachedSession = this.cache.getIfPresent(id);
+        if(cachedSession != null) {
+            if(!cachedSession.session().isExpired() && (!this.validateOnRead || isCurrent(id, cachedSession))) {
+                return copyOf(cachedSession.session(), this.sessionIdGenerator);
+            }
+
+            this.staleCount.increment();
+            this.cache.invalidate(id);
+        }
+
+        MongoSession session = super.findById(id);
+        if(session != null) {
+            this.cache.put(id, CachedSession.of(session, this.sessionIdGenerator));
+        }
+
+        return session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        this.cache.invalidate(id);
+        super.deleteById(id);
+    }
+
+    /**
+     * <pre>
+     *     적중(hit), 미적중(miss), 검증 실패(stale), 축출(eviction) 카운터와 캐시 크기를 등록한다.
+     *     적중 수에서 검증 실패 수를 뺀 값이 MongoDB 전체 문서 조회를 건너뛴 횟수이다.
+     * </pre>
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("session.nearcache.gets", this.cache, cache -> cache.stats().hitCount())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("session.nearcache.gets", this.cache, cache -> cache.stats().missCount())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("session.nearcache.gets", this.staleCount, LongAdder::sum)
+                .tag("result", "stale")
+                .register(registry);
+        FunctionCounter.builder("session.nearcache.evictions", this.cache, cache -> cache.stats().evictionCount())
+                .register(registry);
+        Gauge.builder("session.nearcache.size", this.cache, Cache::estimatedSize)
+                .register(registry);
+    }
+
+    private boolean isCurrent(String id, CachedSession cachedSession) {
+        Query query = Query.query(Criteria.where(ID_FIELD_NAME).is(id));
+        query.fields().include(VERSION_FIELD_NAME).include(LAST_ACCESSED_TIME_FIELD_NAME);
+
+        Document document = this.mongoOperationsResolver.apply(id).findOne(query, Document.class, this.collectionName);
+        if(document == null) {
+            return false;
+        }
+
+        // 버전을 알 수 없는 캐시 항목(합쳐서 저장한 세션 등)은 검증할 수 없으므로 다시 조회한다.
+        if(document.get(VERSION_FIELD_NAME) instanceof Number persistedVersion) {
+            return cachedSession.persistedVersion() != DirtyTrackingMongoSession.UNKNOWN_VERSION
+                    && persistedVersion.longValue() == cachedSession.persistedVersion();
+        }
+
+        Object persistedLastAccessedTime = document.get(LAST_ACCESSED_TIME_FIELD_NAME);
+        if(persistedLastAccessedTime instanceof Date date) {
+            return date.getTime() == cachedSession.persistedLastAccessedTime().toEpochMilli();
+        }
+        if(persistedLastAccessedTime instanceof Instant instant) {
+            return instant.toEpochMilli() == cachedSession.persistedLastAccessedTime().toEpochMilli();
+        }
+
+        return false;
+    }
+
+    static MongoSession copyOf(MongoSession source, SessionIdGenerator sessionIdGenerator) {
+        return DirtyTrackingMongoSession.persistedCopyOf(source, sessionIdGenerator);
+    }
+
+    static int estimateWeight(MongoSession session) {
+        long weight = BASE_SESSION_WEIGHT;
+        for(String attributeName : session.getAttributeNames()) {
+            weight += 2L * attributeName.length();
+
+            // 저장된 형식이 남아 있는 속성은 역직렬화 하지 않고 byte 길이로 추정한다.
+            byte[] persistedAttributeBytes = (session instanceof DirtyTrackingMongoSession trackedSession)
+                    ? trackedSession.getPersistedAttributeBytes(attributeName) : null;
+            if(persistedAttributeBytes != null) {
+                weight += 16L + persistedAttributeBytes.length;
+                continue;
+            }
+
+            Object attributeValue = session.getAttribute(attributeName);
+            if(attributeValue instanceof CharSequence charSequence) {
+                weight += 40L + 2L * charSequence.length();
+            } else if(attributeValue instanceof byte[] bytes) {
+                weight += 16L + bytes.length;
+            } else {
+                weight += DEFAULT_ATTRIBUTE_WEIGHT;
+            }
+        }
+
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    /**
+     * <pre>
+     *     캐시 항목. 저장 시점의 세션 복사본과 MongoDB에 저장된 버전, 마지막 접근 시각을 보관한다.
+     * </pre>
+     */
+    private record CachedSession(MongoSession session, long persistedVersion, Instant persistedLastAccessedTime, int weight) {
+
+        static CachedSession of(MongoSession session, SessionIdGenerator sessionIdGenerator) {
+            DirtyTrackingMongoSession copy = DirtyTrackingMongoSession.persistedCopyOf(session, sessionIdGenerator);
+            return new CachedSession(copy, copy.getPersistedVersion(), copy.getPersistedLastAccessedTime(), estimateWeight(copy));
+        }
+
+        long nanosUntilExpiration() {
+            Duration maxInactiveInterval = this.session.getMaxInactiveInterval();
+            if(maxInactiveInterval.isNegative()) {
+                return Long.MAX_VALUE;
+            }
+
+            Instant expireAt = this.session.getLastAccessedTime().plus(maxInactiveInterval);
+            return Math.max(0L, Duration.between(Instant.now(), expireAt).toNanos());
+        }
+    }
+
+    /**
+     * <pre>
+     *     캐시 항목의 만료 시간을 세션의 만료 시각에 맞추기 위한 {@link Expiry} 구현체.
+     *     조회는 세션의 마지막 접근 시각을 바꾸지 않으므로 남은 시간을 그대로 유지한다.
+     * </pre>
+     */
+    private static class SessionExpiry implements Expiry<String, CachedSession> {
+
+        @Override
+        public long expireAfterCreate(String id, CachedSession cachedSession, long currentTime) {
+            return cachedSession.nanosUntilExpiration();
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, CachedSession cachedSession, long currentTime, long currentDuration) {
+            return cachedSession.nanosUntilExpiration();
+        }
+
+        @Override
+        public long expireAfterRead(String id, CachedSession cachedSession, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
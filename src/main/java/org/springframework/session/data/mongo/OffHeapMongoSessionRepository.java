@@ -0,0 +1,562 @@
+package org.springframework.session.data.mongo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.SessionIdGenerator;
+import org.springframework.session.events.AbstractSessionEvent;
+import org.springframework.session.events.SessionCreatedEvent;
+import org.springframework.session.events.SessionDeletedEvent;
+import org.springframework.session.events.SessionExpiredEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * <pre>
+ *     MongoDB 없이 노드 메모리에 세션을 저장하는 세션 저장소. 단일 노드 실행과 테스트(CI)에서 사용한다.
+ *
+ *     세션은 MongoDB 저장소와 같은 속성 형식({@link PerAttributeMongoSessionConverter#serializeAttribute(Object)})으로 직렬화 하여
+ *     {@link OffHeapSessionMemory}의 off-heap slot에 저장하고, heap에는 세션 ID별 slot 주소, 만료 시각, principal만 남긴다.
+ *     조회한 세션의 속성은 {@link DirtyTrackingMongoSession}이 처음 사용할 때 역직렬화 한다.
+ *
+ *     만료는 {@link HierarchicalTimingWheel}로 처리한다. tick마다 만료 시각이 된 세션만 확인하며,
+ *     접근 시각이 늘어난 세션은 다시 등록하지 않고 기존 만료 시각에 확인할 때 새 만료 시각으로 다시 등록한다.
+ *     만료된 세션은 삭제하고 {@link SessionExpiredEvent}를 발생시킨다.
+ *     만료 확인 스레드는 {@link #start()}에서 시작하고 {@link #stop()}(혹은 {@link #close()})에서 종료한다.
+ *
+ *     조회 이후 다른 요청이 같은 세션을 저장했으면 변경된 속성만 저장된 세션에 합친다. ({@link DeltaMongoSessionRepository}와 같은 결과)
+ *     principal 색인({@link #findByIndexNameAndIndexValue(String, String)})은 heap의 principal별 세션 ID 목록으로 제공한다.
+ *
+ *     세션 ID별 잠금은 {@link StampedLock} {@value #LOCK_STRIPES}개를 나누어 사용하며,
+ *     조회는 낙관적 읽기(optimistic read)로 잠금 없이 복사하고 그 사이 저장/삭제가 있었으면 읽기 잠금으로 다시 읽는다.
+ *
+ *     노드 메모리에만 저장하므로 여러 노드가 세션을 공유하지 않고, 재시작하면 세션이 모두 사라진다.
+ * </pre>
+ */
+public class OffHeapMongoSessionRepository implements FindByIndexNameSessionRepository<MongoSession>, MeterBinder, SmartLifecycle, AutoCloseable {
+    private final static Logger logger = LoggerFactory.getLogger(OffHeapMongoSessionRepository.class);
+
+    public static final String STORE_NAME = "offheap";
+    private static final int LOCK_STRIPES = 256;
+    /** 만료되지 않는 세션(최대 비활성 시간이 음수)의 만료 시각 */
+    private static final long NEVER_EXPIRES = Long.MAX_VALUE;
+    private static final long NOT_SCHEDULED = Long.MAX_VALUE;
+
+    private final PerAttributeMongoSessionConverter mongoSessionConverter;
+    private final SessionIdGenerator sessionIdGenerator;
+    private final Duration defaultMaxInactiveInterval;
+    private final OffHeapSessionMemory memory;
+    private final HierarchicalTimingWheel timingWheel;
+    private final Duration tick;
+    private final Object lifecycleMonitor = new Object();
+
+    private final Map<String, StoredSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> principalSessionIds = new ConcurrentHashMap<>();
+    private final StampedLock[] locks = new StampedLock[LOCK_STRIPES];
+
+    private final LongAdder expiredCount = new LongAdder();
+    private final LongAdder mergedCount = new LongAdder();
+
+    private ApplicationEventPublisher eventPublisher = event -> { };
+    private ScheduledExecutorService expirationScheduler;
+
+    public OffHeapMongoSessionRepository(PerAttributeMongoSessionConverter mongoSessionConverter
+            , SessionIdGenerator sessionIdGenerator
+            , Duration defaultMaxInactiveInterval
+            , int segmentSize
+            , int pageSize
+            , long maxMemory
+            , Duration tick) {
+
+        this.mongoSessionConverter = mongoSessionConverter;
+        this.sessionIdGenerator = sessionIdGenerator;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.memory = new OffHeapSessionMemory(segmentSize, pageSize, maxMemory);
+        this.timingWheel = new HierarchicalTimingWheel(tick, System.currentTimeMillis());
+        this.tick = tick;
+        for(int i = 0; i < LOCK_STRIPES; i++) {
+            this.locks[i] = new StampedLock();
+        }
+    }
+
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public MongoSession createSession() {
+        DirtyTrackingMongoSession session = new DirtyTrackingMongoSession(this.sessionIdGenerator.generate(), this.defaultMaxInactiveInterval.getSeconds());
+        session.setSessionIdGenerator(this.sessionIdGenerator);
+        this.eventPublisher.publishEvent(new SessionCreatedEvent(this, session));
+
+        return session;
+    }
+
+    /**
+     * <pre>
+     *     세션 ID가 바뀌었으면 이전 ID의 세션을 삭제하고 새 ID로 저장한다.
+     *     조회 이후 다른 요청이 저장했으면 변경된 속성과 늦은 접근 시각만 저장된 세션에 반영한다.
+     * </pre>
+     */
+    @Override
+    public void save(MongoSession session) {
+        DirtyTrackingMongoSession trackedSession = (session instanceof DirtyTrackingMongoSession dirtyTrackingSession) ? dirtyTrackingSession : null;
+        boolean changedId = trackedSession != null && trackedSession.hasChangedId();
+        if(changedId) {
+            remove(trackedSession.getPersistedId());
+        }
+
+        String id = session.getId();
+        StampedLock lock = lockOf(id);
+        long stamp = lock.writeLock();
+        try {
+            StoredSession stored = this.sessions.get(id);
+
+            SessionRecord record;
+            String principal;
+            if(stored != null && trackedSession != null && trackedSession.isPersisted() && !changedId) {
+                record = merge(decodeRecord(this.memory.load(stored.address)), trackedSession);
+                principal = isPrincipalChanged(trackedSession) ? this.mongoSessionConverter.principalOf(session) : stored.principal;
+                this.mergedCount.increment();
+            } else {
+                record = recordOf(session);
+                principal = this.mongoSessionConverter.principalOf(session);
+            }
+
+            long address = this.memory.store(encodeRecord(record));
+            long expireAtMillis = record.expireAtMillis();
+            if(stored == null) {
+                stored = new StoredSession(address, expireAtMillis, principal);
+                this.sessions.put(id, stored);
+                updatePrincipal(id, null, principal);
+            } else {
+                this.memory.free(stored.address);
+                updatePrincipal(id, stored.principal, principal);
+                stored.address = address;
+                stored.expireAtMillis = expireAtMillis;
+                stored.principal = principal;
+            }
+
+            // 만료 시각이 늘어난 경우는 기존 tick에 확인할 때 다시 등록한다.
+            if(expireAtMillis != NEVER_EXPIRES && this.timingWheel.tickOf(expireAtMillis) < stored.deadlineTick) {
+                stored.deadlineTick = this.timingWheel.schedule(id, expireAtMillis);
+            }
+
+            if(trackedSession != null) {
+                for(String attributeName : trackedSession.getDirtyAttributeNames()) {
+                    trackedSession.updatePersistedAttributeBytes(attributeName, record.attributes().get(attributeName));
+                }
+                trackedSession.markPersisted();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * <pre>
+     *     {@link MongoIndexedSessionRepository#findById(String)}와 같이 만료된 세션은 삭제하고 null을 반환한다.
+     * </pre>
+     */
+    @Override
+    public MongoSession findById(String id) {
+        byte[] bytes = load(id);
+        if(bytes == null) {
+            return null;
+        }
+
+        DirtyTrackingMongoSession session = toSession(id, decodeRecord(bytes));
+        if(session.isExpired()) {
+            expire(id);
+            return null;
+        }
+
+        session.setSessionIdGenerator(this.sessionIdGenerator);
+
+        return session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        MongoSession session = remove(id);
+        if(session != null) {
+            this.eventPublisher.publishEvent(new SessionDeletedEvent(this, session));
+        }
+    }
+
+    @Override
+    public Map<String, MongoSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        if(!PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            return Collections.emptyMap();
+        }
+
+        Set<String> ids = this.principalSessionIds.get(indexValue);
+        if(ids == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, MongoSession> sessions = new HashMap<>();
+        for(String id : List.copyOf(ids)) {
+            MongoSession session = findById(id);
+            if(session != null) {
+                sessions.put(id, session);
+            }
+        }
+
+        return sessions;
+    }
+
+    public int getSessionCount() {
+        return this.sessions.size();
+    }
+
+    /**
+     * <pre>
+     *     저장된 세션 수, 사용 중인/할당 받은 off-heap 메모리, 만료 처리한 세션 수, 다른 요청의 저장과 합친 횟수를 등록한다.
+     * </pre>
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("session.store.offheap.sessions", this.sessions, Map::size)
+                .register(registry);
+        Gauge.builder("session.store.offheap.memory", this.memory, OffHeapSessionMemory::getUsedBytes)
+                .tag("type", "used")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("session.store.offheap.memory", this.memory, OffHeapSessionMemory::getReservedBytes)
+                .tag("type", "reserved")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("session.store.offheap.expired", this.expiredCount, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("session.store.merged", this.mergedCount, LongAdder::sum)
+                .tag("store", STORE_NAME)
+                .register(registry);
+    }
+
+    /**
+     * <pre>
+     *     tick 간격으로 만료 세션을 확인하는 스레드를 시작한다.
+     * </pre>
+     */
+    @Override
+    public void start() {
+        synchronized(this.lifecycleMonitor) {
+            if(this.expirationScheduler != null) {
+                return;
+            }
+
+            this.expirationScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                    .name("offheap-session-expiration")
+                    .daemon()
+                    .factory());
+            this.expirationScheduler.scheduleAtFixedRate(this::expireSessions, this.tick.toMillis(), this.tick.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized(this.lifecycleMonitor) {
+            if(this.expirationScheduler == null) {
+                return;
+            }
+
+            this.expirationScheduler.shutdownNow();
+            this.expirationScheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        synchronized(this.lifecycleMonitor) {
+            return this.expirationScheduler != null;
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /**
+     * <pre>
+     *     타이밍 휠에서 만료 시각이 된 세션을 확인한다. 다시 등록된 항목(deadlineTick이 다른 항목)은 무시한다.
+     * </pre>
+     */
+    void expireSessions() {
+        try {
+            long now = System.currentTimeMillis();
+            List<AbstractSessionEvent> events = new ArrayList<>();
+
+            for(HierarchicalTimingWheel.Item item : this.timingWheel.advance(now)) {
+                StampedLock lock = lockOf(item.key());
+                long stamp = lock.writeLock();
+                try {
+                    StoredSession stored = this.sessions.get(item.key());
+                    if(stored == null || stored.deadlineTick != item.deadlineTick()) {
+                        continue;
+                    }
+
+                    if(stored.expireAtMillis > now) {
+                        stored.deadlineTick = this.timingWheel.schedule(item.key(), stored.expireAtMillis);
+                        continue;
+                    }
+
+                    events.add(new SessionExpiredEvent(this, toSession(item.key(), decodeRecord(this.memory.load(stored.address)))));
+                    removeStored(item.key(), stored);
+                    this.expiredCount.increment();
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+            }
+
+            events.forEach(this.eventPublisher::publishEvent);
+        } catch(RuntimeException e) {
+            logger.error("off-heap session expiration failed", e);
+        }
+    }
+
+    private void expire(String id) {
+        MongoSession session = remove(id);
+        if(session != null) {
+            this.expiredCount.increment();
+            this.eventPublisher.publishEvent(new SessionExpiredEvent(this, session));
+        }
+    }
+
+    /**
+     * <pre>
+     *     저장된 세션을 낙관적 읽기로 복사한다. 복사하는 동안 저장/삭제가 있었으면 읽기 잠금으로 다시 복사한다.
+     * </pre>
+     */
+    private byte[] load(String id) {
+        StampedLock lock = lockOf(id);
+
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0) {
+            StoredSession stored = this.sessions.get(id);
+            byte[] bytes = (stored != null) ? this.memory.load(stored.address) : null;
+            if(lock.validate(stamp)) {
+                return bytes;
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            StoredSession stored = this.sessions.get(id);
+            return (stored != null) ? this.memory.load(stored.address) : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return 삭제된 세션. 없으면 null.
+     */
+    private MongoSession remove(String id) {
+        StampedLock lock = lockOf(id);
+        long stamp = lock.writeLock();
+        try {
+            StoredSession stored = this.sessions.get(id);
+            if(stored == null) {
+                return null;
+            }
+
+            DirtyTrackingMongoSession session = toSession(id, decodeRecord(this.memory.load(stored.address)));
+            removeStored(id, stored);
+
+            return session;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void removeStored(String id, StoredSession stored) {
+        this.sessions.remove(id);
+        this.memory.free(stored.address);
+        updatePrincipal(id, stored.principal, null);
+    }
+
+    private void updatePrincipal(String id, String previousPrincipal, String principal) {
+        if(previousPrincipal != null && !previousPrincipal.equals(principal)) {
+            this.principalSessionIds.computeIfPresent(previousPrincipal, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+
+        if(principal != null && !principal.equals(previousPrincipal)) {
+            this.principalSessionIds.compute(principal, (key, ids) -> {
+                Set<String> sessionIds = (ids != null) ? ids : ConcurrentHashMap.newKeySet();
+                sessionIds.add(id);
+                return sessionIds;
+            });
+        }
+    }
+
+    private boolean isPrincipalChanged(DirtyTrackingMongoSession session) {
+        for(String attributeName : session.getDirtyAttributeNames()) {
+            if(this.mongoSessionConverter.isPrincipalAttribute(attributeName)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private SessionRecord recordOf(MongoSession session) {
+        Map<String, byte[]> attributes = new LinkedHashMap<>();
+        for(String attributeName : session.getAttributeNames()) {
+            byte[] attributeBytes = (session instanceof DirtyTrackingMongoSession trackedSession) ? trackedSession.getPersistedAttributeBytes(attributeName) : null;
+            if(attributeBytes == null) {
+                attributeBytes = this.mongoSessionConverter.serializeAttribute(attributeName, session.getAttribute(attributeName));
+            }
+
+            attributes.put(attributeName, attributeBytes);
+        }
+
+        return new SessionRecord(session.getCreationTime().toEpochMilli()
+                , session.getLastAccessedTime().toEpochMilli()
+                , (int) session.getMaxInactiveInterval().getSeconds()
+                , attributes);
+    }
+
+    /**
+     * <pre>
+     *     저장된 세션에 변경된 속성을 반영한다. 마지막 접근 시각은 늦은 값을 유지한다.
+     * </pre>
+     */
+    private SessionRecord merge(SessionRecord stored, DirtyTrackingMongoSession session) {
+        Map<String, byte[]> attributes = new LinkedHashMap<>(stored.attributes());
+        for(String attributeName : session.getDirtyAttributeNames()) {
+            Object attributeValue = session.getAttribute(attributeName);
+            if(attributeValue == null) {
+                attributes.remove(attributeName);
+            } else {
+                attributes.put(attributeName, this.mongoSessionConverter.serializeAttribute(attributeName, attributeValue));
+            }
+        }
+
+        return new SessionRecord(stored.creationTime()
+                , Math.max(stored.lastAccessedTime(), session.getLastAccessedTime().toEpochMilli())
+                , session.isMaxInactiveIntervalChanged() ? (int) session.getMaxInactiveInterval().getSeconds() : stored.maxInactiveInterval()
+                , attributes);
+    }
+
+    private DirtyTrackingMongoSession toSession(String id, SessionRecord record) {
+        DirtyTrackingMongoSession session = new DirtyTrackingMongoSession(id, record.maxInactiveInterval());
+        session.setCreationTime(record.creationTime());
+        session.setLastAccessedTime(Instant.ofEpochMilli(record.lastAccessedTime()));
+
+        // 요청에서 사용하는 속성만 역직렬화 한다.
+        session.setAttributeDecoder(this.mongoSessionConverter::deserializeAttribute);
+        record.attributes().forEach(session::putEncodedAttribute);
+        session.markPersisted();
+
+        return session;
+    }
+
+    /**
+     * <pre>
+     *     생성 시각(8) + 마지막 접근 시각(8) + 최대 비활성 시간(4) + 속성 개수(4) + [속성명(UTF) + 값 길이(4) + 값]
+     *     ({@link StatelessTokenMongoSessionRepository}의 토큰과 같은 형식)
+     * </pre>
+     */
+    private static byte[] encodeRecord(SessionRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try(DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeLong(record.creationTime());
+            output.writeLong(record.lastAccessedTime());
+            output.writeInt(record.maxInactiveInterval());
+
+            output.writeInt(record.attributes().size());
+            for(Map.Entry<String, byte[]> attribute : record.attributes().entrySet()) {
+                output.writeUTF(attribute.getKey());
+                output.writeInt(attribute.getValue().length);
+                output.write(attribute.getValue());
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static SessionRecord decodeRecord(byte[] bytes) {
+        try(DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            long creationTime = input.readLong();
+            long lastAccessedTime = input.readLong();
+            int maxInactiveInterval = input.readInt();
+
+            int attributeCount = input.readInt();
+            Map<String, byte[]> attributes = new LinkedHashMap<>(attributeCount * 2);
+            for(int i = 0; i < attributeCount; i++) {
+                String attributeName = input.readUTF();
+                byte[] attributeBytes = new byte[input.readInt()];
+                input.readFully(attributeBytes);
+
+                attributes.put(attributeName, attributeBytes);
+            }
+
+            return new SessionRecord(creationTime, lastAccessedTime, maxInactiveInterval, attributes);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private StampedLock lockOf(String id) {
+        return this.locks[(id.hashCode() & 0x7FFFFFFF) % LOCK_STRIPES];
+    }
+
+    private record SessionRecord(long creationTime, long lastAccessedTime, int maxInactiveInterval, Map<String, byte[]> attributes) {
+
+        long expireAtMillis() {
+            return (this.maxInactiveInterval < 0) ? NEVER_EXPIRES : this.lastAccessedTime + this.maxInactiveInterval * 1000L;
+        }
+    }
+
+    /**
+     * <pre>
+     *     heap에 남기는 세션 정보. 세션 ID별 잠금 안에서만 변경한다.
+     * </pre>
+     */
+    private static class StoredSession {
+        private long address;
+        private long expireAtMillis;
+        private String principal;
+        /** 타이밍 휠에 등록된 tick */
+        private long deadlineTick = NOT_SCHEDULED;
+
+        private StoredSession(long address, long expireAtMillis, String principal) {
+            this.address = address;
+            this.expireAtMillis = expireAtMillis;
+            this.principal = principal;
+        }
+    }
+}
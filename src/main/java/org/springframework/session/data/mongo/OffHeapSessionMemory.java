@@ -0,0 +1,221 @@
+package org.springframework.session.data.mongo;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <pre>
+ *     직렬화된 세션을 보관하는 off-heap 메모리. ({@link OffHeapMongoSessionRepository})
+ *     작은 값을 많이 보관하는 다른 저장소(회원 저장소 등)도 값마다 direct ByteBuffer를 할당하지 않도록 같은 메모리를 사용한다.
+ *
+ *     segmentSize 크기의 direct {@link ByteBuffer}(segment)를 필요할 때 추가하고, segment는 pageSize 단위 page로 나누어 사용한다.
+ *     page는 처음 할당될 때 하나의 크기 등급(64 byte ~ pageSize, 2의 거듭제곱)으로 정해지고 같은 크기의 slot으로 나뉜다.
+ *     해제된 slot은 크기 등급별 목록에서 재사용하며 page는 다른 등급으로 바뀌지 않는다. (메모리는 운영체제에 반환하지 않는다.)
+ *
+ *     세션마다 ByteBuffer를 만들지 않으므로 heap에는 segment 객체와 slot 주소(long)만 남는다.
+ *     slot은 [길이 4 byte][값] 형식이며, 주소는 [segment 24bit][크기 등급 8bit][offset 32bit]로 구성한다.
+ *
+ *     할당/해제는 잠금 안에서 처리하고, 읽기/쓰기는 잠금 없이 segment의 절대 위치로 접근한다.
+ *     같은 slot을 동시에 쓰거나 해제하지 않도록 하는 것은 호출하는 쪽에서 보장한다.
+ * </pre>
+ */
+public class OffHeapSessionMemory {
+    public static final int MINIMUM_SLOT_SIZE = 64;
+    private static final int LENGTH_SIZE = Integer.BYTES;
+
+    private final int segmentSize;
+    private final int pageSize;
+    private final long maxMemory;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** 크기 등급별 해제된 slot 주소 */
+    private final long[][] freeSlots;
+    private final int[] freeSlotCounts;
+
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+    /** 마지막 segment에서 아직 page로 나누지 않은 위치 */
+    private int nextPageOffset;
+    private volatile long usedBytes;
+
+    public OffHeapSessionMemory(int segmentSize, int pageSize, long maxMemory) {
+        if(Integer.bitCount(pageSize) != 1 || pageSize < MINIMUM_SLOT_SIZE || segmentSize < pageSize || segmentSize % pageSize != 0) {
+            throw new IllegalArgumentException("pageSize must be a power of two and segmentSize must be a multiple of pageSize");
+        }
+
+        this.segmentSize = segmentSize;
+        this.pageSize = pageSize;
+        this.maxMemory = maxMemory;
+
+        int sizeClassCount = sizeClassOfSize(pageSize) + 1;
+        this.freeSlots = new long[sizeClassCount][];
+        this.freeSlotCounts = new int[sizeClassCount];
+        for(int i = 0; i < sizeClassCount; i++) {
+            this.freeSlots[i] = new long[16];
+        }
+        // 첫 할당 시 segment를 추가하도록 마지막 segment가 가득 찬 상태로 시작한다.
+        this.nextPageOffset = segmentSize;
+    }
+
+    /**
+     * <pre>
+     *     값을 저장할 slot을 할당하고 값을 기록한다.
+     * </pre>
+     *
+     * @return slot 주소
+     * @throws IllegalArgumentException 값이 page 크기보다 큰 경우
+     * @throws IllegalStateException    maxMemory를 모두 사용한 경우
+     */
+    public long store(byte[] value) {
+        long address = allocate(value.length + LENGTH_SIZE);
+
+        ByteBuffer segment = this.segments[segmentOf(address)];
+        int offset = offsetOf(address);
+        segment.putInt(offset, value.length);
+        segment.put(offset + LENGTH_SIZE, value);
+
+        return address;
+    }
+
+    /**
+     * <pre>
+     *     slot에 기록된 값을 heap으로 복사한다.
+     *     잠금 없이 읽는 도중 slot이 재사용될 수 있으므로 길이가 slot 범위를 벗어나면 null을 반환한다.
+     * </pre>
+     */
+    public byte[] load(long address) {
+        ByteBuffer segment = this.segments[segmentOf(address)];
+        int offset = offsetOf(address);
+
+        int length = segment.getInt(offset);
+        if(length < 0 || length > slotSizeOf(sizeClassOf(address)) - LENGTH_SIZE) {
+            return null;
+        }
+
+        byte[] value = new byte[length];
+        segment.get(offset + LENGTH_SIZE, value);
+
+        return value;
+    }
+
+    public void free(long address) {
+        int sizeClass = sizeClassOf(address);
+
+        this.lock.lock();
+        try {
+            pushFreeSlot(sizeClass, address);
+            this.usedBytes -= slotSizeOf(sizeClass);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * <pre>
+     *     할당된 slot 크기의 합.
+     * </pre>
+     */
+    public long getUsedBytes() {
+        return this.usedBytes;
+    }
+
+    /**
+     * <pre>
+     *     운영체제에서 할당 받은 off-heap 메모리 크기. (segment 크기의 합)
+     * </pre>
+     */
+    public long getReservedBytes() {
+        return (long) this.segments.length * this.segmentSize;
+    }
+
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    private long allocate(int size) {
+        if(size > this.pageSize) {
+            throw new IllegalArgumentException("session size " + size + " exceeds off-heap page size " + this.pageSize);
+        }
+
+        int sizeClass = sizeClassOfSize(size);
+
+        this.lock.lock();
+        try {
+            if(this.freeSlotCounts[sizeClass] == 0) {
+                carvePage(sizeClass);
+            }
+
+            this.usedBytes += slotSizeOf(sizeClass);
+            return this.freeSlots[sizeClass][--this.freeSlotCounts[sizeClass]];
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * <pre>
+     *     새 page를 크기 등급의 slot으로 나누어 해제된 slot 목록에 넣는다. 뒤쪽 slot부터 넣어 앞쪽 slot부터 사용한다.
+     * </pre>
+     */
+    private void carvePage(int sizeClass) {
+        if(this.nextPageOffset == this.segmentSize) {
+            addSegment();
+        }
+
+        int segmentIndex = this.segments.length - 1;
+        int pageOffset = this.nextPageOffset;
+        this.nextPageOffset += this.pageSize;
+
+        int slotSize = slotSizeOf(sizeClass);
+        for(int offset = pageOffset + this.pageSize - slotSize; offset >= pageOffset; offset -= slotSize) {
+            pushFreeSlot(sizeClass, addressOf(segmentIndex, sizeClass, offset));
+        }
+    }
+
+    private void addSegment() {
+        ByteBuffer[] segments = this.segments;
+        if((long) (segments.length + 1) * this.segmentSize > this.maxMemory) {
+            throw new IllegalStateException("off-heap session memory is full (max : " + this.maxMemory + " bytes)");
+        }
+
+        ByteBuffer[] newSegments = Arrays.copyOf(segments, segments.length + 1);
+        newSegments[segments.length] = ByteBuffer.allocateDirect(this.segmentSize);
+        this.segments = newSegments;
+        this.nextPageOffset = 0;
+    }
+
+    private void pushFreeSlot(int sizeClass, long address) {
+        long[] slots = this.freeSlots[sizeClass];
+        if(this.freeSlotCounts[sizeClass] == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+            this.freeSlots[sizeClass] = slots;
+        }
+
+        slots[this.freeSlotCounts[sizeClass]++] = address;
+    }
+
+    private static int sizeClassOfSize(int size) {
+        int slotSize = Math.max(Integer.highestOneBit(size - 1) << 1, MINIMUM_SLOT_SIZE);
+        return Integer.numberOfTrailingZeros(slotSize) - Integer.numberOfTrailingZeros(MINIMUM_SLOT_SIZE);
+    }
+
+    private static int slotSizeOf(int sizeClass) {
+        return MINIMUM_SLOT_SIZE << sizeClass;
+    }
+
+    private static long addressOf(int segmentIndex, int sizeClass, int offset) {
+        return ((long) segmentIndex << 40) | ((long) sizeClass << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int segmentOf(long address) {
+        return (int) (address >>> 40);
+    }
+
+    private static int sizeClassOf(long address) {
+        return (int) ((address >>> 32) & 0xFF);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+}
@@ -0,0 +1,388 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.springSession.metrics.SessionProfiler;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.session.FindByIndexNameSessionRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <pre>
+ *     세션 속성을 속성 하나당 하나의 필드(attrs.{속성명})로 저장하는 {@link AbstractMongoSessionConverter} 구현체.
+ *
+ *     {@link JdkMongoSessionConverter}는 전체 속성을 하나의 값(attr)으로 직렬화 하기 때문에 속성 하나만 바뀌어도 전체를 다시 저장해야 하지만
+ *     속성별로 저장하면 {@link DeltaMongoSessionRepository}에서 변경된 속성만 $set/$unset 할 수 있다.
+ *
+ *     속성 값은 문서를 읽을 때 역직렬화 하지 않고 {@link DirtyTrackingMongoSession#getAttribute(String)}로 처음 조회할 때 역직렬화 한다.
+ *
+ *     이전 형식(attr)으로 저장된 문서도 읽을 수 있으며, 해당 세션은 다음 저장 시 전체 문서를 새 형식으로 다시 저장한다.
+ * </pre>
+ */
+public class PerAttributeMongoSessionConverter extends AbstractMongoSessionConverter {
+    /** 해당 형식을 사용하는 session.document-format 설정 값. 설정하지 않으면 {@link JdkMongoSessionConverter} 형식으로 저장한다. */
+    public static final String DOCUMENT_FORMAT = "per-attribute";
+    static final String ID = "_id";
+    static final String CREATION_TIME = "created";
+    static final String LAST_ACCESSED_TIME = "accessed";
+    static final String MAX_INTERVAL = "interval";
+    static final String PRINCIPAL = "principal";
+    static final String EXPIRE_AT = "expireAt";
+    static final String ATTRIBUTES = "attrs";
+    /** 속성별 마지막 변경 시각. 동시에 저장된 변경을 속성 단위로 합칠 때 사용한다. ({@link DeltaMongoSessionRepository}) */
+    static final String ATTRIBUTE_TIMES = "attrTs";
+    /** 문서 버전. 저장할 때마다 증가한다. */
+    static final String VERSION = "ver";
+    /** {@link JdkMongoSessionConverter}가 전체 속성을 저장하던 필드명 */
+    static final String LEGACY_ATTRIBUTES = "attr";
+    /**
+     * principal 조회용 (principal, _id) 부분 인덱스. principal이 있는 세션만 색인하고, 접근 시각처럼 저장할 때마다 바뀌는 필드는 포함하지 않는다.
+     * 이전 버전의 principal_sessions 인덱스와 키가 달라 같은 이름으로 생성할 수 없으므로 새 이름을 사용한다.
+     */
+    static final String PRINCIPAL_SESSIONS_INDEX_NAME = "principal_id_partial";
+
+    /** principal 필드 값을 결정하는 속성. ({@link org.springframework.session.PrincipalNameIndexResolver}) */
+    private static final Set<String> PRINCIPAL_ATTRIBUTE_NAMES = Set.of(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME
+            , "SPRING_SECURITY_CONTEXT");
+
+    /** MongoDB 필드명에 사용할 수 없는 '.'을 대체하는 문자. {@link MongoSession}과 동일한 문자를 사용한다. */
+    private static final char DOT_COVER_CHAR = '\uF607';
+
+    private final Converter<Object, byte[]> serializer;
+    private final Converter<byte[], Object> deserializer;
+    private final Converter<byte[], Object> legacyDeserializer = new DeserializingConverter();
+    private final Duration maxInactiveInterval;
+
+    private Duration expireAtIndexGracePeriod = Duration.ZERO;
+    private SessionProfiler sessionProfiler;
+
+    public PerAttributeMongoSessionConverter(Duration maxInactiveInterval) {
+        this(new SerializingConverter(), new DeserializingConverter(), maxInactiveInterval);
+    }
+
+    public PerAttributeMongoSessionConverter(Converter<Object, byte[]> serializer
+            , Converter<byte[], Object> deserializer
+            , Duration maxInactiveInterval) {
+
+        this.serializer = serializer;
+        this.deserializer = deserializer;
+        this.maxInactiveInterval = maxInactiveInterval;
+    }
+
+    @Override
+    protected Query getQueryForIndex(String indexName, Object indexValue) {
+        if(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            return Query.query(Criteria.where(PRINCIPAL).is(indexValue));
+        }
+
+        return null;
+    }
+
+    /**
+     * <pre>
+     *     expireAt TTL 인덱스의 유예 시간. 0보다 크면 만료 시각이 유예 시간만큼 지난 뒤 TTL Monitor가 삭제한다.
+     *     {@link ExpiredSessionSweeper}를 사용하는 경우 정리기가 먼저 삭제하도록 설정한다.
+     *     TTL 인덱스가 이미 있으면 변경하지 않으므로 기존 인덱스는 collMod로 직접 변경해야 한다.
+     * </pre>
+     */
+    public void setExpireAtIndexGracePeriod(Duration expireAtIndexGracePeriod) {
+        this.expireAtIndexGracePeriod = expireAtIndexGracePeriod;
+    }
+
+    /**
+     * <pre>
+     *     문서 크기와 속성별 크기, 직렬화 시간을 기록할 프로파일러. 설정하지 않으면 기록하지 않는다.
+     * </pre>
+     */
+    public void setSessionProfiler(SessionProfiler sessionProfiler) {
+        this.sessionProfiler = sessionProfiler;
+    }
+
+    @Override
+    protected void ensureIndexes(IndexOperations sessionCollectionIndexes) {
+        if(!this.expireAtIndexGracePeriod.isZero() && !hasIndex(sessionCollectionIndexes, EXPIRE_AT)) {
+            // 같은 이름의 인덱스가 있으면 상위 클래스는 TTL 인덱스를 생성하지 않는다.
+            sessionCollectionIndexes.ensureIndex(new Index(EXPIRE_AT, Sort.Direction.ASC)
+                    .named(EXPIRE_AT)
+                    .expire(this.expireAtIndexGracePeriod));
+        }
+
+        super.ensureIndexes(sessionCollectionIndexes);
+        // principal 조회(findByIndexNameAndIndexValue)도 앞 필드로 사용하므로 이전에 생성된 principal 단일 인덱스(principal_1)와
+        // principal_sessions 인덱스는 삭제해도 된다.
+        // 접근 시각, 만료 시각을 포함하면 요청마다 인덱스 항목이 갱신되므로 (principal, _id)만 색인한다.
+        sessionCollectionIndexes.ensureIndex(new Index(PRINCIPAL, Sort.Direction.ASC)
+                .on(ID, Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where(PRINCIPAL).exists(true)))
+                .named(PRINCIPAL_SESSIONS_INDEX_NAME));
+    }
+
+    @Override
+    protected DBObject convert(MongoSession session) {
+        BasicDBObject attributes = new BasicDBObject();
+        for(String attributeName : session.getAttributeNames()) {
+            attributes.put(coverDot(attributeName), attributeBytesOf(session, attributeName));
+        }
+        profileDocument(session.getId(), attributes);
+
+        BasicDBObject basicDBObject = new BasicDBObject();
+        basicDBObject.put(ID, session.getId());
+        basicDBObject.put(CREATION_TIME, Date.from(session.getCreationTime()));
+        basicDBObject.put(LAST_ACCESSED_TIME, Date.from(session.getLastAccessedTime()));
+        basicDBObject.put(MAX_INTERVAL, session.getMaxInactiveInterval().toString());
+        basicDBObject.put(PRINCIPAL, extractPrincipal(session));
+        basicDBObject.put(EXPIRE_AT, session.getExpireAt());
+        basicDBObject.put(ATTRIBUTES, attributes);
+        long version = nextVersionOf(session);
+        basicDBObject.put(VERSION, version);
+
+        // 저장 이후 문서를 다시 조회하지 않고 버전을 비교할 수 있도록 저장하는 버전을 세션에 기록한다.
+        if(session instanceof DirtyTrackingMongoSession trackedSession) {
+            trackedSession.setPersistedVersion(version);
+        }
+
+        return basicDBObject;
+    }
+
+    @Override
+    protected MongoSession convert(Document sessionWrapper) {
+        Object maxInterval = sessionWrapper.getOrDefault(MAX_INTERVAL, this.maxInactiveInterval);
+        Duration maxIntervalDuration = (maxInterval instanceof Duration duration) ? duration
+                : Duration.parse(maxInterval.toString());
+
+        DirtyTrackingMongoSession session = new DirtyTrackingMongoSession(sessionWrapper.getString(ID), maxIntervalDuration.getSeconds());
+
+        Object creationTime = sessionWrapper.get(CREATION_TIME);
+        if(creationTime != null) {
+            session.setCreationTime(toInstant(creationTime).toEpochMilli());
+        }
+
+        Object lastAccessedTime = sessionWrapper.get(LAST_ACCESSED_TIME);
+        if(lastAccessedTime != null) {
+            session.setLastAccessedTime(toInstant(lastAccessedTime));
+        }
+
+        session.setExpireAt((Date) sessionWrapper.get(EXPIRE_AT));
+
+        if(sessionWrapper.get(ATTRIBUTES) instanceof Document attributes) {
+            putEncodedAttributes(attributes, session);
+        } else if(sessionWrapper.get(LEGACY_ATTRIBUTES) != null) {
+            deserializeLegacyAttributes(sessionWrapper.get(LEGACY_ATTRIBUTES), session);
+
+            // 이전 형식 문서는 부분 갱신이 불가능하므로 저장된 상태로 표시하지 않아 다음 저장 시 전체 문서를 다시 저장한다.
+            return session;
+        }
+
+        session.markPersisted();
+        session.setPersistedVersion((sessionWrapper.get(VERSION) instanceof Number version) ? version.longValue() : 0L);
+
+        return session;
+    }
+
+    /**
+     * <pre>
+     *     속성 값 하나를 저장 형식(byte[])으로 직렬화 한다.
+     * </pre>
+     */
+    public byte[] serializeAttribute(Object attributeValue) {
+        return this.serializer.convert(attributeValue);
+    }
+
+    /**
+     * <pre>
+     *     저장 형식(byte[])의 속성 값 하나를 역직렬화 한다.
+     * </pre>
+     */
+    public Object deserializeAttribute(byte[] attributeBytes) {
+        return this.deserializer.convert(attributeBytes);
+    }
+
+    /**
+     * <pre>
+     *     속성이 저장되는 문서 필드 경로(attrs.{속성명}).
+     * </pre>
+     */
+    String attributeFieldName(String attributeName) {
+        return ATTRIBUTES + "." + coverDot(attributeName);
+    }
+
+    /**
+     * <pre>
+     *     저장된 속성(attrs) 문서를 세션에 넣는다.
+     *     요청에서 실제로 사용하는 속성만 역직렬화 하도록 저장된 형식 그대로 보관한다.
+     * </pre>
+     */
+    void putEncodedAttributes(Document attributes, DirtyTrackingMongoSession session) {
+        session.setAttributeDecoder(this::deserializeAttribute);
+        for(Map.Entry<String, Object> attribute : attributes.entrySet()) {
+            session.putEncodedAttribute(uncoverDot(attribute.getKey()), toBytes(attribute.getValue()));
+        }
+        profileDocument(session.getId(), attributes);
+    }
+
+    /**
+     * <pre>
+     *     속성명별 직렬화 시간을 기록하는 {@link #serializeAttribute(Object)}.
+     * </pre>
+     */
+    byte[] serializeAttribute(String attributeName, Object attributeValue) {
+        SessionProfiler sessionProfiler = this.sessionProfiler;
+        if(sessionProfiler == null || !sessionProfiler.isSampled()) {
+            return serializeAttribute(attributeValue);
+        }
+
+        long start = System.nanoTime();
+        byte[] attributeBytes = serializeAttribute(attributeValue);
+        sessionProfiler.recordEncode(attributeName, System.nanoTime() - start);
+
+        return attributeBytes;
+    }
+
+    /**
+     * <pre>
+     *     속성명별 역직렬화 시간을 기록하는 {@link #deserializeAttribute(byte[])}.
+     * </pre>
+     */
+    Object deserializeAttribute(String attributeName, byte[] attributeBytes) {
+        SessionProfiler sessionProfiler = this.sessionProfiler;
+        if(sessionProfiler == null || !sessionProfiler.isSampled()) {
+            return deserializeAttribute(attributeBytes);
+        }
+
+        long start = System.nanoTime();
+        Object attributeValue = deserializeAttribute(attributeBytes);
+        sessionProfiler.recordDecode(attributeName, System.nanoTime() - start);
+
+        return attributeValue;
+    }
+
+    /**
+     * <pre>
+     *     속성별 변경 시각이 저장되는 문서 필드 경로(attrTs.{속성명}).
+     * </pre>
+     */
+    String attributeTimeFieldName(String attributeName) {
+        return ATTRIBUTE_TIMES + "." + coverDot(attributeName);
+    }
+
+    /**
+     * <pre>
+     *     principal 필드 값을 결정하는 속성인지 여부.
+     * </pre>
+     */
+    boolean isPrincipalAttribute(String attributeName) {
+        return PRINCIPAL_ATTRIBUTE_NAMES.contains(attributeName);
+    }
+
+    /**
+     * <pre>
+     *     전체 문서를 저장할 때 기록할 버전. 버전을 알 수 없는 세션은 1부터 시작한다.
+     * </pre>
+     */
+    static long nextVersionOf(MongoSession session) {
+        long persistedVersion = (session instanceof DirtyTrackingMongoSession trackedSession) ? trackedSession.getPersistedVersion()
+                : DirtyTrackingMongoSession.UNKNOWN_VERSION;
+
+        return Math.max(persistedVersion, 0L) + 1;
+    }
+
+    String principalOf(MongoSession session) {
+        return extractPrincipal(session);
+    }
+
+    /**
+     * <pre>
+     *     변경되지 않은 속성은 저장된 형식 그대로 사용하고, 그 외 속성만 직렬화 한다.
+     * </pre>
+     */
+    private byte[] attributeBytesOf(MongoSession session, String attributeName) {
+        if(session instanceof DirtyTrackingMongoSession trackedSession) {
+            byte[] persistedAttributeBytes = trackedSession.getPersistedAttributeBytes(attributeName);
+            if(persistedAttributeBytes != null) {
+                return persistedAttributeBytes;
+            }
+        }
+
+        return serializeAttribute(attributeName, session.getAttribute(attributeName));
+    }
+
+    /**
+     * <pre>
+     *     문서에서 관찰한 속성(attrs) 크기를 기록한다.
+     *     문서 크기는 직렬화 하지 않고 BSON 형식으로 계산한다. (binary 요소: 타입 1 + 필드명 + 1 + 길이 4 + subtype 1 + 값)
+     * </pre>
+     */
+    private void profileDocument(String sessionId, Map<String, Object> attributes) {
+        SessionProfiler sessionProfiler = this.sessionProfiler;
+        if(sessionProfiler == null || !sessionProfiler.isSampled()) {
+            return;
+        }
+
+        // 문서 길이 4 + 종료 1
+        long documentSize = 5;
+        for(Map.Entry<String, Object> attribute : attributes.entrySet()) {
+            byte[] attributeBytes = toBytes(attribute.getValue());
+            int attributeSize = (attributeBytes != null) ? attributeBytes.length : 0;
+            sessionProfiler.recordAttributeSize(uncoverDot(attribute.getKey()), attributeSize);
+
+            documentSize += 7 + attribute.getKey().getBytes(StandardCharsets.UTF_8).length + attributeSize;
+        }
+
+        sessionProfiler.recordDocument(sessionId, attributes.size(), documentSize);
+    }
+
+    private static boolean hasIndex(IndexOperations indexOperations, String indexName) {
+        for(IndexInfo indexInfo : indexOperations.getIndexInfo()) {
+            if(indexName.equals(indexInfo.getName())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deserializeLegacyAttributes(Object legacyAttributes, MongoSession session) {
+        Map<String, Object> attributes = (Map<String, Object>) this.legacyDeserializer.convert(toBytes(legacyAttributes));
+        if(attributes == null) {
+            return;
+        }
+
+        for(Map.Entry<String, Object> attribute : attributes.entrySet()) {
+            session.setAttribute(attribute.getKey(), attribute.getValue());
+        }
+    }
+
+    static byte[] toBytes(Object value) {
+        return (value instanceof Binary binary) ? binary.getData() : (byte[]) value;
+    }
+
+    static Instant toInstant(Object value) {
+        return (value instanceof Date date) ? date.toInstant() : (Instant) value;
+    }
+
+    static String coverDot(String attributeName) {
+        return attributeName.replace('.', DOT_COVER_CHAR);
+    }
+
+    static String uncoverDot(String attributeName) {
+        return attributeName.replace(DOT_COVER_CHAR, '.');
+    }
+}
@@ -0,0 +1,271 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.client.result.DeleteResult;
+import com.springSession.session.CompactSessionIdGenerator;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.events.SessionDeletedEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * <pre>
+ *     principal 이름({@link FindByIndexNameSessionRepository#PRINCIPAL_NAME_INDEX_NAME})으로 세션을 조회하고 일괄 삭제하는 관리 기능.
+ *
+ *     {@link FindByIndexNameSessionRepository#findByPrincipalName(String)}는 principal의 세션 문서 전체(속성 포함)를 한 번에 읽어
+ *     세션으로 변환하지만, 해당 클래스는 {@link PerAttributeMongoSessionConverter#PRINCIPAL_SESSIONS_INDEX_NAME} 인덱스로
+ *     속성을 제외한 필드만 조회하고, 세션 ID 순서로 limit 개씩 나누어(cursor paging) 조회한다.
+ *     일괄 삭제 시 세션 ID 조회는 인덱스 필드만 조회(covered query)하므로 문서를 읽지 않는다.
+ *
+ *     조회 결과의 세션 ID와 cursor는 {@link CompactSessionIdGenerator#mask(String)}로 가린 값이다.
+ *     가린 세션 ID로 시작하는 세션 ID 이후부터 다음 페이지를 조회하므로 접두어가 같은 세션이 페이지 경계에 있으면 건너뛸 수 있다. (난수 48bit가 같은 경우)
+ *
+ *     일괄 삭제는 MongoDB 인스턴스(샤드)마다 principal의 세션 ID를 조회한 뒤 한 번의 deleteMany로 삭제하고
+ *     삭제된 세션마다 {@link SessionDeletedEvent}를 발생시킨다. ({@link com.springSession.event.AsyncSessionEventMulticaster}가 묶어서 전달)
+ *
+ *     MongoDB를 직접 삭제하므로 L1 캐시({@link NearCacheMongoSessionRepository})는 validate-on-read가 true인 경우에만 삭제된 세션을 바로 반영한다.
+ * </pre>
+ */
+public class PrincipalSessionOperations {
+    private final static Logger logger = LoggerFactory.getLogger(PrincipalSessionOperations.class);
+
+    private final Map<String, MongoOperations> stores;
+    private final String collectionName;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private int pageSize = 500;
+
+    /**
+     * @param stores 저장소 이름(샤딩 미사용 시 default, 사용 시 샤드명)별 세션 저장소 MongoDB.
+     */
+    public PrincipalSessionOperations(Map<String, MongoOperations> stores
+            , String collectionName
+            , ApplicationEventPublisher eventPublisher) {
+
+        this.stores = stores;
+        this.collectionName = collectionName;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * <pre>
+     *     한 번에 조회할 최대 세션 수. 조회 요청의 limit과 일괄 삭제 시 세션 ID 조회 단위로 사용한다.
+     * </pre>
+     */
+    public void setPageSize(int pageSize) {
+        if(pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be greater than 0");
+        }
+
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * <pre>
+     *     principal의 세션을 세션 ID 순서로 cursor 이후 최대 limit 개 조회한다.
+     *     샤딩 사용 시 샤드마다 limit 개를 조회하여 세션 ID 순서로 합친다.
+     * </pre>
+     *
+     * @param cursor 이전 페이지의 {@link PrincipalSessionPage#nextCursor()}. 첫 페이지는 null.
+     */
+    public PrincipalSessionPage findSessions(String principalName, String cursor, int limit) {
+        int pageLimit = Math.min(Math.max(limit, 1), this.pageSize);
+        // cursor는 가린 세션 ID이므로 해당 값으로 시작하는 세션 ID를 모두 건너뛴다.
+        String afterId = (cursor == null) ? null : cursor + Character.MAX_VALUE;
+
+        // 재분배 중 두 샤드에 같은 세션이 있을 수 있으므로 세션 ID로 합친다.
+        TreeMap<String, PrincipalSession> sessions = new TreeMap<>();
+        for(MongoOperations mongoOperations : this.stores.values()) {
+            for(Document document : findPage(mongoOperations, principalName, afterId, pageLimit, true)) {
+                PrincipalSession session = PrincipalSession.of(document);
+                sessions.put(session.id(), session);
+            }
+        }
+
+        List<PrincipalSession> page = new ArrayList<>(pageLimit);
+        for(PrincipalSession session : sessions.values()) {
+            if(page.size() == pageLimit) {
+                break;
+            }
+
+            page.add(session.masked());
+        }
+
+        String nextCursor = (page.size() == pageLimit) ? page.get(page.size() - 1).id() : null;
+
+        return new PrincipalSessionPage(page, nextCursor);
+    }
+
+    /**
+     * <pre>
+     *     principal의 모든 세션을 삭제한다.
+     * </pre>
+     *
+     * @return 삭제한 세션 수.
+     */
+    public int invalidateSessions(String principalName) {
+        int deleted = 0;
+        for(MongoOperations mongoOperations : this.stores.values()) {
+            deleted += invalidateSessions(mongoOperations, principalName);
+        }
+
+        logger.info("invalidated {} sessions of principal {}", deleted, principalName);
+
+        return deleted;
+    }
+
+    private int invalidateSessions(MongoOperations mongoOperations, String principalName) {
+        List<PrincipalSession> sessions = new ArrayList<>();
+        String cursor = null;
+        List<Document> documents;
+        do {
+            documents = findPage(mongoOperations, principalName, cursor, this.pageSize, false);
+            for(Document document : documents) {
+                sessions.add(PrincipalSession.of(document));
+            }
+
+            cursor = sessions.isEmpty() ? null : sessions.get(sessions.size() - 1).id();
+        } while(documents.size() == this.pageSize);
+
+        if(sessions.isEmpty()) {
+            return 0;
+        }
+
+        List<String> ids = new ArrayList<>(sessions.size());
+        for(PrincipalSession session : sessions) {
+            ids.add(session.id());
+        }
+
+        // 조회 이후 생성된 세션은 삭제 이벤트 없이 삭제되지 않도록 조회한 세션 ID로 제한한다.
+        DeleteResult deleteResult = mongoOperations.remove(principalQuery(principalName)
+                .addCriteria(Criteria.where(PerAttributeMongoSessionConverter.ID).in(ids)), this.collectionName);
+
+        Set<String> remainingIds = (deleteResult.getDeletedCount() < ids.size()) ? findRemainingIds(mongoOperations, ids) : Set.of();
+
+        int deleted = 0;
+        for(PrincipalSession session : sessions) {
+            if(remainingIds.contains(session.id())) {
+                continue;
+            }
+
+            this.eventPublisher.publishEvent(new SessionDeletedEvent(this, session.toSession()));
+            deleted++;
+        }
+
+        return deleted;
+    }
+
+    /**
+     * <pre>
+     *     principal 인덱스 순서로 afterId 이후 세션을 limit 개 조회한다.
+     *     시각 필드를 포함하지 않으면 인덱스 필드만 조회하므로 문서를 읽지 않고 인덱스만으로 처리된다.
+     * </pre>
+     */
+    private List<Document> findPage(MongoOperations mongoOperations, String principalName, String afterId, int limit, boolean includeTimes) {
+        Query query = principalQuery(principalName);
+        if(afterId != null) {
+            query.addCriteria(Criteria.where(PerAttributeMongoSessionConverter.ID).gt(afterId));
+        }
+
+        query.with(Sort.by(PerAttributeMongoSessionConverter.ID))
+                .limit(limit)
+                .withHint(PerAttributeMongoSessionConverter.PRINCIPAL_SESSIONS_INDEX_NAME);
+        query.fields().include(PerAttributeMongoSessionConverter.ID);
+        if(includeTimes) {
+            query.fields()
+                    .include(PerAttributeMongoSessionConverter.CREATION_TIME)
+                    .include(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME)
+                    .include(PerAttributeMongoSessionConverter.EXPIRE_AT);
+        }
+
+        return mongoOperations.find(query, Document.class, this.collectionName);
+    }
+
+    /**
+     * <pre>
+     *     삭제 조건에서 제외된 세션 ID. (조회 이후 다른 요청에서 principal이 변경된 세션)
+     * </pre>
+     */
+    private Set<String> findRemainingIds(MongoOperations mongoOperations, List<String> ids) {
+        Query query = Query.query(Criteria.where(PerAttributeMongoSessionConverter.ID).in(ids));
+        query.fields().include(PerAttributeMongoSessionConverter.ID);
+
+        Set<String> remainingIds = new HashSet<>();
+        for(Document document : mongoOperations.find(query, Document.class, this.collectionName)) {
+            remainingIds.add(document.getString(PerAttributeMongoSessionConverter.ID));
+        }
+
+        return remainingIds;
+    }
+
+    private static Query principalQuery(String principalName) {
+        return Query.query(Criteria.where(PerAttributeMongoSessionConverter.PRINCIPAL).is(principalName));
+    }
+
+    /**
+     * <pre>
+     *     속성을 제외한 세션 정보. 일괄 삭제 시에는 세션 ID만 조회하므로 시각은 null이다.
+     * </pre>
+     */
+    public record PrincipalSession(String id, Instant creationTime, Instant lastAccessedTime, Instant expireAt) {
+
+        static PrincipalSession of(Document document) {
+            return new PrincipalSession(document.getString(PerAttributeMongoSessionConverter.ID)
+                    , toInstant(document.getDate(PerAttributeMongoSessionConverter.CREATION_TIME))
+                    , toInstant(document.getDate(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME))
+                    , toInstant(document.getDate(PerAttributeMongoSessionConverter.EXPIRE_AT)));
+        }
+
+        /**
+         * <pre>
+         *     세션 ID를 가린 세션 정보. 관리 API 응답에 사용한다.
+         * </pre>
+         */
+        PrincipalSession masked() {
+            return new PrincipalSession(CompactSessionIdGenerator.mask(this.id), this.creationTime, this.lastAccessedTime, this.expireAt);
+        }
+
+        /**
+         * <pre>
+         *     {@link SessionDeletedEvent}에 전달할 세션. 속성은 포함하지 않는다.
+         * </pre>
+         */
+        MapSession toSession() {
+            MapSession session = new MapSession(this.id);
+            if(this.creationTime != null) {
+                session.setCreationTime(this.creationTime);
+            }
+
+            if(this.lastAccessedTime != null) {
+                session.setLastAccessedTime(this.lastAccessedTime);
+            }
+
+            return session;
+        }
+
+        private static Instant toInstant(Date date) {
+            return (date != null) ? date.toInstant() : null;
+        }
+    }
+
+    /**
+     * @param nextCursor 다음 페이지 조회에 사용할 cursor. 마지막 페이지면 null.
+     */
+    public record PrincipalSessionPage(List<PrincipalSession> sessions, String nextCursor) {
+    }
+}
@@ -0,0 +1,204 @@
+package org.springframework.session.data.mongo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.SessionIdGenerator;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * <pre>
+ *     세션 조회를 read preference(secondary, nearest 등)가 설정된 {@link MongoOperations}로 보내고,
+ *     조회한 세션이 없거나 클라이언트가 마지막으로 저장한 세션보다 오래된 경우 위임 저장소(primary)에서 다시 조회하는 세션 저장소.
+ *
+ *     세션 저장 후 저장된 마지막 접근 시각을 요청의 쓰기 시각으로 기록하고,
+ *     {@link org.springframework.session.web.http.SessionWriteTimestampFilter}가 세션 ID와 함께 클라이언트에 전달한다. (X-Auth-Token-Ts)
+ *     클라이언트가 다음 요청에 쓰기 시각을 보내면 조회한 세션의 마지막 접근 시각이 쓰기 시각보다 이전인 경우 primary에서 조회한다.
+ *     쓰기 시각을 보내지 않은 요청(쿠키로 세션 ID를 보낸 요청 포함)은 자신이 저장한 세션을 놓치지 않도록 primary에서 조회한다.
+ *     {@link #setUnwrittenChanges(Predicate)}를 설정하면 write-behind 저장소({@link WriteBehindMongoSessionRepository})에
+ *     아직 저장하지 않은 변경이 있는 세션도 primary(대기 중인 변경이 적용된 위임 저장소)에서 조회한다.
+ *
+ *     만료된 세션은 primary에서 다시 조회하여 위임 저장소가 삭제와 SessionExpiredEvent를 처리한다.
+ *     저장, 삭제, principal 조회는 위임 저장소(primary)를 사용한다.
+ * </pre>
+ */
+public class ReadPreferenceMongoSessionRepository extends ForwardingMongoSessionRepository implements MeterBinder {
+    private static final ThreadLocal<RequestWriteTimestamps> CURRENT = new ThreadLocal<>();
+
+    private final MongoOperations readMongoOperations;
+    private final String collectionName;
+    private final PerAttributeMongoSessionConverter mongoSessionConverter;
+    private final SessionIdGenerator sessionIdGenerator;
+
+    private final LongAdder routedCount = new LongAdder();
+    private final LongAdder missingFallbackCount = new LongAdder();
+    private final LongAdder staleFallbackCount = new LongAdder();
+    private final LongAdder unwrittenFallbackCount = new LongAdder();
+
+    private String storeName = "default";
+    private Predicate<String> unwrittenChanges = id -> false;
+
+    public ReadPreferenceMongoSessionRepository(FindByIndexNameSessionRepository<MongoSession> delegate
+            , MongoOperations readMongoOperations
+            , String collectionName
+            , PerAttributeMongoSessionConverter mongoSessionConverter
+            , SessionIdGenerator sessionIdGenerator) {
+
+        super(delegate);
+
+        this.readMongoOperations = readMongoOperations;
+        this.collectionName = collectionName;
+        this.mongoSessionConverter = mongoSessionConverter;
+        this.sessionIdGenerator = sessionIdGenerator;
+    }
+
+    /**
+     * <pre>
+     *     메트릭의 store 태그 값. 샤드마다 저장소를 두는 경우 샤드명을 설정한다.
+     * </pre>
+     */
+    public void setStoreName(String storeName) {
+        this.storeName = storeName;
+    }
+
+    /**
+     * <pre>
+     *     세션 ID별로 MongoDB에 아직 저장하지 않은 변경이 있는지 확인하는 조건. ({@link WriteBehindMongoSessionRepository#hasUnwrittenChanges(String)})
+     *     변경이 있는 세션은 read preference로 조회하지 않는다.
+     * </pre>
+     */
+    public void setUnwrittenChanges(Predicate<String> unwrittenChanges) {
+        this.unwrittenChanges = unwrittenChanges;
+    }
+
+    /**
+     * <pre>
+     *     현재 요청에서 클라이언트가 전달한 마지막 쓰기 시각(epoch millis)을 설정한다. 없으면 0.
+     *     요청 처리가 끝나면 {@link #endRequest()}를 호출해야 한다.
+     * </pre>
+     */
+    public static void beginRequest(long readAfterMillis) {
+        CURRENT.set(new RequestWriteTimestamps(readAfterMillis));
+    }
+
+    /**
+     * <pre>
+     *     현재 요청에서 저장한 세션의 쓰기 시각(epoch millis). 저장하지 않았으면 0.
+     * </pre>
+     */
+    public static long lastWriteMillis() {
+        RequestWriteTimestamps timestamps = CURRENT.get();
+        return (timestamps != null) ? timestamps.lastWriteMillis : 0L;
+    }
+
+    public static void endRequest() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public MongoSession findById(String id) {
+        long readAfterMillis = readAfterMillis();
+        if(readAfterMillis <= 0L) {
+            return super.findById(id);
+        }
+
+        if(this.unwrittenChanges.test(id)) {
+            this.unwrittenFallbackCount.increment();
+            return super.findById(id);
+        }
+
+        Document document = this.readMongoOperations.findOne(Query.query(Criteria.where(PerAttributeMongoSessionConverter.ID).is(id))
+                , Document.class
+                , this.collectionName);
+        MongoSession session = (document != null) ? this.mongoSessionConverter.convert(document) : null;
+
+        if(session == null || session.isExpired()) {
+            this.missingFallbackCount.increment();
+            return super.findById(id);
+        }
+
+        if(session.getLastAccessedTime().toEpochMilli() < readAfterMillis) {
+            this.staleFallbackCount.increment();
+            return super.findById(id);
+        }
+
+        this.routedCount.increment();
+        session.setSessionIdGenerator(this.sessionIdGenerator);
+
+        return session;
+    }
+
+    @Override
+    public void save(MongoSession session) {
+        super.save(session);
+
+        RequestWriteTimestamps timestamps = CURRENT.get();
+        if(timestamps != null) {
+            timestamps.lastWriteMillis = Math.max(timestamps.lastWriteMillis, writeMillisOf(session));
+        }
+    }
+
+    /**
+     * <pre>
+     *     read preference로 조회한 세션 수, 세션이 없거나(만료 포함) 쓰기 시각보다 오래되어 primary에서 다시 조회한 수,
+     *     저장하지 않은 변경이 있어 primary에서 조회한 수를 등록한다. (쓰기 시각을 보내지 않아 primary에서 조회한 수는 포함하지 않는다.)
+     * </pre>
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("session.store.read.routed", this.routedCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .tag("result", "secondary")
+                .register(registry);
+        FunctionCounter.builder("session.store.read.routed", this.missingFallbackCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .tag("result", "fallback_missing")
+                .register(registry);
+        FunctionCounter.builder("session.store.read.routed", this.staleFallbackCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .tag("result", "fallback_stale")
+                .register(registry);
+        FunctionCounter.builder("session.store.read.routed", this.unwrittenFallbackCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .tag("result", "fallback_unwritten")
+                .register(registry);
+    }
+
+    /**
+     * <pre>
+     *     저장 후 세션 저장소에 기록된 마지막 접근 시각.
+     *     변경 속성 저장소({@link DeltaMongoSessionRepository})가 접근 시각 저장을 생략한 경우에는 마지막으로 저장된 접근 시각을 사용한다.
+     *     (저장하지 않은 접근 시각을 전달하면 이후 조회마다 secondary 세션이 오래된 것으로 판단하여 primary에서 다시 조회한다.)
+     * </pre>
+     */
+    private static long writeMillisOf(MongoSession session) {
+        if(session instanceof DirtyTrackingMongoSession trackedSession
+                && trackedSession.isPersisted()
+                && (trackedSession.isTouchSkipped() || !trackedSession.isLastAccessedTimeChanged())) {
+            return trackedSession.getPersistedLastAccessedTime().toEpochMilli();
+        }
+
+        return session.getLastAccessedTime().toEpochMilli();
+    }
+
+    private static long readAfterMillis() {
+        RequestWriteTimestamps timestamps = CURRENT.get();
+        return (timestamps != null) ? timestamps.readAfterMillis : 0L;
+    }
+
+    private static class RequestWriteTimestamps {
+        private final long readAfterMillis;
+        private long lastWriteMillis;
+
+        private RequestWriteTimestamps(long readAfterMillis) {
+            this.readAfterMillis = readAfterMillis;
+        }
+    }
+}
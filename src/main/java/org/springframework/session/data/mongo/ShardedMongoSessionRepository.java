@@ -0,0 +1,123 @@
+package org.springframework.session.data.mongo;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.session.FindByIndexNameSessionRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <pre>
+ *     {@link MongoSessionShards}의 Consistent Hash 링으로 세션 ID마다 저장할 MongoDB 인스턴스를 나누는 세션 저장소.
+ *
+ *     세션 저장, 조회, 삭제는 소유 샤드의 세션 저장소로 위임한다.
+ *     인덱스(principal) 조회는 세션 ID로 샤드를 정할 수 없으므로 모든 샤드를 조회하여 합친다.
+ *
+ *     샤드 추가 후 재분배 중에는
+ *     소유 샤드에 없는 세션을 이전 샤드에서 조회하고, 저장할 때 소유 샤드에 저장한 뒤 이전 샤드의 문서를 삭제한다.
+ *     즉 세션은 사용될 때 새 샤드로 옮겨지며, 재분배 기간 동안 사용되지 않은 세션은 이전 샤드에서 만료된다.
+ * </pre>
+ */
+public class ShardedMongoSessionRepository implements FindByIndexNameSessionRepository<MongoSession> {
+    private final MongoSessionShards shards;
+    private final String collectionName;
+
+    public ShardedMongoSessionRepository(MongoSessionShards shards, String collectionName) {
+        this.shards = shards;
+        this.collectionName = collectionName;
+    }
+
+    public MongoSessionShards getShards() {
+        return this.shards;
+    }
+
+    /**
+     * <pre>
+     *     모든 샤드의 세션 저장소는 같은 설정을 사용하므로 세션 생성은 첫 번째 샤드에 위임한다.
+     *     생성된 세션은 세션 ID에 따라 저장 시점에 소유 샤드로 저장된다.
+     * </pre>
+     */
+    @Override
+    public MongoSession createSession() {
+        return this.shards.all().iterator().next().sessionRepository().createSession();
+    }
+
+    @Override
+    public void save(MongoSession session) {
+        String id = session.getId();
+        MongoSessionShards.Shard owner = this.shards.ownerOf(id);
+
+        // 세션 ID가 변경된 경우 이전 ID 문서는 다른 샤드에 있을 수 있다. 같은 샤드라면 위임 저장소에서 삭제한다.
+        String changedFromId = (session instanceof DirtyTrackingMongoSession trackedSession && trackedSession.hasChangedId())
+                ? trackedSession.getPersistedId() : null;
+
+        owner.sessionRepository().save(session);
+
+        if(changedFromId != null) {
+            removeFromOtherShards(changedFromId, owner);
+        }
+
+        MongoSessionShards.Shard previousOwner = this.shards.previousOwnerOf(id);
+        if(previousOwner != null) {
+            remove(previousOwner, id);
+        }
+    }
+
+    @Override
+    public MongoSession findById(String id) {
+        MongoSession session = this.shards.ownerOf(id).sessionRepository().findById(id);
+        if(session != null) {
+            return session;
+        }
+
+        MongoSessionShards.Shard previousOwner = this.shards.previousOwnerOf(id);
+        return (previousOwner != null) ? previousOwner.sessionRepository().findById(id) : null;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        this.shards.ownerOf(id).sessionRepository().deleteById(id);
+
+        MongoSessionShards.Shard previousOwner = this.shards.previousOwnerOf(id);
+        if(previousOwner != null) {
+            previousOwner.sessionRepository().deleteById(id);
+        }
+    }
+
+    @Override
+    public Map<String, MongoSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        Map<String, MongoSession> sessions = new HashMap<>();
+        for(MongoSessionShards.Shard shard : this.shards.all()) {
+            for(Map.Entry<String, MongoSession> entry : shard.sessionRepository().findByIndexNameAndIndexValue(indexName, indexValue).entrySet()) {
+                // 재분배 중 두 샤드에 같은 세션이 있으면 소유 샤드의 세션을 사용한다.
+                if(!sessions.containsKey(entry.getKey()) || this.shards.ownerOf(entry.getKey()) == shard) {
+                    sessions.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return sessions;
+    }
+
+    private void removeFromOtherShards(String id, MongoSessionShards.Shard owner) {
+        MongoSessionShards.Shard changedFromOwner = this.shards.ownerOf(id);
+        if(changedFromOwner != owner) {
+            remove(changedFromOwner, id);
+        }
+
+        MongoSessionShards.Shard changedFromPreviousOwner = this.shards.previousOwnerOf(id);
+        if(changedFromPreviousOwner != null && changedFromPreviousOwner != owner) {
+            remove(changedFromPreviousOwner, id);
+        }
+    }
+
+    /**
+     * <pre>
+     *     샤드 간 이동으로 남은 문서 삭제. 세션 삭제가 아니므로 {@link org.springframework.session.events.SessionDeletedEvent}를 발생시키지 않는다.
+     * </pre>
+     */
+    private void remove(MongoSessionShards.Shard shard, String id) {
+        shard.mongoOperations().remove(Query.query(Criteria.where(PerAttributeMongoSessionConverter.ID).is(id)), this.collectionName);
+    }
+}
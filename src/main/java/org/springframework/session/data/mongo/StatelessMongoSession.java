@@ -0,0 +1,72 @@
+package org.springframework.session.data.mongo;
+
+import org.springframework.session.SessionIdGenerator;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * <pre>
+ *     {@link StatelessTokenMongoSessionRepository}가 세션 토큰으로 전달하는 세션.
+ *
+ *     세션 ID는 토큰을 발급하면 토큰 값으로 바뀌며, 세션 저장소(MongoDB)로 전환되면 설정된 {@link SessionIdGenerator}로 생성한 ID로 바뀐다.
+ *     SessionRepositoryFilter는 저장 후 세션 ID가 요청한 ID와 다르면 새 ID(토큰)를 응답에 전달한다.
+ *
+ *     토큰을 발급한 시점의 마지막 접근 시각과 최대 비활성 시간을 기록하여
+ *     변경이 없는 세션은 토큰을 다시 발급하지 않는다.
+ * </pre>
+ */
+class StatelessMongoSession extends DirtyTrackingMongoSession {
+    private String id;
+
+    private Instant issuedLastAccessedTime;
+    private Duration issuedMaxInactiveInterval;
+
+    StatelessMongoSession(String id, long maxInactiveIntervalInSeconds, SessionIdGenerator sessionIdGenerator) {
+        super(id, maxInactiveIntervalInSeconds);
+        this.id = id;
+        setSessionIdGenerator(sessionIdGenerator);
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public String changeSessionId() {
+        this.id = super.changeSessionId();
+        this.issuedLastAccessedTime = null;
+        this.issuedMaxInactiveInterval = null;
+
+        return this.id;
+    }
+
+    /**
+     * <pre>
+     *     토큰을 세션 ID로 사용한다.
+     * </pre>
+     */
+    void issue(String token) {
+        this.id = token;
+        this.issuedLastAccessedTime = getLastAccessedTime();
+        this.issuedMaxInactiveInterval = getMaxInactiveInterval();
+    }
+
+    boolean isIssued() {
+        return this.issuedLastAccessedTime != null;
+    }
+
+    /**
+     * <pre>
+     *     발급한 토큰을 그대로 사용할 수 있는지 여부.
+     *     속성, 최대 비활성 시간이 바뀌지 않았고 토큰 발급 후 refreshInterval이 지나지 않았으면 다시 발급하지 않는다.
+     * </pre>
+     */
+    boolean isIssuedTokenReusable(Duration refreshInterval) {
+        return isIssued()
+                && getDirtyAttributeNames().isEmpty()
+                && getMaxInactiveInterval().equals(this.issuedMaxInactiveInterval)
+                && getLastAccessedTime().isBefore(this.issuedLastAccessedTime.plus(refreshInterval));
+    }
+}
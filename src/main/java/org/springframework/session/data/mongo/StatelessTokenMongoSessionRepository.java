@@ -0,0 +1,217 @@
+package org.springframework.session.data.mongo;
+
+import com.springSession.codec.SessionTokenCipher;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.SessionIdGenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * <pre>
+ *     크기가 작은 세션을 세션 저장소 대신 암호화된 토큰으로 클라이언트에 전달하는 저장소.
+ *
+ *     새로 생성된 세션은 저장 시 속성을 포함한 세션 전체를 {@link SessionTokenCipher}(AES-GCM)로 암호화 하여
+ *     {@link #TOKEN_PREFIX}로 시작하는 토큰을 만들고 세션 ID를 토큰으로 바꾼다.
+ *     SessionRepositoryFilter가 바뀐 세션 ID를 기존과 같이 X-Auth-Token 헤더/SESSION 쿠키로 전달하므로
+ *     이후 요청은 세션 저장소(MongoDB) 조회 없이 토큰을 복호화 하여 세션을 만든다.
+ *
+ *     다음 세션은 세션 저장소에 저장한다. (이후로는 세션 저장소에서 조회)
+ *       - 토큰 길이가 maxTokenLength를 넘는 세션
+ *       - 서버에서 만료시켜야 하는 세션 : principal 이름({@link FindByIndexNameSessionRepository#PRINCIPAL_NAME_INDEX_NAME}) 속성이 있거나
+ *         {@link #SERVER_SIDE_ATTRIBUTE} 속성이 true인 세션
+ *
+ *     토큰은 서버에서 삭제할 수 없으므로 {@link #deleteById(String)}는 응답에서 토큰을 제거하는 것 외에는 효과가 없고
+ *     토큰에 기록된 마지막 접근 시각 + 최대 비활성 시간이 지나야 만료된다.
+ *     변경이 없는 세션은 발급 후 최대 비활성 시간 * refreshRatio 동안 토큰을 다시 발급하지 않으므로
+ *     그만큼 실제 비활성 허용 시간이 짧아질 수 있다.
+ *     토큰 세션은 세션 저장소에 저장되지 않으므로 세션 이벤트(만료, 삭제)가 발생하지 않는다.
+ * </pre>
+ */
+public class StatelessTokenMongoSessionRepository extends ForwardingMongoSessionRepository {
+    public static final String TOKEN_PREFIX = "~";
+    /** true로 설정하면 서버에서 만료시킬 수 있도록 세션 저장소에 저장한다. */
+    public static final String SERVER_SIDE_ATTRIBUTE = StatelessTokenMongoSessionRepository.class.getName() + ".SERVER_SIDE";
+
+    private final SessionTokenCipher sessionTokenCipher;
+    private final PerAttributeMongoSessionConverter mongoSessionConverter;
+    private final SessionIdGenerator sessionIdGenerator;
+    private final int maxTokenLength;
+
+    private double refreshRatio = 0.25;
+
+    public StatelessTokenMongoSessionRepository(FindByIndexNameSessionRepository<MongoSession> delegate
+            , SessionTokenCipher sessionTokenCipher
+            , PerAttributeMongoSessionConverter mongoSessionConverter
+            , SessionIdGenerator sessionIdGenerator
+            , int maxTokenLength) {
+
+        super(delegate);
+        this.sessionTokenCipher = sessionTokenCipher;
+        this.mongoSessionConverter = mongoSessionConverter;
+        this.sessionIdGenerator = sessionIdGenerator;
+        this.maxTokenLength = maxTokenLength;
+    }
+
+    /**
+     * <pre>
+     *     변경이 없는 세션의 토큰을 다시 발급하는 주기. (최대 비활성 시간 대비 비율)
+     * </pre>
+     */
+    public void setRefreshRatio(double refreshRatio) {
+        this.refreshRatio = refreshRatio;
+    }
+
+    /**
+     * <pre>
+     *     세션 저장소에서 생성한 세션(ID, 최대 비활성 시간, 세션 생성 이벤트)을 토큰 세션으로 옮긴다.
+     * </pre>
+     */
+    @Override
+    public MongoSession createSession() {
+        MongoSession created = super.createSession();
+
+        StatelessMongoSession session = new StatelessMongoSession(created.getId(), created.getMaxInactiveInterval().getSeconds(), this.sessionIdGenerator);
+        session.setCreationTime(created.getCreationTime().toEpochMilli());
+        session.setLastAccessedTime(created.getLastAccessedTime());
+
+        return session;
+    }
+
+    @Override
+    public void save(MongoSession session) {
+        if(!(session instanceof StatelessMongoSession statelessSession)) {
+            super.save(session);
+            return;
+        }
+
+        Duration refreshInterval = Duration.ofMillis((long) (statelessSession.getMaxInactiveInterval().toMillis() * this.refreshRatio));
+        if(statelessSession.isIssuedTokenReusable(refreshInterval)) {
+            return;
+        }
+
+        String token = isServerSide(statelessSession) ? null : encode(statelessSession);
+        if(token == null || token.length() > this.maxTokenLength) {
+            // 토큰 대신 세션 저장소에 저장한다. 토큰은 세션 ID로 사용할 수 없으므로 새 ID를 발급한다.
+            if(statelessSession.isIssued()) {
+                statelessSession.changeSessionId();
+            }
+
+            super.save(statelessSession);
+            return;
+        }
+
+        statelessSession.issue(token);
+    }
+
+    @Override
+    public MongoSession findById(String id) {
+        if(!isToken(id)) {
+            return super.findById(id);
+        }
+
+        StatelessMongoSession session = decode(id);
+        if(session == null || session.isExpired()) {
+            return null;
+        }
+
+        return session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        if(!isToken(id)) {
+            super.deleteById(id);
+        }
+    }
+
+    static boolean isToken(String id) {
+        return id != null && id.startsWith(TOKEN_PREFIX);
+    }
+
+    private static boolean isServerSide(MongoSession session) {
+        return session.getAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME) != null
+                || Boolean.TRUE.equals(session.getAttribute(SERVER_SIDE_ATTRIBUTE));
+    }
+
+    /**
+     * <pre>
+     *     생성 시각(8) + 마지막 접근 시각(8) + 최대 비활성 시간(4) + 속성 개수(4) + [속성명(UTF) + 값 길이(4) + 값]
+     *     속성 값은 세션 저장소와 같은 형식({@link PerAttributeMongoSessionConverter#serializeAttribute(Object)})으로 기록한다.
+     * </pre>
+     */
+    String encode(StatelessMongoSession session) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try(DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeLong(session.getCreationTime().toEpochMilli());
+            output.writeLong(session.getLastAccessedTime().toEpochMilli());
+            output.writeInt((int) session.getMaxInactiveInterval().getSeconds());
+
+            output.writeInt(session.getAttributeNames().size());
+            for(String attributeName : session.getAttributeNames()) {
+                byte[] attributeBytes = session.getPersistedAttributeBytes(attributeName);
+                if(attributeBytes == null) {
+                    attributeBytes = this.mongoSessionConverter.serializeAttribute(attributeName, session.getAttribute(attributeName));
+                }
+
+                output.writeUTF(attributeName);
+                output.writeInt(attributeBytes.length);
+                output.write(attributeBytes);
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(this.sessionTokenCipher.seal(bytes.toByteArray()));
+    }
+
+    /**
+     * @return 토큰 형식이 아니거나 인증에 실패하면 null.
+     */
+    StatelessMongoSession decode(String token) {
+        byte[] plaintext;
+        try {
+            plaintext = this.sessionTokenCipher.open(Base64.getUrlDecoder().decode(token.substring(TOKEN_PREFIX.length())));
+        } catch(IllegalArgumentException e) {
+            return null;
+        }
+
+        if(plaintext == null) {
+            return null;
+        }
+
+        try(DataInputStream input = new DataInputStream(new ByteArrayInputStream(plaintext))) {
+            long creationTime = input.readLong();
+            long lastAccessedTime = input.readLong();
+            int maxInactiveInterval = input.readInt();
+
+            StatelessMongoSession session = new StatelessMongoSession(token, maxInactiveInterval, this.sessionIdGenerator);
+            session.setCreationTime(creationTime);
+            session.setLastAccessedTime(Instant.ofEpochMilli(lastAccessedTime));
+
+            // 요청에서 사용하는 속성만 역직렬화 한다.
+            session.setAttributeDecoder(this.mongoSessionConverter::deserializeAttribute);
+            int attributeCount = input.readInt();
+            for(int i = 0; i < attributeCount; i++) {
+                String attributeName = input.readUTF();
+                byte[] attributeBytes = new byte[input.readInt()];
+                input.readFully(attributeBytes);
+
+                session.putEncodedAttribute(attributeName, attributeBytes);
+            }
+
+            session.issue(token);
+
+            return session;
+        } catch(IOException e) {
+            return null;
+        }
+    }
+}
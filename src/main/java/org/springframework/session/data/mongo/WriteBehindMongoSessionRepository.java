@@ -0,0 +1,766 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.session.FindByIndexNameSessionRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <pre>
+ *     세션 저장을 노드 메모리에 모았다가 묶어서(bulk write) 저장하는 세션 저장소. (write-behind)
+ *
+ *     {@link #save(MongoSession)}는 MongoDB에 쓰지 않고 세션 ID별 대기 목록에 변경 내용을 합친다. (새로 생성된 세션 포함)
+ *     같은 세션의 저장이 여러 번 들어오면 속성별로 마지막 값만 남기므로(last write wins per attribute)
+ *     같은 노드에서 동시에 처리된 요청이 서로 다른 속성을 바꿔도 변경이 유실되지 않는다.
+ *
+ *     대기 목록은 별도 가상 스레드가 flushInterval 마다, 혹은 maxBatchSize 개가 모이면 maxBatchSize 개씩 ordered bulk write로 저장한다.
+ *       - 새 세션, 세션 ID가 변경된 세션 : 전체 문서 upsert (이전 ID 문서는 같은 bulk write에서 삭제)
+ *       - 그 외 세션 : {@link DeltaMongoSessionRepository}와 같은 update pipeline으로 다른 노드의 변경과 속성 단위로 합친다.
+ *         (속성별 저장 시각(attrTs)이 늦은 값만 반영, 마지막 접근 시각/만료 시각은 늦은 값 유지)
+ *         다른 노드에서 삭제(로그아웃, 만료 세션 정리 등) 되었거나 만료되어 갱신된 문서가 없으면 저장하지 않고 버린다. (session.writebehind.dropped)
+ *     한 번의 저장에서 변경된 속성은 모두 같은 저장 시각을 가진다.
+ *     전체 문서 upsert는 attrTs를 저장 이후 변경된 속성만으로 교체한다. (전체 문서 저장과 같이 나머지 속성은 저장 시각이 없는 속성이 된다.)
+ *     {@link #setTouchThrottleRatio(double)}를 설정하면 {@link DeltaMongoSessionRepository}와 같이 마지막 접근 시각만 바뀐 저장을 생략한다.
+ *     대기 중인 세션이 maxPendingSessions를 넘으면 저장을 요청한 스레드에서 직접 저장한다. (caller runs)
+ *
+ *     같은 노드의 조회({@link #findById(String)})는 MongoDB 문서에 대기 중/저장 중인 변경을 적용하여 반환하므로 저장한 내용을 바로 읽는다.
+ *     다른 노드와 인덱스(principal) 조회는 저장 전까지 이전 상태를 읽는다. (새 세션은 저장 전까지 다른 노드에서 찾을 수 없다.)
+ *
+ *     저장 스레드는 {@link #start()}에서 시작하고, 시작 전과 {@link #close()} 이후의 저장은 위임 저장소로 바로 저장한다.
+ *     노드가 비정상 종료되면 최대 flushInterval 동안의 변경이 유실될 수 있다. (정상 종료 시 {@link #close()}에서 모두 저장)
+ *
+ *     {@link PerAttributeMongoSessionConverter}를 사용하는 경우에만 사용할 수 있다.
+ * </pre>
+ */
+public class WriteBehindMongoSessionRepository extends ForwardingMongoSessionRepository implements MeterBinder, AutoCloseable {
+    private final static Logger logger = LoggerFactory.getLogger(WriteBehindMongoSessionRepository.class);
+
+    private final MongoOperations mongoOperations;
+    private final String collectionName;
+    private final PerAttributeMongoSessionConverter mongoSessionConverter;
+    private final Duration flushInterval;
+    private final int maxBatchSize;
+
+    /** 저장 대기 중인 변경 */
+    private final Map<String, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+    /** bulk write 실행 중인 변경. 저장이 끝날 때까지 조회에 적용한다. */
+    private final Map<String, PendingWrite> inFlightWrites = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    /** 대기 목록에 넣는 저장(read)과 종료(write)를 배타적으로 실행하여 종료 후 마지막 저장 이후에 대기 목록에 들어가는 변경이 없도록 한다. */
+    private final ReadWriteLock lifecycleLock = new ReentrantReadWriteLock();
+    private final BlockingQueue<Boolean> flushSignal = new ArrayBlockingQueue<>(1);
+
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder callerRunsCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder skippedTouchCount = new LongAdder();
+
+    private int maxPendingSessions = 10_000;
+    private double touchThrottleRatio = 0.0;
+    private String storeName = "default";
+
+    private volatile boolean running;
+    private Thread flusher;
+    private volatile Timer successTimer;
+    private volatile Timer errorTimer;
+    private volatile DistributionSummary batchSizeSummary;
+
+    public WriteBehindMongoSessionRepository(FindByIndexNameSessionRepository<MongoSession> delegate
+            , MongoOperations mongoOperations
+            , String collectionName
+            , PerAttributeMongoSessionConverter mongoSessionConverter
+            , Duration flushInterval
+            , int maxBatchSize) {
+
+        super(delegate);
+
+        if(maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        }
+
+        this.mongoOperations = mongoOperations;
+        this.collectionName = collectionName;
+        this.mongoSessionConverter = mongoSessionConverter;
+        this.flushInterval = flushInterval;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * <pre>
+     *     저장 대기 중인 최대 세션 수. 넘으면 저장을 요청한 스레드에서 직접 저장한다.
+     * </pre>
+     */
+    public void setMaxPendingSessions(int maxPendingSessions) {
+        this.maxPendingSessions = maxPendingSessions;
+    }
+
+    /**
+     * <pre>
+     *     마지막 접근 시각만 바뀐 저장을 생략할 최대 비활성 시간 대비 비율. 0이면 생략하지 않는다.
+     *     ({@link DeltaMongoSessionRepository#setTouchThrottleRatio(double)})
+     * </pre>
+     */
+    public void setTouchThrottleRatio(double touchThrottleRatio) {
+        if(touchThrottleRatio < 0.0 || touchThrottleRatio >= 1.0) {
+            throw new IllegalArgumentException("touchThrottleRatio must be between 0.0 and 1.0 (exclusive)");
+        }
+
+        this.touchThrottleRatio = touchThrottleRatio;
+    }
+
+    /**
+     * <pre>
+     *     메트릭의 store 태그 값. 샤드마다 저장소를 두는 경우 샤드명을 설정한다.
+     * </pre>
+     */
+    public void setStoreName(String storeName) {
+        this.storeName = storeName;
+    }
+
+    /**
+     * <pre>
+     *     저장 스레드를 시작한다. 이후 저장은 대기 목록에 모았다가 저장한다.
+     * </pre>
+     */
+    public synchronized void start() {
+        if(this.running) {
+            return;
+        }
+
+        this.running = true;
+        this.flusher = Thread.ofVirtual()
+                .name("session-write-behind")
+                .start(this::flushLoop);
+    }
+
+    @Override
+    public void save(MongoSession session) {
+        this.lifecycleLock.readLock().lock();
+        try {
+            if(this.running) {
+                enqueueChanges(session);
+                return;
+            }
+        } finally {
+            this.lifecycleLock.readLock().unlock();
+        }
+
+        super.save(session);
+    }
+
+    /**
+     * <pre>
+     *     대기 중/저장 중인 변경이 있는 세션은 MongoDB 문서에 변경을 적용하여 반환한다.
+     * </pre>
+     */
+    @Override
+    public MongoSession findById(String id) {
+        // 저장 스레드는 저장 중 목록에 먼저 넣고 대기 목록에서 제거하므로 대기 목록을 먼저 확인해야 두 목록 사이에서 변경을 놓치지 않는다.
+        PendingWrite pendingWrite = this.pendingWrites.get(id);
+        PendingWrite inFlightWrite = this.inFlightWrites.get(id);
+        if(inFlightWrite == null && pendingWrite == null) {
+            return super.findById(id);
+        }
+
+        // 조회 도중 저장이 끝나도 같은 변경을 한 번 더 적용하는 것이므로 결과는 같다.
+        Document document = this.mongoOperations.findById(id, Document.class, this.collectionName);
+        if(inFlightWrite != null) {
+            document = inFlightWrite.applyTo(document);
+        }
+
+        if(pendingWrite != null) {
+            document = pendingWrite.applyTo(document);
+        }
+
+        if(document == null) {
+            return null;
+        }
+
+        MongoSession session = this.mongoSessionConverter.convert(document);
+        return (session == null || session.isExpired()) ? null : session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        this.pendingWrites.remove(id);
+        boolean writing = this.inFlightWrites.containsKey(id);
+
+        super.deleteById(id);
+
+        if(!writing) {
+            return;
+        }
+
+        // 저장 중인 문서가 삭제 이후에 기록될 수 있으므로 다음 bulk write에서 한 번 더 삭제한다.
+        this.lifecycleLock.readLock().lock();
+        try {
+            if(this.running) {
+                enqueue(PendingWrite.removal(id));
+                return;
+            }
+        } finally {
+            this.lifecycleLock.readLock().unlock();
+        }
+
+        // 종료 이후에는 대기 목록을 저장하지 않으므로 저장 중인 bulk write가 끝난 뒤 직접 한 번 더 삭제한다.
+        this.flushLock.lock();
+        try {
+            super.deleteById(id);
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    /**
+     * <pre>
+     *     호출 시점에 대기 중인 변경을 모두 저장한다. 저장에 실패한 변경은 대기 목록으로 되돌리고 예외를 던진다.
+     *     저장 중에 들어온 변경까지 기다리지 않으므로 저장이 계속 들어와도 끝난다.
+     * </pre>
+     */
+    public void flush() {
+        this.flushLock.lock();
+        try {
+            int remaining = this.pendingWrites.size();
+            while(remaining > 0) {
+                List<PendingWrite> batch = takeBatch();
+                if(batch.isEmpty()) {
+                    return;
+                }
+
+                write(batch);
+                remaining -= batch.size();
+            }
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    /**
+     * <pre>
+     *     대기 중이거나 저장 중인 변경이 있는지 여부. 있으면 MongoDB(복제 노드 포함)의 문서는 최신 상태가 아니다.
+     * </pre>
+     */
+    boolean hasUnwrittenChanges(String id) {
+        return this.pendingWrites.containsKey(id) || this.inFlightWrites.containsKey(id);
+    }
+
+    int getPendingCount() {
+        return this.pendingWrites.size();
+    }
+
+    /**
+     * <pre>
+     *     대기 세션 수, 합쳐진 저장 수, caller runs 수, 문서가 없어 버린 부분 갱신 수, 생략한 접근 시각 저장 수,
+     *     bulk write 시간(outcome : success, error), bulk write 크기를 등록한다.
+     * </pre>
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("session.writebehind.pending", this.pendingWrites, Map::size)
+                .tag("store", this.storeName)
+                .register(registry);
+        FunctionCounter.builder("session.writebehind.coalesced", this.coalescedCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .register(registry);
+        FunctionCounter.builder("session.writebehind.callerruns", this.callerRunsCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .register(registry);
+        FunctionCounter.builder("session.writebehind.dropped", this.droppedCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .register(registry);
+        FunctionCounter.builder("session.writebehind.touch.skipped", this.skippedTouchCount, LongAdder::sum)
+                .tag("store", this.storeName)
+                .register(registry);
+
+        this.successTimer = Timer.builder("session.writebehind.flush")
+                .tag("store", this.storeName)
+                .tag("outcome", "success")
+                .register(registry);
+        this.errorTimer = Timer.builder("session.writebehind.flush")
+                .tag("store", this.storeName)
+                .tag("outcome", "error")
+                .register(registry);
+        this.batchSizeSummary = DistributionSummary.builder("session.writebehind.batch.size")
+                .tag("store", this.storeName)
+                .register(registry);
+    }
+
+    /**
+     * <pre>
+     *     저장 스레드를 종료하고 대기 중인 변경을 모두 저장한다. 이후 저장은 위임 저장소로 바로 저장한다.
+     * </pre>
+     */
+    @Override
+    public synchronized void close() {
+        // 대기 목록에 넣는 중인 저장이 끝난 뒤 종료하므로 이후 저장은 모두 위임 저장소로 바로 저장되고 아래 저장에서 빠지는 변경이 없다.
+        this.lifecycleLock.writeLock().lock();
+        try {
+            this.running = false;
+        } finally {
+            this.lifecycleLock.writeLock().unlock();
+        }
+
+        this.flushSignal.offer(Boolean.TRUE);
+
+        if(this.flusher != null) {
+            try {
+                this.flusher.join(Duration.ofSeconds(10));
+            } catch(InterruptedException e) {
+                // 대기 중인 변경은 아래에서 저장하고 인터럽트 상태는 호출한 쪽에 남긴다.
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+    }
+
+    /**
+     * <pre>
+     *     저장된 상태 이후의 변경을 대기 목록에 합친다. 세션 ID가 변경된 세션은 이전 ID 문서 삭제도 함께 넣는다.
+     *     저장 이후 문서의 버전은 bulk write 결과에 따라 달라지므로 알 수 없는 버전으로 표시한다.
+     * </pre>
+     */
+    private void enqueueChanges(MongoSession session) {
+        PendingWrite pendingWrite = capture(session);
+        if(pendingWrite == null) {
+            return;
+        }
+
+        if(session instanceof DirtyTrackingMongoSession trackedSession) {
+            if(trackedSession.hasChangedId()) {
+                enqueue(PendingWrite.removal(trackedSession.getPersistedId()));
+            }
+
+            trackedSession.markPersisted();
+            trackedSession.setPersistedVersion(DirtyTrackingMongoSession.UNKNOWN_VERSION);
+        }
+
+        enqueue(pendingWrite);
+    }
+
+    private void enqueue(PendingWrite pendingWrite) {
+        this.pendingWrites.merge(pendingWrite.id(), pendingWrite, (older, newer) -> {
+            this.coalescedCount.increment();
+            return older.merge(newer);
+        });
+
+        int pendingCount = this.pendingWrites.size();
+        if(pendingCount >= this.maxPendingSessions) {
+            this.callerRunsCount.increment();
+            flush();
+        } else if(pendingCount >= this.maxBatchSize) {
+            this.flushSignal.offer(Boolean.TRUE);
+        }
+    }
+
+    private void flushLoop() {
+        while(this.running) {
+            try {
+                this.flushSignal.poll(this.flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+                flush();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch(RuntimeException e) {
+                logger.error("session write-behind flush failed (store : {}, pending : {})", this.storeName, this.pendingWrites.size(), e);
+            }
+        }
+    }
+
+    /**
+     * <pre>
+     *     대기 목록에서 최대 maxBatchSize 개를 꺼내 저장 중 목록으로 옮긴다.
+     *     조회 시 어느 한쪽에서는 변경이 보이도록 저장 중 목록에 먼저 넣고 대기 목록에서 제거한다.
+     * </pre>
+     */
+    private List<PendingWrite> takeBatch() {
+        List<PendingWrite> batch = new ArrayList<>(Math.min(this.maxBatchSize, this.pendingWrites.size()));
+        for(Map.Entry<String, PendingWrite> entry : this.pendingWrites.entrySet()) {
+            if(batch.size() == this.maxBatchSize) {
+                break;
+            }
+
+            PendingWrite pendingWrite = entry.getValue();
+            this.inFlightWrites.put(entry.getKey(), pendingWrite);
+            if(this.pendingWrites.remove(entry.getKey(), pendingWrite)) {
+                batch.add(pendingWrite);
+            } else {
+                // 꺼내는 사이에 새 변경이 합쳐진 세션은 다음 batch에서 저장한다.
+                this.inFlightWrites.remove(entry.getKey(), pendingWrite);
+            }
+        }
+
+        return batch;
+    }
+
+    private void write(List<PendingWrite> batch) {
+        long start = System.nanoTime();
+
+        try {
+            countDropped(batch, execute(batch));
+        } catch(RuntimeException e) {
+            // 실패한 변경보다 이후에 들어온 변경이 우선하도록 대기 중인 변경 앞에 합친다.
+            for(PendingWrite pendingWrite : batch) {
+                this.pendingWrites.merge(pendingWrite.id(), pendingWrite, (newer, failed) -> failed.merge(newer));
+                this.inFlightWrites.remove(pendingWrite.id(), pendingWrite);
+            }
+
+            record(this.errorTimer, start);
+            throw e;
+        }
+
+        for(PendingWrite pendingWrite : batch) {
+            this.inFlightWrites.remove(pendingWrite.id(), pendingWrite);
+        }
+
+        record(this.successTimer, start);
+        if(this.batchSizeSummary != null) {
+            this.batchSizeSummary.record(batch.size());
+        }
+    }
+
+    private BulkWriteResult execute(List<PendingWrite> batch) {
+        BulkOperations bulkOperations = this.mongoOperations.bulkOps(BulkOperations.BulkMode.ORDERED, this.collectionName);
+        for(PendingWrite pendingWrite : batch) {
+            pendingWrite.addTo(bulkOperations, this.mongoSessionConverter);
+        }
+
+        return bulkOperations.execute();
+    }
+
+    /**
+     * <pre>
+     *     갱신할 문서가 없어 버려진 부분 갱신 수를 기록한다.
+     *     다른 노드에서 삭제(로그아웃, 사용자 세션 일괄 삭제, 만료 세션 정리)된 세션을 다시 만들지 않도록 부분 갱신은 upsert 하지 않는다.
+     *     bulk write 결과는 건별 결과를 주지 않으므로 갱신된 문서 수로 계산한다.
+     * </pre>
+     */
+    private void countDropped(List<PendingWrite> batch, BulkWriteResult bulkWriteResult) {
+        if(!bulkWriteResult.wasAcknowledged()) {
+            return;
+        }
+
+        int fullDocumentCount = 0;
+        int partialCount = 0;
+        for(PendingWrite pendingWrite : batch) {
+            if(pendingWrite.fullDocument()) {
+                fullDocumentCount++;
+            } else if(!pendingWrite.removed()) {
+                partialCount++;
+            }
+        }
+
+        // 전체 문서 upsert는 문서가 있으면 matched, 없으면 upserts로 집계된다.
+        int matchedPartialCount = bulkWriteResult.getMatchedCount() - (fullDocumentCount - bulkWriteResult.getUpserts().size());
+        if(matchedPartialCount < partialCount) {
+            this.droppedCount.add(partialCount - matchedPartialCount);
+        }
+    }
+
+    /**
+     * <pre>
+     *     저장된 상태 이후의 변경을 캡처한다. 새 세션, 세션 ID가 변경된 세션은 전체 속성을 캡처한다.
+     *     허용 구간 안에서 마지막 접근 시각만 바뀐 저장은 생략한다. ({@link DeltaMongoSessionRepository#isThrottledTouch(DirtyTrackingMongoSession, double)})
+     * </pre>
+     *
+     * @return 저장할 변경이 없으면 null.
+     */
+    PendingWrite capture(MongoSession session) {
+        DirtyTrackingMongoSession trackedSession = (session instanceof DirtyTrackingMongoSession tracked) ? tracked : null;
+        boolean fullDocument = trackedSession == null || !trackedSession.isPersisted() || trackedSession.hasChangedId();
+        if(!fullDocument) {
+            if(DeltaMongoSessionRepository.isThrottledTouch(trackedSession, this.touchThrottleRatio)) {
+                // 저장된 상태로 표시하지 않아야 다음 저장에서 마지막으로 저장된 접근 시각 기준으로 경과 시간을 계산한다.
+                this.skippedTouchCount.increment();
+                trackedSession.markTouchSkipped();
+                return null;
+            }
+
+            if(trackedSession.getDirtyAttributeNames().isEmpty()
+                    && !trackedSession.isLastAccessedTimeChanged()
+                    && !trackedSession.isMaxInactiveIntervalChanged()) {
+
+                return null;
+            }
+        }
+
+        Map<String, byte[]> attributes = new LinkedHashMap<>();
+        for(String attributeName : fullDocument ? session.getAttributeNames() : trackedSession.getDirtyAttributeNames()) {
+            attributes.put(attributeName, attributeBytesOf(session, attributeName));
+        }
+
+        // 전체 문서도 저장 이후 변경된 속성의 저장 시각만 기록한다. 함께 변경된 속성은 같은 저장 시각을 가진다.
+        Date savedTime = new Date();
+        Map<String, Date> attributeTimes = new LinkedHashMap<>();
+        if(trackedSession != null) {
+            for(String attributeName : trackedSession.getDirtyAttributeNames()) {
+                attributeTimes.put(attributeName, savedTime);
+            }
+        }
+
+        // 다른 요청이 변경한 principal을 덮어쓰지 않도록 principal 속성이 변경된 경우에만 갱신한다.
+        boolean principalChanged = fullDocument || trackedSession.getDirtyAttributeNames().stream()
+                .anyMatch(this.mongoSessionConverter::isPrincipalAttribute);
+
+        return new PendingWrite(session.getId()
+                , false
+                , fullDocument
+                , attributes
+                , attributeTimes
+                , Date.from(session.getCreationTime())
+                , Date.from(session.getLastAccessedTime())
+                , session.getMaxInactiveInterval().toString()
+                , fullDocument || trackedSession.isMaxInactiveIntervalChanged()
+                , session.getExpireAt()
+                , principalChanged
+                , principalChanged ? this.mongoSessionConverter.principalOf(session) : null);
+    }
+
+    /**
+     * <pre>
+     *     속성의 저장 형식 값. 삭제된 속성은 null.
+     *     변경되지 않은 속성은 역직렬화 하지 않고 저장된 형식 그대로 사용한다.
+     * </pre>
+     */
+    private byte[] attributeBytesOf(MongoSession session, String attributeName) {
+        DirtyTrackingMongoSession trackedSession = (session instanceof DirtyTrackingMongoSession tracked) ? tracked : null;
+        byte[] attributeBytes = (trackedSession != null) ? trackedSession.getPersistedAttributeBytes(attributeName) : null;
+        if(attributeBytes == null) {
+            Object attributeValue = session.getAttribute(attributeName);
+            attributeBytes = (attributeValue != null) ? this.mongoSessionConverter.serializeAttribute(attributeName, attributeValue) : null;
+        }
+
+        if(trackedSession != null) {
+            trackedSession.updatePersistedAttributeBytes(attributeName, attributeBytes);
+        }
+
+        return attributeBytes;
+    }
+
+    private static void record(Timer timer, long start) {
+        if(timer != null) {
+            timer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * <pre>
+     *     세션 하나의 저장 대기 중인 변경.
+     *
+     *     removed : 문서 삭제 (세션 ID 변경 전 ID, 저장 중 삭제된 세션)
+     *     fullDocument : 전체 문서 upsert. attributes에 모든 속성을 가진다.
+     *     attributes : 속성명별 저장 형식 값. null이면 속성 삭제.
+     *     attributeTimes : 속성명별 저장 시각(attrTs). 삭제된 속성도 저장 시각을 가진다.
+     *     maxInactiveIntervalChanged : 최대 비활성 시간 변경 여부. 변경한 경우 마지막 접근 시각, 만료 시각을 합치지 않고 그대로 저장한다.
+     * </pre>
+     */
+    record PendingWrite(String id
+            , boolean removed
+            , boolean fullDocument
+            , Map<String, byte[]> attributes
+            , Map<String, Date> attributeTimes
+            , Date creationTime
+            , Date lastAccessedTime
+            , String maxInactiveInterval
+            , boolean maxInactiveIntervalChanged
+            , Date expireAt
+            , boolean principalChanged
+            , String principal) {
+
+        static PendingWrite removal(String id) {
+            return new PendingWrite(id, true, false, Map.of(), Map.of(), null, null, null, false, null, false, null);
+        }
+
+        /**
+         * <pre>
+         *     이전 변경(this)에 이후 변경(newer)을 합친다. 속성은 속성별로 이후 값이 우선하고, 저장 시각은 남은 값의 저장 시각을 사용한다.
+         *     마지막 접근 시각, 만료 시각은 최대 비활성 시간을 변경한 경우가 아니면 늦은 값을 유지한다.
+         * </pre>
+         */
+        PendingWrite merge(PendingWrite newer) {
+            if(newer.removed || newer.fullDocument) {
+                return newer;
+            }
+
+            // 삭제된 문서에 대한 부분 갱신은 적용되지 않으므로 삭제만 남긴다.
+            if(this.removed) {
+                return this;
+            }
+
+            Map<String, byte[]> attributes = new LinkedHashMap<>(this.attributes);
+            attributes.putAll(newer.attributes);
+
+            Map<String, Date> attributeTimes = new LinkedHashMap<>(this.attributeTimes);
+            attributeTimes.putAll(newer.attributeTimes);
+
+            return new PendingWrite(this.id
+                    , false
+                    , this.fullDocument
+                    , attributes
+                    , attributeTimes
+                    , this.creationTime
+                    , later(this.lastAccessedTime, newer.lastAccessedTime)
+                    , newer.maxInactiveIntervalChanged ? newer.maxInactiveInterval : this.maxInactiveInterval
+                    , this.maxInactiveIntervalChanged || newer.maxInactiveIntervalChanged
+                    , newer.maxInactiveIntervalChanged ? newer.expireAt : later(this.expireAt, newer.expireAt)
+                    , this.principalChanged || newer.principalChanged
+                    , newer.principalChanged ? newer.principal : this.principal);
+        }
+
+        /**
+         * <pre>
+         *     저장된 문서에 변경을 적용한 문서. 조회 시 사용한다.
+         *     부분 갱신은 bulk write와 같이 저장 시각이 늦은 속성만 적용하고 마지막 접근 시각, 만료 시각은 늦은 값을 유지한다.
+         * </pre>
+         *
+         * @param document 저장된 문서. 없으면 null.
+         * @return 적용 결과 문서가 없으면(삭제, 없는 문서에 대한 부분 갱신) null.
+         */
+        Document applyTo(Document document) {
+            if(this.removed || (document == null && !this.fullDocument)) {
+                return null;
+            }
+
+            Document applied = this.fullDocument ? new Document(PerAttributeMongoSessionConverter.ID, this.id) : new Document(document);
+            Document attributes = (!this.fullDocument && document.get(PerAttributeMongoSessionConverter.ATTRIBUTES) instanceof Document persisted)
+                    ? new Document(persisted) : new Document();
+            Document attributeTimes = (!this.fullDocument && document.get(PerAttributeMongoSessionConverter.ATTRIBUTE_TIMES) instanceof Document persisted)
+                    ? new Document(persisted) : new Document();
+
+            for(Map.Entry<String, byte[]> attribute : this.attributes.entrySet()) {
+                String attributeName = PerAttributeMongoSessionConverter.coverDot(attribute.getKey());
+                Date savedTime = this.attributeTimes.get(attribute.getKey());
+                if(savedTime != null && attributeTimes.get(attributeName) instanceof Date persistedTime && !savedTime.after(persistedTime)) {
+                    continue;
+                }
+
+                if(attribute.getValue() == null) {
+                    attributes.remove(attributeName);
+                } else {
+                    attributes.put(attributeName, attribute.getValue());
+                }
+
+                if(savedTime != null) {
+                    attributeTimes.put(attributeName, savedTime);
+                }
+            }
+
+            if(this.fullDocument) {
+                applied.put(PerAttributeMongoSessionConverter.CREATION_TIME, this.creationTime);
+            }
+
+            if(this.principalChanged) {
+                applied.put(PerAttributeMongoSessionConverter.PRINCIPAL, this.principal);
+            }
+
+            if(this.fullDocument || this.maxInactiveIntervalChanged) {
+                applied.put(PerAttributeMongoSessionConverter.MAX_INTERVAL, this.maxInactiveInterval);
+                applied.put(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, this.lastAccessedTime);
+                applied.put(PerAttributeMongoSessionConverter.EXPIRE_AT, this.expireAt);
+            } else {
+                applied.put(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, later(this.lastAccessedTime, document.get(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME)));
+                applied.put(PerAttributeMongoSessionConverter.EXPIRE_AT, later(this.expireAt, document.get(PerAttributeMongoSessionConverter.EXPIRE_AT)));
+            }
+
+            applied.put(PerAttributeMongoSessionConverter.ATTRIBUTES, attributes);
+            applied.put(PerAttributeMongoSessionConverter.ATTRIBUTE_TIMES, attributeTimes);
+
+            return applied;
+        }
+
+        /**
+         * <pre>
+         *     bulk write에 변경을 추가한다.
+         *     부분 갱신은 {@link DeltaMongoSessionRepository.MergeUpdate}로 다른 노드의 변경과 속성 단위로 합치고 upsert 하지 않는다.
+         *     (문서가 없으면 다른 노드에서 삭제된 세션이므로 다시 만들지 않는다.)
+         * </pre>
+         */
+        void addTo(BulkOperations bulkOperations, PerAttributeMongoSessionConverter mongoSessionConverter) {
+            Query query = Query.query(Criteria.where(PerAttributeMongoSessionConverter.ID).is(this.id));
+            if(this.removed) {
+                bulkOperations.remove(query);
+                return;
+            }
+
+            if(!this.fullDocument) {
+                DeltaMongoSessionRepository.MergeUpdate mergeUpdate = new DeltaMongoSessionRepository.MergeUpdate(mongoSessionConverter);
+                this.attributes.forEach((attributeName, attributeBytes) -> mergeUpdate.attribute(attributeName
+                        , attributeBytes
+                        , this.attributeTimes.get(attributeName)
+                        , this.principal));
+
+                if(this.maxInactiveIntervalChanged) {
+                    mergeUpdate.maxInactiveInterval(this.maxInactiveInterval, this.lastAccessedTime, this.expireAt);
+                } else {
+                    mergeUpdate.lastAccessedTime(this.lastAccessedTime, this.expireAt);
+                }
+
+                bulkOperations.updateOne(query, mergeUpdate.toUpdate());
+                return;
+            }
+
+            Document attributes = new Document();
+            this.attributes.forEach((attributeName, attributeBytes) -> {
+                if(attributeBytes != null) {
+                    attributes.put(PerAttributeMongoSessionConverter.coverDot(attributeName), attributeBytes);
+                }
+            });
+
+            // 이전 문서의 저장 시각이 남으면 이 값보다 먼저 저장된 다른 노드의 변경이 이 값을 덮어쓸 수 있으므로 전체를 교체한다.
+            Document attributeTimes = new Document();
+            this.attributeTimes.forEach((attributeName, savedTime) -> attributeTimes.put(PerAttributeMongoSessionConverter.coverDot(attributeName), savedTime));
+
+            Update update = new Update()
+                    .set(PerAttributeMongoSessionConverter.CREATION_TIME, this.creationTime)
+                    .set(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, this.lastAccessedTime)
+                    .set(PerAttributeMongoSessionConverter.MAX_INTERVAL, this.maxInactiveInterval)
+                    .set(PerAttributeMongoSessionConverter.EXPIRE_AT, this.expireAt)
+                    .set(PerAttributeMongoSessionConverter.PRINCIPAL, this.principal)
+                    .set(PerAttributeMongoSessionConverter.ATTRIBUTES, attributes)
+                    .set(PerAttributeMongoSessionConverter.ATTRIBUTE_TIMES, attributeTimes)
+                    .unset(PerAttributeMongoSessionConverter.LEGACY_ATTRIBUTES)
+                    .inc(PerAttributeMongoSessionConverter.VERSION, 1);
+            bulkOperations.upsert(query, update);
+        }
+
+        /**
+         * <pre>
+         *     두 시각 중 늦은 시각. 한쪽이 없으면 다른 쪽.
+         * </pre>
+         */
+        private static Date later(Date time, Object other) {
+            if(!(other instanceof Date otherTime)) {
+                return time;
+            }
+
+            return (time == null || otherTime.after(time)) ? otherTime : time;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.springframework.session.web.http;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.session.data.mongo.ReadPreferenceMongoSessionRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * <pre>
+ *     세션 쓰기 시각을 세션 ID와 함께 클라이언트에 전달하고, 요청의 쓰기 시각을 세션 조회에 전달하는 필터.
+ *     ({@link ReadPreferenceMongoSessionRepository})
+ *
+ *     요청의 {@value #HEADER_NAME} 헤더 값(마지막 쓰기 시각, epoch millis)보다 오래된 세션은 primary에서 다시 조회하고,
+ *     요청에서 세션을 저장했으면 응답의 {@value #HEADER_NAME} 헤더로 쓰기 시각을 전달한다.
+ *     클라이언트는 X-Auth-Token과 같이 마지막으로 받은 값을 다음 요청에 보낸다.
+ *     세션 ID를 {@value #SESSION_HEADER_NAME} 헤더로 보내지 않은 요청(쿠키)은 쓰기 시각을 전달받지 못하므로 쓰기 시각이 없는 요청으로 처리한다. (primary 조회)
+ *
+ *     세션은 {@link SessionRepositoryFilter}가 응답이 커밋될 때(혹은 필터 체인이 끝난 뒤) 저장하므로
+ *     해당 필터는 {@link SessionRepositoryFilter} 앞에 두고, 응답이 커밋되기 직전에 헤더를 추가한다.
+ *     ({@link OnCommittedResponseWrapper}는 package-private이므로 같은 패키지에 둔다.)
+ * </pre>
+ */
+public class SessionWriteTimestampFilter extends OncePerRequestFilter {
+    public static final String HEADER_NAME = "X-Auth-Token-Ts";
+    public static final String SESSION_HEADER_NAME = "X-Auth-Token";
+    public static final int DEFAULT_ORDER = SessionRepositoryFilter.DEFAULT_ORDER - 1;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ReadPreferenceMongoSessionRepository.beginRequest(readAfterMillisOf(request));
+        try {
+            WriteTimestampResponseWrapper wrappedResponse = new WriteTimestampResponseWrapper(response);
+            filterChain.doFilter(request, wrappedResponse);
+
+            // 응답이 커밋되지 않은 채 필터 체인이 끝나면 SessionRepositoryFilter가 필터 체인 마지막에 세션을 저장한다.
+            wrappedResponse.writeTimestamp();
+        } finally {
+            ReadPreferenceMongoSessionRepository.endRequest();
+        }
+    }
+
+    /**
+     * <pre>
+     *     세션 ID 헤더와 쓰기 시각 헤더를 모두 보낸 요청의 쓰기 시각. 그 외 요청은 0.
+     * </pre>
+     */
+    static long readAfterMillisOf(HttpServletRequest request) {
+        String sessionId = request.getHeader(SESSION_HEADER_NAME);
+        if(sessionId == null || sessionId.isBlank()) {
+            return 0L;
+        }
+
+        return parseWriteTimestamp(request.getHeader(HEADER_NAME));
+    }
+
+    static long parseWriteTimestamp(String headerValue) {
+        if(headerValue == null || headerValue.isBlank()) {
+            return 0L;
+        }
+
+        try {
+            return Long.parseLong(headerValue.trim());
+        } catch(NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static final class WriteTimestampResponseWrapper extends OnCommittedResponseWrapper {
+        private boolean written;
+
+        private WriteTimestampResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeTimestamp();
+        }
+
+        private void writeTimestamp() {
+            if(this.written || isCommitted()) {
+                return;
+            }
+
+            long lastWriteMillis = ReadPreferenceMongoSessionRepository.lastWriteMillis();
+            if(lastWriteMillis > 0) {
+                setHeader(HEADER_NAME, Long.toString(lastWriteMillis));
+                this.written = true;
+            }
+        }
+    }
+}
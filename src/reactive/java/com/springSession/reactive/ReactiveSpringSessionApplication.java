@@ -0,0 +1,22 @@
+package com.springSession.reactive;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * <pre>
+ *     {@link com.springSession.SpringSessionApplication}과 같은 세션 API를 WebFlux(Netty)로 제공하는 애플리케이션.
+ *     서블릿 애플리케이션과 설정 파일이 겹치지 않도록 reactive-application.yml을 사용한다.
+ *
+ *     ./gradlew bootRunReactive
+ * </pre>
+ */
+@SpringBootApplication
+public class ReactiveSpringSessionApplication {
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(ReactiveSpringSessionApplication.class)
+				.properties("spring.config.name=reactive-application")
+				.run(args);
+	}
+}
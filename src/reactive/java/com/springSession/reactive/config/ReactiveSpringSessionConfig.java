@@ -0,0 +1,172 @@
+package com.springSession.reactive.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCredential;
+import com.mongodb.ServerAddress;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.entity.CompositionMember;
+import com.springSession.repository.SessionRepositoryImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.session.data.mongo.MongoIndexedSessionRepository;
+import org.springframework.session.data.mongo.PerAttributeMongoSessionConverter;
+import org.springframework.session.data.mongo.ReactiveMongoSessionRepository;
+import org.springframework.session.data.mongo.config.annotation.web.reactive.EnableMongoWebSession;
+import org.springframework.session.data.mongo.config.annotation.web.reactive.ReactiveMongoWebSessionConfiguration;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.session.CookieWebSessionIdResolver;
+import org.springframework.web.server.session.HeaderWebSessionIdResolver;
+import org.springframework.web.server.session.WebSessionIdResolver;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * <pre>
+ *     Spring Session(MongoDB) WebFlux 설정
+ *
+ *     서블릿 애플리케이션의 {@link com.springSession.config.SpringSessionConfig}와 같은 MongoDB 컬렉션, 같은 세션 문서 형식을 사용하므로
+ *     두 애플리케이션이 같은 세션을 읽고 쓸 수 있다.
+ *     단, 서블릿 애플리케이션의 쿠키 값은 Base64로 인코딩 되므로 두 애플리케이션 간에는 헤더(X-Auth-Token)로 세션 ID를 전달한다.
+ *
+ *     {@link EnableMongoWebSession}은 {@link ReactiveMongoWebSessionConfiguration}을 등록하며
+ *     {@link ReactiveMongoSessionRepository}가 {@link ReactiveMongoOperations} Bean으로 세션을 저장한다.
+ *     {@link org.springframework.web.server.session.WebSessionManager}는 {@link WebSessionIdResolver} Bean으로 세션 ID를 제어한다.
+ * </pre>
+ */
+@Configuration
+@EnableMongoWebSession(maxInactiveIntervalInSeconds = MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL
+        , collectionName = MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME)
+public class ReactiveSpringSessionConfig {
+    private final String host;
+    private final int port;
+    private final String userName;
+    private final String password;
+    private final String authDatabase;
+
+    public ReactiveSpringSessionConfig(@Value("${spring.mongodb.host}")String host
+            , @Value("${spring.mongodb.port}")int port
+            , @Value("${spring.mongodb.username}")String userName
+            , @Value("${spring.mongodb.password}")String password
+            , @Value("${spring.mongodb.auth-database}")String authDatabase) {
+
+        this.host = host;
+        this.port = port;
+        this.userName = userName;
+        this.password = password;
+        this.authDatabase = authDatabase;
+    }
+
+    /**
+     * <pre>
+     *     세션 ID 제어 Resolver. 서블릿 애플리케이션과 동일하게 헤더(X-Auth-Token)를 우선 사용하고 없으면 쿠키를 사용한다.
+     * </pre>
+     */
+    @Bean
+    public WebSessionIdResolver webSessionIdResolver() {
+        return new HybridWebSessionIdResolver();
+    }
+
+    @Bean
+    public MongoClient sessionReactiveMongoClient() {
+        MongoCredential credential = MongoCredential.createCredential(this.userName
+                , this.authDatabase
+                , this.password.toCharArray());
+
+        MongoClientSettings settings = MongoClientSettings.builder().credential(credential)
+                .applyToClusterSettings(builder -> builder
+                        .hosts(List.of(new ServerAddress(this.host, this.port))))
+                .build();
+
+        return MongoClients.create(settings);
+    }
+
+    @Bean
+    public ReactiveMongoOperations sessionReactiveMongoTemplate(MongoClient sessionReactiveMongoClient) {
+        ReactiveMongoTemplate mongoTemplate = new ReactiveMongoTemplate(sessionReactiveMongoClient, "Session");
+        ((MappingMongoConverter) mongoTemplate.getConverter()).setTypeMapper(new DefaultMongoTypeMapper(null));
+
+        return mongoTemplate;
+    }
+
+    /**
+     * <pre>
+     *     서블릿 애플리케이션과 같은 Codec, 같은 속성별 필드 형식으로 세션을 저장한다.
+     * </pre>
+     */
+    @Bean
+    public CompactAttributeCodec compactAttributeCodec() {
+        return new CompactAttributeCodec()
+                .register(1, CompositionMember.class);
+    }
+
+    @Bean
+    public PerAttributeMongoSessionConverter mongoSessionConverter(CompactAttributeCodec compactAttributeCodec) {
+        return new PerAttributeMongoSessionConverter(compactAttributeCodec::encode
+                , compactAttributeCodec::decode
+                , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL));
+    }
+
+    /**
+     * <pre>
+     *     회원 ID로 색인하는 회원 저장소. 설정은 서블릿 애플리케이션과 같다. ({@link com.springSession.config.WebConfig})
+     * </pre>
+     */
+    @Bean
+    public SessionRepositoryImpl<CompositionMember> sessionRepositoryImpl(CompactAttributeCodec compactAttributeCodec
+            , @Value("${session.member-store.maximum-size:100000}") long maximumSize
+            , @Value("${session.member-store.off-heap:false}") boolean offHeap) {
+
+        if(!offHeap) {
+            return new SessionRepositoryImpl<>(CompositionMember::id, maximumSize);
+        }
+
+        return new SessionRepositoryImpl<>(CompositionMember::id
+                , maximumSize
+                , compactAttributeCodec::encode
+                , bytes -> (CompositionMember) compactAttributeCodec.decode(bytes));
+    }
+
+    /**
+     * <pre>
+     *     {@link WebSessionIdResolver} 구현체로 세션 ID를 헤더/쿠키 두 군데에 관리하기 위한 구현체.
+     * </pre>
+     */
+    static class HybridWebSessionIdResolver implements WebSessionIdResolver {
+        private final HeaderWebSessionIdResolver headerWebSessionIdResolver = new HeaderWebSessionIdResolver();
+        private final CookieWebSessionIdResolver cookieWebSessionIdResolver = new CookieWebSessionIdResolver();
+
+        HybridWebSessionIdResolver() {
+            this.headerWebSessionIdResolver.setHeaderName("X-Auth-Token");
+        }
+
+        @Override
+        public List<String> resolveSessionIds(ServerWebExchange exchange) {
+            List<String> headerSessionIds = this.headerWebSessionIdResolver.resolveSessionIds(exchange);
+            if(!headerSessionIds.isEmpty()) {
+                return headerSessionIds;
+            }
+
+            return this.cookieWebSessionIdResolver.resolveSessionIds(exchange);
+        }
+
+        @Override
+        public void setSessionId(ServerWebExchange exchange, String sessionId) {
+            this.headerWebSessionIdResolver.setSessionId(exchange, sessionId);
+            this.cookieWebSessionIdResolver.setSessionId(exchange, sessionId);
+        }
+
+        @Override
+        public void expireSession(ServerWebExchange exchange) {
+            this.headerWebSessionIdResolver.expireSession(exchange);
+            this.cookieWebSessionIdResolver.expireSession(exchange);
+        }
+    }
+}
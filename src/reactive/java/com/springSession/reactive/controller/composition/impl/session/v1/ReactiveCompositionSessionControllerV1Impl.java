@@ -0,0 +1,67 @@
+package com.springSession.reactive.controller.composition.impl.session.v1;
+
+import com.springSession.entity.CompositionMember;
+import com.springSession.entity.SessionInfo;
+import com.springSession.reactive.controller.composition.interfaces.session.command.v1.ReactiveCompositionSessionCommandControllerV1;
+import com.springSession.reactive.controller.composition.interfaces.session.read.v1.ReactiveCompositionSessionReadControllerV1;
+import com.springSession.repository.SessionRepositoryImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Mono;
+
+/**
+ * <pre>
+ *     {@link com.springSession.controller.composition.impl.session.v1.CompositionSessionControllerV1Impl}와 같은 경로, 같은 동작의 WebFlux 구현체.
+ *     요청의 세션은 {@link org.springframework.web.context.request.RequestContextHolder} 대신 {@link WebSession} 인자로 주입 받는다.
+ * </pre>
+ */
+@RestController
+@RequestMapping("/composition/v1/session")
+public class ReactiveCompositionSessionControllerV1Impl implements ReactiveCompositionSessionReadControllerV1
+        , ReactiveCompositionSessionCommandControllerV1 {
+
+    private final static Logger logger = LoggerFactory.getLogger(ReactiveCompositionSessionControllerV1Impl.class);
+
+    private final SessionRepositoryImpl<CompositionMember> sessionRepositoryImpl;
+
+    public ReactiveCompositionSessionControllerV1Impl(SessionRepositoryImpl<CompositionMember> sessionRepositoryImpl) {
+        this.sessionRepositoryImpl = sessionRepositoryImpl;
+    }
+
+    @Override
+    public Mono<SessionInfo> initSession(WebSession session) {
+        // 속성이 없는 세션은 저장되지 않으므로 명시적으로 시작한다.
+        session.start();
+        logger.info("init Session Id : {}", session.getId());
+
+        return Mono.just(new SessionInfo(session.getId()));
+    }
+
+    @Override
+    public Mono<CompositionMember> findSessionData(WebSession session) {
+        logger.info("findSessionData Session Id: {}", session.getId());
+
+        return Mono.just(new CompositionMember(session.getRequiredAttribute("id").toString()
+                , session.getRequiredAttribute("password").toString()
+                , session.getRequiredAttribute("phoneNumber").toString()));
+    }
+
+    @Override
+    public Mono<Boolean> join(CompositionMember compositionMember, WebSession session) {
+        this.sessionRepositoryImpl.save(compositionMember);
+
+        logger.info("join Session Id: {}", session.getId());
+
+        session.getAttributes().put("id", compositionMember.id());
+        session.getAttributes().put("password", compositionMember.password());
+        session.getAttributes().put("phoneNumber", compositionMember.phoneNumber());
+        // 회원 ID로 세션을 조회/일괄 삭제할 수 있도록 principal 인덱스에 저장한다.
+        session.getAttributes().put(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, compositionMember.id());
+
+        return Mono.just(true);
+    }
+}
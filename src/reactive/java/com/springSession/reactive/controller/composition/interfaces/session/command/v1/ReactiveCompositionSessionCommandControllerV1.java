@@ -0,0 +1,13 @@
+package com.springSession.reactive.controller.composition.interfaces.session.command.v1;
+
+import com.springSession.entity.CompositionMember;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCompositionSessionCommandControllerV1 {
+
+    @PostMapping
+    Mono<Boolean> join(@RequestBody CompositionMember compositionMember, WebSession session);
+}
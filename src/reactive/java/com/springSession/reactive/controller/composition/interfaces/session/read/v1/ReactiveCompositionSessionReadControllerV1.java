@@ -0,0 +1,16 @@
+package com.springSession.reactive.controller.composition.interfaces.session.read.v1;
+
+import com.springSession.entity.CompositionMember;
+import com.springSession.entity.SessionInfo;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCompositionSessionReadControllerV1 {
+
+    @GetMapping("/init")
+    Mono<SessionInfo> initSession(WebSession session);
+
+    @GetMapping()
+    Mono<CompositionMember> findSessionData(WebSession session);
+}
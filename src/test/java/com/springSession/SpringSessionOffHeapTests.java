@@ -0,0 +1,68 @@
+package com.springSession;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springSession.entity.CompositionMember;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.data.mongo.OffHeapMongoSessionRepository;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * <pre>
+ *     MongoDB 없이(session.store=offheap) 애플리케이션을 실행하는 테스트. CI에서 mongod 없이 실행한다.
+ * </pre>
+ */
+@SpringBootTest(properties = "session.store=" + OffHeapMongoSessionRepository.STORE_NAME)
+@AutoConfigureMockMvc
+public class SpringSessionOffHeapTests {
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private FindByIndexNameSessionRepository<? extends Session> sessionRepository;
+
+    @Test
+    @DisplayName("[off-heap 세션] 세션 저장소로 off-heap 저장소를 사용")
+    void offHeapSessionTest_1() {
+        // given, when, then
+        Assertions.assertInstanceOf(OffHeapMongoSessionRepository.class, this.sessionRepository);
+    }
+
+    @Test
+    @DisplayName("[off-heap 세션] 세션 데이터 저장(join) 후 같은 세션으로 조회(findSessionData), principal로 세션 조회")
+    void offHeapSessionTest_2() throws Exception {
+        // given
+        CompositionMember compositionMember = new CompositionMember("sinnake", "password!", "01012341234");
+        MockHttpServletResponse response = this.mockMvc.perform(post("/composition/v1/session")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(this.objectMapper.writeValueAsString(compositionMember)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        String springSessionHeaderToken = response.getHeader("X-Auth-Token");
+
+        // when
+        response = this.mockMvc.perform(get("/composition/v1/session")
+                        .header("X-Auth-Token", springSessionHeaderToken))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        CompositionMember respCompositionMember = this.objectMapper.readValue(response.getContentAsString(), CompositionMember.class);
+
+        // then
+        Assertions.assertEquals(compositionMember, respCompositionMember);
+        Assertions.assertTrue(this.sessionRepository.findByPrincipalName(compositionMember.id()).containsKey(springSessionHeaderToken));
+    }
+}
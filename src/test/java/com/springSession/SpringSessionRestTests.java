@@ -12,22 +12,34 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.data.mongo.PerAttributeMongoSessionConverter;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = {"session.document-format=" + PerAttributeMongoSessionConverter.DOCUMENT_FORMAT, "session.delta-save.enabled=true"})
 @AutoConfigureMockMvc
 public class SpringSessionRestTests {
     private final static Logger logger = LoggerFactory.getLogger(SpringSessionRestTests.class);
 
     @Autowired private MockMvc mockMvc;
     @Autowired private ObjectMapper objectMapper;
+    @Autowired private FindByIndexNameSessionRepository<? extends Session> sessionRepository;
 
     @Test
     @DisplayName("[스프링 세션] 세션 생성 및 세션 ID 조회")
@@ -124,4 +136,118 @@ public class SpringSessionRestTests {
                 && compositionMember.password().equals(respCompositionMember.password())
                 && compositionMember.phoneNumber().equals(respCompositionMember.phoneNumber()));
     }
+
+    @Test
+    @DisplayName("[스프링 세션] 같은 세션으로 동시에 세션 데이터 저장(join), 조회(findSessionData)")
+    void springSessionRest_5() throws Exception {
+        // given
+        final int REQUEST_COUNT = 200;
+        CompositionMember compositionMember = new CompositionMember("sinnake", "password!", "01012341234");
+        MockHttpServletResponse response = mockMvc.perform(post("/composition/v1/session")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsString(compositionMember)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        String springSessionHeaderToken = response.getHeader("X-Auth-Token");
+
+        Set<CompositionMember> members = new HashSet<>();
+        members.add(compositionMember);
+
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for(int i = 0; i < REQUEST_COUNT; i++) {
+            CompositionMember joinMember = new CompositionMember("sinnake-" + i, "password-" + i, "010" + (10000000 + i));
+            members.add(joinMember);
+
+            requests.add(() -> mockMvc.perform(post("/composition/v1/session")
+                            .header("X-Auth-Token", springSessionHeaderToken)
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(joinMember)))
+                    .andReturn()
+                    .getResponse()
+                    .getStatus());
+            requests.add(() -> mockMvc.perform(get("/composition/v1/session")
+                            .header("X-Auth-Token", springSessionHeaderToken))
+                    .andReturn()
+                    .getResponse()
+                    .getStatus());
+        }
+
+        // when
+        List<Integer> statuses = new ArrayList<>();
+        try(ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(Future<Integer> future : executorService.invokeAll(requests)) {
+                statuses.add(future.get());
+            }
+        }
+
+        response = mockMvc.perform(get("/composition/v1/session")
+                        .header("X-Auth-Token", springSessionHeaderToken))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        CompositionMember respCompositionMember = this.objectMapper.readValue(response.getContentAsString(), CompositionMember.class);
+        Session session = this.sessionRepository.findById(springSessionHeaderToken);
+        String principalName = session.getAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME);
+        logger.info("response : {}, principal : {}", respCompositionMember, principalName);
+
+        // then
+        Assertions.assertTrue(statuses.stream().allMatch(responseStatus -> responseStatus == 200));
+        // 한 요청이 변경한 속성은 같은 저장 시각으로 함께 반영되므로 여러 요청의 값이 섞이지 않고 어느 한 요청의 회원 정보가 남는다.
+        Assertions.assertTrue(members.contains(respCompositionMember));
+        // principal 필드는 마지막으로 반영된 principal 속성과 같아야 한다.
+        Assertions.assertTrue(this.sessionRepository.findByPrincipalName(principalName).containsKey(springSessionHeaderToken));
+    }
+
+    @Test
+    @DisplayName("[스프링 세션] 같은 세션으로 동시에 서로 다른 속성을 변경한 요청은 모두 반영됨")
+    void springSessionRest_6() throws Exception {
+        // given
+        final int REQUEST_COUNT = 100;
+
+        MockHttpServletResponse response = mockMvc.perform(get("/composition/v1/session/init"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        String springSessionHeaderToken = response.getHeader("X-Auth-Token");
+
+        // 요청마다 세션을 조회하고 자신의 속성 하나만 변경하여 저장한다. (모두 같은 버전의 세션을 읽고 저장할 수 있다.)
+        List<Callable<Boolean>> requests = new ArrayList<>();
+        for(int i = 0; i < REQUEST_COUNT; i++) {
+            String attributeName = "attr-" + i;
+            String attributeValue = "value-" + i;
+            requests.add(() -> setAttribute(this.sessionRepository, springSessionHeaderToken, attributeName, attributeValue));
+        }
+
+        // when
+        List<Boolean> saved = new ArrayList<>();
+        try(ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(Future<Boolean> future : executorService.invokeAll(requests)) {
+                saved.add(future.get());
+            }
+        }
+
+        Session session = this.sessionRepository.findById(springSessionHeaderToken);
+
+        // then
+        Assertions.assertTrue(saved.stream().allMatch(Boolean::booleanValue));
+        for(int i = 0; i < REQUEST_COUNT; i++) {
+            Assertions.assertEquals("value-" + i, session.getAttribute("attr-" + i), "attr-" + i);
+        }
+    }
+
+    private static <S extends Session> boolean setAttribute(FindByIndexNameSessionRepository<S> sessionRepository, String sessionId, String attributeName, String attributeValue) {
+        S session = sessionRepository.findById(sessionId);
+        if(session == null) {
+            return false;
+        }
+
+        session.setAttribute(attributeName, attributeValue);
+        sessionRepository.save(session);
+
+        return true;
+    }
 }
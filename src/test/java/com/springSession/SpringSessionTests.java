@@ -9,11 +9,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.session.Session;
+import org.springframework.session.data.mongo.PerAttributeMongoSessionConverter;
 import org.springframework.session.data.mongo.TestMongoSession;
 
 import java.util.Set;
 
-@SpringBootTest
+@SpringBootTest(properties = {"session.document-format=" + PerAttributeMongoSessionConverter.DOCUMENT_FORMAT, "session.delta-save.enabled=true"})
 public class SpringSessionTests {
     private static final Logger logger = LoggerFactory.getLogger(SpringSessionTests.class);
 
@@ -55,4 +56,34 @@ public class SpringSessionTests {
         // then
         Assertions.assertEquals(session.getAttribute(SESSION_NAME), SESSION_VALUE);
     }
+
+    @Test
+    @DisplayName("스프링 세션 저장 후 변경된 속성만 저장(delta save), 조회")
+    void sessionTest_3() {
+        // given
+        final String SESSION_NAME = "SESSION_NAME";
+        final String SESSION_VALUE = "SESSION_VALUE";
+        final String CHANGED_SESSION_NAME = "CHANGED_SESSION_NAME";
+        final String CHANGED_SESSION_VALUE = "CHANGED_SESSION_VALUE";
+
+        String sessionId = this.mongoIndexedSessionRepository.createSession().getId();
+
+        TestMongoSession testMongoSession = new TestMongoSession(sessionId);
+        testMongoSession.setAttribute(SESSION_NAME, SESSION_VALUE);
+
+        this.mongoIndexedSessionRepository.save(testMongoSession.getMongoSession());
+
+        // when
+        Session session = this.mongoIndexedSessionRepository.findById(sessionId);
+        session.removeAttribute(SESSION_NAME);
+        session.setAttribute(CHANGED_SESSION_NAME, CHANGED_SESSION_VALUE);
+
+        this.mongoIndexedSessionRepository.save(session);
+
+        Session changedSession = this.mongoIndexedSessionRepository.findById(sessionId);
+
+        // then
+        Assertions.assertNull(changedSession.getAttribute(SESSION_NAME));
+        Assertions.assertEquals(changedSession.getAttribute(CHANGED_SESSION_NAME), CHANGED_SESSION_VALUE);
+    }
 }
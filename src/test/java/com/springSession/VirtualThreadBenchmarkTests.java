@@ -0,0 +1,117 @@
+package com.springSession;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ *     요청 처리 스레드 방식에 따른 세션 조회/저장 처리량 비교.
+ *
+ *     플랫폼 스레드 : Tomcat 기본 최대 스레드 수(200)와 같은 고정 크기 스레드 풀
+ *     가상 스레드  : 요청마다 가상 스레드 (spring.threads.virtual.enabled=true일 때 Tomcat이 요청을 처리하는 방식)
+ *
+ *     세션 저장소를 직접 호출하여 스레드 방식만 비교하므로 Tomcat 설정(spring.threads.virtual.enabled)은 사용하지 않는다.
+ *     두 방식 모두 같은 횟수만큼 준비(warm up) 한 뒤 측정하며, 가상 스레드 처리량이 플랫폼 스레드 처리량의
+ *     {@value #MINIMUM_VIRTUAL_THROUGHPUT_RATIO}배 이상인지 확인한다. (세션 처리 경로의 고정(pinning) 등으로 처리량이 떨어지지 않는지)
+ *
+ *     MongoDB가 필요하고 시간이 오래 걸리므로 기본 test 태스크에서는 제외되며 benchmark 태스크로 실행한다.
+ *     ./gradlew benchmark
+ * </pre>
+ */
+@Tag("benchmark")
+@SpringBootTest
+public class VirtualThreadBenchmarkTests {
+    private final static Logger logger = LoggerFactory.getLogger(VirtualThreadBenchmarkTests.class);
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final int CONCURRENT_REQUESTS = 2_000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final double MINIMUM_VIRTUAL_THROUGHPUT_RATIO = 0.8;
+
+    @Autowired FindByIndexNameSessionRepository<? extends Session> sessionRepository;
+
+    @Test
+    @DisplayName("동시 요청 2,000개에서 플랫폼 스레드 대비 가상 스레드 세션 조회/저장 처리량 비교")
+    void benchmarkTest_1() throws Exception {
+        // given
+        List<String> sessionIds = createSessions(this.sessionRepository);
+
+        // 드라이버 커넥션 풀, JIT, 가상 스레드 스케줄러(carrier 스레드) 준비
+        run(this.sessionRepository, Executors.newFixedThreadPool(PLATFORM_THREADS), sessionIds);
+        run(this.sessionRepository, Executors.newVirtualThreadPerTaskExecutor(), sessionIds);
+
+        // when
+        double platformThroughput = run(this.sessionRepository, Executors.newFixedThreadPool(PLATFORM_THREADS), sessionIds);
+        double virtualThroughput = run(this.sessionRepository, Executors.newVirtualThreadPerTaskExecutor(), sessionIds);
+
+        // then
+        logger.info("platform threads({}) : {} req/s | virtual threads : {} req/s"
+                , PLATFORM_THREADS, String.format("%.0f", platformThroughput), String.format("%.0f", virtualThroughput));
+
+        Assertions.assertTrue(virtualThroughput >= platformThroughput * MINIMUM_VIRTUAL_THROUGHPUT_RATIO
+                , String.format("virtual threads %.0f req/s < platform threads %.0f req/s * %.1f", virtualThroughput, platformThroughput, MINIMUM_VIRTUAL_THROUGHPUT_RATIO));
+    }
+
+    private <S extends Session> List<String> createSessions(FindByIndexNameSessionRepository<S> sessionRepository) {
+        List<String> sessionIds = new ArrayList<>();
+        for(int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            S session = sessionRepository.createSession();
+            session.setAttribute("SESSION_NAME", "SESSION_VALUE");
+            sessionRepository.save(session);
+            sessionIds.add(session.getId());
+        }
+
+        return sessionIds;
+    }
+
+    /**
+     * <pre>
+     *     동시 요청마다 세션 조회 -> 속성 변경 -> 저장을 반복하고 초당 처리 요청 수를 반환한다.
+     * </pre>
+     */
+    private <S extends Session> double run(FindByIndexNameSessionRepository<S> sessionRepository
+            , ExecutorService executorService
+            , List<String> sessionIds) throws Exception {
+
+        AtomicInteger completed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try(executorService) {
+            for(String sessionId : sessionIds) {
+                futures.add(executorService.submit(() -> {
+                    for(int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        S session = sessionRepository.findById(sessionId);
+                        session.setAttribute("REQUEST_COUNT", i);
+                        sessionRepository.save(session);
+                        completed.incrementAndGet();
+                    }
+                }));
+            }
+
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        Assertions.assertEquals(CONCURRENT_REQUESTS * REQUESTS_PER_CLIENT, completed.get());
+
+        return completed.get() / (elapsedNanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,115 @@
+package com.springSession.codec;
+
+import com.springSession.entity.CompositionMember;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CompactAttributeCodecTests {
+    private final static Logger logger = LoggerFactory.getLogger(CompactAttributeCodecTests.class);
+
+    private final CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+            .register(1, CompositionMember.class)
+            .register(2, SerializableMember.class);
+
+    private final SerializingConverter serializingConverter = new SerializingConverter();
+    private final DeserializingConverter deserializingConverter = new DeserializingConverter();
+
+    @Test
+    @DisplayName("Codec 인코딩 후 디코딩")
+    void codecTest_1() {
+        // given
+        List<Object> values = new ArrayList<>();
+        values.add(null);
+        values.add("sinnake");
+        values.add(Integer.MIN_VALUE);
+        values.add(Long.MAX_VALUE);
+        values.add(3.14d);
+        values.add(Boolean.TRUE);
+        values.add(new ArrayList<>(List.of("a", 1, 2L)));
+        values.add(new LinkedHashMap<>(Map.of("member", new CompositionMember("sinnake", "password!", "01012341234"))));
+        values.add(new CompositionMember("sinnake", "password!", "01012341234"));
+        values.add(java.math.BigDecimal.TEN);
+
+        for(Object value : values) {
+            // when
+            Object decoded = this.compactAttributeCodec.decode(this.compactAttributeCodec.encode(value));
+
+            // then
+            Assertions.assertEquals(value, decoded);
+        }
+    }
+
+    @Test
+    @DisplayName("JDK 직렬화로 저장된 값 디코딩")
+    void codecTest_2() {
+        // given
+        SerializableMember member = new SerializableMember("sinnake", "password!", "01012341234");
+        byte[] jdkSerialized = this.serializingConverter.convert(member);
+
+        // when
+        Object decoded = this.compactAttributeCodec.decode(jdkSerialized);
+
+        // then
+        Assertions.assertEquals(member, decoded);
+    }
+
+    @Test
+    @DisplayName("JDK 직렬화 대비 크기, 인코딩/디코딩 시간 비교")
+    void codecTest_3() {
+        // given
+        final int ITERATIONS = 100_000;
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("string", "01012341234");
+        values.put("long", System.currentTimeMillis());
+        values.put("record", new SerializableMember("sinnake", "password!", "01012341234"));
+        values.put("list", new ArrayList<>(List.of("ROLE_USER", "ROLE_ADMIN")));
+
+        for(Map.Entry<String, Object> entry : values.entrySet()) {
+            // when
+            byte[] compact = this.compactAttributeCodec.encode(entry.getValue());
+            byte[] jdk = this.serializingConverter.convert(entry.getValue());
+
+            long compactNanos = measure(ITERATIONS, () -> this.compactAttributeCodec.decode(this.compactAttributeCodec.encode(entry.getValue())));
+            long jdkNanos = measure(ITERATIONS, () -> this.deserializingConverter.convert(this.serializingConverter.convert(entry.getValue())));
+
+            logger.info("{} : compact {} bytes, {} ns/op | jdk {} bytes, {} ns/op"
+                    , entry.getKey(), compact.length, compactNanos / ITERATIONS, jdk.length, jdkNanos / ITERATIONS);
+
+            // then
+            Assertions.assertTrue(compact.length < jdk.length);
+        }
+    }
+
+    /**
+     * <pre>
+     *     JDK 직렬화와 비교하기 위한 {@link CompositionMember}와 같은 형태의 Serializable record.
+     * </pre>
+     */
+    record SerializableMember(String id, String password, String phoneNumber) implements Serializable {
+    }
+
+    private static long measure(int iterations, Runnable runnable) {
+        // JIT 컴파일 전 측정을 피하기 위해 같은 횟수만큼 먼저 실행한다.
+        for(int i = 0; i < iterations; i++) {
+            runnable.run();
+        }
+
+        long start = System.nanoTime();
+        for(int i = 0; i < iterations; i++) {
+            runnable.run();
+        }
+
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,80 @@
+package com.springSession.codec;
+
+import com.springSession.entity.CompositionMember;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CompressingAttributeCodecTests {
+    private final static Logger logger = LoggerFactory.getLogger(CompressingAttributeCodecTests.class);
+
+    private final CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+            .register(1, CompositionMember.class);
+
+    @Test
+    @DisplayName("threshold 이상인 값만 사전으로 압축하고 압축하지 않은 값과 함께 디코딩")
+    void compressionTest_1() {
+        // given
+        List<byte[]> samples = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            samples.add(this.compactAttributeCodec.encode(members(i * 3, 3)));
+        }
+
+        byte[] dictionary = CompressingAttributeCodec.trainDictionary(samples, 4096);
+        CompressingAttributeCodec withoutDictionary = new CompressingAttributeCodec(64, null, List.of());
+        CompressingAttributeCodec withDictionary = new CompressingAttributeCodec(64, dictionary, List.of());
+
+        byte[] small = this.compactAttributeCodec.encode(new CompositionMember("sinnake", "password!", "01012341234"));
+        byte[] large = this.compactAttributeCodec.encode(members(1000, 3));
+
+        // when
+        byte[] encodedSmall = withDictionary.encode(small);
+        byte[] compressed = withoutDictionary.encode(large);
+        byte[] compressedWithDictionary = withDictionary.encode(large);
+
+        logger.info("raw : {} byte, compressed : {} byte, compressed with dictionary : {} byte"
+                , large.length, compressed.length, compressedWithDictionary.length);
+
+        // then
+        Assertions.assertSame(small, encodedSmall);
+        Assertions.assertEquals(CompressingAttributeCodec.COMPRESSED, compressedWithDictionary[0]);
+        Assertions.assertTrue(compressedWithDictionary.length < compressed.length);
+        Assertions.assertEquals(members(1000, 3), this.compactAttributeCodec.decode(withDictionary.decode(compressedWithDictionary)));
+        Assertions.assertSame(small, withDictionary.decode(small));
+        Assertions.assertTrue(withDictionary.compressionRatio() < 1.0);
+    }
+
+    @Test
+    @DisplayName("사전 교체 후 이전 사전으로 압축된 값 디코딩")
+    void compressionTest_2() {
+        // given
+        byte[] previousDictionary = CompressingAttributeCodec.trainDictionary(List.of(this.compactAttributeCodec.encode(members(0, 3))
+                , this.compactAttributeCodec.encode(members(100, 3))), 4096);
+        byte[] dictionary = CompressingAttributeCodec.trainDictionary(List.of(this.compactAttributeCodec.encode(members(200, 3))
+                , this.compactAttributeCodec.encode(members(300, 3))), 4096);
+
+        byte[] large = this.compactAttributeCodec.encode(members(1000, 3));
+        byte[] compressed = new CompressingAttributeCodec(64, previousDictionary, List.of()).encode(large);
+
+        // when
+        byte[] decoded = new CompressingAttributeCodec(64, dictionary, List.of(previousDictionary)).decode(compressed);
+
+        // then
+        Assertions.assertArrayEquals(large, decoded);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CompressingAttributeCodec(64, dictionary, List.of()).decode(compressed));
+    }
+
+    private static ArrayList<CompositionMember> members(int start, int count) {
+        ArrayList<CompositionMember> members = new ArrayList<>();
+        for(int i = start; i < start + count; i++) {
+            members.add(new CompositionMember("member-" + i, "password-" + i + "!", "010" + (10000000 + i)));
+        }
+
+        return members;
+    }
+}
@@ -0,0 +1,83 @@
+package com.springSession.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.session.web.http.CookieHttpSessionIdResolver;
+
+import java.util.Base64;
+import java.util.List;
+
+public class HybridHttpSessionIdResolverTests {
+    private final SpringSessionConfig.HybridHttpSessionIdResolver httpSessionIdResolver = new SpringSessionConfig.HybridHttpSessionIdResolver();
+
+    @Test
+    @DisplayName("헤더로 세션 ID를 보낸 클라이언트에게는 새 세션 ID를 헤더로만 전달")
+    void resolverTest_1() {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Auth-Token", "expired-session-id");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        this.httpSessionIdResolver.setSessionId(request, response, "new-session-id");
+
+        // then
+        Assertions.assertEquals("new-session-id", response.getHeader("X-Auth-Token"));
+        Assertions.assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+
+    @Test
+    @DisplayName("쿠키로 세션 ID를 보낸 클라이언트에게 같은 세션 ID는 다시 전달하지 않음")
+    void resolverTest_2() {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("other", "value")
+                , new Cookie("SESSION", Base64.getEncoder().encodeToString("session-id".getBytes())));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        List<String> sessionIds = this.httpSessionIdResolver.resolveSessionIds(request);
+        this.httpSessionIdResolver.setSessionId(request, response, "session-id");
+
+        // then
+        Assertions.assertEquals(List.of("session-id"), sessionIds);
+        Assertions.assertNull(response.getHeader("X-Auth-Token"));
+        Assertions.assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+
+    @Test
+    @DisplayName("Cookie 헤더에서 SESSION 쿠키 값만 찾아 디코딩")
+    void resolverTest_3() {
+        // given
+        String encoded = Base64.getEncoder().encodeToString("session-id".getBytes());
+
+        // when, then
+        Assertions.assertEquals(List.of("session-id"), SpringSessionConfig.HybridHttpSessionIdResolver.sessionCookieValues("a=1; SESSION=" + encoded + "; b=2"));
+        Assertions.assertEquals(List.of("session-id"), SpringSessionConfig.HybridHttpSessionIdResolver.sessionCookieValues("SESSION=\"" + encoded + "\""));
+        Assertions.assertEquals(List.of(), SpringSessionConfig.HybridHttpSessionIdResolver.sessionCookieValues("MY_SESSION=" + encoded));
+        Assertions.assertEquals(List.of(), SpringSessionConfig.HybridHttpSessionIdResolver.sessionCookieValues("SESSION=not-base64!"));
+        Assertions.assertEquals(List.of(), SpringSessionConfig.HybridHttpSessionIdResolver.sessionCookieValues(null));
+    }
+
+    @Test
+    @DisplayName("SESSION 쿠키가 여러 개면 CookieHttpSessionIdResolver와 같이 모든 값을 순서대로 반환")
+    void resolverTest_4() {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("SESSION", Base64.getEncoder().encodeToString("app-session-id".getBytes()))
+                , new Cookie("other", "value")
+                , new Cookie("SESSION", Base64.getEncoder().encodeToString("root-session-id".getBytes())));
+
+        // when
+        List<String> sessionIds = this.httpSessionIdResolver.resolveSessionIds(request);
+
+        // then
+        Assertions.assertEquals(new CookieHttpSessionIdResolver().resolveSessionIds(request), sessionIds);
+        Assertions.assertEquals(List.of("app-session-id", "root-session-id"), sessionIds);
+    }
+}
@@ -0,0 +1,55 @@
+package com.springSession.config;
+
+import com.mongodb.ServerAddress;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class SessionRepositoryChainConfigTests {
+
+    @Test
+    @DisplayName("샤드 노드 목록을 샤드명별 주소로 변환 (포트 생략 시 27017)")
+    void shardNodesTest_1() {
+        // given
+        String[] nodes = {" shard-0=localhost:27017", "shard-1 = mongo-1:27018 ", "shard-2=mongo-2"};
+
+        // when
+        Map<String, ServerAddress> shardAddresses = SpringSessionConfig.SessionRepositoryChainConfig.shardAddressesOf(nodes);
+
+        // then
+        Assertions.assertEquals(List.of("shard-0", "shard-1", "shard-2"), List.copyOf(shardAddresses.keySet()));
+        Assertions.assertEquals(new ServerAddress("localhost", 27017), shardAddresses.get("shard-0"));
+        Assertions.assertEquals(new ServerAddress("mongo-1", 27018), shardAddresses.get("shard-1"));
+        Assertions.assertEquals(new ServerAddress("mongo-2", 27017), shardAddresses.get("shard-2"));
+    }
+
+    @Test
+    @DisplayName("형식이 잘못된 샤드 노드는 해당 노드 설정을 포함한 IllegalArgumentException 발생")
+    void shardNodesTest_2() {
+        // given
+        List<String> invalidNodes = List.of("localhost:27017", "=localhost:27017", "shard-0=", "shard-0=:27017"
+                , "shard-0=localhost:port", "shard-0=localhost:", "shard-0=localhost:70000");
+
+        for(String invalidNode : invalidNodes) {
+            // when
+            IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class
+                    , () -> SpringSessionConfig.SessionRepositoryChainConfig.shardAddressesOf(new String[] {"shard-9=localhost:27017", invalidNode}));
+
+            // then
+            Assertions.assertTrue(exception.getMessage().endsWith(" : " + invalidNode), exception.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("같은 샤드명을 두 번 설정하면 IllegalArgumentException 발생")
+    void shardNodesTest_3() {
+        // given
+        String[] nodes = {"shard-0=localhost:27017", "shard-0=mongo-1:27017"};
+
+        // when, then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SpringSessionConfig.SessionRepositoryChainConfig.shardAddressesOf(nodes));
+    }
+}
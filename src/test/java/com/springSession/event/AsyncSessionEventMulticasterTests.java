@@ -0,0 +1,103 @@
+package com.springSession.event;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.session.MapSession;
+import org.springframework.session.events.SessionCreatedEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncSessionEventMulticasterTests {
+
+    @Test
+    @DisplayName("세션 이벤트를 요청 스레드가 아닌 별도 스레드에서 묶어서 전달")
+    void multicasterTest_1() throws InterruptedException {
+        // given
+        final int EVENT_COUNT = 1_000;
+        AsyncSessionEventMulticaster multicaster = new AsyncSessionEventMulticaster(EVENT_COUNT, 64, Duration.ofMillis(10));
+        multicaster.start();
+
+        CountDownLatch latch = new CountDownLatch(EVENT_COUNT);
+        List<Thread> listenerThreads = new CopyOnWriteArrayList<>();
+        List<SessionEventRequestSnapshot> snapshots = new CopyOnWriteArrayList<>();
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        multicaster.addApplicationListener((ApplicationListener<SessionCreatedEvent>) event -> {
+            listenerThreads.add(Thread.currentThread());
+            snapshots.add(SessionEventRequestSnapshot.current());
+            latch.countDown();
+        });
+        multicaster.addApplicationListener((ApplicationListener<SessionEventBatch>) batch -> batchSizes.add(batch.getEntries().size()));
+
+        // when
+        for(int i = 0; i < EVENT_COUNT; i++) {
+            multicaster.multicastEvent(new SessionCreatedEvent(this, new MapSession()));
+        }
+
+        // then
+        Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        multicaster.stop();
+
+        Assertions.assertTrue(listenerThreads.stream().noneMatch(thread -> thread == Thread.currentThread()));
+        Assertions.assertTrue(snapshots.stream().noneMatch(SessionEventRequestSnapshot::isPresent));
+        Assertions.assertEquals(EVENT_COUNT, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        Assertions.assertTrue(batchSizes.stream().allMatch(size -> size <= 64));
+    }
+
+    @Test
+    @DisplayName("시작 전과 중지 후에는 세션 이벤트를 이벤트를 발생시킨 스레드에서 전달")
+    void multicasterTest_2() {
+        // given
+        AsyncSessionEventMulticaster multicaster = new AsyncSessionEventMulticaster(16, 16, Duration.ofMillis(10));
+
+        List<Thread> listenerThreads = new CopyOnWriteArrayList<>();
+        multicaster.addApplicationListener((ApplicationListener<SessionCreatedEvent>) event -> listenerThreads.add(Thread.currentThread()));
+
+        // when
+        multicaster.multicastEvent(new SessionCreatedEvent(this, new MapSession()));
+        multicaster.start();
+        multicaster.stop();
+        multicaster.multicastEvent(new SessionCreatedEvent(this, new MapSession()));
+
+        // then
+        Assertions.assertFalse(multicaster.isRunning());
+        Assertions.assertEquals(List.of(Thread.currentThread(), Thread.currentThread()), listenerThreads);
+    }
+
+    @Test
+    @DisplayName("세션 이벤트 Listener 예외는 로그만 남기고 다음 Listener에 전달, 세션 이벤트가 아닌 이벤트의 Listener 예외는 전파")
+    void multicasterTest_3() throws InterruptedException {
+        // given
+        AsyncSessionEventMulticaster multicaster = new AsyncSessionEventMulticaster(16, 16, Duration.ofMillis(10));
+        multicaster.start();
+
+        CountDownLatch latch = new CountDownLatch(2);
+        multicaster.addApplicationListener((ApplicationListener<SessionCreatedEvent>) event -> {
+            throw new IllegalStateException("session listener failure");
+        });
+        multicaster.addApplicationListener((ApplicationListener<SessionCreatedEvent>) event -> latch.countDown());
+        multicaster.addApplicationListener((ApplicationListener<ContextRefreshedEvent>) event -> {
+            throw new IllegalStateException("context listener failure");
+        });
+
+        // when
+        multicaster.multicastEvent(new SessionCreatedEvent(this, new MapSession()));
+        multicaster.multicastEvent(new SessionCreatedEvent(this, new MapSession()));
+
+        // then
+        Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(multicaster.isRunning());
+        Assertions.assertThrows(IllegalStateException.class
+                , () -> multicaster.multicastEvent(new ContextRefreshedEvent(new GenericApplicationContext())));
+
+        multicaster.stop();
+    }
+}
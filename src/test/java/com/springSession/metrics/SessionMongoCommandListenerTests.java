@@ -0,0 +1,83 @@
+package com.springSession.metrics;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SessionMongoCommandListenerTests {
+
+    @Test
+    @DisplayName("MongoDB 명령을 세션 연산으로 분류")
+    void commandListenerTest_1() {
+        // given
+        BsonDocument findById = BsonDocument.parse("{find: 'sessions', filter: {_id: 'id'}}");
+        BsonDocument validate = BsonDocument.parse("{find: 'sessions', filter: {_id: 'id'}, projection: {accessed: 1}}");
+        BsonDocument lazyFindById = BsonDocument.parse("{find: 'sessions', filter: {_id: 'id'}, projection: {attrs: 0}}");
+        BsonDocument loadAttributes = BsonDocument.parse("{find: 'sessions', filter: {_id: 'id'}, projection: {attrs: 1}}");
+        BsonDocument findByIndex = BsonDocument.parse("{find: 'sessions', filter: {principal: 'sinnake'}}");
+        BsonDocument update = BsonDocument.parse("{update: 'sessions', updates: []}");
+        BsonDocument delete = BsonDocument.parse("{delete: 'sessions', deletes: []}");
+
+        // when, then
+        Assertions.assertEquals(SessionMongoCommandListener.OPERATION_FIND_BY_ID, SessionMongoCommandListener.operationOf("find", findById));
+        Assertions.assertEquals(SessionMongoCommandListener.OPERATION_VALIDATE, SessionMongoCommandListener.operationOf("find", validate));
+        Assertions.assertEquals(SessionMongoCommandListener.OPERATION_FIND_BY_ID, SessionMongoCommandListener.operationOf("find", lazyFindById));
+        Assertions.assertEquals(SessionMongoCommandListener.OPERATION_LOAD_ATTRIBUTES, SessionMongoCommandListener.operationOf("find", loadAttributes));
+        Assertions.assertEquals(SessionMongoCommandListener.OPERATION_FIND_BY_INDEX, SessionMongoCommandListener.operationOf("find", findByIndex));
+        Assertions.assertEquals(SessionMongoCommandListener.OPERATION_SAVE, SessionMongoCommandListener.operationOf("update", update));
+        Assertions.assertEquals(SessionMongoCommandListener.OPERATION_DELETE, SessionMongoCommandListener.operationOf("delete", delete));
+        Assertions.assertEquals(SessionMongoCommandListener.OPERATION_OTHER, SessionMongoCommandListener.operationOf("createIndexes", new BsonDocument()));
+    }
+
+    @Test
+    @DisplayName("MongoDB 응답으로 결과(outcome) 분류")
+    void commandListenerTest_2() {
+        // given
+        BsonDocument found = BsonDocument.parse("{cursor: {firstBatch: [{_id: 'id'}], id: 0}, ok: 1}");
+        BsonDocument notFound = BsonDocument.parse("{cursor: {firstBatch: [], id: 0}, ok: 1}");
+        BsonDocument updated = BsonDocument.parse("{n: 1, nModified: 1, ok: 1}");
+        BsonDocument notUpdated = BsonDocument.parse("{n: 0, nModified: 0, ok: 1}");
+
+        // when, then
+        Assertions.assertEquals(SessionMongoCommandListener.OUTCOME_SUCCESS, SessionMongoCommandListener.outcomeOf("find", found));
+        Assertions.assertEquals(SessionMongoCommandListener.OUTCOME_NOT_FOUND, SessionMongoCommandListener.outcomeOf("find", notFound));
+        Assertions.assertEquals(SessionMongoCommandListener.OUTCOME_SUCCESS, SessionMongoCommandListener.outcomeOf("update", updated));
+        Assertions.assertEquals(SessionMongoCommandListener.OUTCOME_NOT_FOUND, SessionMongoCommandListener.outcomeOf("update", notUpdated));
+    }
+
+    @Test
+    @DisplayName("드라이버 버퍼의 BSON 길이로 크기를 기록하고 같은 연산의 Meter는 재사용")
+    void commandListenerTest_3() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SessionMongoCommandListener commandListener = new SessionMongoCommandListener(meterRegistry, "default");
+        ConnectionDescription connectionDescription = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+        RawBsonDocument findById = RawBsonDocument.parse("{find: 'sessions', filter: {_id: 'id'}}");
+        RawBsonDocument found = RawBsonDocument.parse("{cursor: {firstBatch: [{_id: 'id'}], id: 0}, ok: 1}");
+
+        // when
+        for(int requestId = 1; requestId <= 2; requestId++) {
+            commandListener.commandStarted(new CommandStartedEvent(null, requestId, requestId, connectionDescription, "Session", "find", findById));
+            commandListener.commandSucceeded(new CommandSucceededEvent(null, requestId, requestId, connectionDescription, "Session", "find", found, 1_000L));
+        }
+
+        // then
+        DistributionSummary request = meterRegistry.get("session.store.payload").tag("direction", "request").summary();
+        DistributionSummary response = meterRegistry.get("session.store.payload").tag("direction", "response").summary();
+        Assertions.assertEquals(2, request.count());
+        Assertions.assertEquals(2.0 * findById.getByteBuffer().remaining(), request.totalAmount());
+        Assertions.assertEquals(2.0 * found.getByteBuffer().remaining(), response.totalAmount());
+        Assertions.assertEquals(2, meterRegistry.get("session.store.payload").summaries().size());
+        Assertions.assertEquals(2, meterRegistry.get("session.store.operation").timer().count());
+    }
+}
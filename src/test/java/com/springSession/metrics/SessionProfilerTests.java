@@ -0,0 +1,65 @@
+package com.springSession.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class SessionProfilerTests {
+
+    @Test
+    @DisplayName("고정된 개수만 보관해도 누적 크기가 큰 속성명이 상위에 남음")
+    void profilerTest_1() {
+        // given
+        SpaceSavingSketch sketch = new SpaceSavingSketch(8);
+
+        // when
+        for(int i = 0; i < 1000; i++) {
+            sketch.add("member", 4096);
+            sketch.add("cart", 1024);
+            sketch.add("attribute-" + i, 16);
+        }
+
+        // then
+        List<SpaceSavingSketch.Entry> top = sketch.top(2);
+        Assertions.assertEquals(List.of("member", "cart"), top.stream().map(SpaceSavingSketch.Entry::key).toList());
+        Assertions.assertTrue(top.get(0).estimate() - top.get(0).error() <= 4096L * 1000);
+        Assertions.assertTrue(top.get(0).estimate() >= 4096L * 1000);
+    }
+
+    @Test
+    @DisplayName("문서 크기 히스토그램과 크기가 큰 세션을 세션 ID 접두어(prefix 이후 앞부분)로 기록")
+    void profilerTest_2() {
+        // given
+        SessionProfiler sessionProfiler = new SessionProfiler(1.0, 4, 100);
+
+        // when
+        sessionProfiler.recordAttributeSize("member", 100);
+        sessionProfiler.recordDocument("small-session-id", 1, 120);
+        sessionProfiler.recordAttributeSize("member", 3000);
+        sessionProfiler.recordDocument("large-session-id", 1, 3020);
+        sessionProfiler.recordAttributeSize("member", 1000);
+        sessionProfiler.recordDocument("large-session-id", 1, 1020);
+        sessionProfiler.recordDocument("empty-session-id", 0, 5);
+        sessionProfiler.recordDocument("shard-0.first-session-id", 0, 2000);
+        sessionProfiler.recordDocument("shard-0.second-session-id", 0, 1500);
+
+        SessionProfiler.Profile profile = sessionProfiler.profile(10);
+
+        // then
+        Assertions.assertEquals(6, profile.documentSize().count());
+        Assertions.assertEquals(3020, profile.documentSize().max());
+        Assertions.assertEquals(1023, profile.documentSize().p50());
+        Assertions.assertEquals(3020, profile.documentSize().p99());
+
+        // 샤드 힌트(prefix)가 같은 세션도 prefix 이후 ID로 구분한다.
+        Assertions.assertEquals(List.of("large-se", "shard-0.first-se", "shard-0.second-s", "small-se"), profile.heaviestSessions().stream().map(SpaceSavingSketch.Entry::key).toList());
+        Assertions.assertEquals(3020, profile.heaviestSessions().get(0).estimate());
+
+        SessionProfiler.AttributeSnapshot member = profile.attributes().get(0);
+        Assertions.assertEquals("member", member.name());
+        Assertions.assertEquals(3, member.size().count());
+        Assertions.assertEquals(4100, member.size().total());
+    }
+}
@@ -0,0 +1,47 @@
+package com.springSession.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class VirtualThreadPinningMonitorTests {
+    private final Object monitor = new Object();
+
+    @Test
+    @DisplayName("start() 이후에만 JFR 구독을 시작하여 가상 스레드 고정을 기록하고 stop() 이후에는 구독을 종료")
+    void pinningMonitorTest_1() throws InterruptedException {
+        // given
+        VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10));
+        boolean runningBeforeStart = pinningMonitor.isRunning();
+
+        // when
+        pinningMonitor.start();
+        try {
+            // synchronized 블록 안에서 블로킹 하면 carrier 스레드에 고정된다.
+            Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+
+            for(int i = 0; i < 100 && pinningMonitor.getPinnedCount() == 0; i++) {
+                Thread.sleep(100);
+            }
+        } finally {
+            pinningMonitor.stop();
+        }
+
+        // then
+        Assertions.assertFalse(runningBeforeStart);
+        Assertions.assertTrue(pinningMonitor.getPinnedCount() > 0);
+        Assertions.assertFalse(pinningMonitor.isRunning());
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized(this.monitor) {
+            try {
+                Thread.sleep(50);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.springSession.repository;
+
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.entity.CompositionMember;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.session.data.mongo.OffHeapSessionMemory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SessionRepositoryImplTests {
+
+    @Test
+    @DisplayName("여러 스레드에서 같은 ID로 동시에 저장해도 회원은 ID당 하나만 저장")
+    void memberRepositoryTest_1() throws Exception {
+        // given
+        final int THREAD_COUNT = 16;
+        final int MEMBER_COUNT = 1_000;
+        SessionRepositoryImpl<CompositionMember> repository = new SessionRepositoryImpl<>(CompositionMember::id, 10_000);
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        try(ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT)) {
+            for(int t = 0; t < THREAD_COUNT; t++) {
+                final String phoneNumber = "0101234" + t;
+                futures.add(executorService.submit(() -> {
+                    for(int i = 0; i < MEMBER_COUNT; i++) {
+                        repository.save(new CompositionMember("member-" + i, "password!", phoneNumber));
+                    }
+                }));
+            }
+
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        }
+        repository.cleanUp();
+
+        // then
+        Assertions.assertEquals(MEMBER_COUNT, repository.size());
+        Assertions.assertEquals("member-0", repository.findById("member-0").id());
+        Assertions.assertNull(repository.findById("member-" + MEMBER_COUNT));
+    }
+
+    @Test
+    @DisplayName("off-heap 저장소는 인코딩 된 회원을 디코딩 하여 반환하고 최대 개수를 넘으면 제거")
+    void memberRepositoryTest_2() {
+        // given
+        CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+                .register(1, CompositionMember.class);
+        SessionRepositoryImpl<CompositionMember> repository = new SessionRepositoryImpl<>(CompositionMember::id
+                , 100
+                , compactAttributeCodec::encode
+                , bytes -> (CompositionMember) compactAttributeCodec.decode(bytes)
+                , new OffHeapSessionMemory(64 * 1024, 4 * 1024, 1024 * 1024));
+        CompositionMember compositionMember = new CompositionMember("sinnake", "password!", "01012341234");
+
+        // when
+        repository.save(compositionMember);
+        CompositionMember found = repository.findById("sinnake");
+
+        for(int i = 0; i < 1_000; i++) {
+            repository.save(new CompositionMember("member-" + i, "password!", "01012341234"));
+        }
+        repository.cleanUp();
+
+        // then
+        Assertions.assertTrue(repository.isOffHeap());
+        Assertions.assertEquals(compositionMember, found);
+        Assertions.assertNotSame(compositionMember, found);
+        Assertions.assertTrue(repository.size() <= 100);
+    }
+
+    @Test
+    @DisplayName("off-heap 저장소는 덮어쓰기, 삭제, 제거된 회원의 slot을 재사용하고 동시에 조회해도 다른 회원을 반환하지 않음")
+    void memberRepositoryTest_3() throws Exception {
+        // given
+        final int THREAD_COUNT = 8;
+        final int MEMBER_COUNT = 100;
+        CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+                .register(1, CompositionMember.class);
+        OffHeapSessionMemory memory = new OffHeapSessionMemory(64 * 1024, 4 * 1024, 1024 * 1024);
+        SessionRepositoryImpl<CompositionMember> repository = new SessionRepositoryImpl<>(CompositionMember::id
+                , MEMBER_COUNT
+                , compactAttributeCodec::encode
+                , bytes -> (CompositionMember) compactAttributeCodec.decode(bytes)
+                , memory);
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        try(ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT * 2)) {
+            for(int t = 0; t < THREAD_COUNT; t++) {
+                final String phoneNumber = "0101234" + t;
+                futures.add(executorService.submit(() -> {
+                    for(int i = 0; i < 10_000; i++) {
+                        repository.save(new CompositionMember("member-" + (i % (MEMBER_COUNT * 2)), "password!", phoneNumber));
+                        if(i % 7 == 0) {
+                            repository.deleteById("member-" + (i % MEMBER_COUNT));
+                        }
+                    }
+                }));
+                futures.add(executorService.submit(() -> {
+                    for(int i = 0; i < 10_000; i++) {
+                        String id = "member-" + (i % (MEMBER_COUNT * 2));
+                        CompositionMember found = repository.findById(id);
+                        Assertions.assertTrue(found == null || id.equals(found.id()));
+                    }
+                }));
+            }
+
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        }
+        repository.cleanUp();
+
+        // then
+        // 회원 하나는 최소 slot(64 byte) 하나를 사용하므로 남은 회원 수만큼만 사용 중이어야 한다.
+        Assertions.assertTrue(repository.size() <= MEMBER_COUNT);
+        Assertions.assertEquals(repository.size() * OffHeapSessionMemory.MINIMUM_SLOT_SIZE, memory.getUsedBytes());
+        Assertions.assertEquals(64 * 1024, memory.getReservedBytes());
+    }
+}
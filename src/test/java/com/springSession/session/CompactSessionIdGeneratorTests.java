@@ -0,0 +1,65 @@
+package com.springSession.session;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CompactSessionIdGeneratorTests {
+
+    @Test
+    @DisplayName("여러 스레드에서 동시에 생성한 세션 ID는 128bit Base64 URL 22자이며 중복되지 않음")
+    void idGeneratorTest_1() throws Exception {
+        // given
+        final int THREAD_COUNT = 16;
+        final int ID_COUNT = 10_000;
+        CompactSessionIdGenerator sessionIdGenerator = new CompactSessionIdGenerator();
+        Set<String> sessionIds = ConcurrentHashMap.newKeySet();
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        try(ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(int t = 0; t < THREAD_COUNT; t++) {
+                futures.add(executorService.submit(() -> {
+                    for(int i = 0; i < ID_COUNT; i++) {
+                        sessionIds.add(sessionIdGenerator.generate());
+                    }
+                }));
+            }
+
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        // then
+        Assertions.assertEquals(THREAD_COUNT * ID_COUNT, sessionIds.size());
+        for(String sessionId : sessionIds) {
+            Assertions.assertEquals(22, sessionId.length());
+            Assertions.assertEquals(CompactSessionIdGenerator.ID_BYTES, Base64.getUrlDecoder().decode(sessionId).length);
+        }
+    }
+
+    @Test
+    @DisplayName("prefix를 지정하면 {prefix}.{ID} 형식으로 생성")
+    void idGeneratorTest_2() {
+        // given
+        CompactSessionIdGenerator sessionIdGenerator = new CompactSessionIdGenerator("shard-1");
+
+        // when
+        String sessionId = sessionIdGenerator.generate();
+
+        // then
+        Assertions.assertTrue(sessionId.startsWith("shard-1."));
+        Assertions.assertEquals("shard-1.".length() + 22, sessionId.length());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CompactSessionIdGenerator("shard.1"));
+    }
+}
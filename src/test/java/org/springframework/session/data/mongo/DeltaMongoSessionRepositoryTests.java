@@ -0,0 +1,204 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.client.result.UpdateResult;
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.entity.CompositionMember;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class DeltaMongoSessionRepositoryTests {
+    private static final String COLLECTION_NAME = MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME;
+
+    private final CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+            .register(1, CompositionMember.class);
+    private final PerAttributeMongoSessionConverter mongoSessionConverter = new PerAttributeMongoSessionConverter(this.compactAttributeCodec::encode
+            , this.compactAttributeCodec::decode
+            , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL));
+
+    private final MongoOperations mongoOperations = Mockito.mock(MongoOperations.class);
+
+    @Test
+    @DisplayName("조회 이후 버전이 그대로면 변경 속성과 저장 시각만 저장하고 버전 증가")
+    void deltaTest_1() {
+        // given
+        Mockito.when(this.mongoOperations.updateFirst(ArgumentMatchers.any(Query.class), ArgumentMatchers.any(UpdateDefinition.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        DeltaMongoSessionRepository sessionRepository = newSessionRepository();
+
+        DirtyTrackingMongoSession session = (DirtyTrackingMongoSession) this.mongoSessionConverter.convert(persisted("session-1", 3));
+        session.setAttribute("password", "password!");
+
+        // when
+        sessionRepository.save(session);
+
+        // then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        Mockito.verify(this.mongoOperations, Mockito.times(1)).updateFirst(query.capture(), update.capture(), ArgumentMatchers.eq(COLLECTION_NAME));
+
+        Assertions.assertEquals(3L, query.getValue().getQueryObject().get(PerAttributeMongoSessionConverter.VERSION));
+
+        Document updateObject = ((Update) update.getValue()).getUpdateObject();
+        Document set = updateObject.get("$set", Document.class);
+        Assertions.assertTrue(set.containsKey(this.mongoSessionConverter.attributeFieldName("password")));
+        Assertions.assertTrue(set.containsKey(this.mongoSessionConverter.attributeTimeFieldName("password")));
+        Assertions.assertFalse(set.containsKey(PerAttributeMongoSessionConverter.PRINCIPAL));
+        Assertions.assertEquals(1, updateObject.get("$inc", Document.class).get(PerAttributeMongoSessionConverter.VERSION));
+        Assertions.assertEquals(4L, session.getPersistedVersion());
+    }
+
+    @Test
+    @DisplayName("조회 이후 다른 요청이 저장했으면 변경 속성을 저장 시각 기준으로 서버에서 합쳐서 저장")
+    void deltaTest_2() {
+        // given
+        Mockito.when(this.mongoOperations.updateFirst(ArgumentMatchers.any(Query.class), ArgumentMatchers.any(UpdateDefinition.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null), UpdateResult.acknowledged(1, 1L, null));
+        DeltaMongoSessionRepository sessionRepository = newSessionRepository();
+
+        DirtyTrackingMongoSession session = (DirtyTrackingMongoSession) this.mongoSessionConverter.convert(persisted("session-1", 3));
+        session.setAttribute("phoneNumber", "01012341234");
+
+        // when
+        sessionRepository.save(session);
+
+        // then
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        Mockito.verify(this.mongoOperations, Mockito.times(2)).updateFirst(ArgumentMatchers.any(Query.class), update.capture(), ArgumentMatchers.eq(COLLECTION_NAME));
+
+        AggregationUpdate mergeUpdate = (AggregationUpdate) update.getAllValues().get(1);
+        Document set = mergeUpdate.toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$set", Document.class);
+        Assertions.assertTrue(set.get(this.mongoSessionConverter.attributeFieldName("phoneNumber"), Document.class).containsKey("$cond"));
+        Assertions.assertTrue(set.get(this.mongoSessionConverter.attributeTimeFieldName("phoneNumber"), Document.class).containsKey("$cond"));
+        Assertions.assertFalse(set.containsKey(PerAttributeMongoSessionConverter.PRINCIPAL));
+        Assertions.assertTrue(set.containsKey(PerAttributeMongoSessionConverter.VERSION));
+        Assertions.assertEquals(DirtyTrackingMongoSession.UNKNOWN_VERSION, session.getPersistedVersion());
+        Assertions.assertTrue(session.getDirtyAttributeNames().isEmpty());
+    }
+
+    @Test
+    @DisplayName("허용 구간 안에서 마지막 접근 시각만 바뀌면 저장을 생략하고, 마지막으로 저장된 접근 시각 기준으로 구간이 지나면 저장")
+    void deltaTest_3() {
+        // given
+        Mockito.when(this.mongoOperations.updateFirst(ArgumentMatchers.any(Query.class), ArgumentMatchers.any(UpdateDefinition.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        DeltaMongoSessionRepository sessionRepository = newSessionRepository();
+        // 최대 비활성 시간 30분의 50%, 15분
+        sessionRepository.setTouchThrottleRatio(0.5);
+
+        DirtyTrackingMongoSession session = (DirtyTrackingMongoSession) this.mongoSessionConverter.convert(persisted("session-1", 3));
+        Instant persistedLastAccessedTime = session.getPersistedLastAccessedTime();
+
+        // when
+        session.setLastAccessedTime(persistedLastAccessedTime.plus(Duration.ofMinutes(10)));
+        boolean throttledInWindow = sessionRepository.isThrottledTouch(session);
+        sessionRepository.save(session);
+
+        // 생략된 저장은 저장된 접근 시각을 바꾸지 않으므로 처음 저장된 접근 시각부터 15분이 지나면 저장한다.
+        session.setLastAccessedTime(persistedLastAccessedTime.plus(Duration.ofMinutes(15)));
+        boolean throttledAfterWindow = sessionRepository.isThrottledTouch(session);
+        sessionRepository.save(session);
+
+        // then
+        Assertions.assertTrue(throttledInWindow);
+        Assertions.assertFalse(throttledAfterWindow);
+        Mockito.verify(this.mongoOperations, Mockito.times(1)).updateFirst(ArgumentMatchers.any(Query.class), ArgumentMatchers.any(UpdateDefinition.class), ArgumentMatchers.eq(COLLECTION_NAME));
+        Assertions.assertEquals(persistedLastAccessedTime.plus(Duration.ofMinutes(15)), session.getPersistedLastAccessedTime());
+    }
+
+    @Test
+    @DisplayName("허용 구간 안이어도 속성이나 최대 비활성 시간이 바뀌면 저장")
+    void deltaTest_4() {
+        // given
+        DeltaMongoSessionRepository sessionRepository = newSessionRepository();
+        sessionRepository.setTouchThrottleRatio(0.5);
+
+        DirtyTrackingMongoSession attributeChanged = (DirtyTrackingMongoSession) this.mongoSessionConverter.convert(persisted("session-1", 3));
+        attributeChanged.setLastAccessedTime(attributeChanged.getPersistedLastAccessedTime().plusSeconds(1));
+        attributeChanged.setAttribute("password", "password!");
+
+        DirtyTrackingMongoSession intervalChanged = (DirtyTrackingMongoSession) this.mongoSessionConverter.convert(persisted("session-2", 3));
+        intervalChanged.setLastAccessedTime(intervalChanged.getPersistedLastAccessedTime().plusSeconds(1));
+        intervalChanged.setMaxInactiveInterval(Duration.ofHours(1));
+
+        // when
+        boolean attributeChangedThrottled = sessionRepository.isThrottledTouch(attributeChanged);
+        boolean intervalChangedThrottled = sessionRepository.isThrottledTouch(intervalChanged);
+
+        // then
+        Assertions.assertFalse(attributeChangedThrottled);
+        Assertions.assertFalse(intervalChangedThrottled);
+    }
+
+    @Test
+    @DisplayName("한 번의 저장에서 변경된 속성은 변경 순서와 관계 없이 모두 같은 저장 시각으로 합쳐서 저장")
+    void deltaTest_5() throws InterruptedException {
+        // given
+        Mockito.when(this.mongoOperations.updateFirst(ArgumentMatchers.any(Query.class), ArgumentMatchers.any(UpdateDefinition.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null), UpdateResult.acknowledged(1, 1L, null));
+        DeltaMongoSessionRepository sessionRepository = newSessionRepository();
+
+        DirtyTrackingMongoSession session = (DirtyTrackingMongoSession) this.mongoSessionConverter.convert(persisted("session-1", 3));
+        session.setAttribute("id", "sinnake");
+        Thread.sleep(5L);
+        session.setAttribute("password", "password!");
+        Thread.sleep(5L);
+        session.removeAttribute("phoneNumber");
+
+        // when
+        sessionRepository.save(session);
+
+        // then
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        Mockito.verify(this.mongoOperations, Mockito.times(2)).updateFirst(ArgumentMatchers.any(Query.class), update.capture(), ArgumentMatchers.eq(COLLECTION_NAME));
+
+        Date versionSavedTime = ((Update) update.getAllValues().get(0)).getUpdateObject()
+                .get("$set", Document.class)
+                .get(this.mongoSessionConverter.attributeTimeFieldName("id"), Date.class);
+
+        Document set = ((AggregationUpdate) update.getAllValues().get(1)).toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$set", Document.class);
+        Set<Object> savedTimes = new HashSet<>();
+        for(String attributeName : List.of("id", "password", "phoneNumber")) {
+            List<?> condition = set.get(this.mongoSessionConverter.attributeTimeFieldName(attributeName), Document.class).getList("$cond", Object.class);
+            savedTimes.add(condition.get(1));
+        }
+
+        Assertions.assertEquals(Set.of(versionSavedTime), savedTimes);
+    }
+
+    private DeltaMongoSessionRepository newSessionRepository() {
+        return new DeltaMongoSessionRepository(new ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository()
+                , this.mongoOperations
+                , COLLECTION_NAME
+                , this.mongoSessionConverter);
+    }
+
+    private Document persisted(String id, long version) {
+        Date now = new Date();
+
+        return new Document(PerAttributeMongoSessionConverter.ID, id)
+                .append(PerAttributeMongoSessionConverter.CREATION_TIME, now)
+                .append(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, now)
+                .append(PerAttributeMongoSessionConverter.MAX_INTERVAL, Duration.ofMinutes(30).toString())
+                .append(PerAttributeMongoSessionConverter.EXPIRE_AT, new Date(now.getTime() + Duration.ofMinutes(30).toMillis()))
+                .append(PerAttributeMongoSessionConverter.ATTRIBUTES, new Document("id", this.mongoSessionConverter.serializeAttribute("sinnake")))
+                .append(PerAttributeMongoSessionConverter.VERSION, version);
+    }
+}
@@ -0,0 +1,95 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.client.result.DeleteResult;
+import com.springSession.codec.CompactAttributeCodec;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.session.events.SessionExpiredEvent;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+public class ExpiredSessionSweeperTests {
+    private static final String COLLECTION_NAME = MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME;
+
+    private final CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec();
+    private final PerAttributeMongoSessionConverter mongoSessionConverter = new PerAttributeMongoSessionConverter(this.compactAttributeCodec::encode
+            , this.compactAttributeCodec::decode
+            , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL));
+
+    private final MongoOperations mongoOperations = Mockito.mock(MongoOperations.class);
+    private final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+    private final ExpiredSessionSweeper sweeper = new ExpiredSessionSweeper("default"
+            , this.mongoOperations
+            , COLLECTION_NAME
+            , this.mongoSessionConverter
+            , this.eventPublisher);
+
+    @Test
+    @DisplayName("다른 노드의 lease가 유효하면 만료 세션을 조회하지 않고 정리를 건너뜀")
+    void sweeperTest_1() {
+        // given
+        Mockito.when(this.mongoOperations.findAndModify(ArgumentMatchers.any(Query.class)
+                        , ArgumentMatchers.any(Update.class)
+                        , ArgumentMatchers.any(FindAndModifyOptions.class)
+                        , ArgumentMatchers.eq(Document.class)
+                        , ArgumentMatchers.eq(ExpiredSessionSweeper.LEASE_COLLECTION_NAME)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        // when
+        int expired = this.sweeper.sweep();
+
+        // then
+        Assertions.assertEquals(-1, expired);
+        Mockito.verify(this.mongoOperations, Mockito.never()).find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME));
+        Mockito.verifyNoInteractions(this.eventPublisher);
+    }
+
+    @Test
+    @DisplayName("lease를 획득하면 만료 세션을 삭제하고, 조회 후 연장되어 삭제되지 않은 세션은 SessionExpiredEvent를 발생시키지 않음")
+    void sweeperTest_2() {
+        // given
+        // lease 문서는 요청한 소유자로 갱신된 문서를 반환한다.
+        Mockito.when(this.mongoOperations.findAndModify(ArgumentMatchers.any(Query.class)
+                        , ArgumentMatchers.any(Update.class)
+                        , ArgumentMatchers.any(FindAndModifyOptions.class)
+                        , ArgumentMatchers.eq(Document.class)
+                        , ArgumentMatchers.eq(ExpiredSessionSweeper.LEASE_COLLECTION_NAME)))
+                .thenAnswer(invocation -> new Document(invocation.getArgument(1, Update.class).getUpdateObject().get("$set", Document.class)));
+
+        Mockito.when(this.mongoOperations.find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(List.of(expired("session-1"), expired("session-2")))
+                .thenReturn(List.of(new Document(PerAttributeMongoSessionConverter.ID, "session-2")));
+        Mockito.when(this.mongoOperations.remove(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(DeleteResult.acknowledged(1L));
+
+        // when
+        int expired = this.sweeper.sweep();
+
+        // then
+        Assertions.assertEquals(1, expired);
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(ArgumentMatchers.any(SessionExpiredEvent.class));
+        Mockito.verify(this.mongoOperations, Mockito.times(1)).remove(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(COLLECTION_NAME));
+    }
+
+    private static Document expired(String id) {
+        Date accessed = new Date(System.currentTimeMillis() - Duration.ofHours(1).toMillis());
+
+        return new Document(PerAttributeMongoSessionConverter.ID, id)
+                .append(PerAttributeMongoSessionConverter.CREATION_TIME, accessed)
+                .append(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, accessed)
+                .append(PerAttributeMongoSessionConverter.MAX_INTERVAL, Duration.ofMinutes(30).toString())
+                .append(PerAttributeMongoSessionConverter.EXPIRE_AT, new Date(accessed.getTime() + Duration.ofMinutes(30).toMillis()));
+    }
+}
@@ -0,0 +1,86 @@
+package org.springframework.session.data.mongo;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class HierarchicalTimingWheelTests {
+    private final HierarchicalTimingWheel timingWheel = new HierarchicalTimingWheel(Duration.ofMillis(1), 0L);
+
+    @Test
+    @DisplayName("64 tick, 4,096 tick 경계를 넘는 항목은 상위 단계에서 하위 단계로 다시 배치되어 만료 tick에 정확히 반환됨")
+    void timingWheelTest_1() {
+        // given
+        List<Long> deadlineTicks = List.of(1L, 63L, 64L, 65L, 127L, 128L, 4_095L, 4_096L, 4_097L, 4_160L, 5_000L, 262_143L, 262_144L, 300_000L);
+        for(long deadlineTick : deadlineTicks) {
+            this.timingWheel.schedule("tick-" + deadlineTick, deadlineTick);
+        }
+
+        // when
+        Map<String, Long> dueTicks = advanceTo(300_000L);
+
+        // then
+        Assertions.assertEquals(deadlineTicks.size(), dueTicks.size());
+        for(long deadlineTick : deadlineTicks) {
+            Assertions.assertEquals(deadlineTick, dueTicks.get("tick-" + deadlineTick));
+        }
+    }
+
+    @Test
+    @DisplayName("만료 tick에 반환된 항목을 늘어난 만료 시각으로 다시 등록(lazy re-arm)하면 경계를 넘어 새 만료 tick에 반환됨")
+    void timingWheelTest_2() {
+        // given
+        long deadlineTick = this.timingWheel.schedule("session-1", 100L);
+        this.timingWheel.schedule("session-2", 3_000L);
+
+        // when
+        Map<String, Long> firstDueTicks = advanceTo(3_000L);
+
+        // 만료 시각이 늘어난 세션은 기존 만료 tick에 반환된 뒤 다시 등록된다.
+        long rearmedTick = this.timingWheel.schedule("session-1", 5_000L);
+        long secondRearmedTick = this.timingWheel.schedule("session-2", 4_150L);
+        Map<String, Long> secondDueTicks = advanceTo(6_000L);
+
+        // then
+        Assertions.assertEquals(100L, deadlineTick);
+        Assertions.assertEquals(Map.of("session-1", 100L, "session-2", 3_000L), firstDueTicks);
+        Assertions.assertEquals(5_000L, rearmedTick);
+        Assertions.assertEquals(4_150L, secondRearmedTick);
+        Assertions.assertEquals(Map.of("session-1", 5_000L, "session-2", 4_150L), secondDueTicks);
+    }
+
+    @Test
+    @DisplayName("이미 지난 만료 시각은 다음 tick에 등록")
+    void timingWheelTest_3() {
+        // given
+        advanceTo(5_000L);
+
+        // when
+        long deadlineTick = this.timingWheel.schedule("session-1", 10L);
+
+        // then
+        Assertions.assertEquals(5_001L, deadlineTick);
+        Assertions.assertEquals(Map.of("session-1", 5_001L), advanceTo(5_001L));
+    }
+
+    /**
+     * <pre>
+     *     targetTick까지 tick을 하나씩 처리하고 항목별로 반환된 tick을 기록한다. (이미 처리한 tick은 건너뛴다.)
+     * </pre>
+     */
+    private Map<String, Long> advanceTo(long targetTick) {
+        Map<String, Long> dueTicks = new HashMap<>();
+        for(long tick = 1; tick <= targetTick; tick++) {
+            for(HierarchicalTimingWheel.Item item : this.timingWheel.advance(tick)) {
+                Assertions.assertNull(dueTicks.put(item.key(), tick), item.key() + " returned twice");
+            }
+        }
+
+        return dueTicks;
+    }
+}
@@ -0,0 +1,96 @@
+package org.springframework.session.data.mongo;
+
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.entity.CompositionMember;
+import com.springSession.session.CompactSessionIdGenerator;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+public class LazyMongoSessionRepositoryTests {
+    private static final String COLLECTION_NAME = MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME;
+
+    private final CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+            .register(1, CompositionMember.class);
+    private final PerAttributeMongoSessionConverter mongoSessionConverter = new PerAttributeMongoSessionConverter(this.compactAttributeCodec::encode
+            , this.compactAttributeCodec::decode
+            , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL));
+
+    private final MongoOperations mongoOperations = Mockito.mock(MongoOperations.class);
+
+    @Test
+    @DisplayName("속성을 사용하지 않으면 속성을 제외한 필드만 한 번 조회")
+    void lazyLoadTest_1() {
+        // given
+        Mockito.when(this.mongoOperations.findOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(metadata("session-1"));
+        LazyMongoSessionRepository sessionRepository = newSessionRepository();
+
+        // when
+        MongoSession session = sessionRepository.findById("session-1");
+
+        // then
+        Assertions.assertEquals("session-1", session.getId());
+        Assertions.assertFalse(((DirtyTrackingMongoSession) session).isAttributesLoaded());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(this.mongoOperations, Mockito.times(1)).findOne(query.capture(), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME));
+        Assertions.assertEquals(0, query.getValue().getFieldsObject().get(PerAttributeMongoSessionConverter.ATTRIBUTES));
+    }
+
+    @Test
+    @DisplayName("속성에 처음 접근할 때 속성만 한 번 조회")
+    void lazyLoadTest_2() {
+        // given
+        Document attributes = new Document(PerAttributeMongoSessionConverter.ID, "session-1")
+                .append(PerAttributeMongoSessionConverter.ATTRIBUTES, new Document("id", this.mongoSessionConverter.serializeAttribute("sinnake"))
+                        .append("member", this.mongoSessionConverter.serializeAttribute(new CompositionMember("sinnake", "password!", "01012341234"))));
+        Mockito.when(this.mongoOperations.findOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(metadata("session-1"), attributes);
+        LazyMongoSessionRepository sessionRepository = newSessionRepository();
+
+        // when
+        MongoSession session = sessionRepository.findById("session-1");
+        String id = session.getAttribute("id");
+        CompositionMember member = session.getAttribute("member");
+        session.setAttribute("phoneNumber", "01012341234");
+
+        // then
+        Assertions.assertEquals("sinnake", id);
+        Assertions.assertEquals("password!", member.password());
+        Assertions.assertEquals(List.of("id", "member", "phoneNumber"), session.getAttributeNames().stream().sorted().toList());
+        Assertions.assertEquals(List.of("phoneNumber"), List.copyOf(((DirtyTrackingMongoSession) session).getDirtyAttributeNames()));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(this.mongoOperations, Mockito.times(2)).findOne(query.capture(), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME));
+        Assertions.assertEquals(1, query.getAllValues().get(1).getFieldsObject().get(PerAttributeMongoSessionConverter.ATTRIBUTES));
+    }
+
+    private LazyMongoSessionRepository newSessionRepository() {
+        return new LazyMongoSessionRepository(new ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository()
+                , this.mongoOperations
+                , COLLECTION_NAME
+                , this.mongoSessionConverter
+                , new CompactSessionIdGenerator());
+    }
+
+    private static Document metadata(String id) {
+        Date now = new Date();
+
+        return new Document(PerAttributeMongoSessionConverter.ID, id)
+                .append(PerAttributeMongoSessionConverter.CREATION_TIME, now)
+                .append(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, now)
+                .append(PerAttributeMongoSessionConverter.MAX_INTERVAL, Duration.ofMinutes(30).toString())
+                .append(PerAttributeMongoSessionConverter.EXPIRE_AT, new Date(now.getTime() + Duration.ofMinutes(30).toMillis()));
+    }
+}
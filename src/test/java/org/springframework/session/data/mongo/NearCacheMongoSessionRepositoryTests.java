@@ -0,0 +1,156 @@
+package org.springframework.session.data.mongo;
+
+import com.springSession.session.CompactSessionIdGenerator;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.Date;
+
+public class NearCacheMongoSessionRepositoryTests {
+    private static final String COLLECTION_NAME = MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME;
+
+    private final MongoOperations mongoOperations = Mockito.mock(MongoOperations.class);
+    private final ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository delegate = new ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository();
+    private final NearCacheMongoSessionRepository sessionRepository = new NearCacheMongoSessionRepository(this.delegate
+            , this.mongoOperations
+            , COLLECTION_NAME
+            , 1024 * 1024);
+
+    @Test
+    @DisplayName("MongoDB의 버전이 같으면 캐시된 세션의 복사본을 반환하고, 마지막 접근 시각이 같아도 버전이 다르면 캐시를 무효화하고 다시 조회")
+    void nearCacheTest_1() {
+        // given
+        Instant accessed = Instant.now();
+        DirtyTrackingMongoSession session = new DirtyTrackingMongoSession("session-1", MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+        session.setLastAccessedTime(accessed);
+        session.setAttribute("id", "sinnake");
+        session.setPersistedVersion(3L);
+        this.sessionRepository.save(session);
+
+        // 다른 노드가 속성만 합쳐서 저장 (마지막 접근 시각은 늦은 값을 유지하므로 그대로)
+        MongoSession changed = new MongoSession("session-1", MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+        changed.setLastAccessedTime(accessed);
+        changed.setAttribute("id", "changed");
+        this.delegate.save(changed);
+
+        Mockito.when(this.mongoOperations.findOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(persistedDocument(3L, accessed), persistedDocument(4L, accessed));
+
+        // when
+        MongoSession cached = this.sessionRepository.findById("session-1");
+        cached.setAttribute("id", "modified");
+        MongoSession stale = this.sessionRepository.findById("session-1");
+
+        // then
+        Assertions.assertEquals("modified", cached.getAttribute("id"));
+        Assertions.assertNotSame(cached, stale);
+        Assertions.assertEquals("changed", stale.getAttribute("id"));
+    }
+
+    @Test
+    @DisplayName("세션 삭제 시 캐시를 무효화하여 검증 없이도 삭제된 세션을 반환하지 않음")
+    void nearCacheTest_2() {
+        // given
+        this.sessionRepository.setValidateOnRead(false);
+
+        MongoSession session = new MongoSession("session-1", MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+        session.setAttribute("id", "sinnake");
+        this.sessionRepository.save(session);
+
+        // when
+        MongoSession cached = this.sessionRepository.findById("session-1");
+        this.sessionRepository.deleteById("session-1");
+        MongoSession deleted = this.sessionRepository.findById("session-1");
+
+        // then
+        Assertions.assertEquals("sinnake", cached.getAttribute("id"));
+        Assertions.assertNull(deleted);
+        Mockito.verifyNoInteractions(this.mongoOperations);
+    }
+
+    @Test
+    @DisplayName("캐시된 세션의 복사본은 원본 세션의 세션 ID 생성기로 세션 ID를 변경하고, 알 수 없으면 설정된 생성기 사용")
+    void nearCacheTest_3() {
+        // given
+        this.sessionRepository.setValidateOnRead(false);
+        this.sessionRepository.setSessionIdGenerator(new CompactSessionIdGenerator("configured"));
+
+        MongoSession session = new MongoSession("session-1", MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+        this.sessionRepository.save(session);
+
+        DirtyTrackingMongoSession trackedSession = new DirtyTrackingMongoSession("session-2", MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+        trackedSession.setSessionIdGenerator(new CompactSessionIdGenerator("tracked"));
+        this.sessionRepository.save(trackedSession);
+
+        // when
+        String changedSessionId = this.sessionRepository.findById("session-1").changeSessionId();
+        String changedTrackedSessionId = this.sessionRepository.findById("session-2").changeSessionId();
+
+        // then
+        Assertions.assertTrue(changedSessionId.startsWith("configured."));
+        Assertions.assertTrue(changedTrackedSessionId.startsWith("tracked."));
+    }
+
+    @Test
+    @DisplayName("버전이 없는 문서(JdkMongoSessionConverter)는 MongoDB의 마지막 접근 시각과 비교하여 검증")
+    void nearCacheTest_4() {
+        // given
+        Instant accessed = Instant.now();
+        MongoSession session = new MongoSession("session-1", MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+        session.setLastAccessedTime(accessed);
+        session.setAttribute("id", "sinnake");
+        this.sessionRepository.save(session);
+
+        Mockito.when(this.mongoOperations.findOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(lastAccessedDocument(accessed), lastAccessedDocument(accessed.plusSeconds(1)));
+
+        // when
+        MongoSession cached = this.sessionRepository.findById("session-1");
+        MongoSession stale = this.sessionRepository.findById("session-1");
+
+        // then
+        Assertions.assertEquals("sinnake", cached.getAttribute("id"));
+        Assertions.assertNotSame(cached, stale);
+        Mockito.verify(this.mongoOperations, Mockito.times(2)).findOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME));
+    }
+
+    @Test
+    @DisplayName("세션 ID를 변경하여 저장하면 검증 없이도 이전 세션 ID로 캐시된 세션을 반환하지 않음")
+    void nearCacheTest_5() {
+        // given
+        this.sessionRepository.setValidateOnRead(false);
+        this.sessionRepository.setSessionIdGenerator(new CompactSessionIdGenerator("configured"));
+
+        MongoSession session = new MongoSession("session-1", MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+        this.sessionRepository.save(session);
+
+        // when
+        MongoSession cached = this.sessionRepository.findById("session-1");
+        String changedSessionId = cached.changeSessionId();
+        this.sessionRepository.save(cached);
+        // 이전 ID 문서는 기반 저장소(MongoIndexedSessionRepository)가 삭제한다.
+        this.delegate.deleteById("session-1");
+
+        // then
+        Assertions.assertNull(this.sessionRepository.findById("session-1"));
+        Assertions.assertNotNull(this.sessionRepository.findById(changedSessionId));
+        Mockito.verifyNoInteractions(this.mongoOperations);
+    }
+
+    private static Document persistedDocument(long version, Instant accessed) {
+        return lastAccessedDocument(accessed)
+                .append(PerAttributeMongoSessionConverter.VERSION, version);
+    }
+
+    private static Document lastAccessedDocument(Instant accessed) {
+        return new Document(PerAttributeMongoSessionConverter.ID, "session-1")
+                .append(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, Date.from(accessed));
+    }
+}
@@ -0,0 +1,162 @@
+package org.springframework.session.data.mongo;
+
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.entity.CompositionMember;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.UuidSessionIdGenerator;
+import org.springframework.session.events.SessionExpiredEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class OffHeapMongoSessionRepositoryTests {
+    private final CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+            .register(1, CompositionMember.class);
+    private final PerAttributeMongoSessionConverter mongoSessionConverter = new PerAttributeMongoSessionConverter(this.compactAttributeCodec::encode
+            , this.compactAttributeCodec::decode
+            , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL));
+
+    private final OffHeapMongoSessionRepository sessionRepository = new OffHeapMongoSessionRepository(this.mongoSessionConverter
+            , UuidSessionIdGenerator.getInstance()
+            , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL)
+            , 1024 * 1024
+            , 64 * 1024
+            , 4 * 1024 * 1024
+            , Duration.ofMillis(10));
+
+    @AfterEach
+    void close() {
+        this.sessionRepository.close();
+    }
+
+    @Test
+    @DisplayName("off-heap에 저장한 세션을 세션 ID, principal로 조회하고 동시 저장은 속성 단위로 합침")
+    void offHeapTest_1() {
+        // given
+        MongoSession session = this.sessionRepository.createSession();
+        session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "sinnake");
+        session.setAttribute("member", new CompositionMember("sinnake", "password!", "01012341234"));
+        this.sessionRepository.save(session);
+
+        MongoSession first = this.sessionRepository.findById(session.getId());
+        MongoSession second = this.sessionRepository.findById(session.getId());
+
+        // when
+        first.setAttribute("cart", "cart-1");
+        second.setAttribute("coupon", "coupon-1");
+        this.sessionRepository.save(first);
+        this.sessionRepository.save(second);
+
+        MongoSession found = this.sessionRepository.findById(session.getId());
+
+        // then
+        Assertions.assertEquals(new CompositionMember("sinnake", "password!", "01012341234"), found.getAttribute("member"));
+        Assertions.assertEquals("cart-1", found.getAttribute("cart"));
+        Assertions.assertEquals("coupon-1", found.getAttribute("coupon"));
+        Assertions.assertEquals(session.getCreationTime().toEpochMilli(), found.getCreationTime().toEpochMilli());
+
+        Assertions.assertEquals(List.of(session.getId()), List.copyOf(this.sessionRepository
+                .findByPrincipalName("sinnake").keySet()));
+
+        this.sessionRepository.deleteById(session.getId());
+        Assertions.assertNull(this.sessionRepository.findById(session.getId()));
+        Assertions.assertTrue(this.sessionRepository.findByPrincipalName("sinnake").isEmpty());
+    }
+
+    @Test
+    @DisplayName("만료 시각이 지난 세션은 타이밍 휠에서 삭제하고 SessionExpiredEvent 발생")
+    void offHeapTest_2() throws InterruptedException {
+        // given
+        List<Object> events = new CopyOnWriteArrayList<>();
+        this.sessionRepository.setApplicationEventPublisher(events::add);
+
+        MongoSession expiredSession = this.sessionRepository.createSession();
+        expiredSession.setMaxInactiveInterval(Duration.ofSeconds(1));
+        expiredSession.setLastAccessedTime(Instant.now().minusSeconds(2));
+        this.sessionRepository.save(expiredSession);
+
+        MongoSession activeSession = this.sessionRepository.createSession();
+        this.sessionRepository.save(activeSession);
+
+        // when
+        Thread.sleep(100);
+        this.sessionRepository.expireSessions();
+
+        // then
+        Assertions.assertEquals(1, this.sessionRepository.getSessionCount());
+        Assertions.assertNotNull(this.sessionRepository.findById(activeSession.getId()));
+        Assertions.assertTrue(events.stream()
+                .anyMatch(event -> event instanceof SessionExpiredEvent expiredEvent && expiredEvent.getSessionId().equals(expiredSession.getId())));
+    }
+
+    @Test
+    @DisplayName("만료 시각이 늘어난 세션은 기존 만료 시각에 삭제되지 않고 다시 등록되어 늘어난 만료 시각에 삭제됨")
+    void offHeapTest_3() throws InterruptedException {
+        // given
+        List<Object> events = new CopyOnWriteArrayList<>();
+        this.sessionRepository.setApplicationEventPublisher(events::add);
+
+        // 200ms 뒤 만료되는 세션
+        MongoSession session = this.sessionRepository.createSession();
+        session.setMaxInactiveInterval(Duration.ofSeconds(1));
+        session.setLastAccessedTime(Instant.now().minusMillis(800));
+        this.sessionRepository.save(session);
+
+        // 접근 시각을 늘려 1초 뒤 만료되도록 저장 (타이밍 휠에는 다시 등록하지 않는다.)
+        MongoSession extended = this.sessionRepository.findById(session.getId());
+        extended.setLastAccessedTime(Instant.now());
+        this.sessionRepository.save(extended);
+
+        // when
+        Thread.sleep(500);
+        this.sessionRepository.expireSessions();
+        MongoSession afterPreviousExpiry = this.sessionRepository.findById(session.getId());
+
+        Thread.sleep(1000);
+        this.sessionRepository.expireSessions();
+
+        // then
+        Assertions.assertNotNull(afterPreviousExpiry);
+        Assertions.assertEquals(0, this.sessionRepository.getSessionCount());
+        Assertions.assertTrue(events.stream()
+                .anyMatch(event -> event instanceof SessionExpiredEvent expiredEvent && expiredEvent.getSessionId().equals(session.getId())));
+    }
+
+    @Test
+    @DisplayName("start() 이후에는 만료 확인 스레드가 tick마다 만료 세션을 삭제하고, stop() 이후에는 확인하지 않음")
+    void offHeapTest_4() throws InterruptedException {
+        // given
+        List<Object> events = new CopyOnWriteArrayList<>();
+        this.sessionRepository.setApplicationEventPublisher(events::add);
+
+        MongoSession expiredSession = this.sessionRepository.createSession();
+        expiredSession.setMaxInactiveInterval(Duration.ofSeconds(1));
+        expiredSession.setLastAccessedTime(Instant.now().minusSeconds(2));
+        this.sessionRepository.save(expiredSession);
+
+        // when
+        Thread.sleep(100);
+        boolean runningBeforeStart = this.sessionRepository.isRunning();
+        long sessionCountBeforeStart = this.sessionRepository.getSessionCount();
+
+        this.sessionRepository.start();
+        for(int i = 0; i < 100 && this.sessionRepository.getSessionCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        this.sessionRepository.stop();
+
+        // then
+        Assertions.assertFalse(runningBeforeStart);
+        Assertions.assertEquals(1, sessionCountBeforeStart);
+        Assertions.assertEquals(0, this.sessionRepository.getSessionCount());
+        Assertions.assertFalse(this.sessionRepository.isRunning());
+        Assertions.assertTrue(events.stream()
+                .anyMatch(event -> event instanceof SessionExpiredEvent expiredEvent && expiredEvent.getSessionId().equals(expiredSession.getId())));
+    }
+}
@@ -0,0 +1,87 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.entity.CompositionMember;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PerAttributeMongoSessionConverterTests {
+    private final CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+            .register(1, CompositionMember.class);
+
+    private final AtomicInteger encodeCount = new AtomicInteger();
+    private final AtomicInteger decodeCount = new AtomicInteger();
+    private final PerAttributeMongoSessionConverter mongoSessionConverter = new PerAttributeMongoSessionConverter(value -> {
+                this.encodeCount.incrementAndGet();
+                return this.compactAttributeCodec.encode(value);
+            }
+            , bytes -> {
+                this.decodeCount.incrementAndGet();
+                return this.compactAttributeCodec.decode(bytes);
+            }
+            , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL));
+
+    @Test
+    @DisplayName("세션 변환 시 속성을 역직렬화 하지 않고, 속성에 처음 접근할 때 한 번만 역직렬화")
+    void converterTest_1() {
+        // given
+        Document document = persisted(this.compactAttributeCodec.encode("sinnake")
+                , this.compactAttributeCodec.encode(new CompositionMember("sinnake", "password!", "01012341234")));
+
+        // when
+        MongoSession session = this.mongoSessionConverter.convert(document);
+        int decodedOnConvert = this.decodeCount.get();
+
+        CompositionMember first = session.getAttribute("member");
+        CompositionMember second = session.getAttribute("member");
+
+        // then
+        Assertions.assertEquals(0, decodedOnConvert);
+        Assertions.assertEquals(1, this.decodeCount.get());
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals("password!", first.password());
+        Assertions.assertTrue(session.getAttributeNames().contains("id"));
+        Assertions.assertEquals(1, this.decodeCount.get());
+    }
+
+    @Test
+    @DisplayName("역직렬화만 하고 변경하지 않은 속성은 저장된 byte 그대로 다시 저장하고, 변경한 속성만 직렬화")
+    void converterTest_2() {
+        // given
+        byte[] idBytes = this.compactAttributeCodec.encode("sinnake");
+        byte[] memberBytes = this.compactAttributeCodec.encode(new CompositionMember("sinnake", "password!", "01012341234"));
+        MongoSession session = this.mongoSessionConverter.convert(persisted(idBytes, memberBytes));
+
+        CompositionMember member = session.getAttribute("member");
+        session.setAttribute("phoneNumber", member.phoneNumber());
+
+        // when
+        DBObject converted = this.mongoSessionConverter.convert(session);
+
+        // then
+        BasicDBObject attributes = (BasicDBObject) converted.get(PerAttributeMongoSessionConverter.ATTRIBUTES);
+        Assertions.assertSame(idBytes, attributes.get("id"));
+        Assertions.assertSame(memberBytes, attributes.get("member"));
+        Assertions.assertEquals("01012341234", this.compactAttributeCodec.decode((byte[]) attributes.get("phoneNumber")));
+        Assertions.assertEquals(1, this.encodeCount.get());
+    }
+
+    private static Document persisted(byte[] idBytes, byte[] memberBytes) {
+        Date now = new Date();
+
+        return new Document(PerAttributeMongoSessionConverter.ID, "session-1")
+                .append(PerAttributeMongoSessionConverter.CREATION_TIME, now)
+                .append(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, now)
+                .append(PerAttributeMongoSessionConverter.MAX_INTERVAL, Duration.ofMinutes(30).toString())
+                .append(PerAttributeMongoSessionConverter.EXPIRE_AT, new Date(now.getTime() + Duration.ofMinutes(30).toMillis()))
+                .append(PerAttributeMongoSessionConverter.ATTRIBUTES, new Document("id", idBytes).append("member", memberBytes));
+    }
+}
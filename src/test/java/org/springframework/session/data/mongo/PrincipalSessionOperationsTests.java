@@ -0,0 +1,121 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.session.events.SessionDeletedEvent;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PrincipalSessionOperationsTests {
+    private static final String COLLECTION_NAME = MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME;
+
+    private final MongoOperations shard0 = Mockito.mock(MongoOperations.class);
+    private final MongoOperations shard1 = Mockito.mock(MongoOperations.class);
+    private final List<Object> publishedEvents = new ArrayList<>();
+    private final ApplicationEventPublisher eventPublisher = this.publishedEvents::add;
+
+    @Test
+    @DisplayName("여러 샤드의 principal 세션을 인덱스 필드만 조회하여 세션 ID 순서로 나누어 조회")
+    void principalSessionTest_1() {
+        // given
+        stubFind(this.shard0, List.of(document("a"), document("c")));
+        stubFind(this.shard1, List.of(document("b"), document("d")));
+        PrincipalSessionOperations principalSessionOperations = new PrincipalSessionOperations(stores(), COLLECTION_NAME, this.eventPublisher);
+
+        // when
+        PrincipalSessionOperations.PrincipalSessionPage page = principalSessionOperations.findSessions("sinnake", null, 3);
+
+        // then
+        Assertions.assertEquals(List.of("a", "b", "c"), page.sessions().stream().map(PrincipalSessionOperations.PrincipalSession::id).toList());
+        Assertions.assertEquals("c", page.nextCursor());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(this.shard0).find(query.capture(), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME));
+        Assertions.assertEquals(PerAttributeMongoSessionConverter.PRINCIPAL_SESSIONS_INDEX_NAME, query.getValue().getHint());
+        Assertions.assertFalse(query.getValue().getFieldsObject().containsKey(PerAttributeMongoSessionConverter.ATTRIBUTES));
+    }
+
+    @Test
+    @DisplayName("조회 결과의 세션 ID와 cursor는 가린 값이고, 가린 cursor로 다음 페이지를 조회")
+    void principalSessionTest_3() {
+        // given
+        stubFind(this.shard0, List.of(document("shard-0.AAAAAAAAaaaa"), document("shard-0.BBBBBBBBbbbb")));
+        stubFind(this.shard1, List.of());
+        PrincipalSessionOperations principalSessionOperations = new PrincipalSessionOperations(stores(), COLLECTION_NAME, this.eventPublisher);
+
+        // when
+        PrincipalSessionOperations.PrincipalSessionPage page = principalSessionOperations.findSessions("sinnake", null, 2);
+        principalSessionOperations.findSessions("sinnake", page.nextCursor(), 2);
+
+        // then
+        Assertions.assertEquals(List.of("shard-0.AAAAAAAA", "shard-0.BBBBBBBB"), page.sessions().stream().map(PrincipalSessionOperations.PrincipalSession::id).toList());
+        Assertions.assertEquals("shard-0.BBBBBBBB", page.nextCursor());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(this.shard0, Mockito.times(2)).find(query.capture(), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME));
+        Document idCriteria = query.getAllValues().get(1).getQueryObject().get(PerAttributeMongoSessionConverter.ID, Document.class);
+        Assertions.assertEquals("shard-0.BBBBBBBB" + Character.MAX_VALUE, idCriteria.get("$gt"));
+    }
+
+    @Test
+    @DisplayName("principal의 세션을 샤드마다 한 번에 삭제하고 삭제된 세션마다 SessionDeletedEvent 발생")
+    void principalSessionTest_2() {
+        // given
+        stubFind(this.shard0, List.of(document("a"), document("c")));
+        stubFind(this.shard1, List.of(document("b")));
+        Mockito.when(this.shard0.remove(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(COLLECTION_NAME))).thenReturn(DeleteResult.acknowledged(2));
+        Mockito.when(this.shard1.remove(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(COLLECTION_NAME))).thenReturn(DeleteResult.acknowledged(1));
+        PrincipalSessionOperations principalSessionOperations = new PrincipalSessionOperations(stores(), COLLECTION_NAME, this.eventPublisher);
+
+        // when
+        int deleted = principalSessionOperations.invalidateSessions("sinnake");
+
+        // then
+        Assertions.assertEquals(3, deleted);
+        Mockito.verify(this.shard0, Mockito.times(1)).remove(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(COLLECTION_NAME));
+        Mockito.verify(this.shard1, Mockito.times(1)).remove(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(COLLECTION_NAME));
+        Assertions.assertEquals(List.of("a", "c", "b"), this.publishedEvents.stream()
+                .map(event -> ((SessionDeletedEvent) event).getSessionId())
+                .toList());
+
+        // 세션 ID만 조회하여 인덱스만으로 처리된다.
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(this.shard0).find(query.capture(), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME));
+        Assertions.assertEquals(new Document(PerAttributeMongoSessionConverter.ID, 1), query.getValue().getFieldsObject());
+    }
+
+    private Map<String, MongoOperations> stores() {
+        Map<String, MongoOperations> stores = new LinkedHashMap<>();
+        stores.put("shard-0", this.shard0);
+        stores.put("shard-1", this.shard1);
+
+        return stores;
+    }
+
+    private static void stubFind(MongoOperations mongoOperations, List<Document> documents) {
+        Mockito.when(mongoOperations.find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(documents);
+    }
+
+    private static Document document(String id) {
+        Date now = new Date();
+
+        return new Document(PerAttributeMongoSessionConverter.ID, id)
+                .append(PerAttributeMongoSessionConverter.CREATION_TIME, now)
+                .append(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, now)
+                .append(PerAttributeMongoSessionConverter.EXPIRE_AT, now);
+    }
+}
@@ -0,0 +1,186 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.session.CompactSessionIdGenerator;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+public class ReadPreferenceMongoSessionRepositoryTests {
+    private static final String COLLECTION_NAME = MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME;
+
+    private final CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec();
+    private final PerAttributeMongoSessionConverter mongoSessionConverter = new PerAttributeMongoSessionConverter(this.compactAttributeCodec::encode
+            , this.compactAttributeCodec::decode
+            , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL));
+
+    private final MongoOperations readMongoOperations = Mockito.mock(MongoOperations.class);
+    private final ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository primaryRepository = new ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository();
+    private final ReadPreferenceMongoSessionRepository sessionRepository = new ReadPreferenceMongoSessionRepository(this.primaryRepository
+            , this.readMongoOperations
+            , COLLECTION_NAME
+            , this.mongoSessionConverter
+            , new CompactSessionIdGenerator());
+
+    @AfterEach
+    void endRequest() {
+        ReadPreferenceMongoSessionRepository.endRequest();
+    }
+
+    @Test
+    @DisplayName("쓰기 시각 이후 저장된 세션은 read preference로 조회하고, 쓰기 시각이 없는 요청(쿠키 포함)은 primary에서 조회")
+    void readPreferenceTest_1() {
+        // given
+        Date accessed = new Date();
+        Mockito.when(this.readMongoOperations.findOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(document("session-1", accessed));
+
+        MongoSession primarySession = new MongoSession("session-1", MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+        primarySession.setAttribute("id", "sinnake");
+        this.primaryRepository.save(primarySession);
+
+        // when
+        MongoSession withoutRequest = this.sessionRepository.findById("session-1");
+        ReadPreferenceMongoSessionRepository.beginRequest(0L);
+        MongoSession withoutTimestamp = this.sessionRepository.findById("session-1");
+        ReadPreferenceMongoSessionRepository.beginRequest(accessed.getTime());
+        MongoSession withTimestamp = this.sessionRepository.findById("session-1");
+
+        // then
+        Assertions.assertEquals("sinnake", withoutRequest.getAttribute("id"));
+        Assertions.assertEquals("sinnake", withoutTimestamp.getAttribute("id"));
+        Assertions.assertEquals("session-1", withTimestamp.getId());
+        Assertions.assertNull(withTimestamp.getAttribute("id"));
+        Mockito.verify(this.readMongoOperations, Mockito.times(1)).findOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME));
+    }
+
+    @Test
+    @DisplayName("세션이 없거나 클라이언트의 쓰기 시각보다 오래된 세션은 primary에서 다시 조회하고, 저장 시 쓰기 시각 기록")
+    void readPreferenceTest_2() {
+        // given
+        Instant written = Instant.now();
+        Mockito.when(this.readMongoOperations.findOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(null, document("session-1", Date.from(written.minusSeconds(1))));
+
+        MongoSession primarySession = new MongoSession("session-1", MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+        primarySession.setLastAccessedTime(written);
+        primarySession.setAttribute("id", "sinnake");
+        this.primaryRepository.save(primarySession);
+
+        ReadPreferenceMongoSessionRepository.beginRequest(written.toEpochMilli());
+
+        // when
+        MongoSession missing = this.sessionRepository.findById("session-1");
+        MongoSession stale = this.sessionRepository.findById("session-1");
+
+        stale.setLastAccessedTime(written.plusSeconds(1));
+        this.sessionRepository.save(stale);
+
+        // then
+        Assertions.assertEquals("sinnake", missing.getAttribute("id"));
+        Assertions.assertEquals("sinnake", stale.getAttribute("id"));
+        Assertions.assertEquals(written.plusSeconds(1).toEpochMilli(), ReadPreferenceMongoSessionRepository.lastWriteMillis());
+    }
+
+    @Test
+    @DisplayName("write-behind 저장소에 저장하지 않은 변경이 있는 세션은 secondary가 아닌 대기 중인 변경이 적용된 primary에서 조회")
+    void readPreferenceTest_3() {
+        // given
+        MongoOperations mongoOperations = Mockito.mock(MongoOperations.class);
+        Document persisted = document("session-1", new Date());
+        Mockito.when(mongoOperations.findById("session-1", Document.class, COLLECTION_NAME)).thenReturn(persisted);
+
+        BulkOperations bulkOperations = Mockito.mock(BulkOperations.class);
+        Mockito.when(mongoOperations.bulkOps(BulkOperations.BulkMode.ORDERED, COLLECTION_NAME)).thenReturn(bulkOperations);
+        Mockito.when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        WriteBehindMongoSessionRepository writeBehindRepository = new WriteBehindMongoSessionRepository(this.primaryRepository
+                , mongoOperations
+                , COLLECTION_NAME
+                , this.mongoSessionConverter
+                , Duration.ofHours(1)
+                , 500);
+        writeBehindRepository.start();
+
+        ReadPreferenceMongoSessionRepository sessionRepository = new ReadPreferenceMongoSessionRepository(writeBehindRepository
+                , this.readMongoOperations
+                , COLLECTION_NAME
+                , this.mongoSessionConverter
+                , new CompactSessionIdGenerator());
+        sessionRepository.setUnwrittenChanges(writeBehindRepository::hasUnwrittenChanges);
+
+        // secondary에는 변경 전 문서가 있다.
+        Mockito.when(this.readMongoOperations.findOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME)))
+                .thenReturn(persisted);
+
+        MongoSession session = this.mongoSessionConverter.convert(persisted);
+        session.setAttribute("cart", "cart-1");
+        ReadPreferenceMongoSessionRepository.beginRequest(session.getLastAccessedTime().toEpochMilli());
+        sessionRepository.save(session);
+
+        // when
+        MongoSession found = sessionRepository.findById("session-1");
+        Mockito.verifyNoInteractions(this.readMongoOperations);
+
+        // 저장된 이후에는 secondary에서 조회한다.
+        writeBehindRepository.flush();
+        sessionRepository.findById("session-1");
+
+        // then
+        Assertions.assertEquals("cart-1", found.getAttribute("cart"));
+        Mockito.verify(this.readMongoOperations, Mockito.times(1)).findOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME));
+
+        writeBehindRepository.close();
+    }
+
+    @Test
+    @DisplayName("마지막 접근 시각 저장을 생략한 요청은 저장되지 않은 접근 시각 대신 마지막으로 저장된 접근 시각을 쓰기 시각으로 전달")
+    void readPreferenceTest_4() {
+        // given
+        DeltaMongoSessionRepository deltaRepository = new DeltaMongoSessionRepository(this.primaryRepository
+                , Mockito.mock(MongoOperations.class)
+                , COLLECTION_NAME
+                , this.mongoSessionConverter);
+        deltaRepository.setTouchThrottleRatio(0.5);
+
+        ReadPreferenceMongoSessionRepository sessionRepository = new ReadPreferenceMongoSessionRepository(deltaRepository
+                , this.readMongoOperations
+                , COLLECTION_NAME
+                , this.mongoSessionConverter
+                , new CompactSessionIdGenerator());
+
+        Date accessed = new Date(System.currentTimeMillis() - 1_000L);
+        MongoSession session = this.mongoSessionConverter.convert(document("session-1", accessed));
+        session.setLastAccessedTime(Instant.now());
+
+        ReadPreferenceMongoSessionRepository.beginRequest(accessed.getTime());
+
+        // when
+        sessionRepository.save(session);
+
+        // then
+        Assertions.assertEquals(accessed.getTime(), ReadPreferenceMongoSessionRepository.lastWriteMillis());
+        Assertions.assertNull(this.primaryRepository.findById("session-1"));
+    }
+
+    private static Document document(String id, Date accessed) {
+        return new Document(PerAttributeMongoSessionConverter.ID, id)
+                .append(PerAttributeMongoSessionConverter.CREATION_TIME, accessed)
+                .append(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, accessed)
+                .append(PerAttributeMongoSessionConverter.MAX_INTERVAL, Duration.ofMinutes(30).toString())
+                .append(PerAttributeMongoSessionConverter.EXPIRE_AT, new Date(accessed.getTime() + Duration.ofMinutes(30).toMillis()));
+    }
+}
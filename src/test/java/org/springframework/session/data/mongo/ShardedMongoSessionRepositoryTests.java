@@ -0,0 +1,162 @@
+package org.springframework.session.data.mongo;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.UuidSessionIdGenerator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ *     MongoDB 대신 메모리 저장소를 샤드로 사용하는 {@link ShardedMongoSessionRepository} 테스트
+ * </pre>
+ */
+public class ShardedMongoSessionRepositoryTests {
+    private static final String COLLECTION_NAME = MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME;
+
+    @Test
+    @DisplayName("샤드 추가 시 소유 샤드가 바뀌는 세션은 새 샤드로 옮겨지는 세션뿐")
+    void shardTest_1() {
+        // given
+        final int SESSION_COUNT = 20_000;
+        MongoSessionShards threeShards = new MongoSessionShards(createShards("shard-0", "shard-1", "shard-2"));
+        MongoSessionShards fourShards = new MongoSessionShards(createShards("shard-0", "shard-1", "shard-2", "shard-3"));
+
+        Map<String, Integer> sessionCountByShard = new HashMap<>();
+        int remapped = 0;
+
+        // when
+        for(int i = 0; i < SESSION_COUNT; i++) {
+            String sessionId = UuidSessionIdGenerator.getInstance().generate();
+            String before = threeShards.ownerOf(sessionId).name();
+            String after = fourShards.ownerOf(sessionId).name();
+
+            sessionCountByShard.merge(after, 1, Integer::sum);
+            if(!before.equals(after)) {
+                remapped++;
+                Assertions.assertEquals("shard-3", after);
+            }
+        }
+
+        // then
+        Assertions.assertTrue(remapped < SESSION_COUNT * 0.35);
+        for(int count : sessionCountByShard.values()) {
+            Assertions.assertTrue(count > SESSION_COUNT / 4 * 0.7 && count < SESSION_COUNT / 4 * 1.3);
+        }
+    }
+
+    @Test
+    @DisplayName("세션 ID에 샤드명을 지정하면 해당 샤드에 저장")
+    void shardTest_2() {
+        // given
+        MongoSessionShards shards = new MongoSessionShards(createShards("shard-0", "shard-1", "shard-2"));
+        ShardedMongoSessionRepository sessionRepository = new ShardedMongoSessionRepository(shards, COLLECTION_NAME);
+
+        String sessionId = shards.hintedSessionId("shard-2", UuidSessionIdGenerator.getInstance().generate());
+        MongoSession session = new MongoSession(sessionId, MapSession.DEFAULT_MAX_INACTIVE_INTERVAL_SECONDS);
+
+        // when
+        sessionRepository.save(session);
+
+        // then
+        Assertions.assertEquals("shard-2", shards.ownerOf(sessionId).name());
+        Assertions.assertNotNull(shardRepository(shards, "shard-2").findById(sessionId));
+        Assertions.assertNotNull(sessionRepository.findById(sessionId));
+    }
+
+    @Test
+    @DisplayName("재분배 중 이전 샤드에서 조회한 세션은 저장 시 새 샤드로 이동")
+    void shardTest_3() {
+        // given
+        List<MongoSessionShards.Shard> before = createShards("shard-0", "shard-1");
+        MongoSessionShards previousShards = new MongoSessionShards(before);
+
+        List<MongoSessionShards.Shard> after = new ArrayList<>(before);
+        after.add(createShard("shard-2"));
+        MongoSessionShards shards = new MongoSessionShards(after, List.of("shard-0", "shard-1"), MongoSessionShards.DEFAULT_VIRTUAL_NODES);
+
+        String sessionId;
+        do {
+            sessionId = UuidSessionIdGenerator.getInstance().generate();
+        } while(shards.previousOwnerOf(sessionId) == null);
+
+        new ShardedMongoSessionRepository(previousShards, COLLECTION_NAME).save(new MongoSession(sessionId, MapSession.DEFAULT_MAX_INACTIVE_INTERVAL_SECONDS));
+        MongoSessionShards.Shard previousOwner = shards.previousOwnerOf(sessionId);
+
+        ShardedMongoSessionRepository sessionRepository = new ShardedMongoSessionRepository(shards, COLLECTION_NAME);
+
+        // when
+        MongoSession session = sessionRepository.findById(sessionId);
+        sessionRepository.save(session);
+
+        // then
+        Assertions.assertNotNull(session);
+        Assertions.assertNotNull(shardRepository(shards, "shard-2").findById(sessionId));
+        Mockito.verify(previousOwner.mongoOperations()).remove(Mockito.any(Query.class), Mockito.eq(COLLECTION_NAME));
+    }
+
+    private static FindByIndexNameSessionRepository<MongoSession> shardRepository(MongoSessionShards shards, String name) {
+        return shards.all().stream()
+                .filter(shard -> shard.name().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .sessionRepository();
+    }
+
+    private static List<MongoSessionShards.Shard> createShards(String... names) {
+        List<MongoSessionShards.Shard> shards = new ArrayList<>();
+        for(String name : names) {
+            shards.add(createShard(name));
+        }
+
+        return shards;
+    }
+
+    private static MongoSessionShards.Shard createShard(String name) {
+        return MongoSessionShards.Shard.of(name, Mockito.mock(MongoOperations.class), new InMemoryMongoSessionRepository());
+    }
+
+    /**
+     * <pre>
+     *     mongod 대신 샤드로 사용하는 메모리 세션 저장소
+     * </pre>
+     */
+    static class InMemoryMongoSessionRepository implements FindByIndexNameSessionRepository<MongoSession> {
+        private final Map<String, MongoSession> sessions = new ConcurrentHashMap<>();
+
+        @Override
+        public MongoSession createSession() {
+            return new MongoSession(UuidSessionIdGenerator.getInstance().generate(), MapSession.DEFAULT_MAX_INACTIVE_INTERVAL_SECONDS);
+        }
+
+        @Override
+        public void save(MongoSession session) {
+            this.sessions.put(session.getId(), session);
+        }
+
+        @Override
+        public MongoSession findById(String id) {
+            return this.sessions.get(id);
+        }
+
+        @Override
+        public void deleteById(String id) {
+            this.sessions.remove(id);
+        }
+
+        @Override
+        public Map<String, MongoSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.springframework.session.data.mongo;
+
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.codec.SessionTokenCipher;
+import com.springSession.entity.CompositionMember;
+import com.springSession.session.CompactSessionIdGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+
+public class StatelessTokenMongoSessionRepositoryTests {
+    private final CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+            .register(1, CompositionMember.class);
+    private final PerAttributeMongoSessionConverter mongoSessionConverter = new PerAttributeMongoSessionConverter(this.compactAttributeCodec::encode
+            , this.compactAttributeCodec::decode
+            , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL));
+
+    private final ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository storeRepository = new ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository();
+    private final StatelessTokenMongoSessionRepository sessionRepository = new StatelessTokenMongoSessionRepository(this.storeRepository
+            , new SessionTokenCipher(randomKey())
+            , this.mongoSessionConverter
+            , new CompactSessionIdGenerator("store")
+            , 1024);
+
+    @Test
+    @DisplayName("작은 세션은 세션 저장소에 저장하지 않고 세션 ID를 토큰으로 변경")
+    void statelessTest_1() {
+        // given
+        MongoSession session = this.sessionRepository.createSession();
+        String createdSessionId = session.getId();
+        session.setAttribute("id", "sinnake");
+        session.setAttribute("member", new CompositionMember("sinnake", "password!", "01012341234"));
+
+        // when
+        this.sessionRepository.save(session);
+        MongoSession found = this.sessionRepository.findById(session.getId());
+
+        // then
+        Assertions.assertTrue(session.getId().startsWith(StatelessTokenMongoSessionRepository.TOKEN_PREFIX));
+        Assertions.assertNull(this.storeRepository.findById(createdSessionId));
+        Assertions.assertNotNull(found);
+        Assertions.assertEquals("sinnake", found.getAttribute("id"));
+        Assertions.assertEquals(new CompositionMember("sinnake", "password!", "01012341234"), found.getAttribute("member"));
+    }
+
+    @Test
+    @DisplayName("변조된 토큰은 조회되지 않음")
+    void statelessTest_2() {
+        // given
+        MongoSession session = this.sessionRepository.createSession();
+        session.setAttribute("id", "sinnake");
+        this.sessionRepository.save(session);
+
+        String token = session.getId();
+        int index = token.length() / 2;
+        String tamperedToken = token.substring(0, index) + (token.charAt(index) == 'A' ? 'B' : 'A') + token.substring(index + 1);
+
+        // when, then
+        Assertions.assertNull(this.sessionRepository.findById(tamperedToken));
+        Assertions.assertNull(this.sessionRepository.findById(StatelessTokenMongoSessionRepository.TOKEN_PREFIX + "not-a-token"));
+    }
+
+    @Test
+    @DisplayName("토큰 최대 길이를 넘는 세션과 서버에서 만료시켜야 하는 세션은 세션 저장소에 저장하고, 토큰이 발급된 세션은 설정된 생성기로 새 ID 발급")
+    void statelessTest_3() {
+        // given
+        MongoSession largeSession = this.sessionRepository.createSession();
+        largeSession.setAttribute("id", "sinnake");
+        this.sessionRepository.save(largeSession);
+        largeSession.setAttribute("payload", "p".repeat(2_048));
+
+        MongoSession serverSideSession = this.sessionRepository.createSession();
+        serverSideSession.setAttribute(StatelessTokenMongoSessionRepository.SERVER_SIDE_ATTRIBUTE, true);
+
+        // when
+        this.sessionRepository.save(largeSession);
+        this.sessionRepository.save(serverSideSession);
+
+        // then
+        Assertions.assertFalse(largeSession.getId().startsWith(StatelessTokenMongoSessionRepository.TOKEN_PREFIX));
+        Assertions.assertTrue(largeSession.getId().startsWith("store."));
+        Assertions.assertNotNull(this.storeRepository.findById(largeSession.getId()));
+        Assertions.assertNotNull(this.sessionRepository.findById(largeSession.getId()));
+        Assertions.assertNotNull(this.storeRepository.findById(serverSideSession.getId()));
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+
+        return key;
+    }
+}
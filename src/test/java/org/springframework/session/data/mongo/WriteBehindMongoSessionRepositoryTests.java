@@ -0,0 +1,350 @@
+package org.springframework.session.data.mongo;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.springSession.codec.CompactAttributeCodec;
+import com.springSession.entity.CompositionMember;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.session.FindByIndexNameSessionRepository;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class WriteBehindMongoSessionRepositoryTests {
+    private static final String COLLECTION_NAME = MongoIndexedSessionRepository.DEFAULT_COLLECTION_NAME;
+
+    private final CompactAttributeCodec compactAttributeCodec = new CompactAttributeCodec()
+            .register(1, CompositionMember.class);
+    private final PerAttributeMongoSessionConverter mongoSessionConverter = new PerAttributeMongoSessionConverter(this.compactAttributeCodec::encode
+            , this.compactAttributeCodec::decode
+            , Duration.ofSeconds(MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL));
+
+    private final MongoOperations mongoOperations = Mockito.mock(MongoOperations.class);
+    private final BulkOperations bulkOperations = Mockito.mock(BulkOperations.class);
+
+    @Test
+    @DisplayName("같은 세션의 저장은 하나로 합쳐지고 대기 중인 세션은 한 번의 bulk write로 저장")
+    void writeBehindTest_1() throws Exception {
+        // given
+        final int SESSION_COUNT = 100;
+        WriteBehindMongoSessionRepository sessionRepository = newSessionRepository();
+
+        for(int i = 0; i < SESSION_COUNT; i++) {
+            DirtyTrackingMongoSession session = new DirtyTrackingMongoSession("session-" + i, MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+            session.setAttribute("id", "sinnake");
+            sessionRepository.save(session);
+            session.setAttribute("member", new CompositionMember("sinnake", "password!", "01012341234"));
+            sessionRepository.save(session);
+            session.setLastAccessedTime(session.getLastAccessedTime().plusSeconds(1));
+            sessionRepository.save(session);
+        }
+
+        // when
+        int pendingCount = sessionRepository.getPendingCount();
+        sessionRepository.close();
+
+        // then
+        Assertions.assertEquals(SESSION_COUNT, pendingCount);
+        Mockito.verify(this.mongoOperations, Mockito.times(1)).bulkOps(BulkOperations.BulkMode.ORDERED, COLLECTION_NAME);
+        Mockito.verify(this.bulkOperations, Mockito.times(SESSION_COUNT)).upsert(ArgumentMatchers.any(Query.class), ArgumentMatchers.any(Update.class));
+        Mockito.verify(this.bulkOperations, Mockito.times(1)).execute();
+    }
+
+    @Test
+    @DisplayName("같은 노드에서는 저장 전에도 속성별 마지막 변경이 합쳐진 세션이 조회됨")
+    void writeBehindTest_2() throws Exception {
+        // given
+        Date now = new Date();
+        Document persisted = new Document(PerAttributeMongoSessionConverter.ID, "session-1")
+                .append(PerAttributeMongoSessionConverter.CREATION_TIME, now)
+                .append(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, now)
+                .append(PerAttributeMongoSessionConverter.MAX_INTERVAL, Duration.ofMinutes(30).toString())
+                .append(PerAttributeMongoSessionConverter.EXPIRE_AT, new Date(now.getTime() + Duration.ofMinutes(30).toMillis()))
+                .append(PerAttributeMongoSessionConverter.ATTRIBUTES, new Document("id", this.mongoSessionConverter.serializeAttribute("sinnake")));
+        Mockito.when(this.mongoOperations.findById("session-1", Document.class, COLLECTION_NAME)).thenReturn(persisted);
+
+        WriteBehindMongoSessionRepository sessionRepository = newSessionRepository();
+        Mockito.when(this.bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        // 같은 세션을 동시에 처리한 두 요청이 서로 다른 속성을 변경
+        MongoSession first = this.mongoSessionConverter.convert(persisted);
+        MongoSession second = this.mongoSessionConverter.convert(persisted);
+        first.setAttribute("password", "password!");
+        second.setAttribute("phoneNumber", "01012341234");
+
+        // when
+        sessionRepository.save(first);
+        sessionRepository.save(second);
+        MongoSession found = sessionRepository.findById("session-1");
+
+        // then
+        Mockito.verify(this.mongoOperations, Mockito.never()).bulkOps(ArgumentMatchers.any(BulkOperations.BulkMode.class), ArgumentMatchers.anyString());
+        Assertions.assertEquals("sinnake", found.getAttribute("id"));
+        Assertions.assertEquals("password!", found.getAttribute("password"));
+        Assertions.assertEquals("01012341234", found.getAttribute("phoneNumber"));
+
+        sessionRepository.close();
+        Mockito.verify(this.bulkOperations, Mockito.times(1)).updateOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.any(UpdateDefinition.class));
+    }
+
+    @Test
+    @DisplayName("저장 스레드가 변경을 대기 목록에서 저장 중 목록으로 옮기는 도중에도 같은 노드의 조회는 변경을 놓치지 않음")
+    void writeBehindTest_3() throws Exception {
+        // given
+        final int SAVE_COUNT = 5_000;
+        AtomicReference<Document> persistedDocument = new AtomicReference<>(persisted("session-1"));
+        AtomicInteger savedCount = new AtomicInteger();
+        Mockito.when(this.mongoOperations.findById("session-1", Document.class, COLLECTION_NAME))
+                .thenAnswer(invocation -> persistedDocument.get());
+
+        // 대기 중/저장 중인 변경이 없으면 위임 저장소가 MongoDB 문서를 조회한다.
+        WriteBehindMongoSessionRepository sessionRepository = newSessionRepository(new ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository() {
+            @Override
+            public MongoSession findById(String id) {
+                return WriteBehindMongoSessionRepositoryTests.this.mongoSessionConverter.convert(persistedDocument.get());
+            }
+        });
+
+        // bulk write가 끝나면 MongoDB 문서에 마지막으로 저장한 변경이 반영된다.
+        Mockito.when(this.bulkOperations.execute()).thenAnswer(invocation -> {
+            persistedDocument.set(new Document(persistedDocument.get())
+                    .append(PerAttributeMongoSessionConverter.ATTRIBUTES, new Document("count", this.mongoSessionConverter.serializeAttribute(savedCount.get()))));
+            return BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of());
+        });
+
+        // when
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicInteger missedCount = new AtomicInteger();
+        Thread reader = Thread.ofPlatform().start(() -> {
+            while(!finished.get()) {
+                int saved = savedCount.get();
+                Integer found = sessionRepository.findById("session-1").getAttribute("count");
+                if(saved > 0 && (found == null || found < saved)) {
+                    missedCount.incrementAndGet();
+                }
+            }
+        });
+
+        for(int i = 1; i <= SAVE_COUNT; i++) {
+            MongoSession session = this.mongoSessionConverter.convert(persistedDocument.get());
+            session.setAttribute("count", i);
+            sessionRepository.save(session);
+            savedCount.set(i);
+            sessionRepository.flush();
+        }
+
+        finished.set(true);
+        reader.join();
+
+        // then
+        Assertions.assertEquals(0, missedCount.get());
+        sessionRepository.close();
+    }
+
+    @Test
+    @DisplayName("부분 갱신할 문서가 다른 노드에서 삭제 되었으면 세션을 다시 만들지 않고 버린 변경 수를 기록")
+    void writeBehindTest_4() throws Exception {
+        // given
+        Document persisted = persisted("session-1");
+        WriteBehindMongoSessionRepository sessionRepository = newSessionRepository();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        sessionRepository.bindTo(meterRegistry);
+
+        // 부분 갱신은 갱신된 문서가 없다. (로그아웃, 만료 세션 정리 등으로 삭제된 세션)
+        Mockito.when(this.bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()));
+
+        MongoSession first = this.mongoSessionConverter.convert(persisted);
+        MongoSession second = this.mongoSessionConverter.convert(persisted);
+        first.setAttribute("password", "password!");
+        second.setAttribute("phoneNumber", "01012341234");
+        sessionRepository.save(first);
+        sessionRepository.save(second);
+
+        // when
+        sessionRepository.flush();
+
+        // then
+        Mockito.verify(this.bulkOperations, Mockito.times(1)).updateOne(ArgumentMatchers.any(Query.class), ArgumentMatchers.any(UpdateDefinition.class));
+        Mockito.verify(this.bulkOperations, Mockito.never()).upsert(ArgumentMatchers.any(Query.class), ArgumentMatchers.any(Update.class));
+        Mockito.verify(this.bulkOperations, Mockito.times(1)).execute();
+        Mockito.verify(this.mongoOperations, Mockito.never()).find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(Document.class), ArgumentMatchers.eq(COLLECTION_NAME));
+        Assertions.assertEquals(1.0, meterRegistry.get("session.writebehind.dropped").functionCounter().count());
+        Assertions.assertEquals(0, sessionRepository.getPendingCount());
+
+        sessionRepository.close();
+    }
+
+    @Test
+    @DisplayName("변경 속성은 저장 시각(attrTs) 기준으로 다른 노드의 변경과 합쳐서 저장하고, 전체 문서 upsert는 이전 문서의 저장 시각을 교체")
+    void writeBehindTest_5() throws Exception {
+        // given
+        WriteBehindMongoSessionRepository sessionRepository = newSessionRepository();
+        Mockito.when(this.bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        DirtyTrackingMongoSession created = new DirtyTrackingMongoSession("session-1", MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL);
+        created.setAttribute("id", "sinnake");
+
+        MongoSession first = this.mongoSessionConverter.convert(persisted("session-2"));
+        MongoSession second = this.mongoSessionConverter.convert(persisted("session-2"));
+        first.setAttribute("password", "password!");
+        first.removeAttribute("id");
+        second.setAttribute("phoneNumber", "01012341234");
+
+        // when
+        sessionRepository.save(created);
+        sessionRepository.save(first);
+        sessionRepository.save(second);
+        sessionRepository.flush();
+
+        // then
+        ArgumentCaptor<Update> upsert = ArgumentCaptor.forClass(Update.class);
+        Mockito.verify(this.bulkOperations, Mockito.times(1)).upsert(ArgumentMatchers.any(Query.class), upsert.capture());
+        Document attributeTimes = upsert.getValue().getUpdateObject().get("$set", Document.class).get(PerAttributeMongoSessionConverter.ATTRIBUTE_TIMES, Document.class);
+        Assertions.assertEquals(Set.of("id"), attributeTimes.keySet());
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        Mockito.verify(this.bulkOperations, Mockito.times(1)).updateOne(ArgumentMatchers.any(Query.class), update.capture());
+        Document set = ((AggregationUpdate) update.getValue()).toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$set", Document.class);
+        // 삭제된 속성도 저장 시각을 남겨 다른 노드의 이전 변경이 속성을 되살리지 않도록 한다.
+        for(String attributeName : List.of("password", "phoneNumber", "id")) {
+            List<?> condition = set.get(this.mongoSessionConverter.attributeTimeFieldName(attributeName), Document.class).getList("$cond", Object.class);
+            Assertions.assertInstanceOf(Date.class, condition.get(1));
+        }
+        Assertions.assertTrue(set.get(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, Document.class).containsKey("$max"));
+
+        sessionRepository.close();
+    }
+
+    @Test
+    @DisplayName("새로 생성된 세션도 위임 저장소를 거치지 않고 대기 목록에 넣어 전체 문서로 저장")
+    void writeBehindTest_6() throws Exception {
+        // given
+        ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository delegate = new ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository();
+        WriteBehindMongoSessionRepository sessionRepository = newSessionRepository(delegate);
+
+        MongoSession created = delegate.createSession();
+        created.setAttribute("id", "sinnake");
+
+        // when
+        sessionRepository.save(created);
+        MongoSession found = sessionRepository.findById(created.getId());
+        int pendingCount = sessionRepository.getPendingCount();
+        sessionRepository.close();
+
+        // then
+        Assertions.assertNull(delegate.findById(created.getId()));
+        Assertions.assertEquals(1, pendingCount);
+        Assertions.assertEquals("sinnake", found.getAttribute("id"));
+        Mockito.verify(this.bulkOperations, Mockito.times(1)).upsert(ArgumentMatchers.any(Query.class), ArgumentMatchers.any(Update.class));
+    }
+
+    @Test
+    @DisplayName("허용 구간 안에서 마지막 접근 시각만 바뀐 저장은 대기 목록에 넣지 않음")
+    void writeBehindTest_7() throws Exception {
+        // given
+        WriteBehindMongoSessionRepository sessionRepository = newSessionRepository();
+        // 최대 비활성 시간 30분의 50%, 15분
+        sessionRepository.setTouchThrottleRatio(0.5);
+
+        DirtyTrackingMongoSession touched = (DirtyTrackingMongoSession) this.mongoSessionConverter.convert(persisted("session-1"));
+        touched.setLastAccessedTime(touched.getPersistedLastAccessedTime().plus(Duration.ofMinutes(10)));
+
+        DirtyTrackingMongoSession expiring = (DirtyTrackingMongoSession) this.mongoSessionConverter.convert(persisted("session-2"));
+        expiring.setLastAccessedTime(expiring.getPersistedLastAccessedTime().plus(Duration.ofMinutes(15)));
+
+        // when
+        sessionRepository.save(touched);
+        sessionRepository.save(expiring);
+
+        // then
+        Assertions.assertTrue(touched.isTouchSkipped());
+        Assertions.assertFalse(sessionRepository.hasUnwrittenChanges("session-1"));
+        Assertions.assertTrue(sessionRepository.hasUnwrittenChanges("session-2"));
+
+        sessionRepository.close();
+    }
+
+    @Test
+    @DisplayName("종료 전에 대기 목록에 넣기 시작한 저장은 종료 시 마지막 bulk write에 포함되어 대기 목록에 남지 않음")
+    void writeBehindTest_8() throws Exception {
+        // given
+        WriteBehindMongoSessionRepository sessionRepository = newSessionRepository();
+        CountDownLatch capturing = new CountDownLatch(1);
+
+        // 변경을 캡처하는 도중(실행 중 여부 확인 이후, 대기 목록에 넣기 전)에 종료를 시작한다.
+        MongoSession session = new MongoSession("session-1", MongoIndexedSessionRepository.DEFAULT_INACTIVE_INTERVAL) {
+            @Override
+            public Set<String> getAttributeNames() {
+                capturing.countDown();
+                try {
+                    Thread.sleep(200L);
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return super.getAttributeNames();
+            }
+        };
+
+        // when
+        Thread saver = Thread.ofPlatform().start(() -> sessionRepository.save(session));
+        capturing.await();
+        sessionRepository.close();
+        saver.join();
+
+        // then
+        Assertions.assertEquals(0, sessionRepository.getPendingCount());
+        Mockito.verify(this.bulkOperations, Mockito.times(1)).upsert(ArgumentMatchers.any(Query.class), ArgumentMatchers.any(Update.class));
+    }
+
+    private WriteBehindMongoSessionRepository newSessionRepository() {
+        return newSessionRepository(new ShardedMongoSessionRepositoryTests.InMemoryMongoSessionRepository());
+    }
+
+    private WriteBehindMongoSessionRepository newSessionRepository(FindByIndexNameSessionRepository<MongoSession> delegate) {
+        Mockito.when(this.mongoOperations.bulkOps(BulkOperations.BulkMode.ORDERED, COLLECTION_NAME)).thenReturn(this.bulkOperations);
+        Mockito.when(this.bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()));
+
+        // 주기 저장이 실행되지 않도록 저장 간격을 길게 설정한다.
+        WriteBehindMongoSessionRepository sessionRepository = new WriteBehindMongoSessionRepository(delegate
+                , this.mongoOperations
+                , COLLECTION_NAME
+                , this.mongoSessionConverter
+                , Duration.ofHours(1)
+                , 500);
+        sessionRepository.start();
+
+        return sessionRepository;
+    }
+
+    private Document persisted(String id) {
+        Date now = new Date();
+
+        return new Document(PerAttributeMongoSessionConverter.ID, id)
+                .append(PerAttributeMongoSessionConverter.CREATION_TIME, now)
+                .append(PerAttributeMongoSessionConverter.LAST_ACCESSED_TIME, now)
+                .append(PerAttributeMongoSessionConverter.MAX_INTERVAL, Duration.ofMinutes(30).toString())
+                .append(PerAttributeMongoSessionConverter.EXPIRE_AT, new Date(now.getTime() + Duration.ofMinutes(30).toMillis()))
+                .append(PerAttributeMongoSessionConverter.ATTRIBUTES, new Document("id", this.mongoSessionConverter.serializeAttribute("sinnake")));
+    }
+}